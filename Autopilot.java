@@ -0,0 +1,74 @@
+package breakout;
+
+/**
+ * Each instance of this class is a paddle controller that steers the paddle to where the next ball will reach it.
+ *
+ * It picks the ball that reaches the top of the paddle first, predicts where that ball will be at that moment with a
+ * LandingPredictor, and moves the paddle towards that place. The prediction takes constant time per ball and ignores
+ * the blocks, so the controller needs no lookahead simulation.
+ *
+ * @invar | getDeadZone() >= 0
+ */
+public class Autopilot {
+
+	private final int deadZone;
+
+	/**
+	 * Returns a controller that keeps the paddle still when its center is within the given distance of the predicted
+	 * landing place, so that the paddle does not jitter around it.
+	 * @throws IllegalArgumentException if the dead zone is negative.
+	 * 	| deadZone < 0
+	 * @post | getDeadZone() == deadZone
+	 */
+	public Autopilot(int deadZone) {
+		if (deadZone < 0) {
+			throw new IllegalArgumentException("You have supplied an invalid dead zone!");
+		}
+		this.deadZone = deadZone;
+	}
+
+	/**
+	 * Returns the distance from the predicted landing place within which the paddle is kept still.
+	 */
+	public int getDeadZone() {
+		return deadZone;
+	}
+
+	/**
+	 * Returns the direction in which the paddle of the given game should move: 1 for right, -1 for left and 0 to
+	 * stay. The paddle stays when there are no balls.
+	 * @inspects | state
+	 * @throws IllegalArgumentException if no game state is supplied.
+	 * 	| state == null
+	 * @post | result == -1 || result == 0 || result == 1
+	 */
+	public int paddleDir(BreakoutState state) {
+		if (state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid game state!");
+		}
+		PaddleState paddle = state.getPaddle();
+		int paddleTopY = paddle.center.getY() - paddle.size.getY();
+		Ball next = null;
+		double nextTime = Double.POSITIVE_INFINITY;
+		for (Ball ball : state.getBalls()) {
+			// Balls that already passed the top of the paddle can no longer be caught
+			if (ball.center.getY() + ball.diameter / 2 > paddleTopY) {
+				continue;
+			}
+			double time = LandingPredictor.timeToRow(ball, paddleTopY - ball.diameter / 2);
+			if (time >= 0 && time < nextTime) {
+				next = ball;
+				nextTime = time;
+			}
+		}
+		if (next == null) {
+			return 0;
+		}
+		int target = LandingPredictor.xAfter(next, state.getBottomRight().getX(), nextTime);
+		int offset = target - paddle.center.getX();
+		if (Math.abs(offset) <= deadZone) {
+			return 0;
+		}
+		return Integer.signum(offset);
+	}
+}
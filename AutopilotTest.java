@@ -0,0 +1,66 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AutopilotTest {
+
+	Autopilot autopilot;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		autopilot = new Autopilot(100);
+	}
+
+	static void play(BreakoutState state, int paddleDir, int elapsedTime) {
+		if (paddleDir == 1) {
+			state.movePaddleRight(elapsedTime);
+		}
+		else if (paddleDir == -1) {
+			state.movePaddleLeft(elapsedTime);
+		}
+		state.tick(paddleDir, elapsedTime);
+	}
+
+	@Test
+	void testSteersToLandingPlace() {
+		Ball[] balls = {new NormalBall(new Point(45000, 20000), 700, new Vector(3, 5)),
+				new NormalBall(new Point(1000, 10000), 700, new Vector(0, 5))};
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(4000, 2000))};
+		PaddleState paddle = new NormalPaddleState(new Point(40000, 28000), new Vector(2500, 250));
+		BreakoutState state = new BreakoutState(balls, blocks, new Point(50000, 30000), paddle);
+		// The first ball reaches the paddle first, after 1480 ms, at 45000 + 3 * 1480 = 49440, far right of the paddle
+		assertEquals(1, autopilot.paddleDir(state));
+		assertEquals(0, new Autopilot(10000).paddleDir(state));
+		assertThrows(IllegalArgumentException.class, () -> autopilot.paddleDir(null));
+		assertThrows(IllegalArgumentException.class, () -> new Autopilot(-1));
+	}
+
+	@Test
+	void testOutlastsFollowingPaddle() {
+		Random random = new Random(34);
+		long autopilotContacts = 0;
+		long followingContacts = 0;
+		for (int game = 0; game < 100; game++) {
+			String level = TestFixtures.randomLevel(random);
+			BreakoutState piloted = GameMap.createStateFromDescription(level);
+			BreakoutState following = GameMap.createStateFromDescription(level);
+			for (int step = 0; step < 5000; step++) {
+				int elapsedTime = 1 + random.nextInt(BreakoutState.MAX_ELAPSED_TIME);
+				if (!piloted.isDead() && !piloted.isWon()) {
+					play(piloted, autopilot.paddleDir(piloted), elapsedTime);
+				}
+				if (!following.isDead() && !following.isWon()) {
+					play(following, TestFixtures.followingPaddleDir(following, random), elapsedTime);
+				}
+			}
+			autopilotContacts += piloted.getPaddleContactCount();
+			followingContacts += following.getPaddleContactCount();
+		}
+		assertTrue(autopilotContacts > followingContacts);
+	}
+}
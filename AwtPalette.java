@@ -0,0 +1,32 @@
+package breakout;
+
+import java.awt.Color;
+
+/**
+ * This class maps the colour indices of the Palette to java.awt.Color objects, for user interfaces built on AWT or
+ * Swing. It is the only part of the game that refers to AWT, so that a headless simulation never loads it.
+ */
+public final class AwtPalette {
+
+	private static final Color[] COLORS = {
+		Color.red, Color.pink, Color.blue, Color.gray, Color.lightGray,
+		Color.white, Color.orange, Color.cyan, Color.green, Color.yellow
+	};
+
+	private AwtPalette() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Returns the Color object of the colour with the given index in the Palette.
+	 * @throws IllegalArgumentException if the index is not in the palette.
+	 * 	| index < 0 || index >= Palette.SIZE
+	 * @post | result.getRGB() == Palette.rgbOf(index)
+	 */
+	public static Color colorOf(int index) {
+		if (index < 0 || index >= Palette.SIZE) {
+			throw new IllegalArgumentException("You have supplied an invalid palette index!");
+		}
+		return COLORS[index];
+	}
+}
@@ -1,7 +1,6 @@
 package breakout;
 
 import java.util.stream.IntStream;
-import java.awt.Color;
 
 /**
  * Each instance of this class represents a ball in the breakout game.
@@ -13,7 +12,7 @@ import java.awt.Color;
  * @invar | getCenter() != null
  * @invar | getVelocity() != null
  */
-public abstract class Ball {
+public abstract sealed class Ball permits NormalBall, SuperBall {
 	/**
 	 * @invar | center != null
 	 * @invar | diameter > 0
@@ -24,6 +23,28 @@ public abstract class Ball {
 	protected int diameter;
 	protected Vector velocity;
 	
+	// The type tags of the ball types, for dispatch on the type without virtual calls
+	static final byte NORMAL = 0;
+	static final byte SUPER = 1;
+	
+	// The type tag of this ball
+	final byte type;
+	
+	// The number of identical balls this object stands for in a game state that merges balls
+	int multiplicity = 1;
+	
+	// The game time until which this ball cannot touch a block or the paddle, as long as the paddle stays out of the
+	// box the ball can reach until then, which BreakoutState.tick computes and which a change of the ball discards
+	long safeUntil = Long.MIN_VALUE;
+	int reachLeft;
+	int reachTop;
+	int reachRight;
+	int reachBottom;
+	
+	Ball(byte type) {
+		this.type = type;
+	}
+	
 	// The additional speeds of ball replicates produced by a replicator paddle
 	public static final Vector[] replicateBallsSpeedDiff = {new Vector(2,-2), new Vector(-2,2), new Vector(2,2)};
 	// The maximum lifetime of a supercharged ball in ms
@@ -34,6 +55,39 @@ public abstract class Ball {
 	 */
 	public abstract Point getCenter();
 	
+	/**
+	 * Returns the number of identical balls this Ball object stands for. This is 1, unless the ball is part of a
+	 * game state that merges identical balls.
+	 * @post | result >= 1
+	 */
+	public int getMultiplicity() {
+		return multiplicity;
+	}
+	
+	/**
+	 * Returns a new Ball object equal to this one standing for the given number of the balls this one stands for,
+	 * which this one no longer stands for. A supercharged copy has the same remaining lifetime, but no expiry timer.
+	 * @creates | result
+	 * @mutates | this
+	 * @pre | count > 0 && count < getMultiplicity()
+	 * @post | result.getMultiplicity() == count
+	 * @post | getMultiplicity() == old(getMultiplicity()) - count
+	 */
+	Ball split(int count) {
+		Ball copy = copy();
+		copy.multiplicity = count;
+		multiplicity -= count;
+		return copy;
+	}
+	
+	/**
+	 * Returns a new Ball object equal to this one, standing for as many balls as this one does. A supercharged copy
+	 * has the same remaining lifetime, but no expiry timer.
+	 * @creates | result
+	 * @post | result.getMultiplicity() == getMultiplicity()
+	 */
+	abstract Ball copy();
+	
 	/**
 	 * Returns the diameter of the Ball object.
 	 */
@@ -103,10 +157,10 @@ public abstract class Ball {
 	public abstract Rect rectangleOf();
 	
 	/**
-	 * Returns the default Color object used to display a ball in the breakout game
+	 * Returns the Palette index of the default colour used to display a ball in the breakout game
 	 * -> Different colour depending on the ball type.
 	 */
-	public abstract Color getColor();
+	public abstract int getPaletteIndex();
 	
 	/**
 	 * Returns an array with a predefined number (1 up to 3) of replicate balls, differing only
@@ -139,7 +193,7 @@ public abstract class Ball {
 /**
  * Each instance of this class represents a normal ball in the breakout game.
  */
-class NormalBall extends Ball {
+final class NormalBall extends Ball {
 	/**
 	 * Returns an object representing a normal ball in the breakout game, defined by a center Point object,
 	 * a positive diameter and a non-zero velocity Vector object.
@@ -152,6 +206,7 @@ class NormalBall extends Ball {
 	 * @post | getVelocity().equals(velocity)
 	 */
 	public NormalBall(Point center, int diameter, Vector velocity) {
+		super(NORMAL);
 		this.center=new Point(center.getX(), center.getY());
 		this.diameter=diameter;
 		this.velocity=new Vector(velocity.getX(), velocity.getY());
@@ -161,6 +216,12 @@ class NormalBall extends Ball {
 		return new Point(center.getX(), center.getY());
 	}
 	
+	NormalBall copy() {
+		NormalBall copy = new NormalBall(center, diameter, velocity);
+		copy.multiplicity = multiplicity;
+		return copy;
+	}
+	
 	public int getDiameter() {
 		return diameter;
 	}
@@ -171,10 +232,12 @@ class NormalBall extends Ball {
 	
 	public void changeCenter(Point center) {
 		this.center=new Point(center.getX(), center.getY());
+		safeUntil = Long.MIN_VALUE;
 	}
 	
 	public void changeVelocity(Vector velocity) {
 		this.velocity=new Vector(velocity.getX(), velocity.getY());
+		safeUntil = Long.MIN_VALUE;
 	}
 	
 	public void roll(int elapsedTime) {
@@ -190,10 +253,10 @@ class NormalBall extends Ball {
 	}
 	
 	/**
-	 * Returns the default Color object used to display a normal ball in the breakout game, i.e. red.
+	 * Returns the Palette index of the default colour used to display a normal ball in the breakout game, i.e. red.
 	 */
-	public Color getColor() {
-		return Color.red;
+	public int getPaletteIndex() {
+		return Palette.RED;
 	}
 	
 	/**
@@ -256,12 +319,19 @@ class NormalBall extends Ball {
  * @invar A supercharged ball's lifetime is between 0 and the preset lifetime of 10000 ms.
  * 	| getLifetime() > 0 && getLifetime() <= MAX_LIFETIME
  */
-class SuperBall extends Ball {
+final class SuperBall extends Ball {
 	/**
 	 * @invar | lifetime > 0 && lifetime <= MAX_LIFETIME
 	 */
 	private long lifetime;
 	
+	/**
+	 * The expiry timer of this ball while it is part of a game state, or null. While the timer is set,
+	 * the remaining lifetime is the time until its deadline and the lifetime field is not used.
+	 */
+	private WheelTimer expiry;
+	private boolean expired;
+	
 	/**
 	 * Returns an object representing a supercharged ball in the breakout game, defined by a center Point object,
 	 * a positive diameter, a non-zero velocity Vector object and a positive lifetime smaller than or equal to the preset.
@@ -276,6 +346,7 @@ class SuperBall extends Ball {
 	 * @post | getLifetime() == lifetime
 	 */
 	public SuperBall(Point center, int diameter, Vector velocity, long lifetime) {
+		super(SUPER);
 		this.center=new Point(center.getX(), center.getY());
 		this.diameter=diameter;
 		this.velocity=new Vector(velocity.getX(), velocity.getY());
@@ -285,6 +356,12 @@ class SuperBall extends Ball {
 	public Point getCenter() {
 		return new Point(center.getX(), center.getY());
 	}
+	
+	SuperBall copy() {
+		SuperBall copy = new SuperBall(center, diameter, velocity, getLifetime());
+		copy.multiplicity = multiplicity;
+		return copy;
+	}
 
 	public int getDiameter() {
 		return diameter;
@@ -298,15 +375,20 @@ class SuperBall extends Ball {
 	 * Returns the remaining lifetime in milliseconds of this SuperBall object.
 	 */
 	public long getLifetime() {
+		if (expiry != null) {
+			return expiry.getDeadline() - expiry.getWheel().getTime();
+		}
 		return lifetime;
 	}
 	
 	public void changeCenter(Point center) {
 		this.center= new Point(center.getX(), center.getY());
+		safeUntil = Long.MIN_VALUE;
 	}
 	
 	public void changeVelocity(Vector velocity) {
 		this.velocity= new Vector(velocity.getX(), velocity.getY());
+		safeUntil = Long.MIN_VALUE;
 	}
 	
 	/**
@@ -316,6 +398,11 @@ class SuperBall extends Ball {
 	 * @post | getLifetime() == lifetime
 	 */
 	public void changeLifetime(long lifetime) {
+		if (expiry != null) {
+			expired = false;
+			expiry.reschedule(expiry.getWheel().getTime() + lifetime);
+			return;
+		}
 		this.lifetime = lifetime;
 	}
 	
@@ -325,7 +412,55 @@ class SuperBall extends Ball {
 	 * @post | getLifetime() == MAX_LIFETIME
 	 */
 	public void resetLifetime() {
-		this.lifetime = MAX_LIFETIME;
+		changeLifetime(MAX_LIFETIME);
+	}
+	
+	/**
+	 * Lets the given timing wheel end the lifetime of this SuperBall object: the ball expires when the game time
+	 * of the wheel reaches the given deadline.
+	 * @mutates | this, wheel
+	 * @pre | wheel != null
+	 */
+	void scheduleExpiry(TimingWheel wheel, long deadline) {
+		expired = false;
+		expiry = wheel.schedule(deadline, () -> expired = true);
+	}
+	
+	/**
+	 * Returns whether this SuperBall object is scheduled on a timing wheel.
+	 */
+	boolean isExpiryScheduled() {
+		return expiry != null;
+	}
+	
+	/**
+	 * Returns whether the lifetime of this SuperBall object was ended by its timing wheel.
+	 */
+	boolean isExpired() {
+		return expired;
+	}
+	
+	/**
+	 * Moves the end of the lifetime of this SuperBall object on its timing wheel by the given amount of time.
+	 * @mutates | this
+	 * @pre | isExpiryScheduled()
+	 */
+	void postponeExpiry(long delay) {
+		expired = false;
+		expiry.reschedule(expiry.getDeadline() + delay);
+	}
+	
+	/**
+	 * Takes this SuperBall object off its timing wheel, if any, keeping its remaining lifetime.
+	 * @mutates | this
+	 */
+	void cancelExpiry() {
+		if (expiry != null) {
+			lifetime = getLifetime();
+			expiry.cancel();
+			expiry = null;
+			expired = false;
+		}
 	}
 	
 	public void roll(int elapsedTime) {
@@ -341,10 +476,10 @@ class SuperBall extends Ball {
 	}
 	
 	/**
-	 * Returns the default Color object used to display a supercharged ball in the breakout game, i.e. pink.
+	 * Returns the Palette index of the default colour used to display a supercharged ball in the breakout game, i.e. pink.
 	 */
-	public Color getColor() {
-		return Color.pink;
+	public int getPaletteIndex() {
+		return Palette.PINK;
 	}
 	
 	/**
@@ -366,11 +501,11 @@ class SuperBall extends Ball {
 	 * @post | result instanceof NormalBall || ((SuperBall) result).getLifetime() == old(getLifetime())-elapsedTime
 	 */
 	public Ball age(int elapsedTime) {
-		long newlifetime = lifetime - elapsedTime;
+		long newlifetime = getLifetime() - elapsedTime;
 		if (newlifetime <= 0) {
 			return this.convertToNormal();
 		}
-		lifetime = newlifetime;
+		changeLifetime(newlifetime);
 		return this;
 	}
 	
@@ -389,7 +524,7 @@ class SuperBall extends Ball {
 	public SuperBall[] replicate(int reps) {
 		SuperBall[] replicated = new SuperBall[reps];
 		for (int i=0; i<reps; i++) {
-			replicated[i] = new SuperBall(center, diameter, velocity.plus(replicateBallsSpeedDiff[i]),lifetime);
+			replicated[i] = new SuperBall(center, diameter, velocity.plus(replicateBallsSpeedDiff[i]),getLifetime());
 		}
 		return replicated;
 	}
@@ -0,0 +1,80 @@
+package breakout;
+
+import java.util.Random;
+
+/**
+ * Measures the cost that ball-ball collisions add to BreakoutState.tick, by running the same games of many randomly
+ * placed balls with and without colliding balls. The game field is ten times as wide and high as a normal one, so that
+ * about one in thirty balls overlaps another one. For comparison, it also times a brute-force test of all pairs of
+ * balls, as needed without the spatial hash.
+ *
+ * Usage: BallCollisionBenchmark [balls] [ticks] [rounds]
+ */
+public class BallCollisionBenchmark {
+
+	private static final int WIDTH = 500_000;
+	private static final int HEIGHT = 300_000;
+
+	private BallCollisionBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static BreakoutState randomGame(int ballCount, boolean colliding) {
+		Random random = new Random(42);
+		Ball[] balls = new Ball[ballCount];
+		for (int i = 0; i < ballCount; i++) {
+			Point center = new Point(1000 + random.nextInt(WIDTH - 2000), 5000 + random.nextInt(HEIGHT - 10000));
+			Vector velocity = new Vector(random.nextInt(11) - 5, random.nextBoolean() ? 3 + random.nextInt(5) : -3 - random.nextInt(5));
+			balls[i] = new NormalBall(center, 700, velocity);
+		}
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(1000, 500))};
+		PaddleState paddle = new NormalPaddleState(new Point(WIDTH / 2, HEIGHT - 2000), PaddleState.DEFAULT_SIZE);
+		BreakoutState state = new BreakoutState(balls, blocks, new Point(WIDTH, HEIGHT), paddle);
+		state.setCollidingBalls(colliding);
+		return state;
+	}
+
+	private static long run(BreakoutState state, int ticks) {
+		long start = System.nanoTime();
+		for (int t = 0; t < ticks; t++) {
+			state.tick(0, 5);
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static int bruteForcePairs(Ball[] balls) {
+		int touching = 0;
+		for (int i = 0; i < balls.length; i++) {
+			for (int j = i + 1; j < balls.length; j++) {
+				long dx = balls[j].center.getX() - balls[i].center.getX();
+				long dy = balls[j].center.getY() - balls[i].center.getY();
+				long reach = (balls[i].diameter + balls[j].diameter) / 2;
+				if (dx * dx + dy * dy < reach * reach) {
+					touching++;
+				}
+			}
+		}
+		return touching;
+	}
+
+	public static void main(String[] args) {
+		int ballCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+		for (int round = 0; round < rounds; round++) {
+			BreakoutState passing = randomGame(ballCount, false);
+			long passingNanos = run(passing, ticks);
+			BreakoutState colliding = randomGame(ballCount, true);
+			long collidingNanos = run(colliding, ticks);
+			Ball[] balls = colliding.getBalls();
+			long start = System.nanoTime();
+			int touching = bruteForcePairs(balls);
+			long bruteForceNanos = System.nanoTime() - start;
+			System.out.printf("round %d: %d balls, tick %7.1f us passing, %7.1f us colliding (+%.1f us, %.0f collisions"
+					+ "/tick); brute-force pair test %.1f us for %d touching pairs%n", round, balls.length,
+					passingNanos / 1000.0 / ticks, collidingNanos / 1000.0 / ticks, (collidingNanos - passingNanos) / 1000.0 / ticks,
+					(double) colliding.getBallCollisionCount() / ticks, bruteForceNanos / 1000.0, touching);
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * Each instance of this class finds and performs the elastic collisions between the balls of a game state, through a
+ * spatial hash that is rebuilt for every tick.
+ *
+ * The cells of the hash are squares as wide as the largest ball, so that two balls can only touch if their centers lie
+ * in the same or in adjacent cells. The balls are sorted into buckets by the hash of their cell with a counting sort,
+ * and each ball is tested only against the balls of its own cell and of four of its neighbours, so that each pair of
+ * adjacent cells is visited once. Nearby cells have nearby buckets, so that balls kept in Morton order, as
+ * BreakoutState.setBallReorderingPeriod does, fill and query the hash with few cache misses. Building and querying the hash thus take time linear in the number of balls, as
+ * long as the balls are spread out.
+ *
+ * The arrays of the hash are kept between ticks and only grow, so a tick does not allocate once they are large enough.
+ */
+final class BallGrid {
+
+	// The offsets of the cells whose balls are tested against those of a cell: the cell itself and half of its neighbours
+	private static final int[] OFFSETS_X = {0, 1, 1, 1, 0};
+	private static final int[] OFFSETS_Y = {0, -1, 0, 1, 1};
+
+	/**
+	 * @invar | cellX != null && cellY != null && bucketOf != null && order != null && start != null
+	 * @invar | sortedX != null && sortedY != null
+	 * @invar | cellX.length == cellY.length && cellX.length == bucketOf.length && cellX.length == order.length
+	 * @invar | sortedX.length == order.length && sortedY.length == order.length
+	 */
+	/** @representationObject */
+	private int[] cellX = new int[0];
+	/** @representationObject */
+	private int[] cellY = new int[0];
+	/** @representationObject */
+	private int[] bucketOf = new int[0];
+	/** @representationObject */
+	private int[] order = new int[0];
+	/** @representationObject */
+	private int[] sortedX = new int[0];
+	/** @representationObject */
+	private int[] sortedY = new int[0];
+	/** @representationObject */
+	private int[] start = new int[1];
+	private long collisions;
+
+	/**
+	 * Returns the number of ball collisions performed so far.
+	 */
+	long getCollisionCount() {
+		return collisions;
+	}
+
+	/**
+	 * Performs the elastic collisions between the given balls that overlap while moving towards each other, each pair
+	 * in turn, and returns the change of the sum of the StateHash keys of the balls. The balls are treated as discs
+	 * with a mass proportional to their area and multiplicity; their velocities are rounded to whole numbers, and left
+	 * unchanged if the change rounds to zero or either would become zero.
+	 * @mutates | balls
+	 * @pre | balls != null
+	 */
+	long collide(Ball[] balls) {
+		int n = balls.length;
+		if (n < 2) {
+			return 0;
+		}
+		if (cellX.length < n) {
+			cellX = new int[n];
+			cellY = new int[n];
+			bucketOf = new int[n];
+			order = new int[n];
+			sortedX = new int[n];
+			sortedY = new int[n];
+		}
+		// Most neighbouring cells are empty, so a large table keeps them from sharing buckets with occupied cells
+		int buckets = Integer.highestOneBit(4 * n - 1) << 1;
+		if (start.length < buckets + 1) {
+			start = new int[buckets + 1];
+		}
+		else {
+			Arrays.fill(start, 0, buckets + 1, 0);
+		}
+		int mask = buckets - 1;
+		int[] cellX = this.cellX;
+		int[] cellY = this.cellY;
+		int[] bucketOf = this.bucketOf;
+		int[] order = this.order;
+		int[] sortedX = this.sortedX;
+		int[] sortedY = this.sortedY;
+		int[] start = this.start;
+
+		// Sort the balls into the buckets of their cells
+		int cellSize = 1;
+		for (Ball ball : balls) {
+			cellSize = Math.max(cellSize, ball.diameter);
+		}
+		for (int i = 0; i < n; i++) {
+			cellX[i] = Math.floorDiv(balls[i].center.getX(), cellSize);
+			cellY[i] = Math.floorDiv(balls[i].center.getY(), cellSize);
+			bucketOf[i] = bucket(cellX[i], cellY[i], mask);
+			start[bucketOf[i] + 1]++;
+		}
+		for (int b = 0; b < buckets; b++) {
+			start[b + 1] += start[b];
+		}
+		for (int i = 0; i < n; i++) {
+			int e = start[bucketOf[i]]++;
+			order[e] = i;
+			sortedX[e] = cellX[i];
+			sortedY[e] = cellY[i];
+		}
+		for (int b = buckets; b > 0; b--) {
+			start[b] = start[b - 1];
+		}
+		start[0] = 0;
+
+		// Each pair of balls in different cells is tested from the cell that comes first in the order of the offsets
+		long hashChange = 0;
+		for (int i = 0; i < n; i++) {
+			for (int k = 0; k < OFFSETS_X.length; k++) {
+				int x = cellX[i] + OFFSETS_X[k];
+				int y = cellY[i] + OFFSETS_Y[k];
+				int b = bucket(x, y, mask);
+				for (int e = start[b]; e < start[b + 1]; e++) {
+					// Other cells sharing the bucket are skipped, and in its own cell a ball is tested against the later ones
+					if (sortedX[e] == x && sortedY[e] == y && (k > 0 || order[e] > i)) {
+						hashChange += bounce(balls[i], balls[order[e]]);
+					}
+				}
+			}
+		}
+		return hashChange;
+	}
+
+	/**
+	 * Returns the bucket of the given cell: the cells of each 256 by 256 tile take consecutive buckets in the order of
+	 * their Morton codes, and the tiles are spread over the table by a multiplicative hash. Balls sorted by their Morton
+	 * codes thus visit the buckets nearly in order.
+	 */
+	private static int bucket(int x, int y, int mask) {
+		int tile = (x >> 8) * 0x9e3779b1 + (y >> 8) * 0x85ebca77 >>> 7;
+		return (tile << 16 | (int) MortonOrder.code(x & 255, y & 255)) & mask;
+	}
+
+	/**
+	 * Performs the collision of the given balls if they overlap while moving towards each other, and returns the
+	 * change of the sum of their StateHash keys.
+	 */
+	private long bounce(Ball a, Ball b) {
+		long dx = (long) b.center.getX() - a.center.getX();
+		long dy = (long) b.center.getY() - a.center.getY();
+		long distanceSquared = dx * dx + dy * dy;
+		long reach = ((long) a.diameter + b.diameter) / 2;
+		if (distanceSquared == 0 || distanceSquared >= reach * reach) {
+			return 0;
+		}
+		// The component of the relative velocity along the line through the centers, positive when approaching
+		long approach = (long) (a.velocity.getX() - b.velocity.getX()) * dx + (long) (a.velocity.getY() - b.velocity.getY()) * dy;
+		if (approach <= 0) {
+			return 0;
+		}
+		double massA = (double) a.diameter * a.diameter * a.multiplicity;
+		double massB = (double) b.diameter * b.diameter * b.multiplicity;
+		double scale = 2.0 * approach / distanceSquared / (massA + massB);
+		int impulseAX = (int) Math.round(scale * massB * dx);
+		int impulseAY = (int) Math.round(scale * massB * dy);
+		int impulseBX = (int) Math.round(scale * massA * dx);
+		int impulseBY = (int) Math.round(scale * massA * dy);
+		if (impulseAX == 0 && impulseAY == 0 && impulseBX == 0 && impulseBY == 0) {
+			return 0;
+		}
+		Vector velocityA = new Vector(a.velocity.getX() - impulseAX, a.velocity.getY() - impulseAY);
+		Vector velocityB = new Vector(b.velocity.getX() + impulseBX, b.velocity.getY() + impulseBY);
+		if (velocityA.getSquareLength() == 0 || velocityB.getSquareLength() == 0) {
+			return 0;
+		}
+		long hashChange = -StateHash.of(a) - StateHash.of(b);
+		a.velocity = velocityA;
+		b.velocity = velocityB;
+		a.safeUntil = Long.MIN_VALUE;
+		b.safeUntil = Long.MIN_VALUE;
+		collisions++;
+		return hashChange + StateHash.of(a) + StateHash.of(b);
+	}
+}
@@ -0,0 +1,55 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BallGridTest {
+
+	@Test
+	void testCollidesEachOverlappingPairOnce() {
+		// 200 pairs of overlapping balls moving towards each other, far apart from the other pairs
+		Random random = new Random(42);
+		Ball[] balls = new Ball[400];
+		long momentumX = 0;
+		long momentumY = 0;
+		for (int p = 0; p < 200; p++) {
+			Point center = new Point((p % 20) * 5000 + 1000, (p / 20) * 5000 + 1000);
+			int dx = 100 + random.nextInt(500);
+			int dy = random.nextInt(201) - 100;
+			int vy = random.nextInt(11) - 5;
+			balls[2 * p] = new NormalBall(center, 700, new Vector(3 + random.nextInt(5), vy));
+			balls[2 * p + 1] = new SuperBall(center.plus(new Vector(dx, dy)), 700, new Vector(-3 - random.nextInt(5), vy), 1000);
+		}
+		// the pairs in random order
+		for (int i = balls.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			Ball ball = balls[i];
+			balls[i] = balls[j];
+			balls[j] = ball;
+		}
+		long keys = 0;
+		for (Ball ball : balls) {
+			momentumX += ball.getVelocity().getX();
+			momentumY += ball.getVelocity().getY();
+			keys += StateHash.of(ball);
+		}
+		BallGrid grid = new BallGrid();
+		long hashChange = grid.collide(balls);
+		assertEquals(200, grid.getCollisionCount());
+		for (Ball ball : balls) {
+			momentumX -= ball.getVelocity().getX();
+			momentumY -= ball.getVelocity().getY();
+			keys -= StateHash.of(ball);
+		}
+		// balls of equal mass exchange momentum exactly
+		assertEquals(0, momentumX);
+		assertEquals(0, momentumY);
+		assertEquals(-keys, hashChange);
+		// after the collisions the balls of each pair move apart
+		assertEquals(0, grid.collide(balls));
+		assertEquals(200, grid.getCollisionCount());
+	}
+}
@@ -0,0 +1,110 @@
+package breakout;
+
+/**
+ * Each instance of this class runs the per-ball arithmetic of a game tick (rolling, bouncing on the walls
+ * of the game field and computing bounding boxes) over primitive coordinate arrays, so that it can be
+ * performed for many balls at once.
+ *
+ * Ball i is described by the i-th element of each of the supplied arrays. The results are identical to
+ * those of Ball.roll, Ball.bounce and Ball.rectangleOf, and to the wall handling in BreakoutState.tick.
+ */
+public abstract class BallKernel {
+
+	// The module providing the vectorized implementation
+	private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+	/**
+	 * Returns a kernel that uses the Vector API when the jdk.incubator.vector module is present in the boot layer,
+	 * and the scalar kernel otherwise.
+	 * @creates | result
+	 * @post | result != null
+	 */
+	public static BallKernel create() {
+		if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+			try {
+				return (BallKernel) Class.forName("breakout.VectorBallKernel").getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				// Fall back to the scalar kernel
+			}
+		}
+		return new ScalarBallKernel();
+	}
+
+	/**
+	 * Returns whether this kernel uses the Vector API.
+	 */
+	public abstract boolean isVectorized();
+
+	/**
+	 * Moves the first n balls into the direction of their velocity for the given amount of time.
+	 * @mutates | x, y
+	 * @pre | x != null && y != null && vx != null && vy != null
+	 * @pre | n >= 0 && n <= x.length && n <= y.length && n <= vx.length && n <= vy.length
+	 * @post | java.util.stream.IntStream.range(0, n).allMatch(i -> x[i] == old(x.clone())[i] + vx[i]*elapsedTime)
+	 * @post | java.util.stream.IntStream.range(0, n).allMatch(i -> y[i] == old(y.clone())[i] + vy[i]*elapsedTime)
+	 */
+	public abstract void roll(int[] x, int[] y, int[] vx, int[] vy, int n, int elapsedTime);
+
+	/**
+	 * Bounces the first n balls on the left, right and top walls of the game field with the given lower right
+	 * corner, and flags the balls that reached the bottom of the game field in `lost`.
+	 * @mutates | vx, vy, lost
+	 * @pre | x != null && y != null && vx != null && vy != null && diameter != null && lost != null
+	 * @pre | n >= 0 && n <= x.length && n <= y.length && n <= vx.length && n <= vy.length && n <= diameter.length && n <= lost.length
+	 */
+	public abstract void bounceWalls(int[] x, int[] y, int[] vx, int[] vy, int[] diameter, int n,
+			int fieldWidth, int fieldHeight, boolean[] lost);
+
+	/**
+	 * Stores the bounding box of each of the first n balls in the given arrays.
+	 * @mutates | left, top, right, bottom
+	 * @pre | x != null && y != null && diameter != null && left != null && top != null && right != null && bottom != null
+	 * @post | java.util.stream.IntStream.range(0, n).allMatch(i -> left[i] == x[i] - diameter[i]/2 && right[i] == x[i] + diameter[i]/2)
+	 * @post | java.util.stream.IntStream.range(0, n).allMatch(i -> top[i] == y[i] - diameter[i]/2 && bottom[i] == y[i] + diameter[i]/2)
+	 */
+	public abstract void bounds(int[] x, int[] y, int[] diameter, int n,
+			int[] left, int[] top, int[] right, int[] bottom);
+}
+
+/**
+ * Each instance of this class represents a ball kernel that processes one ball at a time.
+ */
+final class ScalarBallKernel extends BallKernel {
+
+	public boolean isVectorized() {
+		return false;
+	}
+
+	public void roll(int[] x, int[] y, int[] vx, int[] vy, int n, int elapsedTime) {
+		for (int i=0; i<n; i++) {
+			x[i] += vx[i]*elapsedTime;
+			y[i] += vy[i]*elapsedTime;
+		}
+	}
+
+	public void bounceWalls(int[] x, int[] y, int[] vx, int[] vy, int[] diameter, int n,
+			int fieldWidth, int fieldHeight, boolean[] lost) {
+		for (int i=0; i<n; i++) {
+			int radius = diameter[i]/2;
+			if (x[i] - radius <= 0 || x[i] + radius >= fieldWidth) {
+				vx[i] = -vx[i];
+			}
+			boolean atTop = y[i] - radius <= 0;
+			if (atTop) {
+				vy[i] = -vy[i];
+			}
+			lost[i] = !atTop && y[i] + radius >= fieldHeight;
+		}
+	}
+
+	public void bounds(int[] x, int[] y, int[] diameter, int n,
+			int[] left, int[] top, int[] right, int[] bottom) {
+		for (int i=0; i<n; i++) {
+			int radius = diameter[i]/2;
+			left[i] = x[i] - radius;
+			top[i] = y[i] - radius;
+			right[i] = x[i] + radius;
+			bottom[i] = y[i] + radius;
+		}
+	}
+}
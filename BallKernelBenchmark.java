@@ -0,0 +1,67 @@
+package breakout;
+
+import java.util.Random;
+
+/**
+ * Compares the throughput of the scalar ball kernel with the kernel returned by BallKernel.create
+ * for 1k, 10k and 100k balls.
+ *
+ * Run with `--add-modules jdk.incubator.vector` to measure the vectorized kernel.
+ */
+public class BallKernelBenchmark {
+
+	private static final int[] BALL_COUNTS = {1_000, 10_000, 100_000};
+	private static final int WIDTH = 50000;
+	private static final int HEIGHT = 30000;
+	private static final int WARMUP_ROUNDS = 2_000;
+	private static final int MEASURED_ROUNDS = 5_000;
+
+	private BallKernelBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static long run(BallKernel kernel, int n, int rounds) {
+		Random random = new Random(n);
+		int[] x = new int[n];
+		int[] y = new int[n];
+		int[] vx = new int[n];
+		int[] vy = new int[n];
+		int[] diameter = new int[n];
+		int[] left = new int[n];
+		int[] top = new int[n];
+		int[] right = new int[n];
+		int[] bottom = new int[n];
+		boolean[] lost = new boolean[n];
+		for (int i=0; i<n; i++) {
+			x[i] = 1000 + random.nextInt(WIDTH - 2000);
+			y[i] = 1000 + random.nextInt(HEIGHT - 2000);
+			vx[i] = random.nextInt(21) - 10;
+			vy[i] = random.nextInt(21) - 10;
+			diameter[i] = 700;
+		}
+		long start = System.nanoTime();
+		for (int round=0; round<rounds; round++) {
+			// Alternate the direction of time so that the balls stay inside the field
+			int elapsedTime = (round & 1) == 0 ? 1 : -1;
+			kernel.roll(x, y, vx, vy, n, elapsedTime);
+			kernel.bounceWalls(x, y, vx, vy, diameter, n, WIDTH, HEIGHT, lost);
+			kernel.bounds(x, y, diameter, n, left, top, right, bottom);
+		}
+		return System.nanoTime() - start;
+	}
+
+	public static void main(String[] args) {
+		BallKernel scalar = new ScalarBallKernel();
+		BallKernel created = BallKernel.create();
+		System.out.println("vectorized kernel available: " + created.isVectorized());
+		for (int n : BALL_COUNTS) {
+			int rounds = Math.max(10, MEASURED_ROUNDS * 1_000 / n);
+			run(scalar, n, WARMUP_ROUNDS * 1_000 / n + 10);
+			run(created, n, WARMUP_ROUNDS * 1_000 / n + 10);
+			double scalarNs = (double) run(scalar, n, rounds) / rounds / n;
+			double createdNs = (double) run(created, n, rounds) / rounds / n;
+			System.out.printf("%7d balls: scalar %.3f ns/ball, %s %.3f ns/ball, speedup %.2fx%n",
+					n, scalarNs, created.isVectorized() ? "vector" : "scalar", createdNs, scalarNs / createdNs);
+		}
+	}
+}
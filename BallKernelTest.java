@@ -0,0 +1,88 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BallKernelTest {
+	static final int N = 37;
+	static final int WIDTH = 1000;
+	static final int HEIGHT = 800;
+
+	Ball[] balls;
+	int[] x;
+	int[] y;
+	int[] vx;
+	int[] vy;
+	int[] diameter;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		Random random = new Random(26);
+		balls = new Ball[N];
+		x = new int[N];
+		y = new int[N];
+		vx = new int[N];
+		vy = new int[N];
+		diameter = new int[N];
+		for (int i=0; i<N; i++) {
+			x[i] = random.nextInt(WIDTH);
+			y[i] = random.nextInt(HEIGHT);
+			vx[i] = random.nextInt(21) - 10;
+			vy[i] = random.nextInt(10) + 1;
+			diameter[i] = random.nextInt(40) + 1;
+			balls[i] = new NormalBall(new Point(x[i], y[i]), diameter[i], new Vector(vx[i], vy[i]));
+		}
+	}
+
+	void checkKernel(BallKernel kernel) {
+		boolean[] lost = new boolean[N];
+		kernel.roll(x, y, vx, vy, N, 3);
+		kernel.bounceWalls(x, y, vx, vy, diameter, N, WIDTH, HEIGHT, lost);
+		int[] left = new int[N];
+		int[] top = new int[N];
+		int[] right = new int[N];
+		int[] bottom = new int[N];
+		kernel.bounds(x, y, diameter, N, left, top, right, bottom);
+
+		for (int i=0; i<N; i++) {
+			Ball ball = balls[i];
+			ball.roll(3);
+			Rect rect = ball.rectangleOf();
+			assertEquals(rect, new Rect(new Point(left[i], top[i]), new Point(right[i], bottom[i])));
+			if (rect.getTopLeft().getX() <= 0) {
+				ball.bounce(Vector.LEFT);
+			}
+			else if (rect.getBottomRight().getX() >= WIDTH) {
+				ball.bounce(Vector.RIGHT);
+			}
+			boolean expectLost = false;
+			if (rect.getTopLeft().getY() <= 0) {
+				ball.bounce(Vector.UP);
+			}
+			else if (rect.getBottomRight().getY() >= HEIGHT) {
+				expectLost = true;
+			}
+			assertEquals(ball.getCenter(), new Point(x[i], y[i]));
+			assertEquals(ball.getVelocity(), new Vector(vx[i], vy[i]));
+			assertEquals(expectLost, lost[i]);
+		}
+	}
+
+	@Test
+	void testScalarKernel() {
+		BallKernel kernel = new ScalarBallKernel();
+		assertFalse(kernel.isVectorized());
+		checkKernel(kernel);
+	}
+
+	@Test
+	void testCreatedKernel() {
+		BallKernel kernel = BallKernel.create();
+		assertEquals(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), kernel.isVectorized());
+		checkKernel(kernel);
+	}
+}
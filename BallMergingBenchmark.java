@@ -0,0 +1,75 @@
+package breakout;
+
+/**
+ * Compares the cost of ticks with and without merging identical balls, in games that start with many identical balls
+ * above a replicator paddle, steered by an Autopilot. Reports the mean time per tick, the peak number of balls and the
+ * peak number of Ball objects stepped per tick.
+ *
+ * Usage: BallMergingBenchmark [identical balls] [ticks] [rounds]
+ */
+public class BallMergingBenchmark {
+
+	private static final String LEVEL = """
+##########
+#SS!##R!S#
+#RR####RR#
+#S######S#
+##########
+
+      o
+
+      =""";
+
+	private BallMergingBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static BreakoutState pathological(int ballCount, boolean merging) {
+		BreakoutState level = GameMap.createStateFromDescription(LEVEL);
+		Ball[] balls = new Ball[ballCount];
+		for (int i = 0; i < ballCount; i++) {
+			balls[i] = new NormalBall(level.getBalls()[0].getCenter(), 700, new Vector(3, 7));
+		}
+		PaddleState paddle = new ReplicatorPaddleState(level.getPaddle().getCenter(), level.getPaddle().getSize(), 3);
+		BreakoutState state = new BreakoutState(balls, level.getBlocks(), level.getBottomRight(), paddle);
+		state.setMergingBalls(merging);
+		return state;
+	}
+
+	private static void run(int ballCount, int ticks, boolean merging) {
+		BreakoutState state = pathological(ballCount, merging);
+		Autopilot autopilot = new Autopilot(100);
+		int peakBalls = 0;
+		int peakObjects = 0;
+		int steps = 0;
+		long nanos = 0;
+		for (; steps < ticks && !state.isDead() && !state.isWon(); steps++) {
+			int paddleDir = autopilot.paddleDir(state);
+			if (paddleDir == 1) {
+				state.movePaddleRight(10);
+			}
+			else if (paddleDir == -1) {
+				state.movePaddleLeft(10);
+			}
+			long start = System.nanoTime();
+			state.tick(paddleDir, 10);
+			nanos += System.nanoTime() - start;
+			peakBalls = Math.max(peakBalls, state.getBallCount());
+			peakObjects = Math.max(peakObjects, state.getBalls().length);
+		}
+		System.out.printf("%-9s %9.1f us/tick over %d ticks, peak %d balls in %d Ball objects%n",
+				merging ? "merged:" : "separate:", nanos / 1000.0 / Math.max(1, steps), steps, peakBalls, peakObjects);
+	}
+
+	public static void main(String[] args) {
+		int ballCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+		int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+		for (int round = 0; round < rounds; round++) {
+			System.out.printf("round %d%n", round);
+			run(ballCount, ticks, false);
+			run(ballCount, ticks, true);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package breakout;
+
+import java.util.Random;
+
+/**
+ * Measures the effect of reordering the balls by the Morton code of their centers on the tick rate of BreakoutState,
+ * by running the same game of many randomly placed, colliding balls with and without reordering. The balls start in
+ * random order, so that without reordering consecutive balls lie far apart in the game field, and filling and querying
+ * the spatial hash of the ball-ball collisions jumps across its tables. The size of the game field grows with the
+ * number of balls, so that about one percent of the cells of the spatial hash holds a ball.
+ *
+ * The benchmark reports tick times only. To also count the cache misses, run it once per mode under a hardware
+ * profiler, e.g. perf stat -e cache-misses java breakout.BallReorderingBenchmark 200000 200 1 0.
+ *
+ * Usage: BallReorderingBenchmark [balls] [ticks] [rounds] [period]
+ */
+public class BallReorderingBenchmark {
+
+	// The game field holds 50000 balls per 2000000 by 1200000 units, about one percent of the cells of the spatial hash
+	private static final double AREA_PER_BALL = 2_000_000.0 * 1_200_000.0 / 50_000;
+
+	private BallReorderingBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static BreakoutState randomGame(int ballCount, int period) {
+		int height = (int) Math.sqrt(AREA_PER_BALL * ballCount * 3 / 5);
+		int width = height / 3 * 5;
+		Random random = new Random(42);
+		Ball[] balls = new Ball[ballCount];
+		for (int i = 0; i < ballCount; i++) {
+			Point center = new Point(1000 + random.nextInt(width - 2000), 5000 + random.nextInt(height - 10000));
+			Vector velocity = new Vector(random.nextInt(11) - 5, random.nextBoolean() ? 3 + random.nextInt(5) : -3 - random.nextInt(5));
+			balls[i] = new NormalBall(center, 700, velocity);
+		}
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(1000, 500))};
+		PaddleState paddle = new NormalPaddleState(new Point(width / 2, height - 2000), PaddleState.DEFAULT_SIZE);
+		BreakoutState state = new BreakoutState(balls, blocks, new Point(width, height), paddle);
+		state.setCollidingBalls(true);
+		state.setBallReorderingPeriod(period);
+		return state;
+	}
+
+	private static long run(BreakoutState state, int ticks) {
+		long start = System.nanoTime();
+		for (int t = 0; t < ticks; t++) {
+			state.tick(0, 5);
+		}
+		return System.nanoTime() - start;
+	}
+
+	public static void main(String[] args) {
+		int ballCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		int period = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+		if (period == 0) {
+			for (int round = 0; round < rounds; round++) {
+				long nanos = run(randomGame(ballCount, 0), ticks);
+				System.out.printf("round %d: %d balls, tick %8.1f us in random order%n", round, ballCount, nanos / 1000.0 / ticks);
+			}
+			return;
+		}
+
+		for (int round = 0; round < rounds; round++) {
+			long unorderedNanos = run(randomGame(ballCount, 0), ticks);
+			long reorderedNanos = run(randomGame(ballCount, period), ticks);
+			System.out.printf("round %d: %d balls, tick %8.1f us in random order, %8.1f us reordered every %d ticks (%.2fx)%n",
+					round, ballCount, unorderedNanos / 1000.0 / ticks, reorderedNanos / 1000.0 / ticks, period,
+					(double) unorderedNanos / reorderedNanos);
+		}
+	}
+}
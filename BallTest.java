@@ -93,8 +93,8 @@ class BallTest {
 	
 	@Test
 	void testColor() {
-		assertEquals(Color.red, b1.getColor());
-		assertEquals(Color.pink, b2.getColor());
+		assertEquals(Color.red, AwtPalette.colorOf(b1.getPaletteIndex()));
+		assertEquals(Color.pink, AwtPalette.colorOf(b2.getPaletteIndex()));
 	}
 	
 	@Test
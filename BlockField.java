@@ -0,0 +1,493 @@
+package breakout;
+
+/**
+ * Each instance of this class represents the blocks of a level in a compact form: every block is stored as
+ * a one-byte code holding its type and, for sturdy blocks, its remaining lifetime. BlockState objects are only
+ * created on demand, when a block is inspected or hit.
+ *
+ * A block field consists of a fixed number of slots, some of which are empty.
+ *
+ * @invar | getCapacity() >= 0
+ * @invar | getBlockCount() >= 0 && getBlockCount() <= getCapacity()
+ */
+public abstract class BlockField {
+
+	// The type codes stored in the low bits of a block code
+	public static final byte EMPTY = 0;
+	public static final byte NORMAL = 1;
+	public static final byte STURDY = 2;
+	public static final byte POWERUP_BALL = 3;
+	public static final byte REPLICATOR = 4;
+
+	// The number of low bits of a block code holding the type, the remaining bits hold the sturdy lifetime
+	private static final int TYPE_BITS = 3;
+	private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+	/**
+	 * @invar | blockCount >= 0
+	 */
+	protected int blockCount;
+
+	/**
+	 * Returns the code of the given block type and lifetime.
+	 * @pre | type >= EMPTY && type <= REPLICATOR
+	 * @pre | lifetime >= 0 && lifetime <= BlockState.MAX_STURDY_LIFETIME
+	 */
+	static byte encode(byte type, int lifetime) {
+		return (byte) (type | lifetime << TYPE_BITS);
+	}
+
+	/**
+	 * Returns the code representing the type and lifetime of the given block.
+	 * @pre | block != null
+	 */
+	static byte encode(BlockState block) {
+		if (block.type == STURDY) {
+			return encode(STURDY, ((SturdyBlockState) block).getLifetime());
+		}
+		return block.type;
+	}
+
+	/**
+	 * Returns the block type stored in the given block code.
+	 */
+	static byte typeOf(byte code) {
+		return (byte) (code & TYPE_MASK);
+	}
+
+	/**
+	 * Returns the sturdy lifetime stored in the given block code.
+	 */
+	static int lifetimeOf(byte code) {
+		return code >>> TYPE_BITS;
+	}
+
+	/**
+	 * Returns whether the given code is the code of a block: a type other than EMPTY, with a lifetime between 1 and
+	 * MAX_STURDY_LIFETIME if the block is sturdy and 0 otherwise.
+	 */
+	static boolean isBlockCode(byte code) {
+		int lifetime = lifetimeOf(code);
+		switch (typeOf(code)) {
+		case STURDY:
+			return lifetime > 0 && lifetime <= BlockState.MAX_STURDY_LIFETIME;
+		case NORMAL:
+		case POWERUP_BALL:
+		case REPLICATOR:
+			return lifetime == 0;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Returns a new block with the given corners and the type and lifetime stored in the given code.
+	 * @throws IllegalArgumentException if the code is not the code of a block.
+	 * 	| !isBlockCode(code)
+	 * @creates | result
+	 */
+	static BlockState blockOf(Point TL, Point BR, byte code) {
+		if (!isBlockCode(code)) {
+			throw new IllegalArgumentException("You have supplied an invalid block code!");
+		}
+		switch (typeOf(code)) {
+		case STURDY:
+			return new SturdyBlockState(TL, BR, lifetimeOf(code));
+		case POWERUP_BALL:
+			return new PowerupBallBlockState(TL, BR);
+		case REPLICATOR:
+			return new ReplicatorBlockState(TL, BR);
+		default:
+			return new NormalBlockState(TL, BR);
+		}
+	}
+
+	/**
+	 * Returns a new block field on a regular grid of the given number of columns and lines. The block in cell
+	 * (column, line) has its upper left point at (column*cellWidth + marginX, line*cellHeight + marginY) and
+	 * the given block size. All cells are initially empty.
+	 * @creates | result
+	 * @pre | columns > 0 && lines > 0
+	 * @pre | cellWidth > 0 && cellHeight > 0
+	 * @pre | blockWidth >= 0 && blockHeight >= 0
+	 * @post | result.getCapacity() == columns * lines
+	 * @post | result.getBlockCount() == 0
+	 */
+	public static GridBlockField grid(int columns, int lines, int cellWidth, int cellHeight,
+			int marginX, int marginY, int blockWidth, int blockHeight) {
+		return new GridBlockField(columns, lines, cellWidth, cellHeight, marginX, marginY, blockWidth, blockHeight);
+	}
+
+	/**
+	 * Returns a new block field holding the given free-form blocks, in the same order.
+	 * @creates | result
+	 * @pre | blocks != null && java.util.stream.Stream.of(blocks).allMatch(e -> e != null)
+	 * @post | result.getCapacity() == blocks.length
+	 * @post | result.getBlockCount() == blocks.length
+	 */
+	public static FreeBlockField of(BlockState[] blocks) {
+		return new FreeBlockField(blocks);
+	}
+
+	/**
+	 * Returns the number of slots of this block field.
+	 */
+	public abstract int getCapacity();
+
+	/**
+	 * Returns the number of non-empty slots of this block field.
+	 */
+	public int getBlockCount() {
+		return blockCount;
+	}
+
+	/**
+	 * Returns the code stored in the given slot.
+	 * @pre | index >= 0 && index < getCapacity()
+	 */
+	abstract byte codeAt(int index);
+
+	/**
+	 * Stores the given code in the given slot.
+	 * @pre | index >= 0 && index < getCapacity()
+	 */
+	abstract void setCode(int index, byte code);
+
+	/**
+	 * Returns the x coordinate of the upper left point of the block in the given slot.
+	 * @pre | index >= 0 && index < getCapacity()
+	 */
+	public abstract int getLeft(int index);
+
+	/**
+	 * Returns the y coordinate of the upper left point of the block in the given slot.
+	 * @pre | index >= 0 && index < getCapacity()
+	 */
+	public abstract int getTop(int index);
+
+	/**
+	 * Returns the x coordinate of the lower right point of the block in the given slot.
+	 * @pre | index >= 0 && index < getCapacity()
+	 */
+	public abstract int getRight(int index);
+
+	/**
+	 * Returns the y coordinate of the lower right point of the block in the given slot.
+	 * @pre | index >= 0 && index < getCapacity()
+	 */
+	public abstract int getBottom(int index);
+
+	/**
+	 * Stores in the given array the indices of the slots holding a block whose rectangle overlaps or touches the given
+	 * rectangle, and returns their number. These are the only blocks a ball with the given rectangle can hit. If there
+	 * are more of them than the array holds, only the first slots.length are stored.
+	 * @mutates | slots
+	 * @pre | slots != null
+	 * @post | result >= 0 && result <= getBlockCount()
+	 */
+	public abstract int queryBlocks(int left, int top, int right, int bottom, int[] slots);
+
+	/**
+	 * Returns whether the given slot holds a block.
+	 * @pre | index >= 0 && index < getCapacity()
+	 */
+	public boolean isPresent(int index) {
+		return codeAt(index) != EMPTY;
+	}
+
+	/**
+	 * Returns the type code of the block in the given slot, or EMPTY.
+	 * @pre | index >= 0 && index < getCapacity()
+	 */
+	public byte getType(int index) {
+		return typeOf(codeAt(index));
+	}
+
+	/**
+	 * Returns a new BlockState object representing the block in the given slot, or null if the slot is empty.
+	 * @creates | result
+	 * @pre | index >= 0 && index < getCapacity()
+	 * @post | (result == null) == !isPresent(index)
+	 */
+	public BlockState getBlock(int index) {
+		byte code = codeAt(index);
+		if (code == EMPTY) {
+			return null;
+		}
+		return blockOf(new Point(getLeft(index), getTop(index)), new Point(getRight(index), getBottom(index)), code);
+	}
+
+	/**
+	 * Removes the block in the given slot, if any.
+	 * @mutates | this
+	 * @pre | index >= 0 && index < getCapacity()
+	 * @post | !isPresent(index)
+	 */
+	public void removeBlock(int index) {
+		if (codeAt(index) != EMPTY) {
+			setCode(index, EMPTY);
+			blockCount--;
+		}
+	}
+
+	/**
+	 * Returns new BlockState objects for all blocks of this block field, in slot order.
+	 * @creates | result
+	 * @post | result.length == getBlockCount()
+	 */
+	public BlockState[] toBlocks() {
+		BlockState[] blocks = new BlockState[blockCount];
+		int found = 0;
+		for (int index = 0; index < getCapacity(); index++) {
+			if (isPresent(index)) {
+				blocks[found++] = getBlock(index);
+			}
+		}
+		return blocks;
+	}
+
+	/**
+	 * Returns the ballBlockHitResults of a hit of the given ball on the block in the given slot, and stores the
+	 * resulting block state in this block field. A BlockState object is only created when the ball actually hits
+	 * the block. If the slot is empty or the ball does not hit the block, null is returned.
+	 * @mutates | this
+	 * @inspects | ball
+	 * @pre | index >= 0 && index < getCapacity()
+	 * @pre | ball != null
+	 * @pre | paddle != null
+	 */
+	public ballBlockHitResults hitBy(int index, Ball ball, PaddleState paddle) {
+		if (codeAt(index) == EMPTY) {
+			return null;
+		}
+		Rect ballRect = ball.rectangleOf();
+		Vector normVecBlock = Rect.overlap(ballRect.getTopLeft().getX(), ballRect.getTopLeft().getY(),
+				ballRect.getBottomRight().getX(), ballRect.getBottomRight().getY(),
+				getLeft(index), getTop(index), getRight(index), getBottom(index));
+		if (normVecBlock == null || normVecBlock.product(ball.getVelocity()) <= 0) {
+			return null;
+		}
+		ballBlockHitResults hit = getBlock(index).hitBy(ball, paddle);
+		if (hit.destroyed) {
+			removeBlock(index);
+		}
+		else {
+			setCode(index, encode(hit.block));
+		}
+		return hit;
+	}
+}
+
+/**
+ * Each instance of this class represents a block field on a regular grid, in which the coordinates of a block
+ * are implied by its cell index and only one byte is stored per cell.
+ *
+ * Cell (column, line) has index line*getColumns() + column.
+ */
+final class GridBlockField extends BlockField {
+	/**
+	 * @invar | cells != null
+	 * @invar | columns > 0 && lines > 0 && cells.length == columns * lines
+	 */
+	/** @representationObject */
+	private final byte[] cells;
+	private final int columns;
+	private final int lines;
+	private final int cellWidth;
+	private final int cellHeight;
+	private final int marginX;
+	private final int marginY;
+	private final int blockWidth;
+	private final int blockHeight;
+
+	/**
+	 * Returns an empty grid block field with the given geometry.
+	 * @pre | columns > 0 && lines > 0
+	 * @pre | cellWidth > 0 && cellHeight > 0
+	 * @pre | blockWidth >= 0 && blockHeight >= 0
+	 */
+	GridBlockField(int columns, int lines, int cellWidth, int cellHeight,
+			int marginX, int marginY, int blockWidth, int blockHeight) {
+		this.cells = new byte[Math.multiplyExact(columns, lines)];
+		this.columns = columns;
+		this.lines = lines;
+		this.cellWidth = cellWidth;
+		this.cellHeight = cellHeight;
+		this.marginX = marginX;
+		this.marginY = marginY;
+		this.blockWidth = blockWidth;
+		this.blockHeight = blockHeight;
+	}
+
+	/**
+	 * Returns the number of columns of this grid.
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the number of lines of this grid.
+	 */
+	public int getLines() {
+		return lines;
+	}
+
+	public int getCapacity() {
+		return cells.length;
+	}
+
+	byte codeAt(int index) {
+		return cells[index];
+	}
+
+	void setCode(int index, byte code) {
+		cells[index] = code;
+	}
+
+	public int getLeft(int index) {
+		return (index % columns) * cellWidth + marginX;
+	}
+
+	public int getTop(int index) {
+		return (index / columns) * cellHeight + marginY;
+	}
+
+	public int getRight(int index) {
+		return getLeft(index) + blockWidth;
+	}
+
+	public int getBottom(int index) {
+		return getTop(index) + blockHeight;
+	}
+
+	public int queryBlocks(int left, int top, int right, int bottom, int[] slots) {
+		// The blocks of a column start at its left side and may reach into the next columns
+		int firstColumn = Math.max(0, Math.floorDiv(left - marginX - blockWidth, cellWidth));
+		int lastColumn = Math.min(columns - 1, Math.floorDiv(right - marginX, cellWidth));
+		int firstLine = Math.max(0, Math.floorDiv(top - marginY - blockHeight, cellHeight));
+		int lastLine = Math.min(lines - 1, Math.floorDiv(bottom - marginY, cellHeight));
+		int found = 0;
+		for (int line = firstLine; line <= lastLine; line++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				int index = line * columns + column;
+				if (cells[index] != EMPTY && getLeft(index) <= right && getRight(index) >= left
+						&& getTop(index) <= bottom && getBottom(index) >= top) {
+					if (found < slots.length) {
+						slots[found] = index;
+					}
+					found++;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Places a block of the given type in the given cell, replacing any block that was already there.
+	 * @mutates | this
+	 * @pre | column >= 0 && column < getColumns()
+	 * @pre | line >= 0 && line < getLines()
+	 * @pre | type >= NORMAL && type <= REPLICATOR
+	 * @pre | type != STURDY || (lifetime > 0 && lifetime <= BlockState.MAX_STURDY_LIFETIME)
+	 * @post | getType(line * getColumns() + column) == type
+	 */
+	public void placeBlock(int column, int line, byte type, int lifetime) {
+		int index = line * columns + column;
+		if (cells[index] == EMPTY) {
+			blockCount++;
+		}
+		cells[index] = encode(type, type == STURDY ? lifetime : 0);
+	}
+}
+
+/**
+ * Each instance of this class represents a block field of free-form blocks, whose coordinates are stored
+ * in primitive arrays next to the block codes.
+ *
+ * Blocks may have any size and overlap, so they are looked up through a BlockTree over the present blocks, which is
+ * built on the first query and from which destroyed blocks are removed.
+ */
+final class FreeBlockField extends BlockField {
+	/**
+	 * @invar | codes != null && left != null && top != null && right != null && bottom != null
+	 * @invar | left.length == codes.length && top.length == codes.length
+	 * @invar | right.length == codes.length && bottom.length == codes.length
+	 */
+	/** @representationObject */
+	private final byte[] codes;
+	/** @representationObject */
+	private final int[] left;
+	/** @representationObject */
+	private final int[] top;
+	/** @representationObject */
+	private final int[] right;
+	/** @representationObject */
+	private final int[] bottom;
+	/** @representationObject */
+	private BlockTree tree;
+
+	/**
+	 * Returns a free-form block field holding the given blocks.
+	 * @pre | blocks != null && java.util.stream.Stream.of(blocks).allMatch(e -> e != null)
+	 */
+	FreeBlockField(BlockState[] blocks) {
+		int n = blocks.length;
+		codes = new byte[n];
+		left = new int[n];
+		top = new int[n];
+		right = new int[n];
+		bottom = new int[n];
+		for (int i=0; i<n; i++) {
+			BlockState block = blocks[i];
+			codes[i] = encode(block);
+			left[i] = block.TL.getX();
+			top[i] = block.TL.getY();
+			right[i] = block.BR.getX();
+			bottom[i] = block.BR.getY();
+		}
+		blockCount = n;
+	}
+
+	public int queryBlocks(int left, int top, int right, int bottom, int[] slots) {
+		if (tree == null) {
+			tree = BlockTree.of(this);
+		}
+		return tree.query(left, top, right, bottom, slots);
+	}
+
+	public void removeBlock(int index) {
+		super.removeBlock(index);
+		if (tree != null) {
+			tree.remove(index);
+		}
+	}
+
+	public int getCapacity() {
+		return codes.length;
+	}
+
+	byte codeAt(int index) {
+		return codes[index];
+	}
+
+	void setCode(int index, byte code) {
+		codes[index] = code;
+	}
+
+	public int getLeft(int index) {
+		return left[index];
+	}
+
+	public int getTop(int index) {
+		return top[index];
+	}
+
+	public int getRight(int index) {
+		return right[index];
+	}
+
+	public int getBottom(int index) {
+		return bottom[index];
+	}
+}
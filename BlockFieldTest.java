@@ -0,0 +1,123 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BlockFieldTest {
+
+	public static final String map = """
+#S!R
+  S
+		     o
+
+		     =
+
+""";
+
+	BreakoutState state;
+	GridBlockField grid;
+	FreeBlockField free;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		state = GameMap.createStateFromDescription(map);
+		grid = GameMap.createBlockFieldFromDescription(map);
+		free = BlockField.of(state.getBlocks());
+	}
+
+	void assertSameBlocks(BlockState[] expected, BlockState[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int i=0; i<expected.length; i++) {
+			assertEquals(expected[i].getClass(), actual[i].getClass());
+			assertEquals(expected[i].rectangleOf(), actual[i].rectangleOf());
+			assertEquals(expected[i].getPaletteIndex(), actual[i].getPaletteIndex());
+		}
+	}
+
+	@Test
+	void testGrid() {
+		assertEquals(80, grid.getCapacity());
+		assertEquals(5, grid.getBlockCount());
+		assertEquals(BlockField.STURDY, grid.getType(1));
+		assertEquals(BlockField.STURDY, grid.getType(12));
+		assertEquals(BlockField.EMPTY, grid.getType(10));
+		assertNull(grid.getBlock(10));
+		assertSameBlocks(state.getBlocks(), grid.toBlocks());
+	}
+
+	@Test
+	void testBlockCodes() {
+		Point TL = new Point(0, 0);
+		Point BR = new Point(100, 50);
+		assertTrue(BlockField.blockOf(TL, BR, BlockField.NORMAL) instanceof NormalBlockState);
+		assertEquals(2, ((SturdyBlockState) BlockField.blockOf(TL, BR, BlockField.encode(BlockField.STURDY, 2))).getLifetime());
+		assertTrue(BlockField.blockOf(TL, BR, BlockField.POWERUP_BALL) instanceof PowerupBallBlockState);
+		assertTrue(BlockField.blockOf(TL, BR, BlockField.REPLICATOR) instanceof ReplicatorBlockState);
+		for (byte code : new byte[] {BlockField.EMPTY, 5, 6, 7, BlockField.encode(BlockField.STURDY, 0), (byte) 0xF2,
+				BlockField.encode(BlockField.REPLICATOR, 1)}) {
+			assertFalse(BlockField.isBlockCode(code));
+			assertThrows(IllegalArgumentException.class, () -> BlockField.blockOf(TL, BR, code));
+		}
+	}
+
+	@Test
+	void testFree() {
+		assertEquals(5, free.getCapacity());
+		assertEquals(5, free.getBlockCount());
+		assertSameBlocks(state.getBlocks(), free.toBlocks());
+		free.removeBlock(0);
+		assertFalse(free.isPresent(0));
+		assertEquals(4, free.getBlockCount());
+		free.removeBlock(0);
+		assertEquals(4, free.getBlockCount());
+	}
+
+	@Test
+	void testHitBy() {
+		Rect sturdy = grid.getBlock(1).rectangleOf();
+		Point below = new Point(sturdy.getTopLeft().getX() + 100, sturdy.getBottomRight().getY() + 5);
+		Ball ball = new NormalBall(below, 20, new Vector(0, -5));
+		PaddleState paddle = state.getPaddle();
+
+		assertNull(grid.hitBy(0, ball, paddle));
+		assertNull(grid.hitBy(10, ball, paddle));
+
+		ballBlockHitResults hit = grid.hitBy(1, ball, paddle);
+		assertFalse(hit.destroyed);
+		assertEquals(new Vector(0, 5), ball.getVelocity());
+		assertEquals(BlockState.MAX_STURDY_LIFETIME - 1, ((SturdyBlockState) grid.getBlock(1)).getLifetime());
+
+		ball.changeVelocity(new Vector(0, -5));
+		grid.hitBy(1, ball, paddle);
+		ball.changeVelocity(new Vector(0, -5));
+		hit = grid.hitBy(1, ball, paddle);
+		assertTrue(hit.destroyed);
+		assertFalse(grid.isPresent(1));
+		assertEquals(4, grid.getBlockCount());
+	}
+
+	@Test
+	void testQueryBlocks() {
+		Rect sturdy = grid.getBlock(1).rectangleOf();
+		int x = sturdy.getTopLeft().getX() + 100;
+		int y = sturdy.getBottomRight().getY();
+		int[] slots = new int[4];
+		// A rectangle touching the bottom of the top sturdy block, and reaching into the next column and line
+		assertEquals(1, grid.queryBlocks(x, y, x + 20, y + 20, slots));
+		assertEquals(1, slots[0]);
+		assertEquals(0, grid.queryBlocks(x, y + 1, x + 20, y + 20, slots));
+		assertEquals(1, grid.queryBlocks(x, y + 1, x + 5000, y + 5000, slots));
+		assertEquals(12, slots[0]);
+		assertEquals(3, grid.queryBlocks(x, y, x + 5000, y + 5000, slots));
+		assertEquals(3, free.queryBlocks(x, y, x + 5000, y + 5000, slots));
+
+		// The whole field, with more candidates than the array holds
+		assertEquals(5, grid.queryBlocks(0, 0, 50000, 30000, slots));
+		assertEquals(5, free.queryBlocks(0, 0, 50000, 30000, slots));
+		free.removeBlock(1);
+		assertEquals(4, free.queryBlocks(0, 0, 50000, 30000, slots));
+		assertEquals(2, free.queryBlocks(x, y, x + 5000, y + 5000, slots));
+	}
+}
@@ -1,6 +1,5 @@
 package breakout;
 
-import java.awt.Color;
 
 /**
  * Each instance of this class represents a block in the breakout game.
@@ -12,7 +11,7 @@ import java.awt.Color;
  * @invar This object's upper left point is situated up and left from its lower right point.
  * 	| getTopLeft().isUpAndLeftFrom(getBottomRight())
  */
-public abstract class BlockState {
+public abstract sealed class BlockState permits NormalBlockState, SturdyBlockState, PowerupBallBlockState, ReplicatorBlockState {
 	/**
 	 * @invar | TL != null
 	 * @invar | BR != null
@@ -23,6 +22,13 @@ public abstract class BlockState {
 	// The maximum lifetime of a sturdy block in number of hits
 	protected static final int MAX_STURDY_LIFETIME = 3;
 	
+	// The type tag of this block, one of the block types of BlockField
+	final byte type;
+	
+	BlockState(byte type) {
+		this.type = type;
+	}
+	
 	/**
 	 * Returns the topleft Point object contained within this BlockState object
 	 */
@@ -43,10 +49,10 @@ public abstract class BlockState {
 	public abstract Rect rectangleOf();
 	
 	/**
-	 * Returns the default Color object used to display a block in the breakout game
+	 * Returns the Palette index of the default colour used to display a block in the breakout game
 	 * -> Different behaviour depending on the block type
 	 */
-	public abstract Color getColor();
+	public abstract int getPaletteIndex();
 	
 	/**
 	 * Returns a ballBlockHitResults object containing the balls, the blocks and the paddle states resulting 
@@ -78,6 +84,7 @@ final class NormalBlockState extends BlockState {
 	 * @post | getBottomRight().equals(BR)
 	 */
 	public NormalBlockState(Point TL, Point BR) {
+		super(BlockField.NORMAL);
 		this.TL= new Point(TL.getX(), TL.getY());
 		this.BR= new Point(BR.getX(), BR.getY());
 	}
@@ -95,10 +102,10 @@ final class NormalBlockState extends BlockState {
 	}
 	
 	/**
-	 * Returns the default colour used to display a normal block in the breakout game, i.e. blue.
+	 * Returns the Palette index of the default colour used to display a normal block in the breakout game, i.e. blue.
 	 */
-	public Color getColor() {
-		return Color.blue;
+	public int getPaletteIndex() {
+		return Palette.BLUE;
 	}
 	
 	/**
@@ -154,6 +161,7 @@ final class SturdyBlockState extends BlockState {
 	 * @post | getBottomRight().equals(BR)
 	 */
 	public SturdyBlockState(Point TL, Point BR, int lifetime) {
+		super(BlockField.STURDY);
 		this.TL=new Point(TL.getX(), TL.getY());
 		this.BR=new Point(BR.getX(), BR.getY());
 		this.lifetime=lifetime;
@@ -188,19 +196,19 @@ final class SturdyBlockState extends BlockState {
 	}
 	
 	/**
-	 * Returns the default Color object used to display a sturdy block in the breakout game, i.e. grey up to white,
-	 * depending on the number of hits.
+	 * Returns the Palette index of the default colour used to display a sturdy block in the breakout game, i.e. grey
+	 * up to white, depending on the number of hits.
 	 */
-	public Color getColor() {
+	public int getPaletteIndex() {
 		switch (lifetime) {
 		case 3 -> {
-			return Color.gray;}
+			return Palette.GRAY;}
 		case 2 -> {
-			return Color.lightGray;}
+			return Palette.LIGHT_GRAY;}
 		case 1 -> {
-			return Color.white;}
+			return Palette.WHITE;}
 		}
-		return Color.blue;
+		return Palette.BLUE;
 	}
 	
 	/**
@@ -254,6 +262,7 @@ final class PowerupBallBlockState extends BlockState {
 	 * @post | getBottomRight().equals(BR)
 	 */
 	public PowerupBallBlockState(Point TL, Point BR) {
+		super(BlockField.POWERUP_BALL);
 		this.TL=new Point(TL.getX(), TL.getY());
 		this.BR=new Point(BR.getX(), BR.getY());
 	}
@@ -271,10 +280,10 @@ final class PowerupBallBlockState extends BlockState {
 	}
 	
 	/**
-	 * Returns the default colour used to display a sturdy block in the breakout game, i.e. orange
+	 * Returns the Palette index of the default colour used to display a sturdy block in the breakout game, i.e. orange
 	 */
-	public Color getColor() {
-		return Color.orange;
+	public int getPaletteIndex() {
+		return Palette.ORANGE;
 	}
 	
 	/**
@@ -325,6 +334,7 @@ final class ReplicatorBlockState extends BlockState {
 	 * @post | getBottomRight().equals(BR)
 	 */
 	public ReplicatorBlockState(Point TL, Point BR) {
+		super(BlockField.REPLICATOR);
 		this.TL=new Point(TL.getX(), TL.getY());
 		this.BR=new Point(BR.getX(), BR.getY());
 	}
@@ -342,10 +352,10 @@ final class ReplicatorBlockState extends BlockState {
 	}
 	
 	/**
-	 * Returns the default colour used to display a sturdy block in the breakout game, i.e. cyan
+	 * Returns the Palette index of the default colour used to display a sturdy block in the breakout game, i.e. cyan
 	 */
-	public Color getColor() {
-		return Color.cyan;
+	public int getPaletteIndex() {
+		return Palette.CYAN;
 	}
 	
 	/**
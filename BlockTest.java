@@ -53,10 +53,11 @@ class BlockTest {
 	
 	@Test
 	void testColour() {
-		assertEquals(b1.getColor(), Color.blue);
-		assert (b2.getColor().equals(Color.gray) || b2.getColor().equals(Color.lightGray) || b2.getColor().equals(Color.white));
-		assertEquals(b3.getColor(), Color.cyan);
-		assertEquals(b4.getColor(), Color.orange);
+		assertEquals(AwtPalette.colorOf(b1.getPaletteIndex()), Color.blue);
+		Color b2Color = AwtPalette.colorOf(b2.getPaletteIndex());
+		assert (b2Color.equals(Color.gray) || b2Color.equals(Color.lightGray) || b2Color.equals(Color.white));
+		assertEquals(AwtPalette.colorOf(b3.getPaletteIndex()), Color.cyan);
+		assertEquals(AwtPalette.colorOf(b4.getPaletteIndex()), Color.orange);
 	}
 	
 	@Test
@@ -0,0 +1,516 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * Each instance of this class is a dynamic bounding-volume hierarchy over the rectangles of the blocks in the slots of
+ * a block field, used to find the blocks a ball may hit without testing all of them.
+ *
+ * The hierarchy is a binary tree whose leaves hold the rectangles of the blocks and whose inner nodes hold the bounding
+ * box of their children. A block is inserted next to the node whose bounding box grows least in perimeter, and the tree
+ * is kept balanced by rotations on the way back up, so that its height stays logarithmic in the number of blocks. A
+ * block is removed by replacing its parent with its sibling, again followed by rotations, in logarithmic time.
+ *
+ * The nodes are stored in primitive arrays and freed nodes are reused, so queries and updates do not allocate once
+ * the arrays have grown to the size of the tree. A tree is not safe for use by multiple threads.
+ *
+ * @invar | getCapacity() >= 0
+ * @invar | getBlockCount() >= 0 && getBlockCount() <= getCapacity()
+ * @invar | getHeight() >= 0
+ */
+public class BlockTree {
+
+	private static final int NONE = -1;
+
+	/**
+	 * @invar | leafOf != null
+	 * @invar | left != null && top != null && right != null && bottom != null
+	 * @invar | parent != null && child1 != null && child2 != null && height != null && slot != null
+	 * @invar | stack != null
+	 */
+	/** @representationObject */
+	private final int[] leafOf;
+	/** @representationObject */
+	private int[] left;
+	/** @representationObject */
+	private int[] top;
+	/** @representationObject */
+	private int[] right;
+	/** @representationObject */
+	private int[] bottom;
+	/** @representationObject */
+	private int[] parent;
+	// The first child of an inner node, or the next free node of a free node
+	/** @representationObject */
+	private int[] child1;
+	/** @representationObject */
+	private int[] child2;
+	// The height of a node, 0 for a leaf and -1 for a free node
+	/** @representationObject */
+	private int[] height;
+	// The block slot of a leaf, NONE for an inner node
+	/** @representationObject */
+	private int[] slot;
+	/** @representationObject */
+	private int[] stack = new int[64];
+	private int nodeCount;
+	private int freeList = NONE;
+	private int root = NONE;
+	private int blockCount;
+
+	/**
+	 * Returns an empty tree for the blocks of a block field with the given number of slots.
+	 * @throws IllegalArgumentException if the capacity is negative.
+	 * 	| capacity < 0
+	 * @post | getCapacity() == capacity
+	 * @post | getBlockCount() == 0
+	 */
+	public BlockTree(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("You have supplied an invalid capacity!");
+		}
+		leafOf = new int[capacity];
+		Arrays.fill(leafOf, NONE);
+		int nodes = Math.max(16, Math.min(2 * capacity, 1 << 20));
+		left = new int[nodes];
+		top = new int[nodes];
+		right = new int[nodes];
+		bottom = new int[nodes];
+		parent = new int[nodes];
+		child1 = new int[nodes];
+		child2 = new int[nodes];
+		height = new int[nodes];
+		slot = new int[nodes];
+	}
+
+	/**
+	 * Returns a new tree holding the blocks present in the given block field.
+	 *
+	 * The tree is built top-down, splitting the blocks at the median of their centers along the longer side of the box
+	 * around those centers, which takes O(n log n) time and gives a tree of minimal height with little overlap.
+	 * @creates | result
+	 * @inspects | field
+	 * @throws IllegalArgumentException if the field is null.
+	 * 	| field == null
+	 * @post | result.getCapacity() == field.getCapacity()
+	 * @post | result.getBlockCount() == field.getBlockCount()
+	 */
+	public static BlockTree of(BlockField field) {
+		if (field == null) {
+			throw new IllegalArgumentException("You have not supplied a valid block field!");
+		}
+		BlockTree tree = new BlockTree(field.getCapacity());
+		int[] leaves = new int[field.getBlockCount()];
+		int n = 0;
+		for (int index = 0; index < field.getCapacity(); index++) {
+			if (field.isPresent(index)) {
+				int leaf = tree.allocateNode();
+				tree.left[leaf] = field.getLeft(index);
+				tree.top[leaf] = field.getTop(index);
+				tree.right[leaf] = field.getRight(index);
+				tree.bottom[leaf] = field.getBottom(index);
+				tree.height[leaf] = 0;
+				tree.slot[leaf] = index;
+				tree.leafOf[index] = leaf;
+				leaves[n++] = leaf;
+			}
+		}
+		if (n > 0) {
+			tree.root = tree.build(leaves, 0, n);
+			tree.parent[tree.root] = NONE;
+		}
+		tree.blockCount = n;
+		return tree;
+	}
+
+	/**
+	 * Returns a new subtree over the given range of leaves, which it reorders.
+	 * @pre | to > from
+	 */
+	private int build(int[] leaves, int from, int to) {
+		if (to - from == 1) {
+			return leaves[from];
+		}
+		long minX = Long.MAX_VALUE;
+		long maxX = Long.MIN_VALUE;
+		long minY = Long.MAX_VALUE;
+		long maxY = Long.MIN_VALUE;
+		for (int k = from; k < to; k++) {
+			long x = centerKey(leaves[k], true);
+			long y = centerKey(leaves[k], false);
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+		}
+		boolean alongX = maxX - minX >= maxY - minY;
+		int middle = (from + to) >>> 1;
+		select(leaves, from, to, middle, alongX);
+		int a = build(leaves, from, middle);
+		int b = build(leaves, middle, to);
+		int node = allocateNode();
+		slot[node] = NONE;
+		child1[node] = a;
+		child2[node] = b;
+		parent[a] = node;
+		parent[b] = node;
+		refit(node);
+		return node;
+	}
+
+	/**
+	 * Returns twice the x or y coordinate of the center of the given node.
+	 */
+	private long centerKey(int node, boolean alongX) {
+		return alongX ? (long) left[node] + right[node] : (long) top[node] + bottom[node];
+	}
+
+	/**
+	 * Reorders the given range of leaves such that the leaf at index k has the center it would have if the range were
+	 * sorted along the given axis, with no larger centers before it and no smaller ones after it.
+	 */
+	private void select(int[] leaves, int from, int to, int k, boolean alongX) {
+		int lo = from;
+		int hi = to - 1;
+		while (lo < hi) {
+			long pivot = centerKey(leaves[(lo + hi) >>> 1], alongX);
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (centerKey(leaves[i], alongX) < pivot) {
+					i++;
+				}
+				while (centerKey(leaves[j], alongX) > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int leaf = leaves[i];
+					leaves[i] = leaves[j];
+					leaves[j] = leaf;
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				hi = j;
+			}
+			else if (k >= i) {
+				lo = i;
+			}
+			else {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of slots this tree can hold a block for.
+	 */
+	public int getCapacity() {
+		return leafOf.length;
+	}
+
+	/**
+	 * Returns the number of blocks in this tree.
+	 */
+	public int getBlockCount() {
+		return blockCount;
+	}
+
+	/**
+	 * Returns the height of this tree: 0 if it is empty or holds one block, and otherwise the number of edges on the
+	 * longest path from the root to a leaf.
+	 */
+	public int getHeight() {
+		return root == NONE ? 0 : height[root];
+	}
+
+	/**
+	 * Returns whether this tree holds a block for the given slot.
+	 * @pre | index >= 0 && index < getCapacity()
+	 */
+	public boolean contains(int index) {
+		return leafOf[index] != NONE;
+	}
+
+	/**
+	 * Adds the block with the given rectangle for the given slot.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the slot is out of range or already holds a block.
+	 * 	| index < 0 || index >= getCapacity() || contains(index)
+	 * @throws IllegalArgumentException if the rectangle is empty.
+	 * 	| right < left || bottom < top
+	 * @post | contains(index)
+	 * @post | getBlockCount() == old(getBlockCount()) + 1
+	 */
+	public void add(int index, int left, int top, int right, int bottom) {
+		if (index < 0 || index >= leafOf.length || leafOf[index] != NONE) {
+			throw new IllegalArgumentException("You have supplied an invalid slot!");
+		}
+		if (right < left || bottom < top) {
+			throw new IllegalArgumentException("You have supplied an invalid rectangle!");
+		}
+		int leaf = allocateNode();
+		this.left[leaf] = left;
+		this.top[leaf] = top;
+		this.right[leaf] = right;
+		this.bottom[leaf] = bottom;
+		height[leaf] = 0;
+		slot[leaf] = index;
+		leafOf[index] = leaf;
+		insertLeaf(leaf);
+		blockCount++;
+	}
+
+	/**
+	 * Removes the block of the given slot, if any.
+	 * @mutates | this
+	 * @pre | index >= 0 && index < getCapacity()
+	 * @post | !contains(index)
+	 */
+	public void remove(int index) {
+		int leaf = leafOf[index];
+		if (leaf == NONE) {
+			return;
+		}
+		removeLeaf(leaf);
+		freeNode(leaf);
+		leafOf[index] = NONE;
+		blockCount--;
+	}
+
+	/**
+	 * Stores in the given array the slots of the blocks whose rectangles overlap or touch the given rectangle, and
+	 * returns their number. If there are more of them than the array holds, only the first slots.length are stored.
+	 * @mutates | slots
+	 * @pre | slots != null
+	 * @post | result >= 0 && result <= getBlockCount()
+	 */
+	public int query(int left, int top, int right, int bottom, int[] slots) {
+		if (root == NONE) {
+			return 0;
+		}
+		int found = 0;
+		int depth = 0;
+		stack[depth++] = root;
+		while (depth > 0) {
+			int node = stack[--depth];
+			if (this.left[node] > right || this.right[node] < left || this.top[node] > bottom || this.bottom[node] < top) {
+				continue;
+			}
+			if (slot[node] != NONE) {
+				if (found < slots.length) {
+					slots[found] = slot[node];
+				}
+				found++;
+			}
+			else {
+				if (depth + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				stack[depth++] = child1[node];
+				stack[depth++] = child2[node];
+			}
+		}
+		return found;
+	}
+
+	private int allocateNode() {
+		if (freeList != NONE) {
+			int node = freeList;
+			freeList = child1[node];
+			return node;
+		}
+		if (nodeCount == parent.length) {
+			int nodes = nodeCount * 2;
+			left = Arrays.copyOf(left, nodes);
+			top = Arrays.copyOf(top, nodes);
+			right = Arrays.copyOf(right, nodes);
+			bottom = Arrays.copyOf(bottom, nodes);
+			parent = Arrays.copyOf(parent, nodes);
+			child1 = Arrays.copyOf(child1, nodes);
+			child2 = Arrays.copyOf(child2, nodes);
+			height = Arrays.copyOf(height, nodes);
+			slot = Arrays.copyOf(slot, nodes);
+		}
+		return nodeCount++;
+	}
+
+	private void freeNode(int node) {
+		child1[node] = freeList;
+		height[node] = -1;
+		freeList = node;
+	}
+
+	private static long perimeter(int left, int top, int right, int bottom) {
+		return (long) right - left + (long) bottom - top;
+	}
+
+	/**
+	 * Returns the perimeter of the union of the box of the given node and the given box.
+	 */
+	private long unionPerimeter(int node, int left, int top, int right, int bottom) {
+		return perimeter(Math.min(this.left[node], left), Math.min(this.top[node], top),
+				Math.max(this.right[node], right), Math.max(this.bottom[node], bottom));
+	}
+
+	/**
+	 * Sets the box and height of the given inner node from those of its children.
+	 */
+	private void refit(int node) {
+		int a = child1[node];
+		int b = child2[node];
+		left[node] = Math.min(left[a], left[b]);
+		top[node] = Math.min(top[a], top[b]);
+		right[node] = Math.max(right[a], right[b]);
+		bottom[node] = Math.max(bottom[a], bottom[b]);
+		height[node] = 1 + Math.max(height[a], height[b]);
+	}
+
+	private void insertLeaf(int leaf) {
+		if (root == NONE) {
+			root = leaf;
+			parent[leaf] = NONE;
+			return;
+		}
+		int l = left[leaf];
+		int t = top[leaf];
+		int r = right[leaf];
+		int b = bottom[leaf];
+
+		// Descend to the sibling for which the inserted block grows the boxes least in perimeter
+		int node = root;
+		while (slot[node] == NONE) {
+			long area = perimeter(left[node], top[node], right[node], bottom[node]);
+			long combined = unionPerimeter(node, l, t, r, b);
+			long cost = 2 * combined;
+			long inheritance = 2 * (combined - area);
+			long cost1 = descentCost(child1[node], l, t, r, b) + inheritance;
+			long cost2 = descentCost(child2[node], l, t, r, b) + inheritance;
+			if (cost < cost1 && cost < cost2) {
+				break;
+			}
+			node = cost1 < cost2 ? child1[node] : child2[node];
+		}
+
+		// Join the leaf and the sibling under a new inner node
+		int sibling = node;
+		int oldParent = parent[sibling];
+		int newParent = allocateNode();
+		parent[newParent] = oldParent;
+		slot[newParent] = NONE;
+		child1[newParent] = sibling;
+		child2[newParent] = leaf;
+		height[newParent] = height[sibling] + 1;
+		parent[sibling] = newParent;
+		parent[leaf] = newParent;
+		if (oldParent == NONE) {
+			root = newParent;
+		}
+		else if (child1[oldParent] == sibling) {
+			child1[oldParent] = newParent;
+		}
+		else {
+			child2[oldParent] = newParent;
+		}
+		refitUpwards(newParent);
+	}
+
+	private long descentCost(int child, int l, int t, int r, int b) {
+		long combined = unionPerimeter(child, l, t, r, b);
+		if (slot[child] != NONE) {
+			return combined;
+		}
+		return combined - perimeter(left[child], top[child], right[child], bottom[child]);
+	}
+
+	private void removeLeaf(int leaf) {
+		if (leaf == root) {
+			root = NONE;
+			return;
+		}
+		int oldParent = parent[leaf];
+		int grandParent = parent[oldParent];
+		int sibling = child1[oldParent] == leaf ? child2[oldParent] : child1[oldParent];
+		freeNode(oldParent);
+		parent[sibling] = grandParent;
+		if (grandParent == NONE) {
+			root = sibling;
+			return;
+		}
+		if (child1[grandParent] == oldParent) {
+			child1[grandParent] = sibling;
+		}
+		else {
+			child2[grandParent] = sibling;
+		}
+		refitUpwards(grandParent);
+	}
+
+	/**
+	 * Rebalances and refits the given inner node and all its ancestors.
+	 */
+	private void refitUpwards(int node) {
+		while (node != NONE) {
+			node = balance(node);
+			refit(node);
+			node = parent[node];
+		}
+	}
+
+	/**
+	 * Rotates the taller grandchild subtree of the given inner node up if the heights of its children differ by more
+	 * than one, and returns the node now at its place.
+	 */
+	private int balance(int a) {
+		if (slot[a] != NONE || height[a] < 2) {
+			return a;
+		}
+		int b = child1[a];
+		int c = child2[a];
+		int difference = height[c] - height[b];
+		if (difference > 1) {
+			rotateUp(a, c, false);
+			return c;
+		}
+		if (difference < -1) {
+			rotateUp(a, b, true);
+			return b;
+		}
+		return a;
+	}
+
+	/**
+	 * Makes the given child of the given node its parent. The child's shorter child moves to the node, at the place the
+	 * child had, and the node takes the place of that shorter child.
+	 */
+	private void rotateUp(int a, int up, boolean upIsFirst) {
+		int f = child1[up];
+		int g = child2[up];
+		int oldParent = parent[a];
+		child1[up] = a;
+		parent[up] = oldParent;
+		parent[a] = up;
+		if (oldParent == NONE) {
+			root = up;
+		}
+		else if (child1[oldParent] == a) {
+			child1[oldParent] = up;
+		}
+		else {
+			child2[oldParent] = up;
+		}
+		int taller = height[f] > height[g] ? f : g;
+		int shorter = taller == f ? g : f;
+		child2[up] = taller;
+		if (upIsFirst) {
+			child1[a] = shorter;
+		}
+		else {
+			child2[a] = shorter;
+		}
+		parent[shorter] = a;
+		refit(a);
+		refit(up);
+	}
+}
@@ -0,0 +1,102 @@
+package breakout;
+
+import java.util.Random;
+
+/**
+ * Compares the cost of finding and performing the hits of a ball on a free-form block field through its BlockTree with
+ * that of testing every block, on random layouts of overlapping blocks of random sizes. The field grows with the number
+ * of blocks, so that a ball overlaps about the same number of blocks at every size. Blocks hit by the balls are
+ * destroyed and removed from the tree as the benchmark runs.
+ *
+ * Usage: BlockTreeBenchmark [smallest block count] [largest block count]
+ */
+public class BlockTreeBenchmark {
+
+	private BlockTreeBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static BlockState[] randomLayout(Random random, int count, int side) {
+		BlockState[] blocks = new BlockState[count];
+		for (int i = 0; i < count; i++) {
+			Point TL = new Point(random.nextInt(side), random.nextInt(side));
+			Point BR = new Point(TL.getX() + 1000 + random.nextInt(7000), TL.getY() + 1000 + random.nextInt(3000));
+			blocks[i] = random.nextInt(4) == 0 ? new SturdyBlockState(TL, BR, 3) : new NormalBlockState(TL, BR);
+		}
+		return blocks;
+	}
+
+	private static Ball randomBall(Random random, int side) {
+		Point center = new Point(random.nextInt(side), random.nextInt(side));
+		return new NormalBall(center, 700, new Vector(random.nextInt(21) - 10, random.nextInt(21) - 10));
+	}
+
+	private static long bruteForce(BlockField field, Random random, int side, int queries, PaddleState paddle) {
+		long hits = 0;
+		for (int q = 0; q < queries; q++) {
+			Ball ball = randomBall(random, side);
+			for (int index = 0; index < field.getCapacity(); index++) {
+				if (field.hitBy(index, ball, paddle) != null) {
+					hits++;
+				}
+			}
+		}
+		return hits;
+	}
+
+	private static long tree(BlockField field, Random random, int side, int queries, PaddleState paddle) {
+		long hits = 0;
+		int[] slots = new int[64];
+		for (int q = 0; q < queries; q++) {
+			Ball ball = randomBall(random, side);
+			int radius = ball.getDiameter() / 2;
+			Point center = ball.getCenter();
+			int found;
+			while ((found = field.queryBlocks(center.getX() - radius, center.getY() - radius, center.getX() + radius,
+					center.getY() + radius, slots)) > slots.length) {
+				slots = new int[found];
+			}
+			for (int k = 0; k < found; k++) {
+				if (field.hitBy(slots[k], ball, paddle) != null) {
+					hits++;
+				}
+			}
+		}
+		return hits;
+	}
+
+	public static void main(String[] args) {
+		int smallest = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+		int largest = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+		PaddleState paddle = new NormalPaddleState(new Point(0, 0), PaddleState.DEFAULT_SIZE);
+		for (int count = smallest; count <= largest; count *= 10) {
+			int side = (int) Math.sqrt(count) * 5000;
+			BlockState[] blocks = randomLayout(new Random(count), count, side);
+			int bruteQueries = Math.max(20, 20_000_000 / count);
+			int treeQueries = 200_000;
+
+			// Warm up both paths on a separate field
+			BlockField warmup = BlockField.of(blocks);
+			bruteForce(warmup, new Random(1), side, Math.min(bruteQueries, 2_000), paddle);
+			tree(warmup, new Random(1), side, treeQueries, paddle);
+
+			BlockField bruteField = BlockField.of(blocks);
+			long start = System.nanoTime();
+			long bruteHits = bruteForce(bruteField, new Random(2), side, bruteQueries, paddle);
+			long bruteNanos = System.nanoTime() - start;
+
+			BlockField treeField = BlockField.of(blocks);
+			start = System.nanoTime();
+			treeField.queryBlocks(0, 0, 0, 0, new int[0]);
+			long buildNanos = System.nanoTime() - start;
+			start = System.nanoTime();
+			long treeHits = tree(treeField, new Random(2), side, treeQueries, paddle);
+			long treeNanos = System.nanoTime() - start;
+
+			System.out.printf("%8d blocks: brute force %11.1f ns/ball (%d hits), tree %7.1f ns/ball (%d hits), "
+					+ "tree built in %d ms, %d blocks left%n", count, (double) bruteNanos / bruteQueries, bruteHits,
+					(double) treeNanos / treeQueries, treeHits, buildNanos / 1_000_000, treeField.getBlockCount());
+		}
+	}
+}
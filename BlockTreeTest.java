@@ -0,0 +1,76 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BlockTreeTest {
+
+	static final int BLOCKS = 2000;
+
+	int[][] rects = new int[BLOCKS][];
+
+	int[] bruteForce(boolean[] present, int left, int top, int right, int bottom) {
+		return java.util.stream.IntStream.range(0, BLOCKS).filter(i -> present[i] && rects[i][0] <= right
+				&& rects[i][2] >= left && rects[i][1] <= bottom && rects[i][3] >= top).toArray();
+	}
+
+	@Test
+	void testQueriesMatchBruteForce() {
+		Random random = new Random(41);
+		BlockTree tree = new BlockTree(BLOCKS);
+		boolean[] present = new boolean[BLOCKS];
+		for (int i = 0; i < BLOCKS; i++) {
+			int left = random.nextInt(100_000);
+			int top = random.nextInt(100_000);
+			rects[i] = new int[] {left, top, left + random.nextInt(3000), top + random.nextInt(3000)};
+		}
+		int[] slots = new int[BLOCKS];
+		for (int step = 0; step < 20_000; step++) {
+			int i = random.nextInt(BLOCKS);
+			if (present[i]) {
+				tree.remove(i);
+			}
+			else {
+				tree.add(i, rects[i][0], rects[i][1], rects[i][2], rects[i][3]);
+			}
+			present[i] = !present[i];
+			assertEquals(present[i], tree.contains(i));
+
+			int left = random.nextInt(100_000);
+			int top = random.nextInt(100_000);
+			int right = left + random.nextInt(5000);
+			int bottom = top + random.nextInt(5000);
+			int found = tree.query(left, top, right, bottom, slots);
+			int[] actual = Arrays.copyOf(slots, found);
+			Arrays.sort(actual);
+			assertArrayEquals(bruteForce(present, left, top, right, bottom), actual);
+		}
+		int count = 0;
+		for (boolean p : present) {
+			count += p ? 1 : 0;
+		}
+		assertEquals(count, tree.getBlockCount());
+		// A balanced tree of about a thousand blocks
+		assertTrue(tree.getHeight() <= 20, "height: " + tree.getHeight());
+		assertEquals(count, tree.query(0, 0, 200_000, 200_000, slots));
+	}
+
+	@Test
+	void testInvalidArguments() {
+		BlockTree tree = new BlockTree(2);
+		tree.add(0, 0, 0, 10, 10);
+		assertThrows(IllegalArgumentException.class, () -> tree.add(0, 0, 0, 10, 10));
+		assertThrows(IllegalArgumentException.class, () -> tree.add(2, 0, 0, 10, 10));
+		assertThrows(IllegalArgumentException.class, () -> tree.add(1, 10, 0, 0, 10));
+		assertThrows(IllegalArgumentException.class, () -> new BlockTree(-1));
+		assertThrows(IllegalArgumentException.class, () -> BlockTree.of(null));
+		tree.remove(0);
+		tree.remove(0);
+		assertEquals(0, tree.getBlockCount());
+		assertEquals(0, tree.query(0, 0, 10, 10, new int[1]));
+	}
+}
@@ -38,11 +38,11 @@ public class BreakoutFacade {
 	}
 
 	public Color getColor(PaddleState paddle) {
-		return paddle.getColor();
+		return AwtPalette.colorOf(paddle.getPaletteIndex());
 	}
 
 	public Color getColor(Ball ball) {
-		return ball.getColor();
+		return AwtPalette.colorOf(ball.getPaletteIndex());
 	}
 
 	public Rect getLocation(PaddleState paddle) {
@@ -62,7 +62,7 @@ public class BreakoutFacade {
 	}
 
 	public Color getColor(BlockState block) {
-		return block.getColor();
+		return AwtPalette.colorOf(block.getPaletteIndex());
 	}
 
 	public Rect getLocation(BlockState block) {
@@ -1,5 +1,7 @@
 package breakout;
 
+import java.util.Arrays;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -52,6 +54,29 @@ public class BreakoutState {
 	private final Point bottomRight;
 	private PaddleState paddle;
 	
+	// The game clock on which the lifetimes of the supercharged balls run out
+	private final TimingWheel timers = new TimingWheel();
+	
+	// The sum of the StateHash keys of the balls, the blocks and the paddle, kept up to date by each change
+	private long hash;
+	
+	// The number of times a ball bounced off the paddle
+	private long paddleContacts;
+	
+	// The spatial hash performing the ball-ball collisions, or null if balls pass through each other
+	private BallGrid ballGrid;
+	
+	// Whether identical balls are stored once, with a multiplicity
+	private boolean mergingBalls;
+	// The open-addressing hash table in which mergeBalls finds identical balls: the index of a ball plus 1, or 0
+	/** @representationObject */
+	private int[] mergeSlots = new int[0];
+	
+	// The sort reordering the balls by the Morton code of their centers, or null if the balls keep their order
+	private MortonOrder ballOrder;
+	private int reorderingPeriod;
+	private int ticksUntilReordering;
+	
 	// The maximum elapsed time in ms between two game game ticks
 	public static final int MAX_ELAPSED_TIME = 50;
 
@@ -93,6 +118,12 @@ public class BreakoutState {
 		this.blocks=blocks.clone();
 		this.bottomRight=bottomRight;
 		this.paddle=paddle;
+		for (Ball ball : this.balls) {
+			if (ball instanceof SuperBall) {
+				scheduleExpiry((SuperBall) ball, ((SuperBall) ball).getLifetime());
+			}
+		}
+		this.hash=recomputeHash();
 	}
 	
 	/**
@@ -104,6 +135,93 @@ public class BreakoutState {
 		return balls.clone();
 	}
 
+	/**
+	 * Returns the number of balls of this BreakoutState object, counting each Ball object as many times as its
+	 * multiplicity.
+	 * @inspects | this
+	 * @post | result == Stream.of(getBalls()).mapToInt(e -> e.getMultiplicity()).sum()
+	 */
+	public int getBallCount() {
+		int count = 0;
+		for (Ball ball : balls) {
+			count += ball.multiplicity;
+		}
+		return count;
+	}
+	
+	/**
+	 * Returns whether this BreakoutState object merges identical balls.
+	 * @inspects | this
+	 */
+	public boolean isMergingBalls() {
+		return mergingBalls;
+	}
+	
+	/**
+	 * Sets whether this BreakoutState object merges identical balls.
+	 * 
+	 * While merging, balls with the same type, center, velocity, diameter and remaining lifetime, as arise when
+	 * replicated balls meet, are stored as one Ball object whose multiplicity is their number, and they cost a single
+	 * step per tick. Their multiplicity counts in getBallCount and getPaddleContactCount. A merged ball about to hit
+	 * a block or a replicator paddle, where the identical balls would start to behave differently, is split into one
+	 * ball taking the hit and one standing for the others, which then meets the block or paddle as it was left. Since
+	 * each such split consumes a lifetime of the block or paddle, the work of a tick stays bounded by the number of
+	 * distinct balls, however many identical ones there are. Merged balls are stepped at the place of the first of
+	 * them, so distinct balls meeting the same block in one tick can do so in a different order than without merging.
+	 * When merging is turned off, all merged balls are split into separate balls.
+	 * @mutates | this
+	 * @post | isMergingBalls() == merging
+	 * @post | getBallCount() == old(getBallCount())
+	 */
+	public void setMergingBalls(boolean merging) {
+		mergingBalls = merging;
+		if (merging) {
+			mergeBalls();
+		}
+		else {
+			expandBalls();
+		}
+	}
+	
+	/**
+	 * Returns the number of ticks after which this BreakoutState object reorders its balls, or 0 if it does not.
+	 * @inspects | this
+	 * @post | result >= 0
+	 */
+	public int getBallReorderingPeriod() {
+		return reorderingPeriod;
+	}
+	
+	/**
+	 * Sets the number of ticks after which this BreakoutState object reorders its balls, or turns reordering off if
+	 * the given period is 0, which is the default.
+	 * 
+	 * While reordering, every given number of ticks ends by sorting the balls by the Morton code of their centers, so
+	 * that balls close to each other in the game field come close to each other in getBalls, and by replacing each Ball
+	 * object by an equal copy. The copies are allocated in the new order, as are the centers each tick replaces, so that
+	 * the balls are also laid out in memory in the order in which they are processed, and the ball-ball collisions touch
+	 * fewer cache lines. The balls are processed in the new order, so that balls meeting the same block or paddle in one
+	 * tick can do so in a different order than without reordering.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the period is negative.
+	 * 	| ticks < 0
+	 * @post | getBallReorderingPeriod() == ticks
+	 * @post | hash() == old(hash())
+	 */
+	public void setBallReorderingPeriod(int ticks) {
+		if (ticks < 0) {
+			throw new IllegalArgumentException("You have supplied an invalid reordering period!");
+		}
+		reorderingPeriod = ticks;
+		ticksUntilReordering = ticks;
+		if (ticks == 0) {
+			ballOrder = null;
+		}
+		else if (ballOrder == null) {
+			ballOrder = new MortonOrder();
+		}
+	}
+	
 	/**
 	 * Returns the array of BlockState objects contained within this BreakoutState object.
 	 * @creates | result
@@ -130,6 +248,82 @@ public class BreakoutState {
 		return bottomRight;
 	}
 	
+	/**
+	 * Returns a 64-bit fingerprint of the balls, the blocks and the paddle of this BreakoutState object, in constant time.
+	 * Game states with equal balls, blocks and paddle have equal fingerprints; the remaining lifetime of supercharged
+	 * balls is not taken into account. The fingerprint is maintained by tick and the paddle movements, so it does not
+	 * reflect changes made directly to the Ball objects returned by getBalls.
+	 * @inspects | this
+	 */
+	public long hash() {
+		return hash;
+	}
+	
+	/**
+	 * Returns the number of times a ball bounced off the paddle since this BreakoutState object was created.
+	 * @inspects | this
+	 * @post | result >= 0
+	 */
+	public long getPaddleContactCount() {
+		return paddleContacts;
+	}
+	
+	/**
+	 * Returns whether the balls of this BreakoutState object collide with each other.
+	 * @inspects | this
+	 */
+	public boolean isCollidingBalls() {
+		return ballGrid != null;
+	}
+	
+	/**
+	 * Sets whether the balls of this BreakoutState object collide with each other. By default they pass through each
+	 * other. When colliding, each tick ends by bouncing the balls that overlap while moving towards each other off each
+	 * other, elastically, as discs with a mass proportional to their area. The pairs are found through a spatial hash
+	 * with cells as wide as the largest ball, so the added cost per tick grows about linearly with the number of balls.
+	 * @mutates | this
+	 * @post | isCollidingBalls() == colliding
+	 */
+	public void setCollidingBalls(boolean colliding) {
+		if (!colliding) {
+			ballGrid = null;
+		}
+		else if (ballGrid == null) {
+			ballGrid = new BallGrid();
+		}
+	}
+	
+	/**
+	 * Returns the number of ball-ball collisions performed since the balls of this BreakoutState object started to
+	 * collide, or 0 if they do not.
+	 * @inspects | this
+	 * @post | result >= 0
+	 */
+	public long getBallCollisionCount() {
+		return ballGrid == null ? 0 : ballGrid.getCollisionCount();
+	}
+	
+	/**
+	 * Returns the fingerprint of this BreakoutState object computed from scratch.
+	 */
+	long recomputeHash() {
+		long result = StateHash.of(paddle);
+		for (Ball ball : balls) {
+			result += StateHash.of(ball);
+		}
+		for (BlockState block : blocks) {
+			result += StateHash.of(block);
+		}
+		return result;
+	}
+	
+	private void changePaddle(PaddleState newPaddle) {
+		if (newPaddle != paddle) {
+			hash += StateHash.of(newPaddle) - StateHash.of(paddle);
+			paddle = newPaddle;
+		}
+	}
+	
 	private void removeBlock(BlockState block) {
 		BlockState[] blocksLeft = new BlockState[blocks.length-1];
 		int found=0;
@@ -143,11 +337,145 @@ public class BreakoutState {
 		blocks=blocksLeft;
 	}
 	
-	private void removeBall(Ball ball) {
+	/**
+	 * Lets the ball at the given index, with the given current state, stand for one ball, and inserts a ball
+	 * standing for the others right after it.
+	 */
+	private void splitBall(Ball ball, int index) {
+		Ball rest = ball.split(ball.multiplicity - 1);
+		if (rest instanceof SuperBall) {
+			scheduleExpiry((SuperBall) rest, ((SuperBall) rest).getLifetime());
+		}
+		hash += StateHash.of(rest);
+		Ball[] expanded = new Ball[balls.length+1];
+		System.arraycopy(balls, 0, expanded, 0, index+1);
+		expanded[index+1] = rest;
+		System.arraycopy(balls, index+1, expanded, index+2, balls.length-index-1);
+		balls = expanded;
+	}
+	
+	/**
+	 * Merges each ball into the first ball with the same type, center, velocity, diameter and remaining lifetime.
+	 */
+	private void mergeBalls() {
+		if (balls.length < 2) {
+			return;
+		}
+		// At most half full, so that the probe sequences stay short
+		if (mergeSlots.length < 2 * balls.length) {
+			mergeSlots = new int[Integer.highestOneBit(2 * balls.length - 1) << 1];
+		}
+		int mask = mergeSlots.length - 1;
+		int kept = 0;
+		for (Ball ball : balls) {
+			int slot = mergeHash(ball) & mask;
+			while (mergeSlots[slot] != 0 && !isSameBall(balls[mergeSlots[slot] - 1], ball)) {
+				slot = slot + 1 & mask;
+			}
+			if (mergeSlots[slot] != 0) {
+				balls[mergeSlots[slot] - 1].multiplicity += ball.multiplicity;
+				if (ball instanceof SuperBall) {
+					((SuperBall) ball).cancelExpiry();
+				}
+				continue;
+			}
+			balls[kept++] = ball;
+			mergeSlots[slot] = kept;
+		}
+		Arrays.fill(mergeSlots, 0);
+		if (kept < balls.length) {
+			balls = Arrays.copyOf(balls, kept);
+		}
+	}
+	
+	/**
+	 * Returns the remaining lifetime of the given ball if it is supercharged, or 0 otherwise.
+	 */
+	private static long remainingLifetime(Ball ball) {
+		return ball instanceof SuperBall ? ((SuperBall) ball).getLifetime() : 0;
+	}
+	
+	/**
+	 * Returns a hash of the type, center, velocity, diameter and remaining lifetime of the given ball.
+	 */
+	private static int mergeHash(Ball ball) {
+		long h = ball.type;
+		h = h * 31 + ball.diameter;
+		h = h * 31 + ball.center.getX();
+		h = h * 31 + ball.center.getY();
+		h = h * 31 + ball.velocity.getX();
+		h = h * 31 + ball.velocity.getY();
+		h = (h * 31 + remainingLifetime(ball)) * 0x9E3779B97F4A7C15L;
+		return (int) (h >>> 32);
+	}
+	
+	/**
+	 * Returns whether the given balls have the same type, center, velocity, diameter and remaining lifetime.
+	 */
+	private static boolean isSameBall(Ball a, Ball b) {
+		return a.type == b.type && a.diameter == b.diameter && a.center.getX() == b.center.getX()
+				&& a.center.getY() == b.center.getY() && a.velocity.getX() == b.velocity.getX()
+				&& a.velocity.getY() == b.velocity.getY() && remainingLifetime(a) == remainingLifetime(b);
+	}
+	
+	/**
+	 * Splits each merged ball into separate balls, which follow it.
+	 */
+	private void expandBalls() {
+		int count = getBallCount();
+		if (count == balls.length) {
+			return;
+		}
+		Ball[] expanded = new Ball[count];
+		int found = 0;
+		for (Ball ball : balls) {
+			expanded[found++] = ball;
+			while (ball.multiplicity > 1) {
+				Ball copy = ball.split(1);
+				if (copy instanceof SuperBall) {
+					scheduleExpiry((SuperBall) copy, ((SuperBall) copy).getLifetime());
+				}
+				expanded[found++] = copy;
+			}
+		}
+		balls = expanded;
+	}
+	
+	/**
+	 * Sorts the balls by the Morton code of their centers and replaces each by an equal copy, allocated in the new order.
+	 */
+	private void reorderBalls() {
+		ballOrder.sort(balls, bottomRight);
+		for (int i = 0; i < balls.length; i++) {
+			Ball ball = balls[i];
+			Ball copy = ball.copy();
+			if (ball instanceof SuperBall) {
+				((SuperBall) ball).cancelExpiry();
+				scheduleExpiry((SuperBall) copy, ((SuperBall) copy).getLifetime());
+			}
+			balls[i] = copy;
+		}
+	}
+	
+	/**
+	 * Returns whether the paddle overlaps the box the given ball can reach while it skips its collision tests.
+	 */
+	private boolean paddleReaches(Ball ball) {
+		int x = paddle.center.getX();
+		int y = paddle.center.getY();
+		return x - paddle.size.getX() <= ball.reachRight && x + paddle.size.getX() >= ball.reachLeft
+				&& y - paddle.size.getY() <= ball.reachBottom && y + paddle.size.getY() >= ball.reachTop;
+	}
+	
+	private void removeBall(int removed) {
+		hash -= StateHash.of(balls[removed]);
+		if (balls[removed] instanceof SuperBall) {
+			((SuperBall) balls[removed]).cancelExpiry();
+		}
 		Ball[] ballsLeft = new Ball[balls.length-1];
 		int found=0;
 		for (int index = 0; index<balls.length; index++) {
-			if (ball.equals(balls[index])) {
+			if (index == removed) {
 				found++;
 				continue;
 			}
@@ -156,7 +484,15 @@ public class BreakoutState {
 		balls=ballsLeft;
 	}
 	
-	private void replicateBall(Ball ball, int reps) {
+	/**
+	 * Lets the lifetime of the given supercharged ball run out the given amount of time from now.
+	 */
+	private void scheduleExpiry(SuperBall ball, long lifetime) {
+		ball.cancelExpiry();
+		ball.scheduleExpiry(timers, timers.getTime() + lifetime);
+	}
+	
+	private void replicateBall(Ball ball, int reps, int elapsedTime) {
 		if (reps == 0) {
 			return;
 		}
@@ -167,6 +503,11 @@ public class BreakoutState {
 		Ball[] replicated = ball.replicate(reps);
 		for (int j=0; j<reps; j++) {
 			expanded[balls.length+j] = replicated[j];
+			hash += StateHash.of(replicated[j]);
+			// Replicates are still moved during this tick, so their lifetime runs for this tick as well
+			if (replicated[j] instanceof SuperBall) {
+				scheduleExpiry((SuperBall) replicated[j], ((SuperBall) replicated[j]).getLifetime() - elapsedTime);
+			}
 		}
 		balls=expanded;
 	}
@@ -174,6 +515,10 @@ public class BreakoutState {
 	/**
 	 * Performs one movement iteration of the game based on the current position and applicable
 	 * velocities of the balls, the blocks and the paddle. Removes blocks and balls if necessary.
+	 * 
+	 * A ball that keeps a distance from all blocks and the paddle which it cannot cover for some time is not tested
+	 * against them until that time has run out, unless the paddle moves into the box the ball can reach in that time.
+	 * The result is the same as when every ball is tested every tick.
 	 * @inspects | this
 	 * @mutates | this
 	 * @pre paddleDir should be 0, 1 or -1.
@@ -184,59 +529,162 @@ public class BreakoutState {
 	 * 	| getPaddle().rectangleOf().equals(old(getPaddle().rectangleOf()))
 	 */
 	public void tick(int paddleDir, int elapsedTime) {
+		// Run the game clock, marking the supercharged balls whose lifetime ran out as expired
+		timers.advance(elapsedTime);
+		long now = timers.getTime();
+		
+		// The index of a ball split off from the previous one, which has already moved during this tick
+		int moved = -1;
+		
 		for (int i=0; i<balls.length; i++) {
 			
 			// Retrieve the current ball state
 			Ball ball=balls[i];
+			hash -= StateHash.of(ball);
 			
-			// Age and move ball
-			ball = ball.age(elapsedTime);
-			ball.roll(elapsedTime);
+			if (i != moved) {
 			
-			// Determine points and sizes of the ball
-			Rect ballRect = ball.rectangleOf();
-			int ballLeftX = ballRect.getTopLeft().getX();
-			int ballRightX = ballRect.getBottomRight().getX();
-			int ballTopY = ballRect.getTopLeft().getY();
-			int ballBottomY = ballRect.getBottomRight().getY();
+				// Convert an expired ball and move ball
+				if (ball instanceof SuperBall && ((SuperBall) ball).isExpired()) {
+					Ball converted = ((SuperBall) ball).convertToNormal();
+					converted.multiplicity = ball.multiplicity;
+					ball = converted;
+				}
+				ball.roll(elapsedTime);
 			
-			// Bounce ball at the left, at the right and at the top of the game field, remove it at the bottom
-			if (ballLeftX <= 0) {
-				ball.bounce(Vector.LEFT);
-			}
-			else if (ballRightX >= bottomRight.getX()) {
-				ball.bounce(Vector.RIGHT);
-			}
-			if (ballTopY <= 0) {
-				ball.bounce(Vector.UP);
+				// Determine points and sizes of the ball
+				Rect ballRect = ball.rectangleOf();
+				int ballLeftX = ballRect.getTopLeft().getX();
+				int ballRightX = ballRect.getBottomRight().getX();
+				int ballTopY = ballRect.getTopLeft().getY();
+				int ballBottomY = ballRect.getBottomRight().getY();
+			
+				// Bounce ball at the left, at the right and at the top of the game field, remove it at the bottom
+				if (ballLeftX <= 0) {
+					ball.bounce(Vector.LEFT);
+				}
+				else if (ballRightX >= bottomRight.getX()) {
+					ball.bounce(Vector.RIGHT);
+				}
+				if (ballTopY <= 0) {
+					ball.bounce(Vector.UP);
+				}
+				else if (ballBottomY >= bottomRight.getY()) {
+					hash += StateHash.of(balls[i]);
+					removeBall(i);
+					// The ball taking the place of the removed one is skipped during this tick, so its lifetime does not run
+					if (i < balls.length && balls[i] instanceof SuperBall) {
+						((SuperBall) balls[i]).postponeExpiry(elapsedTime);
+					}
+					continue;
+				}
 			}
-			else if (ballBottomY >= bottomRight.getY()) {
-				removeBall(ball);
+			
+			// A ball that cannot have reached a block or the paddle yet is not tested against them
+			if (ball.safeUntil >= now && !paddleReaches(ball)) {
+				balls[i] = ball;
+				hash += StateHash.of(ball);
 				continue;
 			}
 			
+			// The distance the ball keeps from the blocks and the paddle, or 0 if it touches one
+			long gap = Long.MAX_VALUE;
+			int radius = ball.diameter/2;
+			int left = ball.center.getX() - radius;
+			int top = ball.center.getY() - radius;
+			int right = ball.center.getX() + radius;
+			int bottom = ball.center.getY() + radius;
+			
 			// Detecting and executing the possible effects of a ball-block hit
 			for (int j=0; j<blocks.length; j++) {
 				BlockState block=blocks[j];
-				ballBlockHitResults blockBallHit = block.hitBy(ball, paddle);
+				long blockGap = Rect.gap(left, top, right, bottom, block.TL.getX(), block.TL.getY(), block.BR.getX(), block.BR.getY());
+				if (blockGap > 0) {
+					gap = Math.min(gap, blockGap);
+					continue;
+				}
+				gap = 0;
+				if (ball.multiplicity > 1 && CollisionDispatch.touches(ball, block)) {
+					splitBall(ball, i);
+					moved = i+1;
+				}
+				ballBlockHitResults blockBallHit = CollisionDispatch.hitBlock(block, ball, paddle);
+				if (blockBallHit == null) {
+					continue;
+				}
 				if (blockBallHit.destroyed) {
+					hash -= StateHash.of(block);
 					removeBlock(block);
 				}
 				else {
+					if (blockBallHit.block != block) {
+						hash += StateHash.of(blockBallHit.block) - StateHash.of(block);
+					}
 					blocks[j] = blockBallHit.block;
 				}
 				ball = blockBallHit.ball;
-				paddle = blockBallHit.paddle;
+				changePaddle(blockBallHit.paddle);
+				radius = ball.diameter/2;
+				left = ball.center.getX() - radius;
+				top = ball.center.getY() - radius;
+				right = ball.center.getX() + radius;
+				bottom = ball.center.getY() + radius;
+			}
+			
+			// A ball that was powered up into a supercharged ball starts its lifetime
+			if (ball instanceof SuperBall && !((SuperBall) ball).isExpiryScheduled()) {
+				scheduleExpiry((SuperBall) ball, ((SuperBall) ball).getLifetime());
 			}
 			
 			// Detecting and executing the possible effects of a ball-paddle hit
-			ballPaddleHitResults paddleBallHit = paddle.hitBall(ball, paddleDir);
-			ball = paddleBallHit.ball;
-			replicateBall(ball, paddleBallHit.reps);
-			paddle = paddleBallHit.paddle;
+			if (ball.multiplicity > 1 && paddle.type == PaddleState.REPLICATOR && CollisionDispatch.touches(ball, paddle)) {
+				splitBall(ball, i);
+				moved = i+1;
+			}
+			ballPaddleHitResults paddleBallHit = CollisionDispatch.hitPaddle(paddle, ball, paddleDir);
+			if (paddleBallHit != null) {
+				paddleContacts += ball.multiplicity;
+				ball = paddleBallHit.ball;
+				replicateBall(ball, paddleBallHit.reps, elapsedTime);
+				changePaddle(paddleBallHit.paddle);
+				gap = 0;
+			}
+			else if (gap > 0) {
+				int x = paddle.center.getX();
+				int y = paddle.center.getY();
+				gap = Math.min(gap, Rect.gap(left, top, right, bottom,
+						x - paddle.size.getX(), y - paddle.size.getY(), x + paddle.size.getX(), y + paddle.size.getY()));
+			}
+			
+			// Skip the collision tests of the ball for as long as it cannot cover the distance it keeps
+			if (gap > 0) {
+				int speed = Math.max(1, Math.max(Math.abs(ball.velocity.getX()), Math.abs(ball.velocity.getY())));
+				long time = (gap - 1) / speed;
+				long reach = time * speed;
+				ball.safeUntil = now + time;
+				ball.reachLeft = (int) Math.max(Integer.MIN_VALUE, left - reach);
+				ball.reachTop = (int) Math.max(Integer.MIN_VALUE, top - reach);
+				ball.reachRight = (int) Math.min(Integer.MAX_VALUE, right + reach);
+				ball.reachBottom = (int) Math.min(Integer.MAX_VALUE, bottom + reach);
+			}
+			else {
+				ball.safeUntil = Long.MIN_VALUE;
+			}
 			
 			// Fix ball state
 			balls[i] = ball;
+			hash += StateHash.of(ball);
+		}
+		
+		if (ballGrid != null) {
+			hash += ballGrid.collide(balls);
+		}
+		if (mergingBalls) {
+			mergeBalls();
+		}
+		if (ballOrder != null && --ticksUntilReordering == 0) {
+			reorderBalls();
+			ticksUntilReordering = reorderingPeriod;
 		}
 	}
 	
@@ -260,7 +708,7 @@ public class BreakoutState {
 		if (newCenter.plus(paddle.getSize()).getX() > bottomRight.getX()) {
 			newCenter=paddle.getCenter();
 		}
-		paddle = paddle.changeCenter(newCenter);
+		changePaddle(paddle.changeCenter(newCenter));
 	}
 
 	/**
@@ -283,9 +731,59 @@ public class BreakoutState {
 		if (newCenter.minus(paddle.getSize()).getX() < 0) {
 			newCenter=paddle.getCenter();
 		}
-		paddle = paddle.changeCenter(newCenter);
+		changePaddle(paddle.changeCenter(newCenter));
 	}
-	
+
+	/**
+	 * Performs the steps from index from up to but not including index to, stopping early when the game is won or
+	 * lost, and returns the number of steps performed. Each step k moves the paddle in direction paddleDirs[k] over
+	 * elapsedTimes[k] ms, as movePaddleRight or movePaddleLeft do, and then performs tick(paddleDirs[k], elapsedTimes[k]).
+	 * The inputs are validated once, before the first step.
+	 * @mutates | this
+	 * @inspects | paddleDirs, elapsedTimes
+	 * @throws IllegalArgumentException if no paddle directions or elapsed times are supplied.
+	 * 	| paddleDirs == null || elapsedTimes == null
+	 * @throws IllegalArgumentException if the range of steps does not lie within both arrays.
+	 * 	| from < 0 || to < from || to > paddleDirs.length || to > elapsedTimes.length
+	 * @throws IllegalArgumentException if a paddle direction in the range is not 0, 1 or -1.
+	 * 	| IntStream.range(from, to).anyMatch(k -> paddleDirs[k] < -1 || paddleDirs[k] > 1)
+	 * @throws IllegalArgumentException if an elapsed time in the range is not positive or larger than MAX_ELAPSED_TIME.
+	 * 	| IntStream.range(from, to).anyMatch(k -> elapsedTimes[k] <= 0 || elapsedTimes[k] > MAX_ELAPSED_TIME)
+	 * @post | result >= 0 && result <= to - from
+	 * @post | result == to - from || isWon() || isDead()
+	 */
+	public int tickBatch(int[] paddleDirs, int[] elapsedTimes, int from, int to) {
+		if (paddleDirs == null || elapsedTimes == null) {
+			throw new IllegalArgumentException("You have not supplied valid inputs!");
+		}
+		if (from < 0 || to < from || to > paddleDirs.length || to > elapsedTimes.length) {
+			throw new IllegalArgumentException("You have supplied an invalid range of steps!");
+		}
+		for (int k = from; k < to; k++) {
+			if (paddleDirs[k] < -1 || paddleDirs[k] > 1) {
+				throw new IllegalArgumentException("You have supplied an invalid paddle direction!");
+			}
+			if (elapsedTimes[k] <= 0 || elapsedTimes[k] > MAX_ELAPSED_TIME) {
+				throw new IllegalArgumentException("You have supplied an invalid elapsed time!");
+			}
+		}
+		int k = from;
+		for (; k < to && !isWon() && !isDead(); k++) {
+			int paddleDir = paddleDirs[k];
+			int elapsedTime = elapsedTimes[k];
+			if (paddleDir != 0) {
+				// The same movement as movePaddleRight and movePaddleLeft, without their intermediate objects
+				// Only the wall in the direction of the movement stops the paddle
+				int newX = paddle.center.getX() + paddleDir * 10 * elapsedTime;
+				if (paddleDir > 0 ? newX + paddle.size.getX() <= bottomRight.getX() : newX - paddle.size.getX() >= 0) {
+					changePaddle(paddle.changeCenter(new Point(newX, paddle.center.getY())));
+				}
+			}
+			tick(paddleDir, elapsedTime);
+		}
+		return k - from;
+	}
+
 	/**
 	 * Checks whether this BreakoutState object is in a winning terminal state.
 	 * @inspects | this
@@ -301,4 +799,4 @@ public class BreakoutState {
 	public boolean isDead() {
 		return (balls.length == 0);
 	}
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package breakout;
 
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
@@ -245,4 +246,297 @@ class BreakoutStateTest {
 		assert Stream.of(ballBottomGame.getBalls()).allMatch(e -> Stream.of(gameBallsBottom).anyMatch(f -> f.equals(e)));
 		assert Stream.of(ballBottomGame.getBalls()).allMatch(e -> !(e.equals(gameBallsBottom[0])));
 	}
+	
+	@Test
+	void testSuperBallExpiry() {
+		
+		// a supercharged ball turns into a normal ball in the tick in which its lifetime runs out
+		Ball[] superBalls = {new SuperBall(new Point(500,500),10,new Vector(1,1),25)};
+		BreakoutState superGame = new BreakoutState(superBalls,game.getBlocks(),game.getBottomRight(),game.getPaddle());
+		superGame.tick(0,10);
+		assertEquals(15, ((SuperBall) superGame.getBalls()[0]).getLifetime());
+		superGame.tick(0,10);
+		assertEquals(5, ((SuperBall) superGame.getBalls()[0]).getLifetime());
+		superGame.tick(0,5);
+		assert superGame.getBalls()[0] instanceof NormalBall;
+		assertEquals(new Point(525,525), superGame.getBalls()[0].getCenter());
+		
+		// the ball following a ball that reaches the bottom is skipped in that tick, and does not age either
+		Ball[] skippedBalls = {new NormalBall(new Point(500,985),10,new Vector(1,10)),
+								new SuperBall(new Point(500,100),10,new Vector(1,-1),15)};
+		BreakoutState skippedGame = new BreakoutState(skippedBalls,game.getBlocks(),game.getBottomRight(),game.getPaddle());
+		skippedGame.tick(0,10);
+		assertEquals(15, ((SuperBall) skippedGame.getBalls()[0]).getLifetime());
+		assertEquals(new Point(500,100), skippedGame.getBalls()[0].getCenter());
+		skippedGame.tick(0,10);
+		assertEquals(5, ((SuperBall) skippedGame.getBalls()[0]).getLifetime());
+		skippedGame.tick(0,10);
+		assert skippedGame.getBalls()[0] instanceof NormalBall;
+	}
+	
+	@Test
+	void testTickBatch() {
+		
+		// a batch performs the same steps as single paddle movements and ticks
+		Random random = new Random(36);
+		for (int g = 0; g < 20; g++) {
+			String level = TestFixtures.randomLevel(random);
+			BreakoutState single = GameMap.createStateFromDescription(level);
+			BreakoutState batched = GameMap.createStateFromDescription(level);
+			int[] paddleDirs = new int[4000];
+			int[] elapsedTimes = new int[4000];
+			for (int k = 0; k < paddleDirs.length; k++) {
+				paddleDirs[k] = random.nextInt(3) - 1;
+				elapsedTimes[k] = 1 + random.nextInt(BreakoutState.MAX_ELAPSED_TIME);
+			}
+			int steps = 0;
+			for (int k = 10; k < 3000 && !single.isWon() && !single.isDead(); k++, steps++) {
+				if (paddleDirs[k] == 1) {
+					single.movePaddleRight(elapsedTimes[k]);
+				}
+				else if (paddleDirs[k] == -1) {
+					single.movePaddleLeft(elapsedTimes[k]);
+				}
+				single.tick(paddleDirs[k], elapsedTimes[k]);
+			}
+			assertEquals(steps, batched.tickBatch(paddleDirs, elapsedTimes, 10, 3000));
+			TestFixtures.assertSameState(single, batched);
+			assertEquals(single.hash(), batched.hash());
+		}
+		
+		// a paddle overlapping one wall still moves away from it, as movePaddleRight and movePaddleLeft do
+		Point field = new Point(10000, 30000);
+		for (int paddleDir = -1; paddleDir <= 1; paddleDir += 2) {
+			int x = paddleDir > 0 ? 100 : field.getX() - 100;
+			BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(1000, 500))};
+			BreakoutState single = new BreakoutState(new Ball[] {new NormalBall(new Point(5000, 10000), 700, new Vector(5, 7))},
+					blocks, field, new NormalPaddleState(new Point(x, 28000), PaddleState.DEFAULT_SIZE));
+			BreakoutState batched = new BreakoutState(new Ball[] {new NormalBall(new Point(5000, 10000), 700, new Vector(5, 7))},
+					blocks, field, new NormalPaddleState(new Point(x, 28000), PaddleState.DEFAULT_SIZE));
+			if (paddleDir > 0) {
+				single.movePaddleRight(10);
+			}
+			else {
+				single.movePaddleLeft(10);
+			}
+			single.tick(paddleDir, 10);
+			assertEquals(1, batched.tickBatch(new int[] {paddleDir}, new int[] {10}, 0, 1));
+			assertEquals(x + paddleDir * 100, batched.getPaddle().getCenter().getX());
+			TestFixtures.assertSameState(single, batched);
+		}
+		
+		// a finished game performs no steps, and invalid inputs are rejected before any step
+		BreakoutState dead = GameMap.createStateFromDescription(SubmissionTestSuite.initMapDead);
+		assertEquals(0, dead.tickBatch(new int[] {0}, new int[] {10}, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> game.tickBatch(null, new int[1], 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> game.tickBatch(new int[2], new int[1], 0, 2));
+		assertThrows(IllegalArgumentException.class, () -> game.tickBatch(new int[] {0, 2}, new int[] {10, 10}, 0, 2));
+		assertThrows(IllegalArgumentException.class, () -> game.tickBatch(new int[] {0, 0}, new int[] {10, 0}, 0, 2));
+		assertEquals(ballcenter, game.getBalls()[0].getCenter());
+	}
+
+	@Test
+	void testCollidingBalls() {
+		Ball[] balls = {new NormalBall(new Point(20000, 10000), 700, new Vector(5, 0)),
+				new NormalBall(new Point(20650, 10000), 700, new Vector(-5, 0))};
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(1000, 500))};
+		PaddleState paddle = new NormalPaddleState(new Point(25000, 28000), PaddleState.DEFAULT_SIZE);
+		
+		// by default the balls pass through each other
+		Ball[] copies = {new NormalBall(new Point(20000, 10000), 700, new Vector(5, 0)),
+				new NormalBall(new Point(20650, 10000), 700, new Vector(-5, 0))};
+		BreakoutState passing = new BreakoutState(copies, blocks, new Point(50000, 30000), paddle);
+		passing.tick(0, 10);
+		assertFalse(passing.isCollidingBalls());
+		assertEquals(new Vector(5, 0), passing.getBalls()[0].getVelocity());
+		
+		// colliding balls of equal mass exchange their velocities in a head-on collision
+		BreakoutState colliding = new BreakoutState(balls, blocks, new Point(50000, 30000), paddle);
+		colliding.setCollidingBalls(true);
+		assertTrue(colliding.isCollidingBalls());
+		colliding.tick(0, 10);
+		assertEquals(new Vector(-5, 0), colliding.getBalls()[0].getVelocity());
+		assertEquals(new Vector(5, 0), colliding.getBalls()[1].getVelocity());
+		assertEquals(1, colliding.getBallCollisionCount());
+		assertEquals(colliding.recomputeHash(), colliding.hash());
+		
+		// separating balls do not collide again
+		colliding.tick(0, 10);
+		assertEquals(1, colliding.getBallCollisionCount());
+		colliding.setCollidingBalls(false);
+		assertEquals(0, colliding.getBallCollisionCount());
+	}
+
+	@Test
+	void testMergingBalls() {
+		
+		// a thousand identical balls falling onto a replicator paddle, with and without merging
+		BreakoutState[] states = new BreakoutState[2];
+		for (int k = 0; k < 2; k++) {
+			Ball[] balls = new Ball[1000];
+			for (int i = 0; i < balls.length; i++) {
+				balls[i] = new NormalBall(new Point(25000, 27200), 700, new Vector(0, 5));
+			}
+			BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(1000, 500))};
+			PaddleState paddle = new ReplicatorPaddleState(new Point(25000, 28000), PaddleState.DEFAULT_SIZE, 3);
+			states[k] = new BreakoutState(balls, blocks, new Point(50000, 30000), paddle);
+		}
+		BreakoutState separate = states[0];
+		BreakoutState merged = states[1];
+		long hash = merged.hash();
+		merged.setMergingBalls(true);
+		assertTrue(merged.isMergingBalls());
+		assertEquals(1, merged.getBalls().length);
+		assertEquals(1000, merged.getBallCount());
+		assertEquals(hash, merged.hash());
+		
+		// the first three balls take the lifetimes of the paddle and are replicated 3, 2 and 1 times
+		separate.tick(0, 50);
+		merged.tick(0, 50);
+		assertEquals(1006, separate.getBallCount());
+		assertEquals(1006, merged.getBallCount());
+		assertEquals(4, merged.getBalls().length);
+		assertEquals(1000, merged.getBalls()[0].getMultiplicity());
+		assertEquals(separate.hash(), merged.hash());
+		assertEquals(merged.recomputeHash(), merged.hash());
+		for (int t = 0; t < 100; t++) {
+			separate.tick(0, 20);
+			merged.tick(0, 20);
+			assertEquals(separate.getBallCount(), merged.getBallCount());
+			assertEquals(separate.getPaddleContactCount(), merged.getPaddleContactCount());
+			assertEquals(separate.hash(), merged.hash());
+		}
+		assertTrue(merged.getBalls().length <= 4);
+		
+		// turning merging off splits the merged balls again
+		merged.setMergingBalls(false);
+		assertEquals(1006, merged.getBalls().length);
+		assertEquals(1006, merged.getBallCount());
+		assertEquals(separate.hash(), merged.hash());
+		assertEquals(merged.recomputeHash(), merged.hash());
+	}
+
+	@Test
+	void testMergingOnlyIdenticalBalls() {
+		// 250 distinct balls, each listed twice, alternating with 250 balls that differ from them only in one property
+		Ball[] balls = new Ball[1000];
+		for (int i = 0; i < 250; i++) {
+			Point center = new Point(1000 + 180 * i, 15000 + 40 * (i % 7));
+			Vector velocity = new Vector(i % 5 - 2, -3);
+			balls[4 * i] = new NormalBall(center, 700, velocity);
+			balls[4 * i + 1] = new NormalBall(center, 700, new Vector(i % 5 - 2, -4));
+			balls[4 * i + 2] = new NormalBall(center, 700, velocity);
+			balls[4 * i + 3] = i % 2 == 0 ? new NormalBall(center, 800, velocity) : new SuperBall(center, 700, velocity, 5000);
+		}
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(1000, 500))};
+		BreakoutState state = new BreakoutState(balls, blocks, new Point(50000, 30000),
+				new NormalPaddleState(new Point(25000, 28000), PaddleState.DEFAULT_SIZE));
+		state.setMergingBalls(true);
+		Ball[] merged = state.getBalls();
+		assertEquals(750, merged.length);
+		assertEquals(1000, state.getBallCount());
+		for (int i = 0; i < 250; i++) {
+			assertSame(balls[4 * i], merged[3 * i]);
+			assertEquals(2, merged[3 * i].getMultiplicity());
+			assertSame(balls[4 * i + 1], merged[3 * i + 1]);
+			assertSame(balls[4 * i + 3], merged[3 * i + 2]);
+			assertEquals(1, merged[3 * i + 2].getMultiplicity());
+		}
+		state.tick(0, 10);
+		assertEquals(750, state.getBalls().length);
+	}
+
+	@Test
+	void testReorderingBalls() {
+		
+		// four balls in the four quadrants of the game field, far from the blocks and the paddle
+		Ball[] balls = {
+				new NormalBall(new Point(40000, 20000), 700, new Vector(1, 1)),
+				new NormalBall(new Point(10000, 20000), 700, new Vector(1, 1)),
+				new NormalBall(new Point(40000, 5000), 700, new Vector(1, 1)),
+				new NormalBall(new Point(10000, 5000), 700, new Vector(1, 1)),
+		};
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(1000, 500))};
+		PaddleState paddle = new NormalPaddleState(new Point(25000, 28000), PaddleState.DEFAULT_SIZE);
+		BreakoutState state = new BreakoutState(balls, blocks, new Point(50000, 30000), paddle);
+		assertEquals(0, state.getBallReorderingPeriod());
+		assertThrows(IllegalArgumentException.class, () -> state.setBallReorderingPeriod(-1));
+		state.setBallReorderingPeriod(2);
+		assertEquals(2, state.getBallReorderingPeriod());
+		
+		// the balls are reordered, and replaced by equal copies, at the end of every second tick
+		state.tick(0, 10);
+		assertArrayEquals(balls, state.getBalls());
+		state.tick(0, 10);
+		Ball[] reordered = state.getBalls();
+		int[] order = {3, 1, 2, 0};
+		for (int i = 0; i < order.length; i++) {
+			assertNotSame(balls[order[i]], reordered[i]);
+			assertEquals(balls[order[i]].getCenter(), reordered[i].getCenter());
+			assertEquals(balls[order[i]].getVelocity(), reordered[i].getVelocity());
+		}
+		assertEquals(state.recomputeHash(), state.hash());
+		
+		state.setBallReorderingPeriod(0);
+		assertEquals(0, state.getBallReorderingPeriod());
+	}
+
+	@Test
+	void testSafeIntervals() {
+		
+		// the same game of many balls among many blocks, with the collision tests culled and with each ball tested every tick
+		BreakoutState[] states = new BreakoutState[2];
+		for (int k = 0; k < 2; k++) {
+			Random random = new Random(7);
+			Ball[] balls = new Ball[40];
+			for (int i = 0; i < balls.length; i++) {
+				Point center = new Point(2000 + random.nextInt(46000), 12000 + random.nextInt(12000));
+				Vector velocity = new Vector(random.nextInt(13) - 6, random.nextBoolean() ? 4 + random.nextInt(4) : -4 - random.nextInt(4));
+				balls[i] = i % 5 == 0 ? new SuperBall(center, 700, velocity, 3000) : new NormalBall(center, 700, velocity);
+			}
+			BlockState[] blocks = new BlockState[60];
+			for (int j = 0; j < blocks.length; j++) {
+				Point topLeft = new Point(j % 12 * 4000 + 1000, j / 12 * 2000 + 500);
+				Point bottomRight = topLeft.plus(new Vector(3000, 1000));
+				blocks[j] = j % 4 == 0 ? new SturdyBlockState(topLeft, bottomRight, 3) : new NormalBlockState(topLeft, bottomRight);
+			}
+			PaddleState paddle = new ReplicatorPaddleState(new Point(25000, 28000), PaddleState.DEFAULT_SIZE, 3);
+			states[k] = new BreakoutState(balls, blocks, new Point(50000, 30000), paddle);
+		}
+		BreakoutState culled = states[0];
+		BreakoutState full = states[1];
+		Random random = new Random(42);
+		boolean skipped = false;
+		long clock = 0;
+		for (int t = 0; t < 3000 && !full.isDead() && !full.isWon(); t++) {
+			int paddleDir = random.nextInt(3) - 1;
+			int elapsedTime = 1 + random.nextInt(20);
+			for (Ball ball : full.getBalls()) {
+				ball.changeVelocity(ball.getVelocity());
+			}
+			for (BreakoutState state : states) {
+				if (paddleDir == 1) {
+					state.movePaddleRight(elapsedTime);
+				}
+				else if (paddleDir == -1) {
+					state.movePaddleLeft(elapsedTime);
+				}
+			}
+			clock += elapsedTime;
+			for (Ball ball : culled.getBalls()) {
+				skipped |= ball.safeUntil >= clock;
+			}
+			culled.tick(paddleDir, elapsedTime);
+			full.tick(paddleDir, elapsedTime);
+			assertEquals(full.hash(), culled.hash());
+			assertEquals(full.getBalls().length, culled.getBalls().length);
+			assertEquals(full.getBlocks().length, culled.getBlocks().length);
+			assertEquals(full.getPaddleContactCount(), culled.getPaddleContactCount());
+		}
+		assertTrue(skipped);
+		for (int i = 0; i < full.getBalls().length; i++) {
+			assertEquals(full.getBalls()[i].getCenter(), culled.getBalls()[i].getCenter());
+			assertEquals(full.getBalls()[i].getVelocity(), culled.getBalls()[i].getVelocity());
+		}
+	}
 }
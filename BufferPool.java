@@ -0,0 +1,95 @@
+package breakout;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Each instance of this class hands out direct ByteBuffers of one size, and takes them back for reuse, so that network
+ * code does not allocate a direct buffer, which is costly to allocate and free, per message.
+ *
+ * A pool is not thread-safe: it is meant to be used by the one thread running a selector loop.
+ *
+ * @invar | getBufferBytes() > 0
+ * @invar | getFreeCount() >= 0 && getFreeCount() <= getCreatedCount()
+ */
+public class BufferPool {
+
+	/**
+	 * @invar | free != null
+	 * @invar | freeCount >= 0 && freeCount <= free.length
+	 * @invar | Arrays.stream(free, 0, freeCount).allMatch(e -> e != null && e.capacity() == bufferBytes)
+	 */
+	/** @representationObject */
+	private ByteBuffer[] free = new ByteBuffer[16];
+	private int freeCount;
+	private final int bufferBytes;
+	private int created;
+
+	/**
+	 * Returns an empty pool of buffers of the given number of bytes.
+	 * @throws IllegalArgumentException if the number of bytes is not positive.
+	 * 	| bufferBytes <= 0
+	 * @post | getBufferBytes() == bufferBytes
+	 * @post | getCreatedCount() == 0
+	 */
+	public BufferPool(int bufferBytes) {
+		if (bufferBytes <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid buffer size!");
+		}
+		this.bufferBytes = bufferBytes;
+	}
+
+	/**
+	 * Returns the number of bytes of the buffers of this pool.
+	 */
+	public int getBufferBytes() {
+		return bufferBytes;
+	}
+
+	/**
+	 * Returns the number of buffers this pool created so far.
+	 */
+	public int getCreatedCount() {
+		return created;
+	}
+
+	/**
+	 * Returns the number of buffers this pool holds for reuse.
+	 */
+	public int getFreeCount() {
+		return freeCount;
+	}
+
+	/**
+	 * Returns a cleared direct buffer of getBufferBytes() bytes, reusing one that was released if there is any.
+	 * @mutates | this
+	 * @post | result != null && result.isDirect() && result.capacity() == getBufferBytes()
+	 * @post | result.position() == 0 && result.limit() == result.capacity()
+	 */
+	public ByteBuffer acquire() {
+		if (freeCount == 0) {
+			created++;
+			return ByteBuffer.allocateDirect(bufferBytes);
+		}
+		ByteBuffer buffer = free[--freeCount];
+		free[freeCount] = null;
+		return buffer.clear();
+	}
+
+	/**
+	 * Takes back the given buffer, acquired from this pool and no longer used by the caller, for reuse.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the buffer was not acquired from a pool of this size.
+	 * 	| buffer == null || !buffer.isDirect() || buffer.capacity() != getBufferBytes()
+	 * @post | getFreeCount() == old(getFreeCount()) + 1
+	 */
+	public void release(ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferBytes) {
+			throw new IllegalArgumentException("You have not supplied a buffer of this pool!");
+		}
+		if (freeCount == free.length) {
+			free = Arrays.copyOf(free, 2 * free.length);
+		}
+		free[freeCount++] = buffer;
+	}
+}
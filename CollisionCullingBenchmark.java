@@ -0,0 +1,73 @@
+package breakout;
+
+import java.util.Random;
+
+/**
+ * Measures the time BreakoutState.tick saves by letting each ball skip its block and paddle tests while it cannot
+ * reach a block or the paddle, by running the same game of many balls below a wall of many blocks with the skipping
+ * and with every ball tested every tick. The latter is forced by changing the velocity of each ball to itself before
+ * each tick, which discards the intervals; the time this takes is measured separately and subtracted.
+ *
+ * Usage: CollisionCullingBenchmark [balls] [blocks] [ticks] [rounds]
+ */
+public class CollisionCullingBenchmark {
+
+	private CollisionCullingBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static BreakoutState randomGame(int ballCount, int blockCount) {
+		Random random = new Random(42);
+		Ball[] balls = new Ball[ballCount];
+		for (int i = 0; i < ballCount; i++) {
+			Point center = new Point(1000 + random.nextInt(48000), 15000 + random.nextInt(10000));
+			Vector velocity = new Vector(random.nextInt(11) - 5, random.nextBoolean() ? 3 + random.nextInt(5) : -3 - random.nextInt(5));
+			balls[i] = new NormalBall(center, 700, velocity);
+		}
+		// Rows of sturdy blocks, 100 to a row, above the balls
+		BlockState[] blocks = new BlockState[blockCount];
+		for (int j = 0; j < blockCount; j++) {
+			Point topLeft = new Point(j % 100 * 500, j / 100 * 200);
+			blocks[j] = new SturdyBlockState(topLeft, topLeft.plus(new Vector(400, 100)), 3);
+		}
+		PaddleState paddle = new NormalPaddleState(new Point(25000, 28000), PaddleState.DEFAULT_SIZE);
+		return new BreakoutState(balls, blocks, new Point(50000, 30000), paddle);
+	}
+
+	private static void discardIntervals(BreakoutState state) {
+		for (Ball ball : state.getBalls()) {
+			ball.changeVelocity(ball.getVelocity());
+		}
+	}
+
+	public static void main(String[] args) {
+		int ballCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int blockCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+		int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+		for (int round = 0; round < rounds; round++) {
+			BreakoutState culled = randomGame(ballCount, blockCount);
+			long start = System.nanoTime();
+			for (int t = 0; t < ticks; t++) {
+				culled.tick(0, 5);
+			}
+			long culledNanos = System.nanoTime() - start;
+
+			BreakoutState full = randomGame(ballCount, blockCount);
+			long discardNanos = 0;
+			start = System.nanoTime();
+			for (int t = 0; t < ticks; t++) {
+				long discardStart = System.nanoTime();
+				discardIntervals(full);
+				discardNanos += System.nanoTime() - discardStart;
+				full.tick(0, 5);
+			}
+			long fullNanos = System.nanoTime() - start - discardNanos;
+
+			System.out.printf("round %d: %d balls, %d blocks, tick %8.1f us tested every tick, %8.1f us skipping (%.1fx)%s%n",
+					round, ballCount, blockCount, fullNanos / 1000.0 / ticks, culledNanos / 1000.0 / ticks,
+					(double) fullNanos / culledNanos, culled.hash() == full.hash() ? "" : ", DIFFERENT RESULTS");
+		}
+	}
+}
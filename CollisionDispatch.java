@@ -0,0 +1,98 @@
+package breakout;
+
+/**
+ * This class performs the ball-block and ball-paddle collisions of BreakoutState.tick by dispatching on the type tags
+ * of the sealed Ball, BlockState and PaddleState hierarchies, instead of on virtual calls.
+ *
+ * A collision first tests in plain integer arithmetic whether the ball touches the block or paddle from outside, which
+ * is false for nearly all pairs and needs no objects. Only a touching pair is dispatched, through a switch on the pair
+ * of type tags, to the hitBy or hitBall method of the exact block or paddle class with the ball cast to its exact class.
+ * Each case is thereby a monomorphic call that the JIT compiler can inline and specialize for that pair of types.
+ */
+final class CollisionDispatch {
+
+	private CollisionDispatch() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Returns whether the given ball overlaps the given rectangle while moving into it, i.e. whether it bounces off it.
+	 */
+	static boolean touches(Ball ball, int left, int top, int right, int bottom) {
+		int radius = ball.diameter / 2;
+		int x = ball.center.getX();
+		int y = ball.center.getY();
+		Vector normal = Rect.overlap(x - radius, y - radius, x + radius, y + radius, left, top, right, bottom);
+		return normal != null && normal.product(ball.velocity) > 0;
+	}
+
+	/**
+	 * Returns whether the given ball hits the given block.
+	 */
+	static boolean touches(Ball ball, BlockState block) {
+		return touches(ball, block.TL.getX(), block.TL.getY(), block.BR.getX(), block.BR.getY());
+	}
+
+	/**
+	 * Returns whether the given ball hits the given paddle.
+	 */
+	static boolean touches(Ball ball, PaddleState paddle) {
+		int x = paddle.center.getX();
+		int y = paddle.center.getY();
+		return touches(ball, x - paddle.size.getX(), y - paddle.size.getY(), x + paddle.size.getX(), y + paddle.size.getY());
+	}
+
+	/**
+	 * Returns the result of the given ball hitting the given block with the given paddle, as block.hitBy(ball, paddle)
+	 * does, or null if the ball does not hit the block, in which case none of them changes.
+	 * @pre | block != null && ball != null && paddle != null
+	 */
+	static ballBlockHitResults hitBlock(BlockState block, Ball ball, PaddleState paddle) {
+		if (!touches(ball, block)) {
+			return null;
+		}
+		switch (block.type << 1 | ball.type) {
+		case BlockField.NORMAL << 1 | Ball.NORMAL:
+			return ((NormalBlockState) block).hitBy((NormalBall) ball, paddle);
+		case BlockField.NORMAL << 1 | Ball.SUPER:
+			return ((NormalBlockState) block).hitBy((SuperBall) ball, paddle);
+		case BlockField.STURDY << 1 | Ball.NORMAL:
+			return ((SturdyBlockState) block).hitBy((NormalBall) ball, paddle);
+		case BlockField.STURDY << 1 | Ball.SUPER:
+			return ((SturdyBlockState) block).hitBy((SuperBall) ball, paddle);
+		case BlockField.POWERUP_BALL << 1 | Ball.NORMAL:
+			return ((PowerupBallBlockState) block).hitBy((NormalBall) ball, paddle);
+		case BlockField.POWERUP_BALL << 1 | Ball.SUPER:
+			return ((PowerupBallBlockState) block).hitBy((SuperBall) ball, paddle);
+		case BlockField.REPLICATOR << 1 | Ball.NORMAL:
+			return ((ReplicatorBlockState) block).hitBy((NormalBall) ball, paddle);
+		case BlockField.REPLICATOR << 1 | Ball.SUPER:
+			return ((ReplicatorBlockState) block).hitBy((SuperBall) ball, paddle);
+		default:
+			throw new AssertionError("Unknown block or ball type");
+		}
+	}
+
+	/**
+	 * Returns the result of the given ball hitting the given paddle moving in the given direction, as
+	 * paddle.hitBall(ball, paddleDir) does, or null if the ball does not hit the paddle, in which case neither changes.
+	 * @pre | paddle != null && ball != null
+	 */
+	static ballPaddleHitResults hitPaddle(PaddleState paddle, Ball ball, int paddleDir) {
+		if (!touches(ball, paddle)) {
+			return null;
+		}
+		switch (paddle.type << 1 | ball.type) {
+		case PaddleState.NORMAL << 1 | Ball.NORMAL:
+			return ((NormalPaddleState) paddle).hitBall((NormalBall) ball, paddleDir);
+		case PaddleState.NORMAL << 1 | Ball.SUPER:
+			return ((NormalPaddleState) paddle).hitBall((SuperBall) ball, paddleDir);
+		case PaddleState.REPLICATOR << 1 | Ball.NORMAL:
+			return ((ReplicatorPaddleState) paddle).hitBall((NormalBall) ball, paddleDir);
+		case PaddleState.REPLICATOR << 1 | Ball.SUPER:
+			return ((ReplicatorPaddleState) paddle).hitBall((SuperBall) ball, paddleDir);
+		default:
+			throw new AssertionError("Unknown paddle or ball type");
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package breakout;
+
+import java.util.Random;
+
+/**
+ * Compares the throughput of the ball-block collisions of BreakoutState.tick performed through the virtual
+ * BlockState.hitBy with those performed through CollisionDispatch.hitBlock, on random levels that mix all block types
+ * with normal balls and SuperBalls. Each path tests every ball against every block of its level, on its own copies of
+ * the balls.
+ *
+ * Usage: CollisionDispatchBenchmark [levels] [balls per level] [rounds]
+ */
+public class CollisionDispatchBenchmark {
+
+	private static final int COLUMNS = 10;
+	private static final int ROWS = 8;
+
+	private CollisionDispatchBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static BlockState[] randomLevel(Random random) {
+		BlockState[] blocks = new BlockState[COLUMNS * ROWS];
+		for (int row = 0; row < ROWS; row++) {
+			for (int column = 0; column < COLUMNS; column++) {
+				Point TL = new Point(column * 5000, row * 3750);
+				Point BR = new Point(TL.getX() + 5000, TL.getY() + 3750);
+				BlockState block;
+				switch (random.nextInt(4)) {
+				case 0: block = new NormalBlockState(TL, BR); break;
+				case 1: block = new SturdyBlockState(TL, BR, 3); break;
+				case 2: block = new PowerupBallBlockState(TL, BR); break;
+				default: block = new ReplicatorBlockState(TL, BR); break;
+				}
+				blocks[row * COLUMNS + column] = block;
+			}
+		}
+		return blocks;
+	}
+
+	private static Ball[] randomBalls(Random random, int count) {
+		Ball[] balls = new Ball[count];
+		for (int i = 0; i < count; i++) {
+			Point center = new Point(random.nextInt(COLUMNS * 5000), random.nextInt(ROWS * 3750 + 10000));
+			Vector velocity = new Vector(random.nextInt(21) - 10, random.nextInt(21) - 10);
+			balls[i] = random.nextBoolean() ? new NormalBall(center, 700, velocity)
+					: new SuperBall(center, 700, velocity, 10_000);
+		}
+		return balls;
+	}
+
+	private static Ball[][] copies(int levels, int balls, long seed) {
+		Random copy = new Random(seed);
+		Ball[][] result = new Ball[levels][];
+		for (int l = 0; l < levels; l++) {
+			result[l] = randomBalls(copy, balls);
+		}
+		return result;
+	}
+
+	private static long virtual(BlockState[][] levels, Ball[][] balls, PaddleState paddle) {
+		long hits = 0;
+		for (int l = 0; l < levels.length; l++) {
+			for (Ball ball : balls[l]) {
+				for (BlockState block : levels[l]) {
+					if (block.hitBy(ball, paddle).destroyed) {
+						hits++;
+					}
+				}
+			}
+		}
+		return hits;
+	}
+
+	private static long dispatched(BlockState[][] levels, Ball[][] balls, PaddleState paddle) {
+		long hits = 0;
+		for (int l = 0; l < levels.length; l++) {
+			for (Ball ball : balls[l]) {
+				for (BlockState block : levels[l]) {
+					ballBlockHitResults result = CollisionDispatch.hitBlock(block, ball, paddle);
+					if (result != null && result.destroyed) {
+						hits++;
+					}
+				}
+			}
+		}
+		return hits;
+	}
+
+	public static void main(String[] args) {
+		int levelCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+		int ballCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+		Random random = new Random(40);
+		BlockState[][] levels = new BlockState[levelCount][];
+		for (int l = 0; l < levelCount; l++) {
+			levels[l] = randomLevel(random);
+		}
+		PaddleState paddle = new NormalPaddleState(new Point(25000, 40000), PaddleState.DEFAULT_SIZE);
+		long pairs = (long) levelCount * ballCount * COLUMNS * ROWS;
+		for (int round = 0; round < rounds; round++) {
+			long seed = random.nextLong();
+			Ball[][] balls = copies(levelCount, ballCount, seed);
+			long start = System.nanoTime();
+			long virtualHits = virtual(levels, balls, paddle);
+			long virtualNanos = System.nanoTime() - start;
+			balls = copies(levelCount, ballCount, seed);
+			start = System.nanoTime();
+			long dispatchedHits = dispatched(levels, balls, paddle);
+			long dispatchedNanos = System.nanoTime() - start;
+			System.out.printf("round %d: virtual hitBy %5.1f ns/pair, dispatched %5.1f ns/pair (%d hits, %d hits)%n",
+					round, (double) virtualNanos / pairs, (double) dispatchedNanos / pairs, virtualHits, dispatchedHits);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CollisionDispatchTest {
+
+	static Ball randomBall(Random random, boolean isSuper) {
+		Point center = new Point(random.nextInt(12000), random.nextInt(12000));
+		Vector velocity = new Vector(random.nextInt(21) - 10, random.nextInt(21) - 10);
+		return isSuper ? new SuperBall(center, 700, velocity, 5000) : new NormalBall(center, 700, velocity);
+	}
+
+	static BlockState randomBlock(Random random) {
+		Point TL = new Point(4000 + random.nextInt(1000), 4000 + random.nextInt(1000));
+		Point BR = TL.plus(new Vector(5000, 3750));
+		switch (random.nextInt(4)) {
+		case 0: return new NormalBlockState(TL, BR);
+		case 1: return new SturdyBlockState(TL, BR, 1 + random.nextInt(3));
+		case 2: return new PowerupBallBlockState(TL, BR);
+		default: return new ReplicatorBlockState(TL, BR);
+		}
+	}
+
+	static void assertSameBall(Ball expected, Ball actual) {
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected.getCenter(), actual.getCenter());
+		assertEquals(expected.getVelocity(), actual.getVelocity());
+	}
+
+	@Test
+	void testHitBlockAgreesWithHitBy() {
+		Random random = new Random(40);
+		PaddleState paddle = new NormalPaddleState(new Point(6000, 12000), PaddleState.DEFAULT_SIZE);
+		int hits = 0;
+		for (int k = 0; k < 20_000; k++) {
+			long seed = random.nextLong();
+			boolean isSuper = random.nextBoolean();
+			BlockState block = randomBlock(new Random(seed));
+			Ball expectedBall = randomBall(new Random(seed), isSuper);
+			Ball ball = randomBall(new Random(seed), isSuper);
+			ballBlockHitResults expected = block.hitBy(expectedBall, paddle);
+			ballBlockHitResults actual = CollisionDispatch.hitBlock(block, ball, paddle);
+			if (actual == null) {
+				assertFalse(expected.destroyed);
+				assertSame(block, expected.block);
+				assertSame(expectedBall, expected.ball);
+				assertSameBall(expectedBall, ball);
+				continue;
+			}
+			hits++;
+			assertEquals(expected.destroyed, actual.destroyed);
+			assertEquals(expected.block.getClass(), actual.block.getClass());
+			assertEquals(expected.paddle.getClass(), actual.paddle.getClass());
+			assertSameBall(expected.ball, actual.ball);
+		}
+		assertTrue(hits > 1000);
+	}
+
+	@Test
+	void testHitPaddleAgreesWithHitBall() {
+		Random random = new Random(41);
+		Point center = new Point(6000, 6000);
+		PaddleState[] paddles = {new NormalPaddleState(center, PaddleState.DEFAULT_SIZE),
+				new ReplicatorPaddleState(center, PaddleState.DEFAULT_SIZE, 2)};
+		int hits = 0;
+		for (int k = 0; k < 20_000; k++) {
+			long seed = random.nextLong();
+			boolean isSuper = random.nextBoolean();
+			PaddleState paddle = paddles[random.nextInt(2)];
+			int paddleDir = random.nextInt(3) - 1;
+			Ball expectedBall = randomBall(new Random(seed), isSuper);
+			Ball ball = randomBall(new Random(seed), isSuper);
+			ballPaddleHitResults expected = paddle.hitBall(expectedBall, paddleDir);
+			ballPaddleHitResults actual = CollisionDispatch.hitPaddle(paddle, ball, paddleDir);
+			if (actual == null) {
+				assertSame(paddle, expected.paddle);
+				assertEquals(0, expected.reps);
+				assertSameBall(expectedBall, ball);
+				continue;
+			}
+			hits++;
+			assertEquals(expected.reps, actual.reps);
+			assertEquals(expected.paddle.getClass(), actual.paddle.getClass());
+			assertSameBall(expected.ball, actual.ball);
+		}
+		assertTrue(hits > 100);
+	}
+}
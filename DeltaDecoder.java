@@ -0,0 +1,96 @@
+package breakout;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+/**
+ * Each instance of this class decodes the STATE and DELTA messages a DeltaEncoder writes for consecutive frames of one
+ * game back into game states. A DELTA message can only be decoded right after the message of the frame it is relative
+ * to; a decoder that has not decoded that message, because it has just started or because a message was lost or
+ * invalid, waits for the next keyframe.
+ *
+ * @invar | getFrame() >= -1
+ */
+public class DeltaDecoder {
+
+	/**
+	 * @invar | image != null
+	 */
+	/** @representationObject */
+	private final StateImage image = new StateImage();
+
+	/**
+	 * Returns a decoder that has not decoded a frame yet.
+	 * @post | getFrame() == -1
+	 */
+	public DeltaDecoder() {
+	}
+
+	/**
+	 * Returns the frame number of the latest frame decoded, or -1 if the decoder has to wait for a keyframe.
+	 */
+	public long getFrame() {
+		return image.frame < 0 ? -1 : image.frame;
+	}
+
+	/**
+	 * Returns whether the message at the position of the given buffer, whose remaining bytes hold all of it, is a
+	 * keyframe or a DELTA message relative to the latest frame decoded, so that it can be decoded. Does not advance the
+	 * buffer.
+	 * @inspects | buffer
+	 */
+	public boolean canDecode(ByteBuffer buffer) {
+		byte type = GameProtocol.typeOf(buffer);
+		return type == GameProtocol.STATE || type == GameProtocol.DELTA && image.frame >= 0;
+	}
+
+	/**
+	 * Reads the STATE or DELTA message at the position of the given buffer, whose remaining bytes hold all of it, and
+	 * returns the game state of its frame.
+	 * @mutates | this, buffer
+	 * @creates | result
+	 * @throws ProtocolException if the message is not a valid STATE message, or a valid DELTA message relative to the
+	 * 	latest frame decoded, in which case the decoder waits for a keyframe.
+	 * 	| true
+	 * @post | getFrame() >= 0
+	 */
+	public BreakoutState decode(ByteBuffer buffer) throws ProtocolException {
+		int start = buffer.position();
+		int length = GameProtocol.messageBytes(buffer);
+		if (length < 0) {
+			throw new ProtocolException("The buffer does not hold a whole message");
+		}
+		switch (GameProtocol.typeOf(buffer)) {
+		case GameProtocol.STATE:
+			long frame = GameProtocol.frameOf(buffer);
+			try {
+				BreakoutState state = GameProtocol.getState(buffer);
+				image.capture(state, frame);
+				return state;
+			}
+			catch (ProtocolException e) {
+				image.frame = -1;
+				throw e;
+			}
+		case GameProtocol.DELTA:
+			int limit = buffer.limit();
+			buffer.limit(start + length).position(start + GameProtocol.HEADER_BYTES);
+			try {
+				image.getDelta(buffer);
+			}
+			finally {
+				buffer.limit(limit).position(start + length);
+			}
+			try {
+				return image.toState();
+			}
+			catch (ProtocolException e) {
+				image.frame = -1;
+				throw e;
+			}
+		default:
+			buffer.position(start + length);
+			throw new ProtocolException("The message is not a state or delta message");
+		}
+	}
+}
@@ -0,0 +1,474 @@
+package breakout;
+
+import java.net.ProtocolException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Each instance of this class encodes consecutive frames of one game as the difference with the frame it encoded
+ * before, in DELTA messages of GameProtocol, with a full STATE message, a keyframe, every given number of frames. A
+ * DeltaDecoder that has decoded the previous frames turns the messages back into game states with the same hash.
+ *
+ * Between two ticks most of a game state does not change, and what does changes little: the balls move a few units,
+ * a few blocks are destroyed or lose a lifetime, and the paddle moves. The body of a DELTA message is therefore the
+ * frame number (8 bytes) followed by varints, which take one byte for numbers between -64 and 63:
+ * <ul>
+ * <li>the number of frames since the frame the message is relative to, its base;</li>
+ * <li>a flags byte, telling whether the paddle center moved and whether the size or lifetime of the paddle changed,
+ * followed by the differences with those of the base;</li>
+ * <li>the number of balls, and for each ball a flags byte, telling whether its velocity, diameter and lifetime
+ * changed, followed by the difference of its center and of those that changed with the ball at the same index in the
+ * base, or with zeros for balls beyond the balls of the base;</li>
+ * <li>the number of blocks of the base that were destroyed, followed by their indices in the blocks of the base, each
+ * as the distance to the previous one;</li>
+ * <li>the number of blocks of the base whose block code changed, followed by their indices, as above, each followed by
+ * its new BlockField block code (1 byte).</li>
+ * </ul>
+ * A moving ball thus takes 3 bytes rather than the 24 of a STATE message. Since balls are matched by index, balls
+ * that are added, removed or reordered cost more, but are still encoded exactly. Blocks are matched by their
+ * rectangle, relying on a game state keeping the order of its remaining blocks. A frame for which this fails, or whose
+ * game field differs from that of the base, is encoded as a keyframe.
+ *
+ * Keyframes bound the number of messages a decoder must have seen before it can decode a frame, so that a client
+ * that joins or misses a message can start over with the next keyframe. A keyframe can also be requested for the
+ * next frame.
+ *
+ * @invar | getKeyframeInterval() > 0
+ * @invar | getKeyframeCount() >= 0
+ * @invar | getDeltaCount() >= 0
+ */
+public class DeltaEncoder {
+
+	/**
+	 * @invar | keyframeInterval > 0
+	 * @invar | reference != null && next != null && reference != next
+	 * @invar | destroyed != null && changed != null && changedCodes != null
+	 * @invar | destroyed.length == changed.length && changed.length == changedCodes.length
+	 */
+	private final int keyframeInterval;
+	/** @representationObject */
+	private StateImage reference = new StateImage();
+	/** @representationObject */
+	private StateImage next = new StateImage();
+	// The indices of the destroyed and changed blocks of the base of the delta being encoded, and the new codes of the
+	// changed blocks
+	/** @representationObject */
+	private int[] destroyed = new int[0];
+	/** @representationObject */
+	private int[] changed = new int[0];
+	/** @representationObject */
+	private byte[] changedCodes = new byte[0];
+	private boolean keyframeRequested;
+	private int deltasSinceKeyframe;
+	private long keyframes;
+	private long deltas;
+
+	/**
+	 * Returns an encoder that writes a keyframe every given number of frames, starting with the first.
+	 * @throws IllegalArgumentException if the interval is not positive.
+	 * 	| keyframeInterval <= 0
+	 * @post | getKeyframeInterval() == keyframeInterval
+	 * @post | getKeyframeCount() == 0 && getDeltaCount() == 0
+	 */
+	public DeltaEncoder(int keyframeInterval) {
+		if (keyframeInterval <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid keyframe interval!");
+		}
+		this.keyframeInterval = keyframeInterval;
+	}
+
+	/**
+	 * Returns the number of frames from one keyframe to the next.
+	 */
+	public int getKeyframeInterval() {
+		return keyframeInterval;
+	}
+
+	/**
+	 * Returns the number of keyframes this encoder wrote.
+	 */
+	public long getKeyframeCount() {
+		return keyframes;
+	}
+
+	/**
+	 * Returns the number of DELTA messages this encoder wrote.
+	 */
+	public long getDeltaCount() {
+		return deltas;
+	}
+
+	/**
+	 * Makes the next frame encoded a keyframe.
+	 * @mutates | this
+	 */
+	public void requestKeyframe() {
+		keyframeRequested = true;
+	}
+
+	/**
+	 * Writes the given game state with the given frame number, which must be higher than that of the previous frame
+	 * for it to be encoded as a delta, as a keyframe or as a DELTA message relative to the previous frame. Returns
+	 * whether it wrote a keyframe.
+	 * @mutates | this, buffer
+	 * @inspects | state
+	 * @throws IllegalArgumentException if no buffer or state is supplied.
+	 * 	| buffer == null || state == null
+	 * @throws BufferOverflowException if the message does not fit in the remaining bytes of the buffer, in which case
+	 * 	neither the buffer nor the encoder changes.
+	 * 	| true
+	 * @post | getKeyframeCount() + getDeltaCount() == old(getKeyframeCount() + getDeltaCount()) + 1
+	 */
+	public boolean encode(ByteBuffer buffer, BreakoutState state, long frame) {
+		if (buffer == null || state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid buffer or game state!");
+		}
+		next.capture(state, frame);
+		boolean keyframe = reference.frame < 0 || keyframeRequested || deltasSinceKeyframe >= keyframeInterval - 1
+				|| !putDelta(buffer, frame);
+		if (keyframe) {
+			GameProtocol.putState(buffer, state, frame);
+			keyframeRequested = false;
+			deltasSinceKeyframe = 0;
+			keyframes++;
+		}
+		else {
+			deltasSinceKeyframe++;
+			deltas++;
+		}
+		StateImage image = reference;
+		reference = next;
+		next = image;
+		return keyframe;
+	}
+
+	/**
+	 * Writes the DELTA message from the reference image to the next image, or returns false, without writing anything,
+	 * if the frames do not allow one.
+	 */
+	private boolean putDelta(ByteBuffer buffer, long frame) {
+		StateImage base = reference;
+		StateImage image = next;
+		if (frame <= base.frame || frame - base.frame > Integer.MAX_VALUE || image.width != base.width
+				|| image.height != base.height) {
+			return false;
+		}
+		// Match the blocks of the image to those of the base, in order
+		if (destroyed.length < base.blockCount) {
+			destroyed = new int[base.blockCount];
+			changed = new int[base.blockCount];
+			changedCodes = new byte[base.blockCount];
+		}
+		int destroyedCount = 0;
+		int changedCount = 0;
+		int r = 0;
+		for (int c = 0; c < image.blockCount; c++, r++) {
+			while (r < base.blockCount && !Arrays.equals(base.blocks, 4 * r, 4 * r + 4, image.blocks, 4 * c, 4 * c + 4)) {
+				destroyed[destroyedCount++] = r++;
+			}
+			if (r == base.blockCount) {
+				return false;
+			}
+			if (base.codes[r] != image.codes[c]) {
+				changedCodes[changedCount] = image.codes[c];
+				changed[changedCount++] = r;
+			}
+		}
+		while (r < base.blockCount) {
+			destroyed[destroyedCount++] = r++;
+		}
+
+		int start = buffer.position();
+		try {
+			buffer.putInt(0);
+			buffer.put(GameProtocol.DELTA);
+			buffer.putLong(frame);
+			GameProtocol.putVarint(buffer, (int) (frame - base.frame));
+
+			int[] paddle = image.paddle;
+			int[] basePaddle = base.paddle;
+			boolean moved = paddle[0] != basePaddle[0] || paddle[1] != basePaddle[1];
+			boolean resized = paddle[2] != basePaddle[2] || paddle[3] != basePaddle[3] || paddle[4] != basePaddle[4];
+			buffer.put((byte) ((moved ? 1 : 0) | (resized ? 2 : 0)));
+			putDifferences(buffer, moved, paddle, basePaddle, 0, 2);
+			putDifferences(buffer, resized, paddle, basePaddle, 2, 3);
+
+			GameProtocol.putVarint(buffer, image.ballCount);
+			int[] balls = image.balls;
+			int[] baseBalls = base.balls;
+			int sharedBalls = Math.min(image.ballCount, base.ballCount);
+			for (int i = 0; i < image.ballCount; i++) {
+				int at = StateImage.BALL_INTS * i;
+				if (i < sharedBalls) {
+					putBall(buffer, balls, baseBalls, at, at);
+				}
+				else {
+					putBall(buffer, balls, StateImage.NO_BALL, at, 0);
+				}
+			}
+
+			putIndices(buffer, destroyed, destroyedCount, null);
+			putIndices(buffer, changed, changedCount, changedCodes);
+			buffer.putInt(start, buffer.position() - start - 4);
+			return true;
+		}
+		catch (BufferOverflowException e) {
+			buffer.position(start);
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes the flags of the ball at the given offset of the given balls, and its differences with the ball at the
+	 * given offset of the given base balls.
+	 */
+	private static void putBall(ByteBuffer buffer, int[] balls, int[] baseBalls, int at, int baseAt) {
+		boolean velocity = balls[at + 2] != baseBalls[baseAt + 2] || balls[at + 3] != baseBalls[baseAt + 3];
+		boolean diameter = balls[at + 4] != baseBalls[baseAt + 4];
+		boolean lifetime = balls[at + 5] != baseBalls[baseAt + 5];
+		buffer.put((byte) ((velocity ? 1 : 0) | (diameter ? 2 : 0) | (lifetime ? 4 : 0)));
+		GameProtocol.putSignedVarint(buffer, balls[at] - baseBalls[baseAt]);
+		GameProtocol.putSignedVarint(buffer, balls[at + 1] - baseBalls[baseAt + 1]);
+		putDifferences(buffer, velocity, balls, baseBalls, at + 2, 2, baseAt + 2);
+		putDifferences(buffer, diameter, balls, baseBalls, at + 4, 1, baseAt + 4);
+		putDifferences(buffer, lifetime, balls, baseBalls, at + 5, 1, baseAt + 5);
+	}
+
+	private static void putDifferences(ByteBuffer buffer, boolean changed, int[] values, int[] baseValues, int from, int count) {
+		putDifferences(buffer, changed, values, baseValues, from, count, from);
+	}
+
+	private static void putDifferences(ByteBuffer buffer, boolean changed, int[] values, int[] baseValues, int from, int count,
+			int baseFrom) {
+		if (changed) {
+			for (int k = 0; k < count; k++) {
+				GameProtocol.putSignedVarint(buffer, values[from + k] - baseValues[baseFrom + k]);
+			}
+		}
+	}
+
+	/**
+	 * Writes the given number of the given ascending block indices, each as the distance to the previous one, and,
+	 * if block codes are given, each followed by its block code.
+	 */
+	private static void putIndices(ByteBuffer buffer, int[] indices, int count, byte[] codes) {
+		GameProtocol.putVarint(buffer, count);
+		int previous = -1;
+		for (int k = 0; k < count; k++) {
+			GameProtocol.putVarint(buffer, indices[k] - previous - 1);
+			previous = indices[k];
+			if (codes != null) {
+				buffer.put(codes[k]);
+			}
+		}
+	}
+}
+
+/**
+ * Each instance of this class holds the numbers of a game state that GameProtocol encodes, in flat arrays, as the
+ * reference a DeltaEncoder encodes the next frame against, or a DeltaDecoder decodes it against.
+ */
+final class StateImage {
+
+	// The numbers of each ball: center, velocity, diameter and supercharged lifetime
+	static final int BALL_INTS = 6;
+	// The numbers a new ball is encoded against
+	static final int[] NO_BALL = new int[BALL_INTS];
+
+	// The frame number of the state, or -1 if there is none
+	long frame = -1;
+	int width;
+	int height;
+	// The center, size and replicator lifetime of the paddle
+	final int[] paddle = new int[5];
+	int ballCount;
+	/** @representationObject */
+	int[] balls = new int[0];
+	int blockCount;
+	// The corners of each block
+	/** @representationObject */
+	int[] blocks = new int[0];
+	/** @representationObject */
+	byte[] codes = new byte[0];
+
+	/**
+	 * Takes the numbers of the given game state with the given frame number, with a Ball object standing for several
+	 * identical balls taken once for each of them.
+	 */
+	void capture(BreakoutState state, long frame) {
+		this.frame = frame;
+		width = state.getBottomRight().getX();
+		height = state.getBottomRight().getY();
+		PaddleState paddle = state.getPaddle();
+		this.paddle[0] = paddle.center.getX();
+		this.paddle[1] = paddle.center.getY();
+		this.paddle[2] = paddle.size.getX();
+		this.paddle[3] = paddle.size.getY();
+		this.paddle[4] = paddle instanceof ReplicatorPaddleState ? ((ReplicatorPaddleState) paddle).getLifetime() : 0;
+		ballCount = state.getBallCount();
+		ensureBalls(ballCount);
+		int at = 0;
+		for (Ball ball : state.getBalls()) {
+			for (int k = 0; k < ball.multiplicity; k++, at += BALL_INTS) {
+				balls[at] = ball.center.getX();
+				balls[at + 1] = ball.center.getY();
+				balls[at + 2] = ball.velocity.getX();
+				balls[at + 3] = ball.velocity.getY();
+				balls[at + 4] = ball.diameter;
+				balls[at + 5] = ball instanceof SuperBall ? (int) ((SuperBall) ball).getLifetime() : 0;
+			}
+		}
+		BlockState[] blocks = state.getBlocks();
+		blockCount = blocks.length;
+		if (codes.length < blockCount) {
+			this.blocks = new int[4 * blockCount];
+			codes = new byte[blockCount];
+		}
+		for (int j = 0; j < blockCount; j++) {
+			BlockState block = blocks[j];
+			this.blocks[4 * j] = block.TL.getX();
+			this.blocks[4 * j + 1] = block.TL.getY();
+			this.blocks[4 * j + 2] = block.BR.getX();
+			this.blocks[4 * j + 3] = block.BR.getY();
+			codes[j] = BlockField.encode(block);
+		}
+	}
+
+	private void ensureBalls(int count) {
+		if (balls.length < BALL_INTS * count) {
+			balls = Arrays.copyOf(balls, BALL_INTS * Math.max(count, 2 * balls.length / BALL_INTS));
+		}
+	}
+
+	/**
+	 * Applies the body of the DELTA message at the position of the given buffer, up to its limit, which must end the
+	 * message, to this image.
+	 * @throws ProtocolException if the message is not a valid DELTA message relative to this image, in which case
+	 * 	this image is left without a state.
+	 */
+	void getDelta(ByteBuffer buffer) throws ProtocolException {
+		try {
+			long frame = buffer.getLong();
+			int distance = GameProtocol.getVarint(buffer);
+			if (this.frame < 0 || distance <= 0 || frame - distance != this.frame) {
+				throw new ProtocolException("The delta of frame " + frame + " does not follow frame " + this.frame);
+			}
+
+			int flags = buffer.get();
+			getDifferences(buffer, (flags & 1) != 0, paddle, 0, 2);
+			getDifferences(buffer, (flags & 2) != 0, paddle, 2, 3);
+
+			int count = GameProtocol.getVarint(buffer);
+			// Each ball takes at least three bytes
+			if (count < 0 || count > buffer.remaining() / 3) {
+				throw new ProtocolException("The number of balls " + count + " is invalid");
+			}
+			ensureBalls(count);
+			if (count > ballCount) {
+				Arrays.fill(balls, BALL_INTS * ballCount, BALL_INTS * count, 0);
+			}
+			ballCount = count;
+			for (int at = 0; at < BALL_INTS * count; at += BALL_INTS) {
+				flags = buffer.get();
+				getDifferences(buffer, true, balls, at, 2);
+				getDifferences(buffer, (flags & 1) != 0, balls, at + 2, 2);
+				getDifferences(buffer, (flags & 2) != 0, balls, at + 4, 1);
+				getDifferences(buffer, (flags & 4) != 0, balls, at + 5, 1);
+			}
+
+			// The destroyed blocks are removed after the codes of the others are changed, since both are indexed in
+			// the blocks of the base
+			int destroyedCount = GameProtocol.getVarint(buffer);
+			if (destroyedCount < 0 || destroyedCount > blockCount) {
+				throw new ProtocolException("The number of destroyed blocks " + destroyedCount + " is invalid");
+			}
+			int destroyedStart = buffer.position();
+			for (int k = 0, index = -1; k < destroyedCount; k++) {
+				index = nextIndex(buffer, index);
+			}
+			int changedCount = GameProtocol.getVarint(buffer);
+			for (int k = 0, index = -1; k < changedCount; k++) {
+				index = nextIndex(buffer, index);
+				codes[index] = buffer.get();
+				if (!BlockField.isBlockCode(codes[index])) {
+					throw new ProtocolException("The block code " + codes[index] + " is invalid");
+				}
+			}
+			if (buffer.hasRemaining()) {
+				throw new ProtocolException("The delta message is too long");
+			}
+			buffer.position(destroyedStart);
+			int left = 0;
+			for (int k = 0, index = -1, kept = 0; k <= destroyedCount; k++) {
+				index = k < destroyedCount ? nextIndex(buffer, index) : blockCount;
+				for (; kept < index; kept++, left++) {
+					System.arraycopy(blocks, 4 * kept, blocks, 4 * left, 4);
+					codes[left] = codes[kept];
+				}
+				kept = index + 1;
+			}
+			blockCount = left;
+			this.frame = frame;
+		}
+		catch (ProtocolException e) {
+			this.frame = -1;
+			throw e;
+		}
+		catch (BufferUnderflowException e) {
+			this.frame = -1;
+			throw new ProtocolException("The delta message is too short");
+		}
+	}
+
+	private static void getDifferences(ByteBuffer buffer, boolean changed, int[] values, int from, int count)
+			throws ProtocolException {
+		if (changed) {
+			for (int k = 0; k < count; k++) {
+				values[from + k] += GameProtocol.getSignedVarint(buffer);
+			}
+		}
+	}
+
+	private int nextIndex(ByteBuffer buffer, int previous) throws ProtocolException {
+		int index = previous + 1 + GameProtocol.getVarint(buffer);
+		if (index <= previous || index >= blockCount) {
+			throw new ProtocolException("The block index " + index + " is invalid");
+		}
+		return index;
+	}
+
+	/**
+	 * Returns a new game state with the numbers of this image.
+	 * @throws ProtocolException if the numbers do not describe a valid game state.
+	 */
+	BreakoutState toState() throws ProtocolException {
+		try {
+			Point paddleCenter = new Point(paddle[0], paddle[1]);
+			Vector paddleSize = new Vector(paddle[2], paddle[3]);
+			PaddleState paddleState = paddle[4] > 0 ? new ReplicatorPaddleState(paddleCenter, paddleSize, paddle[4]) :
+				new NormalPaddleState(paddleCenter, paddleSize);
+			Ball[] balls = new Ball[ballCount];
+			for (int i = 0, at = 0; i < ballCount; i++, at += BALL_INTS) {
+				Point center = new Point(this.balls[at], this.balls[at + 1]);
+				Vector velocity = new Vector(this.balls[at + 2], this.balls[at + 3]);
+				int diameter = this.balls[at + 4];
+				int lifetime = this.balls[at + 5];
+				balls[i] = lifetime > 0 ? new SuperBall(center, diameter, velocity, lifetime) : new NormalBall(center, diameter, velocity);
+			}
+			BlockState[] blocks = new BlockState[blockCount];
+			for (int j = 0; j < blockCount; j++) {
+				Point TL = new Point(this.blocks[4 * j], this.blocks[4 * j + 1]);
+				Point BR = new Point(this.blocks[4 * j + 2], this.blocks[4 * j + 3]);
+				blocks[j] = BlockField.blockOf(TL, BR, codes[j]);
+			}
+			return new BreakoutState(balls, blocks, new Point(width, height), paddleState);
+		}
+		catch (IllegalArgumentException e) {
+			ProtocolException exception = new ProtocolException("The message does not describe a valid game state");
+			exception.initCause(e);
+			throw exception;
+		}
+	}
+}
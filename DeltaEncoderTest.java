@@ -0,0 +1,146 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.ProtocolException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DeltaEncoderTest {
+
+	ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+
+	private ByteBuffer encode(DeltaEncoder encoder, BreakoutState state, long frame) {
+		buffer.clear();
+		encoder.encode(buffer, state, frame);
+		return buffer.flip();
+	}
+
+	@Test
+	void testVarints() throws ProtocolException {
+		int[] values = { 0, 1, -1, 63, -64, 64, -65, 1 << 20, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		for (int value : values) {
+			GameProtocol.putSignedVarint(buffer, value);
+			GameProtocol.putVarint(buffer, value);
+		}
+		// Signed varints of numbers between -64 and 63 take one byte, and unsigned varints of negative numbers five
+		assertEquals(2 + 2 + 6 + 2 + 6 + 3 + 7 + 7 + 10 + 10, buffer.position());
+		buffer.flip();
+		for (int value : values) {
+			assertEquals(value, GameProtocol.getSignedVarint(buffer));
+			assertEquals(value, GameProtocol.getVarint(buffer));
+		}
+		ByteBuffer tooLong = ByteBuffer.wrap(new byte[] { -1, -1, -1, -1, -1, 1 });
+		assertThrows(ProtocolException.class, () -> GameProtocol.getVarint(tooLong));
+	}
+
+	@Test
+	void testRoundTripOnRandomLevels() throws ProtocolException {
+		Random random = new Random(5);
+		long stateBytes = 0;
+		long messageBytes = 0;
+		for (int level = 0; level < 20; level++) {
+			BreakoutState state = GameMap.createStateFromDescription(TestFixtures.randomLevel(random));
+			state.setMergingBalls(level % 2 == 0);
+			state.setBallReorderingPeriod(level % 3 == 0 ? 7 : 0);
+			DeltaEncoder encoder = new DeltaEncoder(50);
+			DeltaDecoder decoder = new DeltaDecoder();
+			for (int frame = 0; frame < 1000 && state.getBallCount() < 2000; frame++) {
+				state.tick(random.nextInt(3) - 1, 10);
+				ByteBuffer message = encode(encoder, state, frame);
+				stateBytes += GameProtocol.stateBytes(state);
+				messageBytes += message.remaining();
+				assertTrue(decoder.canDecode(message));
+				BreakoutState decoded = decoder.decode(message);
+				assertFalse(message.hasRemaining());
+				assertEquals(frame, decoder.getFrame());
+				assertEquals(state.hash(), decoded.hash());
+				assertEquals(state.getBallCount(), decoded.getBallCount());
+				assertEquals(state.getBlocks().length, decoded.getBlocks().length);
+				assertEquals(state.getPaddle().getCenter(), decoded.getPaddle().getCenter());
+			}
+			assertTrue(encoder.getKeyframeCount() >= (encoder.getKeyframeCount() + encoder.getDeltaCount()) / 50);
+		}
+		assertTrue(messageBytes * 4 < stateBytes);
+	}
+
+	@Test
+	void testKeyframes() throws ProtocolException {
+		BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		DeltaEncoder encoder = new DeltaEncoder(4);
+		DeltaDecoder decoder = new DeltaDecoder();
+		assertEquals(-1, decoder.getFrame());
+		for (int frame = 0; frame < 8; frame++) {
+			state.tick(1, 10);
+			ByteBuffer message = encode(encoder, state, frame);
+			assertEquals(frame % 4 == 0 ? GameProtocol.STATE : GameProtocol.DELTA, GameProtocol.typeOf(message));
+			// A decoder that misses frame 2 cannot decode the deltas before the next keyframe
+			if (frame == 2) {
+				continue;
+			}
+			if (frame == 3) {
+				assertThrows(ProtocolException.class, () -> decoder.decode(message));
+				assertEquals(-1, decoder.getFrame());
+				continue;
+			}
+			assertEquals(state.hash(), decoder.decode(message).hash());
+		}
+		assertEquals(2, encoder.getKeyframeCount());
+		assertEquals(6, encoder.getDeltaCount());
+
+		state.tick(1, 10);
+		encoder.requestKeyframe();
+		ByteBuffer message = encode(encoder, state, 8);
+		assertEquals(GameProtocol.STATE, GameProtocol.typeOf(message));
+		// A frame that does not follow the previous one cannot be a delta
+		assertEquals(GameProtocol.STATE, GameProtocol.typeOf(encode(encoder, state, 8)));
+
+		DeltaDecoder fresh = new DeltaDecoder();
+		state.tick(1, 10);
+		ByteBuffer delta = encode(encoder, state, 9);
+		assertFalse(fresh.canDecode(delta));
+		assertThrows(ProtocolException.class, () -> fresh.decode(delta));
+	}
+
+	/**
+	 * Returns a DELTA message of frame 1 on frame 0 that keeps the one ball in place and changes the code of block 0
+	 * to the given code.
+	 */
+	private static ByteBuffer blockCodeDelta(byte code) {
+		ByteBuffer delta = ByteBuffer.allocate(23);
+		delta.putInt(19).put(GameProtocol.DELTA).putLong(1);
+		// Distance, flags, ball count, ball flags and center differences, destroyed and changed blocks
+		delta.put(new byte[] {1, 0, 1, 0, 0, 0, 0, 1, 0}).put(code);
+		return delta.flip();
+	}
+
+	@Test
+	void testRejectsInvalidMessages() throws ProtocolException {
+		BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		DeltaEncoder encoder = new DeltaEncoder(10);
+		DeltaDecoder decoder = new DeltaDecoder();
+		assertThrows(ProtocolException.class, () -> decoder.decode(ByteBuffer.allocate(4)));
+		ByteBuffer input = ByteBuffer.allocate(GameProtocol.INPUT_BYTES);
+		GameProtocol.putInput(input, 0, 0);
+		assertThrows(ProtocolException.class, () -> decoder.decode(input.flip()));
+		assertFalse(input.hasRemaining());
+
+		// A delta that changes the code of the block of frame 0, a normal block
+		DeltaEncoder keyframes = new DeltaEncoder(1);
+		assertEquals(state.hash(), decoder.decode(encode(keyframes, state, 0)).hash());
+		assertTrue(decoder.decode(blockCodeDelta(BlockField.encode(BlockField.STURDY, 3))).getBlocks()[0] instanceof SturdyBlockState);
+		for (byte code : new byte[] {BlockField.EMPTY, 5, 7, BlockField.encode(BlockField.STURDY, 0), BlockField.encode(BlockField.NORMAL, 1)}) {
+			decoder.decode(encode(keyframes, state, 0));
+			assertThrows(ProtocolException.class, () -> decoder.decode(blockCodeDelta(code)));
+			assertEquals(-1, decoder.getFrame());
+		}
+
+		assertThrows(BufferOverflowException.class, () -> encoder.encode(ByteBuffer.allocate(10), state, 0));
+		assertEquals(0, encoder.getKeyframeCount());
+		assertThrows(IllegalArgumentException.class, () -> encoder.encode(null, state, 0));
+		assertThrows(IllegalArgumentException.class, () -> new DeltaEncoder(0));
+	}
+}
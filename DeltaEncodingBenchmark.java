@@ -0,0 +1,114 @@
+package breakout;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+/**
+ * Measures the bytes per frame and the encoding and decoding time of DeltaEncoder and DeltaDecoder against those of
+ * full STATE messages, on GameMap levels ranging from a single ball to a field of replicators that fill the game with
+ * balls. Each level is played for the given number of ticks, with the paddle steered by an Autopilot and the level
+ * started over whenever it is won or lost, and each frame is encoded both ways into one large buffer; the messages are
+ * then decoded, one after the other.
+ *
+ * Usage: DeltaEncodingBenchmark [ticks] [keyframeInterval] [rounds]
+ */
+public class DeltaEncodingBenchmark {
+
+	private static final String[] LEVELS = {
+		"""
+#
+
+
+
+
+       o
+
+       =""",
+		"""
+##########
+#SS!##R!S#
+##########
+#S######S#
+##########
+    o
+
+    =""",
+		"""
+RRRRRRRRRR
+R!RRRRRR!R
+SSSSSSSSSS
+RRRRRRRRRR
+o  o  o  o
+
+  =""",
+	};
+
+	private DeltaEncodingBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	public static void main(String[] args) throws ProtocolException {
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int keyframeInterval = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+		ByteBuffer full = ByteBuffer.allocate(1 << 28);
+		ByteBuffer delta = ByteBuffer.allocate(1 << 28);
+		for (int round = 0; round < rounds; round++) {
+			for (int level = 0; level < LEVELS.length; level++) {
+				BreakoutState state = GameMap.createStateFromDescription(LEVELS[level]);
+				Autopilot autopilot = new Autopilot(100);
+				DeltaEncoder encoder = new DeltaEncoder(keyframeInterval);
+				full.clear();
+				delta.clear();
+				long fullNanos = 0;
+				long deltaNanos = 0;
+				int balls = 0;
+				for (int t = 0; t < ticks; t++) {
+					if (state.isDead() || state.isWon()) {
+						state = GameMap.createStateFromDescription(LEVELS[level]);
+					}
+					int paddleDir = autopilot.paddleDir(state);
+					if (paddleDir == 1) {
+						state.movePaddleRight(10);
+					}
+					else if (paddleDir == -1) {
+						state.movePaddleLeft(10);
+					}
+					state.tick(paddleDir, 10);
+					balls += state.getBallCount();
+					long start = System.nanoTime();
+					GameProtocol.putState(full, state, t);
+					long middle = System.nanoTime();
+					encoder.encode(delta, state, t);
+					deltaNanos += System.nanoTime() - middle;
+					fullNanos += middle - start;
+				}
+				full.flip();
+				delta.flip();
+				int fullBytes = full.remaining();
+				int deltaBytes = delta.remaining();
+
+				long start = System.nanoTime();
+				long hash = 0;
+				while (full.hasRemaining()) {
+					hash += GameProtocol.getState(full).hash();
+				}
+				long fullDecodeNanos = System.nanoTime() - start;
+				DeltaDecoder decoder = new DeltaDecoder();
+				start = System.nanoTime();
+				while (delta.hasRemaining()) {
+					hash -= decoder.decode(delta).hash();
+				}
+				long deltaDecodeNanos = System.nanoTime() - start;
+
+				System.out.printf("round %d, level %d, %5d balls per frame: %8.1f bytes per frame full, %7.1f delta (%4.1fx), "
+						+ "encode %6.2f / %6.2f us, decode %6.2f / %6.2f us, %d keyframes%s%n",
+						round, level, balls / ticks, (double) fullBytes / ticks, (double) deltaBytes / ticks,
+						(double) fullBytes / deltaBytes, fullNanos / 1000.0 / ticks, deltaNanos / 1000.0 / ticks,
+						fullDecodeNanos / 1000.0 / ticks, deltaDecodeNanos / 1000.0 / ticks, encoder.getKeyframeCount(),
+						hash == 0 ? "" : ", DIFFERENT RESULTS");
+			}
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package breakout;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Each instance of this class drives a game in real time: it performs physics steps of a fixed number of ms at a
+ * steady rate, measured with System.nanoTime, and renders the game at its own, independent cadence.
+ *
+ * Each step has a deadline one step after the previous one, and all steps whose deadline has passed are taken. When
+ * the loop falls behind, for instance after a pause of the garbage collector, it catches up at most MAX_ELAPSED_TIME ms
+ * of game time at once and drops the rest, so that it never spirals into ever longer catch-up bursts. A render receives
+ * the fraction of the current step that has elapsed, with which it can interpolate between the previous and the current
+ * step, see getInterpolatedBallCenter.
+ *
+ * Between steps the loop waits for its next deadline by parking the thread until shortly before it and spinning for
+ * the last stretch, which wakes up far more precisely than parking alone. The difference between the deadline of each
+ * step and the time it actually started is recorded, and its percentiles are reported by getJitterPercentile.
+ *
+ * @invar | getStepMillis() > 0 && getStepMillis() <= BreakoutState.MAX_ELAPSED_TIME
+ * @invar | getStepCount() >= 0
+ * @invar | getRenderCount() >= 0
+ * @invar | getDroppedMillis() >= 0
+ */
+public class FixedStepLoop {
+
+	// The time before a deadline from which the loop spins instead of parking, in ns
+	private static final long SPIN_NANOS = 200_000;
+	// The number of most recent steps whose jitter is kept
+	private static final int JITTER_SAMPLES = 1 << 16;
+
+	/**
+	 * @invar | state != null && controller != null && renderer != null
+	 * @invar | jitters != null && jitters.length == JITTER_SAMPLES
+	 */
+	private final BreakoutState state;
+	private final ToIntFunction<BreakoutState> controller;
+	private final ObjDoubleConsumer<BreakoutState> renderer;
+	private final int stepMillis;
+	private final long stepNanos;
+	private final long renderNanos;
+
+	private long steps;
+	private long stepTime;
+	private long renders;
+	private long droppedMillis;
+	private double alpha;
+	/** @representationObject */
+	private final long[] jitters = new long[JITTER_SAMPLES];
+	// The balls of the previous and the current step, and their centers
+	/** @representationObject */
+	private Ball[] previousBalls = new Ball[0];
+	/** @representationObject */
+	private Ball[] currentBalls = new Ball[0];
+	/** @representationObject */
+	private int[] previousCenters = new int[0];
+	/** @representationObject */
+	private int[] currentCenters = new int[0];
+
+	/**
+	 * Returns a loop that steps the given game every given number of ms with the paddle direction chosen by the given
+	 * controller, and passes it to the given renderer every given number of ns, together with the fraction of a step
+	 * elapsed since the last step.
+	 * @throws IllegalArgumentException if no game state, controller or renderer is supplied.
+	 * 	| state == null || controller == null || renderer == null
+	 * @throws IllegalArgumentException if the step is not positive or larger than MAX_ELAPSED_TIME.
+	 * 	| stepMillis <= 0 || stepMillis > BreakoutState.MAX_ELAPSED_TIME
+	 * @throws IllegalArgumentException if the render period is not positive.
+	 * 	| renderNanos <= 0
+	 * @post | getStepMillis() == stepMillis
+	 */
+	public FixedStepLoop(BreakoutState state, ToIntFunction<BreakoutState> controller, ObjDoubleConsumer<BreakoutState> renderer,
+			int stepMillis, long renderNanos) {
+		if (state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid game state!");
+		}
+		if (controller == null || renderer == null) {
+			throw new IllegalArgumentException("You have not supplied a valid controller or renderer!");
+		}
+		if (stepMillis <= 0 || stepMillis > BreakoutState.MAX_ELAPSED_TIME) {
+			throw new IllegalArgumentException("You have supplied an invalid step!");
+		}
+		if (renderNanos <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid render period!");
+		}
+		this.state = state;
+		this.controller = controller;
+		this.renderer = renderer;
+		this.stepMillis = stepMillis;
+		this.stepNanos = stepMillis * 1_000_000L;
+		this.renderNanos = renderNanos;
+	}
+
+	/**
+	 * Returns the game time in ms of each step.
+	 */
+	public int getStepMillis() {
+		return stepMillis;
+	}
+
+	/**
+	 * Returns the number of steps performed so far.
+	 */
+	public long getStepCount() {
+		return steps;
+	}
+
+	/**
+	 * Returns the System.nanoTime deadline of the step being performed, or of the last step performed. A controller
+	 * can pass it to an InputChannel to apply exactly the inputs that belong to the step.
+	 */
+	public long getStepTime() {
+		return stepTime;
+	}
+
+	/**
+	 * Returns the number of renders performed so far.
+	 */
+	public long getRenderCount() {
+		return renders;
+	}
+
+	/**
+	 * Returns the game time in ms that was dropped because the loop fell more than MAX_ELAPSED_TIME ms behind.
+	 */
+	public long getDroppedMillis() {
+		return droppedMillis;
+	}
+
+	/**
+	 * Returns the fraction of a step elapsed since the last step, as passed to the latest render.
+	 * @post | result >= 0 && result < 1
+	 */
+	public double getAlpha() {
+		return alpha;
+	}
+
+	/**
+	 * Returns the center of the given ball interpolated between the previous step and the current one by the fraction
+	 * passed to the latest render. A ball is interpolated only if the same Ball object was at the same index in the
+	 * previous step, so balls that were added, removed, replaced, merged or reordered in the current step, and the balls
+	 * that moved to another index because of that, are not.
+	 * @pre | index >= 0 && index < state.getBalls().length
+	 * @creates | result
+	 */
+	public Point getInterpolatedBallCenter(int index) {
+		int x = currentCenters[2 * index];
+		int y = currentCenters[2 * index + 1];
+		if (index < previousBalls.length && previousBalls[index] == currentBalls[index]) {
+			x = (int) Math.round(previousCenters[2 * index] + alpha * (x - previousCenters[2 * index]));
+			y = (int) Math.round(previousCenters[2 * index + 1] + alpha * (y - previousCenters[2 * index + 1]));
+		}
+		return new Point(x, y);
+	}
+
+	/**
+	 * Returns an upper bound of the given fraction of the recorded step jitters, in ns, or 0 if there were no steps.
+	 * The jitter of a step is the time between its deadline and the moment it started.
+	 * @pre | fraction >= 0 && fraction <= 1
+	 */
+	public long getJitterPercentile(double fraction) {
+		int count = (int) Math.min(steps, JITTER_SAMPLES);
+		if (count == 0) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(jitters, count);
+		Arrays.sort(sorted);
+		return sorted[Math.min(count - 1, (int) (fraction * count))];
+	}
+
+	private int[] centersOf(Ball[] balls, int[] centers) {
+		if (centers.length != 2 * balls.length) {
+			centers = new int[2 * balls.length];
+		}
+		for (int i = 0; i < balls.length; i++) {
+			centers[2 * i] = balls[i].center.getX();
+			centers[2 * i + 1] = balls[i].center.getY();
+		}
+		return centers;
+	}
+
+	private void step() {
+		int paddleDir = Integer.signum(controller.applyAsInt(state));
+		if (paddleDir > 0) {
+			state.movePaddleRight(stepMillis);
+		}
+		else if (paddleDir < 0) {
+			state.movePaddleLeft(stepMillis);
+		}
+		state.tick(paddleDir, stepMillis);
+		previousBalls = currentBalls;
+		currentBalls = state.getBalls();
+		int[] swap = previousCenters;
+		previousCenters = currentCenters;
+		currentCenters = centersOf(currentBalls, swap);
+		steps++;
+	}
+
+	/**
+	 * Returns the earlier of the given System.nanoTime values, which may wrap around.
+	 */
+	private static long earliest(long a, long b) {
+		return a - b < 0 ? a : b;
+	}
+
+	/**
+	 * Waits until the given System.nanoTime deadline, parking until shortly before it and spinning for the rest.
+	 */
+	private static void waitUntil(long deadline) {
+		for (long remaining = deadline - System.nanoTime(); remaining > SPIN_NANOS; remaining = deadline - System.nanoTime()) {
+			LockSupport.parkNanos(remaining - SPIN_NANOS);
+		}
+		while (System.nanoTime() - deadline < 0) {
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * Runs this loop for the given number of ns, or until the game is won or lost or the thread is interrupted.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the duration is negative.
+	 * 	| durationNanos < 0
+	 */
+	public void run(long durationNanos) {
+		if (durationNanos < 0) {
+			throw new IllegalArgumentException("You have supplied an invalid duration!");
+		}
+		currentBalls = state.getBalls();
+		previousBalls = currentBalls;
+		currentCenters = centersOf(currentBalls, currentCenters);
+		previousCenters = currentCenters.clone();
+		long start = System.nanoTime();
+		long end = start + durationNanos;
+		long maxBacklog = BreakoutState.MAX_ELAPSED_TIME * 1_000_000L;
+		long nextStep = start + stepNanos;
+		long nextRender = start;
+		while (System.nanoTime() - end < 0 && !state.isWon() && !state.isDead() && !Thread.currentThread().isInterrupted()) {
+			long now = System.nanoTime();
+
+			// Drop the game time beyond what can be caught up at once
+			if (now - nextStep > maxBacklog) {
+				long dropped = (now - nextStep - maxBacklog) / stepNanos;
+				droppedMillis += dropped * stepMillis;
+				nextStep += dropped * stepNanos;
+			}
+			while (now - nextStep >= 0 && !state.isWon() && !state.isDead()) {
+				jitters[(int) (steps % JITTER_SAMPLES)] = now - nextStep;
+				stepTime = nextStep;
+				step();
+				nextStep += stepNanos;
+				now = System.nanoTime();
+			}
+
+			if (now - nextRender >= 0) {
+				alpha = Math.min(1, Math.max(0, 1 - (double) (nextStep - now) / stepNanos));
+				if (alpha >= 1) {
+					alpha = Math.nextDown(1.0);
+				}
+				renderer.accept(state, alpha);
+				renders++;
+				nextRender += renderNanos;
+				if (now - nextRender >= 0) {
+					nextRender = now + renderNanos;
+				}
+			}
+			waitUntil(earliest(earliest(nextStep, nextRender), end));
+		}
+	}
+}
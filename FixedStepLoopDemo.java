@@ -0,0 +1,46 @@
+package breakout;
+
+/**
+ * Runs an autopiloted game on a FixedStepLoop in real time and reports the step jitter percentiles, the numbers of
+ * steps and renders and the dropped game time.
+ *
+ * Usage: FixedStepLoopDemo [seconds] [step in ms] [renders per second]
+ */
+public class FixedStepLoopDemo {
+
+	private static final String LEVEL = """
+##########
+#SS!##R!S#
+##########
+#S######S#
+##########
+    o
+
+    =""";
+
+	private FixedStepLoopDemo() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	public static void main(String[] args) {
+		int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int stepMillis = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int rendersPerSecond = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+
+		BreakoutState state = GameMap.createStateFromDescription(LEVEL);
+		FixedStepLoop[] loop = new FixedStepLoop[1];
+		long[] checksum = new long[1];
+		loop[0] = new FixedStepLoop(state, new Autopilot(100)::paddleDir, (game, alpha) -> {
+			for (int i = 0; i < game.getBalls().length; i++) {
+				checksum[0] += loop[0].getInterpolatedBallCenter(i).getX();
+			}
+		}, stepMillis, 1_000_000_000L / rendersPerSecond);
+		loop[0].run(seconds * 1_000_000_000L);
+
+		System.out.printf("%d steps, %d renders, %d ms dropped (checksum %d)%n", loop[0].getStepCount(),
+				loop[0].getRenderCount(), loop[0].getDroppedMillis(), checksum[0]);
+		System.out.printf("step jitter: p50 %d ns, p90 %d ns, p99 %d ns, p99.9 %d ns, max %d ns%n",
+				loop[0].getJitterPercentile(0.5), loop[0].getJitterPercentile(0.9), loop[0].getJitterPercentile(0.99),
+				loop[0].getJitterPercentile(0.999), loop[0].getJitterPercentile(1));
+	}
+}
@@ -0,0 +1,86 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FixedStepLoopTest {
+
+	BreakoutState state;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+	}
+
+	@Test
+	void testStepsAtFixedRate() {
+		double[] alphas = {2, -1};
+		FixedStepLoop loop = new FixedStepLoop(state, new Autopilot(100)::paddleDir, (game, alpha) -> {
+			alphas[0] = Math.min(alphas[0], alpha);
+			alphas[1] = Math.max(alphas[1], alpha);
+		}, 5, 4_000_000);
+		loop.run(300_000_000L);
+		// 60 steps of 5 ms fit in 300 ms; allow for a slow or busy test machine
+		assertTrue(loop.getStepCount() >= 30 && loop.getStepCount() <= 60, "steps: " + loop.getStepCount());
+		assertTrue(loop.getRenderCount() >= 30 && loop.getRenderCount() <= 76, "renders: " + loop.getRenderCount());
+		assertTrue(alphas[0] >= 0 && alphas[1] < 1);
+		assertTrue(loop.getJitterPercentile(0.5) >= 0);
+		assertTrue(loop.getJitterPercentile(0.5) <= loop.getJitterPercentile(1));
+	}
+
+	@Test
+	void testInterpolatesBallCenters() {
+		FixedStepLoop[] loop = new FixedStepLoop[1];
+		Point[] rendered = new Point[2];
+		loop[0] = new FixedStepLoop(state, game -> 0, (game, alpha) -> {
+			Point center = loop[0].getInterpolatedBallCenter(0);
+			if (loop[0].getStepCount() > 0 && game.getBalls().length > 0) {
+				rendered[0] = center;
+				rendered[1] = game.getBalls()[0].getCenter();
+			}
+		}, 10, 3_000_000);
+		loop[0].run(100_000_000L);
+		assertNotNull(rendered[0]);
+		// The interpolated center lies within one step of 10 ms behind the current center
+		Vector velocity = state.getBalls()[0].getVelocity();
+		assertTrue(Math.abs(rendered[1].getX() - rendered[0].getX()) <= Math.abs(velocity.getX()) * 10);
+		assertTrue(Math.abs(rendered[1].getY() - rendered[0].getY()) <= Math.abs(velocity.getY()) * 10);
+	}
+
+	@Test
+	void testDoesNotInterpolateBetweenReorderedBalls() {
+		// Listed against the Morton order, so that the first reordering swaps the balls
+		Ball[] balls = {
+			new NormalBall(new Point(40000, 20000), 700, new Vector(3, -4)),
+			new NormalBall(new Point(5000, 5000), 700, new Vector(-3, 4)),
+		};
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(1000, 500))};
+		BreakoutState game = new BreakoutState(balls, blocks, new Point(50000, 30000),
+				new NormalPaddleState(new Point(25000, 28000), PaddleState.DEFAULT_SIZE));
+		game.setBallReorderingPeriod(3);
+		FixedStepLoop[] loop = new FixedStepLoop[1];
+		int[] renders = new int[1];
+		loop[0] = new FixedStepLoop(game, g -> 0, (g, alpha) -> {
+			Ball[] current = g.getBalls();
+			for (int i = 0; i < current.length; i++) {
+				Point center = loop[0].getInterpolatedBallCenter(i);
+				// Within one step of 10 ms behind the current center of the same ball
+				assertTrue(Math.abs(current[i].getCenter().getX() - center.getX()) <= 30, "ball " + i + " at " + center);
+				assertTrue(Math.abs(current[i].getCenter().getY() - center.getY()) <= 40, "ball " + i + " at " + center);
+			}
+			renders[0]++;
+		}, 10, 3_000_000);
+		loop[0].run(100_000_000L);
+		assertTrue(loop[0].getStepCount() >= 3);
+		assertTrue(renders[0] > 0);
+	}
+
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new FixedStepLoop(null, game -> 0, (game, alpha) -> {}, 10, 1));
+		assertThrows(IllegalArgumentException.class, () -> new FixedStepLoop(state, game -> 0, (game, alpha) -> {}, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new FixedStepLoop(state, game -> 0, (game, alpha) -> {}, 10, 0));
+	}
+}
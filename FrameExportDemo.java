@@ -0,0 +1,127 @@
+package breakout;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Demonstrates exporting frames to a memory-mapped file and reading them back, and measures the latency of
+ * FrameExporter.publish.
+ *
+ * Usage:
+ * - FrameExportDemo: runs a game and a reader thread in this process, then prints publish latency percentiles.
+ * - FrameExportDemo writer <file>: runs a game that publishes its frames into the given file.
+ * - FrameExportDemo reader <file>: prints the latest frame of the given file ten times a second.
+ */
+public class FrameExportDemo {
+
+	private static final String LEVEL = """
+##########
+#SS!##R!S#
+##########
+#S######S#
+##########
+    o
+
+    =""";
+	private static final int FRAMES = 200_000;
+	private static final int SLOTS = 8;
+	private static final int MAX_BALLS = 256;
+	private static final int MAX_BLOCKS = 80;
+
+	private FrameExportDemo() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static int followBall(BreakoutState state) {
+		Ball[] balls = state.getBalls();
+		if (balls.length == 0) {
+			return 0;
+		}
+		return Integer.signum(balls[0].getCenter().getX() - state.getPaddle().getCenter().getX());
+	}
+
+	private static void step(BreakoutState state) {
+		int paddleDir = followBall(state);
+		if (paddleDir > 0) {
+			state.movePaddleRight(10);
+		}
+		else if (paddleDir < 0) {
+			state.movePaddleLeft(10);
+		}
+		state.tick(paddleDir, 10);
+	}
+
+	private static void runWriter(FrameExporter exporter, long[] latencies) {
+		BreakoutState state = GameMap.createStateFromDescription(LEVEL);
+		for (int f = 0; f < latencies.length; f++) {
+			if (state.isDead() || state.isWon()) {
+				state = GameMap.createStateFromDescription(LEVEL);
+			}
+			step(state);
+			long start = System.nanoTime();
+			exporter.publish(state);
+			latencies[f] = System.nanoTime() - start;
+		}
+	}
+
+	private static void printFrame(FrameReader reader) {
+		System.out.printf("frame %d: %d balls, %d blocks, paddle %s%n", reader.getFrame(), reader.getBallCount(),
+				reader.getBlockCount(), reader.getPaddleRect().getTopLeft());
+	}
+
+	private static void runReader(Path file) throws IOException, InterruptedException {
+		try (FrameReader reader = new FrameReader(file)) {
+			while (true) {
+				if (reader.readLatest() >= 0) {
+					printFrame(reader);
+				}
+				Thread.sleep(100);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 2 && args[0].equals("writer")) {
+			try (FrameExporter exporter = new FrameExporter(Paths.get(args[1]), SLOTS, MAX_BALLS, MAX_BLOCKS)) {
+				long[] latencies = new long[1024];
+				while (true) {
+					runWriter(exporter, latencies);
+					Thread.sleep(10);
+				}
+			}
+		}
+		if (args.length == 2 && args[0].equals("reader")) {
+			runReader(Paths.get(args[1]));
+			return;
+		}
+
+		Path file = Files.createTempFile("breakout-frames", ".bin");
+		try (FrameExporter exporter = new FrameExporter(file, SLOTS, MAX_BALLS, MAX_BLOCKS);
+				FrameReader reader = new FrameReader(file)) {
+			long[] reads = new long[2];
+			Thread readerThread = new Thread(() -> {
+				while (!Thread.currentThread().isInterrupted()) {
+					reads[reader.readLatest() >= 0 ? 0 : 1]++;
+				}
+			});
+			readerThread.start();
+			long[] latencies = new long[FRAMES];
+			runWriter(exporter, latencies);
+			readerThread.interrupt();
+			readerThread.join();
+			printFrame(reader);
+
+			Arrays.sort(latencies);
+			System.out.printf("publish latency over %d frames: p50 %d ns, p90 %d ns, p99 %d ns, p99.9 %d ns, max %d ns%n",
+					FRAMES, latencies[FRAMES / 2], latencies[FRAMES * 9 / 10], latencies[FRAMES * 99 / 100],
+					latencies[FRAMES * 999 / 1000], latencies[FRAMES - 1]);
+			System.out.printf("reader: %d stable reads, %d empty or contended reads%n", reads[0], reads[1]);
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
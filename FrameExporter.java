@@ -0,0 +1,191 @@
+package breakout;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Each instance of this class publishes the frames of a breakout game (ball centers, diameters and colors,
+ * block rectangles and colors and the paddle rectangle and color) into a memory-mapped file, from which a
+ * renderer in another process can read the latest frame with a FrameReader.
+ *
+ * The file consists of a header followed by a ring of frame slots. Each slot is protected by a sequence lock:
+ * its sequence number is odd while the slot is being written, so that a reader can detect a torn read and retry.
+ * Publishing never waits for readers.
+ *
+ * @invar | getPublishedFrameCount() >= 0
+ */
+public class FrameExporter implements AutoCloseable {
+
+	// The layout of the file header, in bytes
+	static final int MAGIC = 0x42524B46;
+	static final int VERSION = 1;
+	static final int HEADER_MAGIC = 0;
+	static final int HEADER_VERSION = 4;
+	static final int HEADER_SLOT_COUNT = 8;
+	static final int HEADER_SLOT_BYTES = 12;
+	static final int HEADER_MAX_BALLS = 16;
+	static final int HEADER_MAX_BLOCKS = 20;
+	static final int HEADER_LATEST = 24;
+	static final int HEADER_BYTES = 64;
+
+	// The layout of a frame slot, in bytes
+	static final int SLOT_SEQUENCE = 0;
+	static final int SLOT_FRAME = 8;
+	static final int SLOT_BALL_COUNT = 16;
+	static final int SLOT_BLOCK_COUNT = 20;
+	static final int SLOT_PADDLE = 24;
+	static final int SLOT_BALLS = 48;
+	static final int BALL_BYTES = 16;
+	static final int BLOCK_BYTES = 20;
+
+	// Aligned, ordered access to the sequence numbers in the mapped file
+	static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+	/**
+	 * @invar | buffer != null
+	 * @invar | slotCount > 0 && maxBalls >= 0 && maxBlocks >= 0
+	 */
+	private final FileChannel channel;
+	/** @representationObject */
+	private final MappedByteBuffer buffer;
+	private final int slotCount;
+	private final int slotBytes;
+	private final int maxBalls;
+	private final int maxBlocks;
+	private long frames;
+
+	/**
+	 * Returns the number of bytes of a frame slot holding the given number of balls and blocks.
+	 */
+	static int slotBytes(int maxBalls, int maxBlocks) {
+		int bytes = SLOT_BALLS + BALL_BYTES * maxBalls + BLOCK_BYTES * maxBlocks;
+		return (bytes + 7) & ~7;
+	}
+
+	/**
+	 * Creates or truncates the given file and maps a ring of the given number of frame slots into memory.
+	 * Each frame holds at most the given number of balls and blocks.
+	 * @throws IllegalArgumentException if no file is supplied.
+	 * 	| file == null
+	 * @throws IllegalArgumentException if the number of slots is not positive.
+	 * 	| slotCount <= 0
+	 * @throws IllegalArgumentException if the maximum number of balls or blocks is negative.
+	 * 	| maxBalls < 0 || maxBlocks < 0
+	 * @throws IOException if the file cannot be created or mapped.
+	 * 	| true
+	 * @post | getPublishedFrameCount() == 0
+	 */
+	public FrameExporter(Path file, int slotCount, int maxBalls, int maxBlocks) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("You have not supplied a valid file!");
+		}
+		if (slotCount <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid number of slots!");
+		}
+		if (maxBalls < 0 || maxBlocks < 0) {
+			throw new IllegalArgumentException("You have supplied an invalid maximum number of balls or blocks!");
+		}
+		this.slotCount = slotCount;
+		this.slotBytes = slotBytes(maxBalls, maxBlocks);
+		this.maxBalls = maxBalls;
+		this.maxBlocks = maxBlocks;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slotCount * slotBytes);
+		buffer.order(ByteOrder.nativeOrder());
+		buffer.putInt(HEADER_VERSION, VERSION);
+		buffer.putInt(HEADER_SLOT_COUNT, slotCount);
+		buffer.putInt(HEADER_SLOT_BYTES, slotBytes);
+		buffer.putInt(HEADER_MAX_BALLS, maxBalls);
+		buffer.putInt(HEADER_MAX_BLOCKS, maxBlocks);
+		LONGS.setRelease(buffer, HEADER_LATEST, -1L);
+		// Written last, so that a reader never sees a valid magic number with an incomplete header
+		VarHandle.storeStoreFence();
+		buffer.putInt(HEADER_MAGIC, MAGIC);
+	}
+
+	/**
+	 * Returns the number of frames published so far.
+	 */
+	public long getPublishedFrameCount() {
+		return frames;
+	}
+
+	private void putRect(int offset, Rect rect) {
+		buffer.putInt(offset, rect.getTopLeft().getX());
+		buffer.putInt(offset + 4, rect.getTopLeft().getY());
+		buffer.putInt(offset + 8, rect.getBottomRight().getX());
+		buffer.putInt(offset + 12, rect.getBottomRight().getY());
+	}
+
+	/**
+	 * Publishes the current frame of the given game state and returns its frame number. If the state holds
+	 * more balls or blocks than a frame can hold, only the first ones are published.
+	 * @mutates | this
+	 * @inspects | state
+	 * @throws IllegalArgumentException if no state is supplied.
+	 * 	| state == null
+	 * @post | result == old(getPublishedFrameCount())
+	 * @post | getPublishedFrameCount() == old(getPublishedFrameCount()) + 1
+	 */
+	public long publish(BreakoutState state) {
+		if (state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid game state!");
+		}
+		long frame = frames;
+		int slot = HEADER_BYTES + (int) (frame % slotCount) * slotBytes;
+		long sequence = (long) LONGS.getOpaque(buffer, slot + SLOT_SEQUENCE);
+
+		// Mark the slot as being written before touching the frame data
+		LONGS.setOpaque(buffer, slot + SLOT_SEQUENCE, sequence + 1);
+		VarHandle.storeStoreFence();
+
+		Ball[] balls = state.getBalls();
+		BlockState[] blocks = state.getBlocks();
+		int ballCount = Math.min(balls.length, maxBalls);
+		int blockCount = Math.min(blocks.length, maxBlocks);
+		buffer.putLong(slot + SLOT_FRAME, frame);
+		buffer.putInt(slot + SLOT_BALL_COUNT, ballCount);
+		buffer.putInt(slot + SLOT_BLOCK_COUNT, blockCount);
+		putRect(slot + SLOT_PADDLE, state.getPaddle().rectangleOf());
+		buffer.putInt(slot + SLOT_PADDLE + 16, Palette.rgbOf(state.getPaddle().getPaletteIndex()));
+		int offset = slot + SLOT_BALLS;
+		for (int i = 0; i < ballCount; i++, offset += BALL_BYTES) {
+			Ball ball = balls[i];
+			buffer.putInt(offset, ball.center.getX());
+			buffer.putInt(offset + 4, ball.center.getY());
+			buffer.putInt(offset + 8, ball.getDiameter());
+			buffer.putInt(offset + 12, Palette.rgbOf(ball.getPaletteIndex()));
+		}
+		offset = slot + SLOT_BALLS + BALL_BYTES * maxBalls;
+		for (int j = 0; j < blockCount; j++, offset += BLOCK_BYTES) {
+			BlockState block = blocks[j];
+			buffer.putInt(offset, block.TL.getX());
+			buffer.putInt(offset + 4, block.TL.getY());
+			buffer.putInt(offset + 8, block.BR.getX());
+			buffer.putInt(offset + 12, block.BR.getY());
+			buffer.putInt(offset + 16, Palette.rgbOf(block.getPaletteIndex()));
+		}
+
+		// Mark the slot as stable and make it the latest frame
+		LONGS.setRelease(buffer, slot + SLOT_SEQUENCE, sequence + 2);
+		LONGS.setRelease(buffer, HEADER_LATEST, frame);
+		frames++;
+		return frame;
+	}
+
+	/**
+	 * Closes the file channel of this exporter. Frames already published remain readable from the file.
+	 * @throws IOException if the channel cannot be closed.
+	 * 	| true
+	 */
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,121 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+
+class FrameExporterTest {
+
+	@Test
+	void testPublishAndRead() throws Exception {
+		Path file = Files.createTempFile("frames", ".bin");
+		try (FrameExporter exporter = new FrameExporter(file, 3, 4, 80);
+				FrameReader reader = new FrameReader(file)) {
+			assertEquals(-1, reader.readLatest());
+
+			BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMapBeforeBounce);
+			for (int frame = 0; frame < 5; frame++) {
+				assertEquals(frame, exporter.publish(state));
+				state.tick(0, 10);
+			}
+			assertEquals(5, exporter.getPublishedFrameCount());
+
+			state = GameMap.createStateFromDescription(SubmissionTestSuite.initMapBeforeBounce);
+			for (int frame = 0; frame < 4; frame++) {
+				state.tick(0, 10);
+			}
+			assertEquals(4, reader.readLatest());
+			assertEquals(4, reader.getFrame());
+			assertEquals(state.getBalls().length, reader.getBallCount());
+			assertEquals(state.getBalls()[0].getCenter(), reader.getBallCenter(0));
+			assertEquals(state.getBalls()[0].getDiameter(), reader.getBallDiameter(0));
+			assertEquals(Palette.rgbOf(state.getBalls()[0].getPaletteIndex()), reader.getBallRGB(0));
+			assertEquals(state.getBlocks().length, reader.getBlockCount());
+			for (int j = 0; j < state.getBlocks().length; j++) {
+				assertEquals(state.getBlocks()[j].rectangleOf(), reader.getBlockRect(j));
+				assertEquals(Palette.rgbOf(state.getBlocks()[j].getPaletteIndex()), reader.getBlockRGB(j));
+			}
+			assertEquals(state.getPaddle().rectangleOf(), reader.getPaddleRect());
+			assertEquals(Palette.rgbOf(state.getPaddle().getPaletteIndex()), reader.getPaddleRGB());
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void testKeepsTheLastFrameIfTheLatestIsTorn() throws Exception {
+		Path file = Files.createTempFile("frames", ".bin");
+		try (FrameExporter exporter = new FrameExporter(file, 3, 4, 80);
+				FrameReader reader = new FrameReader(file);
+				FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMapBeforeBounce);
+			Point center = state.getBalls()[0].getCenter();
+			Rect paddle = state.getPaddle().rectangleOf();
+			exporter.publish(state);
+			assertEquals(0, reader.readLatest());
+
+			state.movePaddleRight(100);
+			state.tick(1, 100);
+			assertNotEquals(center, state.getBalls()[0].getCenter());
+			exporter.publish(state);
+			// Frame 1 is read completely, but its slot claims to hold another frame, as if it were overwritten meanwhile
+			MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+			mapping.order(ByteOrder.nativeOrder());
+			int slot = FrameExporter.HEADER_BYTES + mapping.getInt(FrameExporter.HEADER_SLOT_BYTES);
+			mapping.putLong(slot + FrameExporter.SLOT_FRAME, 4);
+			assertEquals(-1, reader.readLatest());
+			assertEquals(0, reader.getFrame());
+			assertEquals(center, reader.getBallCenter(0));
+			assertEquals(paddle, reader.getPaddleRect());
+
+			mapping.putLong(slot + FrameExporter.SLOT_FRAME, 1);
+			assertEquals(1, reader.readLatest());
+			assertEquals(state.getBalls()[0].getCenter(), reader.getBallCenter(0));
+			assertEquals(state.getPaddle().rectangleOf(), reader.getPaddleRect());
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void testInvalidArguments() throws Exception {
+		Path file = Files.createTempFile("frames", ".bin");
+		try {
+			assertThrows(IllegalArgumentException.class, () -> new FrameExporter(null, 1, 1, 1));
+			assertThrows(IllegalArgumentException.class, () -> new FrameExporter(file, 0, 1, 1));
+			assertThrows(java.io.IOException.class, () -> new FrameReader(file));
+
+			// Headers describing slots that do not fit in the file
+			new FrameExporter(file, 2, 4, 8).close();
+			int[][] corruptions = {{FrameExporter.HEADER_SLOT_COUNT, 0}, {FrameExporter.HEADER_SLOT_COUNT, 3},
+					{FrameExporter.HEADER_SLOT_COUNT, Integer.MAX_VALUE}, {FrameExporter.HEADER_SLOT_BYTES, -8},
+					{FrameExporter.HEADER_SLOT_BYTES, 4}, {FrameExporter.HEADER_MAX_BALLS, -1},
+					{FrameExporter.HEADER_MAX_BALLS, 5}, {FrameExporter.HEADER_MAX_BLOCKS, Integer.MAX_VALUE}};
+			for (int[] corruption : corruptions) {
+				try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+					MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, FrameExporter.HEADER_BYTES);
+					header.order(ByteOrder.nativeOrder());
+					int valid = header.getInt(corruption[0]);
+					header.putInt(corruption[0], corruption[1]);
+					assertThrows(java.io.IOException.class, () -> new FrameReader(file));
+					header.putInt(corruption[0], valid);
+				}
+			}
+			try (FrameReader reader = new FrameReader(file)) {
+				assertEquals(-1, reader.readLatest());
+			}
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,231 @@
+package breakout;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Each instance of this class reads the latest frame published by a FrameExporter, possibly running in another
+ * process, from its memory-mapped file. The frame data is read straight from the mapping into a spare set of arrays
+ * owned by this reader, which is swapped with the set of the frame read last only once the frame is known to be
+ * intact, so that a torn read never shows. Both sets are reused for every frame. The copy of each frame is what makes
+ * the read safe: a frame read in place could be overwritten by the exporter while it is used.
+ *
+ * @invar | getBallCount() >= 0
+ * @invar | getBlockCount() >= 0
+ */
+public class FrameReader implements AutoCloseable {
+
+	// The maximum number of attempts to read a stable frame before giving up
+	private static final int MAX_ATTEMPTS = 64;
+
+	private final FileChannel channel;
+	/** @representationObject */
+	private final MappedByteBuffer buffer;
+	private final int slotCount;
+	private final int slotBytes;
+	private final int maxBalls;
+
+	private long frame = -1;
+	private int ballCount;
+	private int blockCount;
+	/** @representationObject */
+	private int[] paddle = new int[5];
+	/** @representationObject */
+	private int[] balls;
+	/** @representationObject */
+	private int[] blocks;
+	// The arrays the next frame is read into
+	/** @representationObject */
+	private int[] nextPaddle = new int[5];
+	/** @representationObject */
+	private int[] nextBalls;
+	/** @representationObject */
+	private int[] nextBlocks;
+
+	/**
+	 * Maps the frame file at the given path, as created by a FrameExporter.
+	 * @throws IllegalArgumentException if no file is supplied.
+	 * 	| file == null
+	 * @throws IOException if the file cannot be mapped, is not a frame file, or its header describes slots that do not
+	 * fit in the file.
+	 * 	| true
+	 */
+	public FrameReader(Path file) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("You have not supplied a valid file!");
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		buffer.order(ByteOrder.nativeOrder());
+		if (buffer.capacity() < FrameExporter.HEADER_BYTES || buffer.getInt(FrameExporter.HEADER_MAGIC) != FrameExporter.MAGIC ||
+				buffer.getInt(FrameExporter.HEADER_VERSION) != FrameExporter.VERSION) {
+			channel.close();
+			throw new IOException("The supplied file is not a frame file!");
+		}
+		VarHandle.loadLoadFence();
+		this.slotCount = buffer.getInt(FrameExporter.HEADER_SLOT_COUNT);
+		this.slotBytes = buffer.getInt(FrameExporter.HEADER_SLOT_BYTES);
+		this.maxBalls = buffer.getInt(FrameExporter.HEADER_MAX_BALLS);
+		int maxBlocks = buffer.getInt(FrameExporter.HEADER_MAX_BLOCKS);
+		// The sequence numbers of the slots must stay aligned, and the slots must hold their balls and blocks
+		if (slotCount <= 0 || slotBytes <= 0 || slotBytes % 8 != 0 || maxBalls < 0 || maxBlocks < 0 ||
+				slotBytes < FrameExporter.SLOT_BALLS + (long) FrameExporter.BALL_BYTES * maxBalls +
+						(long) FrameExporter.BLOCK_BYTES * maxBlocks ||
+				FrameExporter.HEADER_BYTES + (long) slotCount * slotBytes > buffer.capacity()) {
+			channel.close();
+			throw new IOException("The supplied file has an invalid frame header!");
+		}
+		this.balls = new int[4 * maxBalls];
+		this.nextBalls = new int[4 * maxBalls];
+		this.blocks = new int[5 * maxBlocks];
+		this.nextBlocks = new int[blocks.length];
+	}
+
+	/**
+	 * Reads the latest published frame, if any, and returns its frame number, or -1 if no frame was published yet
+	 * or no stable frame could be read because the exporter kept overwriting it. In the latter case, the frame read
+	 * last is kept.
+	 * @mutates | this
+	 */
+	public long readLatest() {
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+			long latest = (long) FrameExporter.LONGS.getAcquire(buffer, FrameExporter.HEADER_LATEST);
+			if (latest < 0) {
+				return -1;
+			}
+			int slot = FrameExporter.HEADER_BYTES + (int) (latest % slotCount) * slotBytes;
+			long before = (long) FrameExporter.LONGS.getAcquire(buffer, slot + FrameExporter.SLOT_SEQUENCE);
+			if ((before & 1) != 0) {
+				continue;
+			}
+			long slotFrame = buffer.getLong(slot + FrameExporter.SLOT_FRAME);
+			int newBallCount = Math.min(buffer.getInt(slot + FrameExporter.SLOT_BALL_COUNT), maxBalls);
+			int newBlockCount = Math.min(buffer.getInt(slot + FrameExporter.SLOT_BLOCK_COUNT), blocks.length / 5);
+			newBallCount = Math.max(0, newBallCount);
+			newBlockCount = Math.max(0, newBlockCount);
+			for (int k = 0; k < 5; k++) {
+				nextPaddle[k] = buffer.getInt(slot + FrameExporter.SLOT_PADDLE + 4 * k);
+			}
+			int offset = slot + FrameExporter.SLOT_BALLS;
+			for (int k = 0; k < 4 * newBallCount; k++) {
+				nextBalls[k] = buffer.getInt(offset + 4 * k);
+			}
+			offset = slot + FrameExporter.SLOT_BALLS + FrameExporter.BALL_BYTES * maxBalls;
+			for (int k = 0; k < 5 * newBlockCount; k++) {
+				nextBlocks[k] = buffer.getInt(offset + 4 * k);
+			}
+
+			// The frame is valid only if the slot was not written meanwhile
+			VarHandle.loadLoadFence();
+			long after = (long) FrameExporter.LONGS.getOpaque(buffer, slot + FrameExporter.SLOT_SEQUENCE);
+			if (before == after && slotFrame == latest) {
+				int[] old = paddle;
+				paddle = nextPaddle;
+				nextPaddle = old;
+				old = balls;
+				balls = nextBalls;
+				nextBalls = old;
+				old = blocks;
+				blocks = nextBlocks;
+				nextBlocks = old;
+				frame = latest;
+				ballCount = newBallCount;
+				blockCount = newBlockCount;
+				return frame;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the number of the frame read last, or -1 if no frame was read yet.
+	 */
+	public long getFrame() {
+		return frame;
+	}
+
+	/**
+	 * Returns the number of balls in the frame read last.
+	 */
+	public int getBallCount() {
+		return ballCount;
+	}
+
+	/**
+	 * Returns the number of blocks in the frame read last.
+	 */
+	public int getBlockCount() {
+		return blockCount;
+	}
+
+	/**
+	 * Returns the center of the given ball in the frame read last.
+	 * @pre | index >= 0 && index < getBallCount()
+	 * @creates | result
+	 */
+	public Point getBallCenter(int index) {
+		return new Point(balls[4 * index], balls[4 * index + 1]);
+	}
+
+	/**
+	 * Returns the diameter of the given ball in the frame read last.
+	 * @pre | index >= 0 && index < getBallCount()
+	 */
+	public int getBallDiameter(int index) {
+		return balls[4 * index + 2];
+	}
+
+	/**
+	 * Returns the RGB value of the color of the given ball in the frame read last.
+	 * @pre | index >= 0 && index < getBallCount()
+	 */
+	public int getBallRGB(int index) {
+		return balls[4 * index + 3];
+	}
+
+	/**
+	 * Returns the rectangle of the given block in the frame read last.
+	 * @pre | index >= 0 && index < getBlockCount()
+	 * @creates | result
+	 */
+	public Rect getBlockRect(int index) {
+		return new Rect(new Point(blocks[5 * index], blocks[5 * index + 1]), new Point(blocks[5 * index + 2], blocks[5 * index + 3]));
+	}
+
+	/**
+	 * Returns the RGB value of the color of the given block in the frame read last.
+	 * @pre | index >= 0 && index < getBlockCount()
+	 */
+	public int getBlockRGB(int index) {
+		return blocks[5 * index + 4];
+	}
+
+	/**
+	 * Returns the rectangle of the paddle in the frame read last.
+	 * @creates | result
+	 */
+	public Rect getPaddleRect() {
+		return new Rect(new Point(paddle[0], paddle[1]), new Point(paddle[2], paddle[3]));
+	}
+
+	/**
+	 * Returns the RGB value of the color of the paddle in the frame read last.
+	 */
+	public int getPaddleRGB() {
+		return paddle[4];
+	}
+
+	/**
+	 * Closes the file channel of this reader.
+	 * @throws IOException if the channel cannot be closed.
+	 * 	| true
+	 */
+	public void close() throws IOException {
+		channel.close();
+	}
+}
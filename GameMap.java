@@ -48,6 +48,41 @@ public class GameMap {
 		return facade.createNormalBall(center, diameter, INIT_BALL_VELOCITY);
 	}
 
+	/**
+	 * Return the blocks of the level represented by string `description` as a grid block field, with the same
+	 * geometry as the blocks of the state returned by `createStateFromDescription`.
+	 * 
+	 * @pre | description != null
+	 * @post | result != null
+	 */
+	public static GridBlockField createBlockFieldFromDescription(String description) {
+		String[] lines = description.split("\n", BLOCK_LINES);
+		GridBlockField field = BlockField.grid(BLOCK_COLUMNS, BLOCK_LINES, WIDTH / BLOCK_COLUMNS, HEIGHT / BLOCK_LINES,
+				20, 20, WIDTH / BLOCK_COLUMNS - 70, HEIGHT / BLOCK_LINES - 70);
+		assert lines.length <= BLOCK_LINES;
+		for (int line = 0; line < lines.length; line++) {
+			assert lines[line].length() <= BLOCK_COLUMNS;
+			char[] chars = lines[line].toCharArray();
+			for (int column = 0; column < Math.min(chars.length, BLOCK_COLUMNS); column++) {
+				switch (chars[column]) {
+				case '#':
+					field.placeBlock(column, line, BlockField.NORMAL, 0);
+					break;
+				case 'S':
+					field.placeBlock(column, line, BlockField.STURDY, 3);
+					break;
+				case 'R':
+					field.placeBlock(column, line, BlockField.REPLICATOR, 0);
+					break;
+				case '!':
+					field.placeBlock(column, line, BlockField.POWERUP_BALL, 0);
+					break;
+				}
+			}
+		}
+		return field;
+	}
+
 	/**
 	 * Return the initial breakout state represented by string `description`.
 	 * 
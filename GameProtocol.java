@@ -0,0 +1,290 @@
+package breakout;
+
+import java.net.ProtocolException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * This class defines the binary protocol by which a GameServer streams game states to its clients, and by which the
+ * clients send paddle input back.
+ *
+ * A message consists of a 4-byte length, counting the bytes that follow it, a 1-byte message type and the body of the
+ * message. All numbers are big-endian. The body of a STATE message is the frame number (8 bytes), the size of the game
+ * field (2 x 4 bytes), the paddle (center, size and replicator lifetime, 5 x 4 bytes), the number of balls (4 bytes)
+ * followed by each ball (center, velocity, diameter and supercharged lifetime, 6 x 4 bytes) and the number of blocks
+ * (4 bytes) followed by each block (rectangle, 4 x 4 bytes, and BlockField block code, 1 byte). A lifetime of 0 stands for
+ * a normal ball or paddle. A Ball object standing for several identical balls is written once for each of them. The body
+ * of an INPUT message is the frame number the input is meant for (8 bytes) and the paddle direction (1 byte). The body
+ * of a DELTA message is defined by DeltaEncoder.
+ *
+ * Messages are written at and read from the position of a ByteBuffer, which they advance.
+ */
+public final class GameProtocol {
+
+	// The message types
+	public static final byte STATE = 1;
+	public static final byte INPUT = 2;
+	public static final byte DELTA = 3;
+
+	// The number of bytes of the length and type of a message
+	public static final int HEADER_BYTES = 5;
+	// The number of bytes of an INPUT message
+	public static final int INPUT_BYTES = HEADER_BYTES + 9;
+	// The largest message length a peer accepts
+	public static final int MAX_MESSAGE_BYTES = 1 << 24;
+
+	// The number of bytes of a STATE message without balls and blocks, and of each ball and block
+	private static final int STATE_BYTES = HEADER_BYTES + 8 + 8 + 20 + 4 + 4;
+	private static final int BALL_BYTES = 24;
+	private static final int BLOCK_BYTES = 17;
+
+	private GameProtocol() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Returns the number of bytes of the STATE message of the given game state.
+	 * @pre | state != null
+	 * @post | result > 0
+	 */
+	public static int stateBytes(BreakoutState state) {
+		return STATE_BYTES + BALL_BYTES * state.getBallCount() + BLOCK_BYTES * state.getBlocks().length;
+	}
+
+	/**
+	 * Writes the STATE message of the given game state with the given frame number.
+	 * @mutates | buffer
+	 * @throws IllegalArgumentException if no buffer or state is supplied.
+	 * 	| buffer == null || state == null
+	 * @throws BufferOverflowException if the message does not fit in the remaining bytes of the buffer, in which case
+	 * 	the buffer does not change.
+	 * 	| buffer.remaining() < stateBytes(state)
+	 * @post | buffer.position() == old(buffer.position()) + stateBytes(state)
+	 */
+	public static void putState(ByteBuffer buffer, BreakoutState state, long frame) {
+		if (buffer == null || state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid buffer or game state!");
+		}
+		Ball[] balls = state.getBalls();
+		BlockState[] blocks = state.getBlocks();
+		int ballCount = state.getBallCount();
+		int bytes = STATE_BYTES + BALL_BYTES * ballCount + BLOCK_BYTES * blocks.length;
+		if (buffer.remaining() < bytes) {
+			throw new BufferOverflowException();
+		}
+		PaddleState paddle = state.getPaddle();
+		buffer.putInt(bytes - 4);
+		buffer.put(STATE);
+		buffer.putLong(frame);
+		buffer.putInt(state.getBottomRight().getX());
+		buffer.putInt(state.getBottomRight().getY());
+		buffer.putInt(paddle.center.getX());
+		buffer.putInt(paddle.center.getY());
+		buffer.putInt(paddle.size.getX());
+		buffer.putInt(paddle.size.getY());
+		buffer.putInt(paddle instanceof ReplicatorPaddleState ? ((ReplicatorPaddleState) paddle).getLifetime() : 0);
+		buffer.putInt(ballCount);
+		for (Ball ball : balls) {
+			for (int k = 0; k < ball.multiplicity; k++) {
+				buffer.putInt(ball.center.getX());
+				buffer.putInt(ball.center.getY());
+				buffer.putInt(ball.velocity.getX());
+				buffer.putInt(ball.velocity.getY());
+				buffer.putInt(ball.diameter);
+				buffer.putInt(ball instanceof SuperBall ? (int) ((SuperBall) ball).getLifetime() : 0);
+			}
+		}
+		buffer.putInt(blocks.length);
+		for (BlockState block : blocks) {
+			buffer.putInt(block.TL.getX());
+			buffer.putInt(block.TL.getY());
+			buffer.putInt(block.BR.getX());
+			buffer.putInt(block.BR.getY());
+			buffer.put(BlockField.encode(block));
+		}
+	}
+
+	/**
+	 * Writes an INPUT message with the given paddle direction for the given frame.
+	 * @mutates | buffer
+	 * @throws IllegalArgumentException if no buffer is supplied.
+	 * 	| buffer == null
+	 * @throws IllegalArgumentException if the paddle direction is not 0, 1 or -1.
+	 * 	| paddleDir < -1 || paddleDir > 1
+	 * @throws BufferOverflowException if the message does not fit in the remaining bytes of the buffer.
+	 * 	| buffer.remaining() < INPUT_BYTES
+	 * @post | buffer.position() == old(buffer.position()) + INPUT_BYTES
+	 */
+	public static void putInput(ByteBuffer buffer, int paddleDir, long frame) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("You have not supplied a valid buffer!");
+		}
+		if (paddleDir < -1 || paddleDir > 1) {
+			throw new IllegalArgumentException("You have supplied an invalid paddle direction!");
+		}
+		if (buffer.remaining() < INPUT_BYTES) {
+			throw new BufferOverflowException();
+		}
+		buffer.putInt(INPUT_BYTES - 4);
+		buffer.put(INPUT);
+		buffer.putLong(frame);
+		buffer.put((byte) paddleDir);
+	}
+
+	/**
+	 * Returns the number of bytes of the message at the position of the given buffer if its remaining bytes hold all of
+	 * it, or -1 if they do not. Does not advance the buffer.
+	 * @inspects | buffer
+	 * @throws ProtocolException if the length of the message is invalid.
+	 * 	| true
+	 */
+	public static int messageBytes(ByteBuffer buffer) throws ProtocolException {
+		if (buffer.remaining() < HEADER_BYTES) {
+			return -1;
+		}
+		int length = buffer.getInt(buffer.position());
+		if (length < 1 || length > MAX_MESSAGE_BYTES) {
+			throw new ProtocolException("The message length " + length + " is invalid");
+		}
+		return buffer.remaining() >= 4 + length ? 4 + length : -1;
+	}
+
+	/**
+	 * Returns the type of the message at the position of the given buffer, whose remaining bytes hold all of it.
+	 * Does not advance the buffer.
+	 * @inspects | buffer
+	 */
+	public static byte typeOf(ByteBuffer buffer) {
+		return buffer.get(buffer.position() + 4);
+	}
+
+	/**
+	 * Returns the frame number of the STATE or INPUT message at the position of the given buffer, whose remaining bytes
+	 * hold all of it. Does not advance the buffer.
+	 * @inspects | buffer
+	 */
+	public static long frameOf(ByteBuffer buffer) {
+		return buffer.getLong(buffer.position() + HEADER_BYTES);
+	}
+
+	/**
+	 * Reads the INPUT message at the position of the given buffer, whose remaining bytes hold all of it, and returns its
+	 * paddle direction.
+	 * @mutates | buffer
+	 * @throws ProtocolException if the message is not a valid INPUT message.
+	 * 	| true
+	 * @post | result == -1 || result == 0 || result == 1
+	 */
+	public static int getInput(ByteBuffer buffer) throws ProtocolException {
+		int start = buffer.position();
+		if (buffer.getInt(start) != INPUT_BYTES - 4 || buffer.get(start + 4) != INPUT) {
+			throw new ProtocolException("The message is not a valid input message");
+		}
+		int paddleDir = buffer.get(start + INPUT_BYTES - 1);
+		if (paddleDir < -1 || paddleDir > 1) {
+			throw new ProtocolException("The paddle direction " + paddleDir + " is invalid");
+		}
+		buffer.position(start + INPUT_BYTES);
+		return paddleDir;
+	}
+
+	/**
+	 * Reads the STATE message at the position of the given buffer, whose remaining bytes hold all of it, and returns
+	 * the game state it carries. The returned state has the same hash as the state the message was written from.
+	 * @mutates | buffer
+	 * @creates | result
+	 * @throws ProtocolException if the message is not a valid STATE message.
+	 * 	| true
+	 */
+	public static BreakoutState getState(ByteBuffer buffer) throws ProtocolException {
+		int start = buffer.position();
+		int length = buffer.getInt(start);
+		if (buffer.get(start + 4) != STATE || length < STATE_BYTES - 4) {
+			throw new ProtocolException("The message is not a valid state message");
+		}
+		buffer.position(start + HEADER_BYTES + 8);
+		try {
+			Point bottomRight = new Point(buffer.getInt(), buffer.getInt());
+			Point paddleCenter = new Point(buffer.getInt(), buffer.getInt());
+			Vector paddleSize = new Vector(buffer.getInt(), buffer.getInt());
+			int paddleLifetime = buffer.getInt();
+			PaddleState paddle = paddleLifetime > 0 ? new ReplicatorPaddleState(paddleCenter, paddleSize, paddleLifetime) :
+				new NormalPaddleState(paddleCenter, paddleSize);
+			int ballCount = buffer.getInt();
+			if (ballCount < 0 || ballCount > (length - STATE_BYTES + 4) / BALL_BYTES) {
+				throw new ProtocolException("The number of balls " + ballCount + " is invalid");
+			}
+			Ball[] balls = new Ball[ballCount];
+			for (int i = 0; i < ballCount; i++) {
+				Point center = new Point(buffer.getInt(), buffer.getInt());
+				Vector velocity = new Vector(buffer.getInt(), buffer.getInt());
+				int diameter = buffer.getInt();
+				int lifetime = buffer.getInt();
+				balls[i] = lifetime > 0 ? new SuperBall(center, diameter, velocity, lifetime) : new NormalBall(center, diameter, velocity);
+			}
+			int blockCount = buffer.getInt();
+			if (blockCount != (length - STATE_BYTES + 4 - BALL_BYTES * ballCount) / BLOCK_BYTES) {
+				throw new ProtocolException("The number of blocks " + blockCount + " is invalid");
+			}
+			BlockState[] blocks = new BlockState[blockCount];
+			for (int j = 0; j < blockCount; j++) {
+				Point TL = new Point(buffer.getInt(), buffer.getInt());
+				Point BR = new Point(buffer.getInt(), buffer.getInt());
+				blocks[j] = BlockField.blockOf(TL, BR, buffer.get());
+			}
+			return new BreakoutState(balls, blocks, bottomRight, paddle);
+		}
+		catch (IllegalArgumentException e) {
+			ProtocolException exception = new ProtocolException("The message does not describe a valid game state");
+			exception.initCause(e);
+			throw exception;
+		}
+		finally {
+			buffer.position(start + 4 + length);
+		}
+	}
+
+	/**
+	 * Writes the given number as an unsigned LEB128 varint: 7 bits per byte, low-order bits first, with the high bit of
+	 * each byte but the last set. Numbers below 128 take one byte, and negative numbers five.
+	 */
+	static void putVarint(ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Writes the given number as a zigzag-encoded varint, so that numbers close to 0, negative or not, take few bytes.
+	 */
+	static void putSignedVarint(ByteBuffer buffer, int value) {
+		putVarint(buffer, value << 1 ^ value >> 31);
+	}
+
+	/**
+	 * Reads a varint written by putVarint.
+	 * @throws ProtocolException if the varint is longer than five bytes.
+	 */
+	static int getVarint(ByteBuffer buffer) throws ProtocolException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new ProtocolException("A varint is too long");
+	}
+
+	/**
+	 * Reads a varint written by putSignedVarint.
+	 * @throws ProtocolException if the varint is longer than five bytes.
+	 */
+	static int getSignedVarint(ByteBuffer buffer) throws ProtocolException {
+		int value = getVarint(buffer);
+		return value >>> 1 ^ -(value & 1);
+	}
+}
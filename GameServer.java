@@ -0,0 +1,436 @@
+package breakout;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * Each instance of this class streams the frames of a live breakout game to many TCP clients, and receives paddle
+ * input from them, with one thread and non-blocking sockets, in the binary protocol of GameProtocol.
+ *
+ * The server does not run a thread of its own: its owner calls poll repeatedly, which accepts new connections, reads
+ * input messages and writes queued frames, and broadcast once per frame. The paddle direction of the latest input
+ * message received from any client is available from getPaddleDir, for instance to feed a FixedStepLoop.
+ *
+ * A broadcast frame is encoded once, by a DeltaEncoder, into a buffer shared by all connections, as a keyframe or as
+ * the difference with the previous frame. Each connection queues a read-only view of the shared buffer, with a position
+ * of its own, so that the bytes of a frame are neither encoded nor copied per connection; the buffer returns to its
+ * BufferPool when the last connection has written it. All buffers are direct buffers, so that steady streaming does not
+ * allocate them; they have the maximum frame size given to the constructor, which should therefore not be much larger
+ * than a frame. The queued frames of a connection are written with a single gathering write whenever its socket accepts
+ * data.
+ *
+ * A connection whose queue holds the maximum number of frames, because its client reads more slowly than frames are
+ * produced, drops the frames it has not started to write and skips frames until the next keyframe, which it can decode
+ * without the frames before it; a new connection also starts with a keyframe, which it requests. A client that sends an
+ * invalid message is disconnected.
+ *
+ * @invar | getConnectionCount() >= 0
+ * @invar | getInputCount() >= 0
+ * @invar | getDroppedFrameCount() >= 0
+ */
+public class GameServer implements AutoCloseable {
+
+	// The number of connections that may wait to be accepted
+	private static final int BACKLOG = 4096;
+	// The number of bytes of the buffer input messages are read into
+	private static final int INPUT_BUFFER_BYTES = 16 * GameProtocol.INPUT_BYTES;
+
+	/**
+	 * @invar | selector != null && serverChannel != null && pool != null && inputPool != null && connections != null
+	 * @invar | maxQueuedFrames > 0
+	 * @invar | encoder != null
+	 */
+	private final Selector selector;
+	private final ServerSocketChannel serverChannel;
+	/** @representationObject */
+	private final BufferPool pool;
+	/** @representationObject */
+	private final BufferPool inputPool = new BufferPool(INPUT_BUFFER_BYTES);
+	/** @representationObject */
+	private final ArrayList<Connection> connections = new ArrayList<>();
+	private final int maxQueuedFrames;
+	/** @representationObject */
+	private final DeltaEncoder encoder;
+
+	private int paddleDir;
+	private long inputs;
+	private long droppedFrames;
+
+	/**
+	 * Returns a server listening on the given address, which sends every frame as a keyframe, of at most the given
+	 * number of bytes, and queues at most the given number of frames per connection.
+	 * @throws IllegalArgumentException if no address is supplied.
+	 * 	| address == null
+	 * @throws IllegalArgumentException if the frame size is smaller than an input message, or the queue length is not
+	 * 	positive.
+	 * 	| maxFrameBytes < GameProtocol.INPUT_BYTES || maxQueuedFrames <= 0
+	 * @throws IOException if the server cannot listen on the given address.
+	 * 	| true
+	 * @post | getConnectionCount() == 0
+	 * @post | getKeyframeInterval() == 1
+	 */
+	public GameServer(InetSocketAddress address, int maxFrameBytes, int maxQueuedFrames) throws IOException {
+		this(address, maxFrameBytes, maxQueuedFrames, 1);
+	}
+
+	/**
+	 * Returns a server listening on the given address, which sends a keyframe every given number of frames and the
+	 * difference with the previous frame in between, of at most the given number of bytes, and queues at most the
+	 * given number of frames per connection.
+	 * @throws IllegalArgumentException if no address is supplied.
+	 * 	| address == null
+	 * @throws IllegalArgumentException if the frame size is smaller than an input message, or the queue length or the
+	 * 	keyframe interval is not positive.
+	 * 	| maxFrameBytes < GameProtocol.INPUT_BYTES || maxQueuedFrames <= 0 || keyframeInterval <= 0
+	 * @throws IOException if the server cannot listen on the given address.
+	 * 	| true
+	 * @post | getConnectionCount() == 0
+	 * @post | getKeyframeInterval() == keyframeInterval
+	 */
+	public GameServer(InetSocketAddress address, int maxFrameBytes, int maxQueuedFrames, int keyframeInterval) throws IOException {
+		if (address == null) {
+			throw new IllegalArgumentException("You have not supplied a valid address!");
+		}
+		if (maxFrameBytes < GameProtocol.INPUT_BYTES || maxQueuedFrames <= 0 || keyframeInterval <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid frame size, queue length or keyframe interval!");
+		}
+		this.pool = new BufferPool(maxFrameBytes);
+		this.maxQueuedFrames = maxQueuedFrames;
+		this.encoder = new DeltaEncoder(keyframeInterval);
+		this.selector = Selector.open();
+		this.serverChannel = ServerSocketChannel.open();
+		try {
+			serverChannel.bind(address, BACKLOG);
+			serverChannel.configureBlocking(false);
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		}
+		catch (IOException e) {
+			serverChannel.close();
+			selector.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the port this server listens on.
+	 * @throws IOException if the port cannot be determined.
+	 * 	| true
+	 */
+	public int getPort() throws IOException {
+		return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+	}
+
+	/**
+	 * Returns the number of clients connected to this server.
+	 */
+	public int getConnectionCount() {
+		return connections.size();
+	}
+
+	/**
+	 * Returns the paddle direction of the latest input message received, or 0 if none was.
+	 * @post | result == -1 || result == 0 || result == 1
+	 */
+	public int getPaddleDir() {
+		return paddleDir;
+	}
+
+	/**
+	 * Returns the number of input messages received.
+	 */
+	public long getInputCount() {
+		return inputs;
+	}
+
+	/**
+	 * Returns the number of frames from one keyframe to the next.
+	 */
+	public int getKeyframeInterval() {
+		return encoder.getKeyframeInterval();
+	}
+
+	/**
+	 * Returns the number of frames a connection dropped or skipped because its output queue was full, counting each
+	 * connection separately.
+	 */
+	public long getDroppedFrameCount() {
+		return droppedFrames;
+	}
+
+	/**
+	 * Returns the number of direct frame buffers this server has created so far.
+	 */
+	public int getBufferCount() {
+		return pool.getCreatedCount();
+	}
+
+	/**
+	 * Waits at most the given number of ms, or not at all if it is 0, for network events, and handles them: accepts new
+	 * connections, reads input messages and writes queued frames. Returns the number of connections that had events.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the timeout is negative.
+	 * 	| timeoutMillis < 0
+	 * @throws IOException if the selector or the listening socket fails.
+	 * 	| true
+	 */
+	public int poll(long timeoutMillis) throws IOException {
+		if (timeoutMillis < 0) {
+			throw new IllegalArgumentException("You have supplied an invalid timeout!");
+		}
+		int ready = timeoutMillis == 0 ? selector.selectNow() : selector.select(timeoutMillis);
+		Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+		while (keys.hasNext()) {
+			SelectionKey key = keys.next();
+			keys.remove();
+			if (!key.isValid()) {
+				continue;
+			}
+			if (key.isAcceptable()) {
+				accept();
+				continue;
+			}
+			Connection connection = (Connection) key.attachment();
+			try {
+				if (key.isReadable()) {
+					read(connection);
+				}
+				if (key.isValid() && key.isWritable()) {
+					flush(connection);
+				}
+			}
+			catch (IOException e) {
+				disconnect(connection);
+			}
+		}
+		return ready;
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = serverChannel.accept()) != null) {
+			try {
+				channel.configureBlocking(false);
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			}
+			catch (IOException e) {
+				channel.close();
+				continue;
+			}
+			Connection connection = new Connection(channel, inputPool.acquire(), maxQueuedFrames);
+			connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+			connection.index = connections.size();
+			connections.add(connection);
+			encoder.requestKeyframe();
+		}
+	}
+
+	private void read(Connection connection) throws IOException {
+		ByteBuffer input = connection.input;
+		if (connection.channel.read(input) < 0) {
+			throw new IOException("The client closed the connection");
+		}
+		input.flip();
+		// A client may only send input messages, which have a fixed size
+		while (input.remaining() >= GameProtocol.INPUT_BYTES) {
+			paddleDir = GameProtocol.getInput(input);
+			inputs++;
+		}
+		input.compact();
+	}
+
+	/**
+	 * Writes as many of the queued frames of the given connection as its socket accepts, with one gathering write, and
+	 * releases the written frames.
+	 */
+	private void flush(Connection connection) throws IOException {
+		ByteBuffer[] output = connection.output;
+		connection.channel.write(output, 0, connection.outputCount);
+		int written = 0;
+		while (written < connection.outputCount && !output[written].hasRemaining()) {
+			written++;
+		}
+		connection.dequeue(0, written);
+		connection.key.interestOps(connection.outputCount == 0 ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+	}
+
+	/**
+	 * Queues the message of the given game state with the given frame number, a keyframe or a DELTA message relative to
+	 * the previous frame broadcast, to every connection. The frames are written by the following calls of poll.
+	 * @mutates | this
+	 * @inspects | state
+	 * @throws IllegalArgumentException if no state is supplied.
+	 * 	| state == null
+	 * @throws IllegalArgumentException if the message of the state does not fit in a frame.
+	 * 	| true
+	 */
+	public void broadcast(BreakoutState state, long frame) {
+		if (state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid game state!");
+		}
+		SharedFrame shared = new SharedFrame(pool);
+		boolean keyframe;
+		try {
+			keyframe = encoder.encode(shared.buffer, state, frame);
+		}
+		catch (BufferOverflowException e) {
+			shared.release();
+			throw new IllegalArgumentException("You have supplied a game state that does not fit in a frame!");
+		}
+		shared.buffer.flip();
+		for (Connection connection : connections) {
+			if (connection.outputCount == connection.output.length) {
+				// Drop the frames that have not been started, which the client does not need once it has a keyframe
+				int started = connection.output[0].position() > 0 ? 1 : 0;
+				droppedFrames += connection.outputCount - started;
+				connection.dequeue(started, connection.outputCount - started);
+				connection.waitingForKeyframe = true;
+			}
+			// A queue of one frame is still full with the frame being written, and the frame is dropped as well
+			if (connection.outputCount == connection.output.length || connection.waitingForKeyframe && !keyframe) {
+				droppedFrames++;
+				continue;
+			}
+			connection.waitingForKeyframe = false;
+			connection.enqueue(shared);
+			if (connection.outputCount == 1) {
+				connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
+		}
+		shared.release();
+	}
+
+	private void disconnect(Connection connection) {
+		connection.key.cancel();
+		try {
+			connection.channel.close();
+		}
+		catch (IOException e) {
+			// The connection is gone either way
+		}
+		inputPool.release(connection.input);
+		connection.dequeue(0, connection.outputCount);
+		Connection last = connections.remove(connections.size() - 1);
+		if (last != connection) {
+			last.index = connection.index;
+			connections.set(connection.index, last);
+		}
+	}
+
+	/**
+	 * Disconnects all clients and stops listening.
+	 * @mutates | this
+	 * @throws IOException if the listening socket or the selector cannot be closed.
+	 * 	| true
+	 * @post | getConnectionCount() == 0
+	 */
+	public void close() throws IOException {
+		while (!connections.isEmpty()) {
+			disconnect(connections.get(connections.size() - 1));
+		}
+		serverChannel.close();
+		selector.close();
+	}
+}
+
+/**
+ * Each instance of this class represents a client connection of a GameServer: its socket, the buffer its input
+ * messages are read into and its queue of frames to be written, as views of shared frames.
+ */
+final class Connection {
+
+	final SocketChannel channel;
+	SelectionKey key;
+	// The position of this connection in the connection list of its server
+	int index;
+	/** @representationObject */
+	final ByteBuffer input;
+	/**
+	 * @invar | output.length == frames.length
+	 * @invar | 0 <= outputCount && outputCount <= output.length
+	 */
+	/** @representationObject */
+	final ByteBuffer[] output;
+	// The shared frame of each view in the output queue
+	/** @representationObject */
+	final SharedFrame[] frames;
+	int outputCount;
+	// Whether the frames up to the next keyframe are to be skipped
+	boolean waitingForKeyframe = true;
+
+	Connection(SocketChannel channel, ByteBuffer input, int maxQueuedFrames) {
+		this.channel = channel;
+		this.input = input;
+		this.output = new ByteBuffer[maxQueuedFrames];
+		this.frames = new SharedFrame[maxQueuedFrames];
+	}
+
+	/**
+	 * Appends a read-only view of the given frame, which must be flipped, to the queue, which must not be full.
+	 */
+	void enqueue(SharedFrame frame) {
+		output[outputCount] = frame.buffer.asReadOnlyBuffer();
+		frames[outputCount++] = frame.retain();
+	}
+
+	/**
+	 * Removes the given number of frames, starting at the given position, from the queue, and releases them.
+	 */
+	void dequeue(int from, int count) {
+		if (count == 0) {
+			return;
+		}
+		for (int k = from; k < from + count; k++) {
+			frames[k].release();
+		}
+		System.arraycopy(output, from + count, output, from, outputCount - from - count);
+		System.arraycopy(frames, from + count, frames, from, outputCount - from - count);
+		for (int k = outputCount - count; k < outputCount; k++) {
+			output[k] = null;
+			frames[k] = null;
+		}
+		outputCount -= count;
+	}
+}
+
+/**
+ * Each instance of this class is the buffer of one broadcast frame, shared by the output queues of the connections of
+ * a GameServer, which counts references to it and returns to its pool when the last one is released.
+ */
+final class SharedFrame {
+
+	/** @representationObject */
+	final ByteBuffer buffer;
+	private final BufferPool pool;
+	// The number of references to this frame: one for the broadcast that creates it, and one for each queued view
+	private int references = 1;
+
+	/**
+	 * Returns a frame with a buffer acquired from the given pool, referenced once, by its creator.
+	 */
+	SharedFrame(BufferPool pool) {
+		this.pool = pool;
+		this.buffer = pool.acquire();
+	}
+
+	SharedFrame retain() {
+		assert references > 0;
+		references++;
+		return this;
+	}
+
+	void release() {
+		assert references > 0;
+		if (--references == 0) {
+			pool.release(buffer);
+		}
+	}
+}
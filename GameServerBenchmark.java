@@ -0,0 +1,108 @@
+package breakout;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures how many connections a GameServer sustains per core, by running a game on a server thread, which ticks and
+ * broadcasts it at a fixed frame rate and polls the server in between, while a LoadClient in the main thread reads
+ * the frames over loopback connections and sends input once per second. The CPU time of the server thread is
+ * measured; the number of connections one core sustains at the frame rate is the number of connections divided by the
+ * fraction of a core the server thread uses, as long as the client receives all frames. Since the client runs in the
+ * same process, the frames it fails to receive on a machine with few cores may be its own fault rather than the
+ * server's.
+ *
+ * Usage: GameServerBenchmark [maxConnections] [seconds] [framesPerSecond]
+ */
+public class GameServerBenchmark {
+
+	private static final String LEVEL = """
+#
+
+
+
+
+       o
+
+       =""";
+
+	private GameServerBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	public static void main(String[] args) throws Exception {
+		int maxConnections = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int framesPerSecond = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		for (int connections = 125; connections <= maxConnections; connections *= 2) {
+			GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1 << 12, 4);
+			int port = server.getPort();
+			AtomicLong frames = new AtomicLong();
+			AtomicReference<Exception> failure = new AtomicReference<>();
+			Thread serverThread = new Thread(() -> {
+				BreakoutState state = GameMap.createStateFromDescription(LEVEL);
+				long period = 1_000_000_000L / framesPerSecond;
+				long nextFrame = System.nanoTime();
+				try {
+					while (!Thread.currentThread().isInterrupted()) {
+						long now = System.nanoTime();
+						if (now - nextFrame >= 0) {
+							state.tick(server.getPaddleDir(), 1000 / framesPerSecond);
+							server.broadcast(state, frames.getAndIncrement());
+							nextFrame += period;
+						}
+						server.poll(1);
+					}
+				}
+				catch (IOException e) {
+					failure.set(e);
+				}
+			});
+			serverThread.start();
+
+			try (LoadClient client = new LoadClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), connections, 1 << 12)) {
+				// Warm up for a second, then measure
+				long start = System.nanoTime();
+				int paddleDir = 1;
+				while (System.nanoTime() - start < 1_000_000_000L) {
+					client.poll(1);
+				}
+				long startFrames = frames.get();
+				long startReceived = client.getFrameCount();
+				long startCpu = threads.getThreadCpuTime(serverThread.getId());
+				start = System.nanoTime();
+				long nextInput = start;
+				while (System.nanoTime() - start < seconds * 1_000_000_000L) {
+					client.poll(1);
+					if (System.nanoTime() - nextInput >= 0) {
+						client.sendInput(paddleDir, frames.get());
+						paddleDir = -paddleDir;
+						nextInput += 1_000_000_000L;
+					}
+				}
+				long cpu = threads.getThreadCpuTime(serverThread.getId()) - startCpu;
+				long wall = System.nanoTime() - start;
+				long sent = (frames.get() - startFrames) * connections;
+				long received = client.getFrameCount() - startReceived;
+				double coreFraction = (double) cpu / wall;
+				System.out.printf("%5d connections, %d fps: server %5.1f%% of a core, %5.1f%% of frames received, %8.0f connections per core%n",
+						connections, framesPerSecond, 100 * coreFraction, 100.0 * received / sent, connections / coreFraction);
+			}
+			finally {
+				serverThread.interrupt();
+				serverThread.join();
+				server.close();
+			}
+			if (failure.get() != null) {
+				throw failure.get();
+			}
+		}
+	}
+}
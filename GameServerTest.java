@@ -0,0 +1,257 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+class GameServerTest {
+
+	private static InetSocketAddress loopback() {
+		return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+	}
+
+	private static void pollUntil(GameServer server, LoadClient client, BooleanSupplier condition) throws IOException {
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() - deadline < 0, "timed out");
+			server.poll(0);
+			if (client != null) {
+				client.poll(1);
+			}
+		}
+	}
+
+	private static BreakoutState manyBalls(int count) {
+		Ball[] balls = new Ball[count];
+		for (int i = 0; i < count; i++) {
+			balls[i] = new NormalBall(new Point(1000 + i % 40000, 5000), 700, new Vector(5, 7));
+		}
+		return new BreakoutState(balls, new BlockState[0], new Point(50000, 30000),
+				new NormalPaddleState(new Point(25000, 28000), PaddleState.DEFAULT_SIZE));
+	}
+
+	@Test
+	void testProtocolRoundTrip() throws ProtocolException {
+		BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		for (int t = 0; t < 50; t++) {
+			state.tick(1, 10);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(GameProtocol.stateBytes(state) + GameProtocol.INPUT_BYTES);
+		GameProtocol.putState(buffer, state, 42);
+		GameProtocol.putInput(buffer, -1, 43);
+		assertEquals(buffer.capacity(), buffer.position());
+		buffer.flip();
+		assertEquals(GameProtocol.stateBytes(state), GameProtocol.messageBytes(buffer));
+		assertEquals(GameProtocol.STATE, GameProtocol.typeOf(buffer));
+		assertEquals(42, GameProtocol.frameOf(buffer));
+		BreakoutState decoded = GameProtocol.getState(buffer);
+		assertEquals(state.hash(), decoded.hash());
+		assertEquals(state.getBalls().length, decoded.getBalls().length);
+		assertEquals(state.getBlocks().length, decoded.getBlocks().length);
+		assertEquals(GameProtocol.INPUT, GameProtocol.typeOf(buffer));
+		assertEquals(43, GameProtocol.frameOf(buffer));
+		assertEquals(-1, GameProtocol.getInput(buffer));
+		assertFalse(buffer.hasRemaining());
+
+		// Incomplete, oversized and mistyped messages
+		ByteBuffer small = ByteBuffer.allocate(GameProtocol.INPUT_BYTES - 1);
+		assertThrows(BufferOverflowException.class, () -> GameProtocol.putInput(small, 0, 0));
+		assertThrows(BufferOverflowException.class, () -> GameProtocol.putState(small, state, 0));
+		assertEquals(0, small.position());
+		assertEquals(-1, GameProtocol.messageBytes(small.putInt(100).put(GameProtocol.INPUT).flip()));
+		assertThrows(ProtocolException.class, () -> GameProtocol.messageBytes(ByteBuffer.allocate(8).putInt(0, -5)));
+		ByteBuffer input = ByteBuffer.allocate(GameProtocol.INPUT_BYTES);
+		GameProtocol.putInput(input, 1, 0);
+		input.flip();
+		assertThrows(ProtocolException.class, () -> GameProtocol.getState(input.duplicate()));
+		// The code of the last block ends the state message
+		ByteBuffer invalid = ByteBuffer.allocate(GameProtocol.stateBytes(state));
+		GameProtocol.putState(invalid, state, 0);
+		invalid.put(invalid.capacity() - 1, (byte) 5);
+		assertThrows(ProtocolException.class, () -> GameProtocol.getState(invalid.flip()));
+		input.put(GameProtocol.INPUT_BYTES - 1, (byte) 3);
+		assertThrows(ProtocolException.class, () -> GameProtocol.getInput(input));
+		assertThrows(IllegalArgumentException.class, () -> GameProtocol.putInput(input, 2, 0));
+	}
+
+	@Test
+	void testBufferPool() {
+		BufferPool pool = new BufferPool(64);
+		ByteBuffer first = pool.acquire();
+		assertTrue(first.isDirect());
+		assertEquals(64, first.capacity());
+		first.putInt(7);
+		pool.release(first);
+		assertEquals(1, pool.getFreeCount());
+		ByteBuffer second = pool.acquire();
+		assertSame(first, second);
+		assertEquals(0, second.position());
+		assertEquals(1, pool.getCreatedCount());
+		assertThrows(IllegalArgumentException.class, () -> pool.release(ByteBuffer.allocateDirect(32)));
+		assertThrows(IllegalArgumentException.class, () -> pool.release(ByteBuffer.allocate(64)));
+		assertThrows(IllegalArgumentException.class, () -> new BufferPool(0));
+	}
+
+	@Test
+	void testStreamsFramesAndReceivesInput() throws IOException {
+		BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		try (GameServer server = new GameServer(loopback(), 1 << 12, 4);
+				LoadClient client = new LoadClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 3, 1 << 12)) {
+			pollUntil(server, client, () -> server.getConnectionCount() == 3);
+			client.setDecoding(true);
+			for (int frame = 0; frame < 10; frame++) {
+				state.tick(1, 10);
+				server.broadcast(state, frame);
+				int frames = 3 * (frame + 1);
+				pollUntil(server, client, () -> client.getFrameCount() == frames);
+			}
+			assertEquals(9, client.getLatestFrame());
+			assertEquals(state.hash(), client.getLatestState().hash());
+			assertEquals(0, server.getDroppedFrameCount());
+
+			client.sendInput(-1, 10);
+			pollUntil(server, client, () -> server.getInputCount() == 3);
+			assertEquals(-1, server.getPaddleDir());
+		}
+	}
+
+	@Test
+	void testSharesFramesBetweenConnections() throws IOException {
+		BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		try (GameServer server = new GameServer(loopback(), 1 << 12, 4, 10);
+				LoadClient client = new LoadClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 50, 1 << 12)) {
+			pollUntil(server, client, () -> server.getConnectionCount() == 50);
+			client.setDecoding(true);
+			for (int frame = 0; frame < 40; frame++) {
+				state.tick(1, 10);
+				server.broadcast(state, frame);
+				// Queue up to four frames before writing them
+				if (frame % 4 == 3) {
+					int frames = 50 * (frame + 1);
+					pollUntil(server, client, () -> client.getFrameCount() == frames);
+				}
+			}
+			assertEquals(state.hash(), client.getLatestState().hash());
+			assertEquals(0, server.getDroppedFrameCount());
+			// The connections share the buffers of the frames
+			assertTrue(server.getBufferCount() <= 5);
+		}
+	}
+
+	@Test
+	void testSkipsFramesForSlowClients() throws IOException {
+		// Frames of about 30 kB, so that the socket buffers fill up quickly
+		BreakoutState state = manyBalls(10_000);
+		int frameBytes = GameProtocol.stateBytes(state);
+		try (GameServer server = new GameServer(loopback(), frameBytes, 4, 5);
+				LoadClient client = new LoadClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 1, frameBytes)) {
+			pollUntil(server, client, () -> server.getConnectionCount() == 1);
+			client.setDecoding(true);
+			client.setReading(false);
+			for (long frame = 0; frame < 2000; frame++) {
+				server.broadcast(state, frame);
+				server.poll(0);
+			}
+			assertTrue(server.getDroppedFrameCount() > 0);
+			// The queue never holds more than its maximum number of frames, plus the buffer being encoded
+			assertTrue(server.getBufferCount() <= 5);
+
+			// Once the client catches up with the queued frames, it continues from a keyframe
+			client.setReading(true);
+			pollUntil(server, client, () -> client.getFrameCount() == 2000 - server.getDroppedFrameCount());
+			for (long frame = 2000; frame < 2010; frame++) {
+				state.tick(1, 10);
+				server.broadcast(state, frame);
+				long latest = frame;
+				pollUntil(server, client, () -> client.getLatestFrame() == latest);
+			}
+			assertEquals(2010 - server.getDroppedFrameCount(), client.getFrameCount());
+			assertEquals(state.hash(), client.getLatestState().hash());
+		}
+	}
+
+	/**
+	 * Reads from the given channel until the given buffer is full, polling the given server in between.
+	 */
+	private static void receive(GameServer server, SocketChannel channel, ByteBuffer buffer) throws IOException {
+		pollUntil(server, null, () -> {
+			try {
+				channel.read(buffer);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return !buffer.hasRemaining();
+		});
+	}
+
+	@Test
+	void testDropsFramesBehindAPartlyWrittenFrame() throws IOException {
+		// A frame of about 3 MB, which does not fit in the socket buffers of a client that does not read
+		BreakoutState state = manyBalls(120_000);
+		int frameBytes = GameProtocol.stateBytes(state);
+		try (GameServer server = new GameServer(loopback(), frameBytes, 1);
+				SocketChannel channel = SocketChannel.open()) {
+			channel.setOption(StandardSocketOptions.SO_RCVBUF, 1 << 12);
+			channel.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+			pollUntil(server, null, () -> server.getConnectionCount() == 1);
+			// The queue of one frame stays full while its frame is being written
+			for (long frame = 0; frame < 5; frame++) {
+				server.broadcast(state, frame);
+				server.poll(0);
+			}
+			assertTrue(server.getDroppedFrameCount() >= 3);
+			assertEquals(1, server.getConnectionCount());
+
+			// Once the frame being written has arrived, the client receives the next keyframe whole
+			channel.configureBlocking(false);
+			ByteBuffer received = ByteBuffer.allocate(frameBytes);
+			receive(server, channel, received);
+			assertEquals(GameProtocol.STATE, GameProtocol.typeOf(received.flip()));
+			long dropped = server.getDroppedFrameCount();
+			state.tick(1, 10);
+			server.broadcast(state, 5);
+			assertEquals(dropped, server.getDroppedFrameCount());
+			receive(server, channel, received.clear());
+			received.flip();
+			assertEquals(5, GameProtocol.frameOf(received));
+			assertEquals(state.hash(), GameProtocol.getState(received).hash());
+		}
+	}
+
+	@Test
+	void testDisconnectsClientsSendingInvalidMessages() throws IOException {
+		try (GameServer server = new GameServer(loopback(), 1 << 12, 4);
+				SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()))) {
+			pollUntil(server, null, () -> server.getConnectionCount() == 1);
+			channel.write(ByteBuffer.allocate(GameProtocol.INPUT_BYTES));
+			pollUntil(server, null, () -> server.getConnectionCount() == 0);
+			assertEquals(0, server.getInputCount());
+		}
+	}
+
+	@Test
+	void testRejectsInvalidArguments() throws IOException {
+		assertThrows(IllegalArgumentException.class, () -> new GameServer(null, 1 << 12, 4));
+		assertThrows(IllegalArgumentException.class, () -> new GameServer(loopback(), 1, 4));
+		assertThrows(IllegalArgumentException.class, () -> new GameServer(loopback(), 1 << 12, 0));
+		assertThrows(IllegalArgumentException.class, () -> new GameServer(loopback(), 1 << 12, 4, 0));
+		try (GameServer server = new GameServer(loopback(), 64, 4)) {
+			assertThrows(IllegalArgumentException.class, () -> server.broadcast(null, 0));
+			BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+			assertThrows(IllegalArgumentException.class, () -> server.broadcast(state, 0));
+			assertThrows(IllegalArgumentException.class, () -> server.poll(-1));
+		}
+	}
+}
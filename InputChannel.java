@@ -0,0 +1,173 @@
+package breakout;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Each instance of this class carries paddle input from one producer thread, such as the UI event thread, to one
+ * consumer thread running the simulation, without locks and without allocating.
+ *
+ * An input event is a paddle direction together with the System.nanoTime at which it was produced. The events are
+ * kept in a ring of preallocated arrays. The producer publishes an event by advancing the tail position with release
+ * semantics after writing it; the consumer reads the tail with acquire semantics, and frees slots by advancing the head
+ * position in the same way. The positions are kept on separate cache lines, and each side caches the other side's
+ * position, so that the threads only touch each other's cache line when the ring seems full or empty.
+ *
+ * The simulation asks for the paddle direction of each tick, passing the time the tick stands for. All events produced
+ * before that time are applied, in order, so that each input takes effect in exactly the tick it belongs to; the
+ * direction of the last one holds until the next event. The time from producing an event to applying it is measured.
+ *
+ * @invar | getCapacity() > 0
+ * @invar | getAppliedCount() >= 0
+ * @invar | getRejectedCount() >= 0
+ */
+public class InputChannel {
+
+	// The indices of the head and tail positions, 128 bytes apart, in the positions array
+	private static final int HEAD = 15;
+	private static final int TAIL = 31;
+
+	private static final VarHandle POSITIONS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	/**
+	 * @invar | times != null && directions != null && times.length == directions.length
+	 * @invar | Integer.bitCount(times.length) == 1
+	 */
+	/** @representationObject */
+	private final long[] positions = new long[TAIL + 17];
+	/** @representationObject */
+	private final long[] times;
+	/** @representationObject */
+	private final int[] directions;
+	private final int mask;
+
+	// Producer side
+	private long cachedHead;
+	private long rejected;
+
+	// Consumer side
+	private long cachedTail;
+	private int currentDirection;
+	private long applied;
+	private long totalLatency;
+	private long maxLatency;
+
+	/**
+	 * Returns an empty channel that holds at least the given number of events.
+	 * @throws IllegalArgumentException if the capacity is not positive or larger than 2^30.
+	 * 	| capacity <= 0 || capacity > (1 << 30)
+	 * @post | getCapacity() >= capacity
+	 */
+	public InputChannel(int capacity) {
+		if (capacity <= 0 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("You have supplied an invalid capacity!");
+		}
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		this.times = new long[size];
+		this.directions = new int[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Returns the number of events this channel holds.
+	 */
+	public int getCapacity() {
+		return times.length;
+	}
+
+	/**
+	 * Adds an event with the given paddle direction and System.nanoTime, and returns whether it was added. An event is
+	 * not added if the channel is full. To be called by the producer thread only.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the paddle direction is not 0, 1 or -1.
+	 * 	| paddleDir < -1 || paddleDir > 1
+	 */
+	public boolean offer(int paddleDir, long time) {
+		if (paddleDir < -1 || paddleDir > 1) {
+			throw new IllegalArgumentException("You have supplied an invalid paddle direction!");
+		}
+		long tail = (long) POSITIONS.getOpaque(positions, TAIL);
+		if (tail - cachedHead >= times.length) {
+			cachedHead = (long) POSITIONS.getAcquire(positions, HEAD);
+			if (tail - cachedHead >= times.length) {
+				rejected++;
+				return false;
+			}
+		}
+		int slot = (int) tail & mask;
+		times[slot] = time;
+		directions[slot] = paddleDir;
+		POSITIONS.setRelease(positions, TAIL, tail + 1);
+		return true;
+	}
+
+	/**
+	 * Returns the number of events that were not added because the channel was full. To be called by the producer
+	 * thread only.
+	 */
+	public long getRejectedCount() {
+		return rejected;
+	}
+
+	/**
+	 * Applies all events produced before the given System.nanoTime, in order, and returns the paddle direction of the
+	 * last event applied so far, or 0 if none was. To be called by the consumer thread only.
+	 * @mutates | this
+	 * @post | result == -1 || result == 0 || result == 1
+	 */
+	public int paddleDirAt(long time) {
+		long head = (long) POSITIONS.getOpaque(positions, HEAD);
+		long start = head;
+		long now = 0;
+		while (true) {
+			if (head == cachedTail) {
+				cachedTail = (long) POSITIONS.getAcquire(positions, TAIL);
+				if (head == cachedTail) {
+					break;
+				}
+			}
+			int slot = (int) head & mask;
+			if (times[slot] - time >= 0) {
+				break;
+			}
+			if (now == 0) {
+				now = System.nanoTime();
+			}
+			long latency = now - times[slot];
+			totalLatency += latency;
+			maxLatency = Math.max(maxLatency, latency);
+			currentDirection = directions[slot];
+			head++;
+		}
+		if (head != start) {
+			applied += head - start;
+			POSITIONS.setRelease(positions, HEAD, head);
+		}
+		return currentDirection;
+	}
+
+	/**
+	 * Returns the number of events applied so far. To be called by the consumer thread only.
+	 */
+	public long getAppliedCount() {
+		return applied;
+	}
+
+	/**
+	 * Returns the mean time in ns from producing an event to applying it, or 0 if no event was applied. To be called
+	 * by the consumer thread only.
+	 */
+	public long getMeanLatency() {
+		return applied == 0 ? 0 : totalLatency / applied;
+	}
+
+	/**
+	 * Returns the longest time in ns from producing an event to applying it. To be called by the consumer thread only.
+	 */
+	public long getMaxLatency() {
+		return maxLatency;
+	}
+}
@@ -0,0 +1,96 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InputChannelTest {
+
+	InputChannel channel;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		channel = new InputChannel(5);
+	}
+
+	@Test
+	void testAppliesEventsAtTheirTick() {
+		assertEquals(8, channel.getCapacity());
+		assertEquals(0, channel.paddleDirAt(100));
+		assertTrue(channel.offer(1, 100));
+		assertTrue(channel.offer(-1, 120));
+		assertTrue(channel.offer(0, 130));
+		// A tick standing for time 100 does not see the event produced at 100 yet
+		assertEquals(0, channel.paddleDirAt(100));
+		assertEquals(1, channel.paddleDirAt(110));
+		assertEquals(1, channel.getAppliedCount());
+		assertEquals(0, channel.paddleDirAt(140));
+		assertEquals(3, channel.getAppliedCount());
+		// The last direction holds until the next event
+		assertEquals(0, channel.paddleDirAt(150));
+		assertTrue(channel.getMaxLatency() >= channel.getMeanLatency());
+	}
+
+	@Test
+	void testRejectsEventsWhenFull() {
+		for (int k = 0; k < 8; k++) {
+			assertTrue(channel.offer(1, k));
+		}
+		assertFalse(channel.offer(-1, 8));
+		assertEquals(1, channel.getRejectedCount());
+		assertEquals(1, channel.paddleDirAt(4));
+		assertTrue(channel.offer(-1, 8));
+		assertEquals(-1, channel.paddleDirAt(9));
+		assertEquals(9, channel.getAppliedCount());
+		assertThrows(IllegalArgumentException.class, () -> channel.offer(2, 10));
+		assertThrows(IllegalArgumentException.class, () -> new InputChannel(0));
+	}
+
+	@Test
+	void testPassesEventsBetweenThreadsInOrder() throws InterruptedException {
+		// Both sides yield while waiting, so that the test also makes progress on a single core
+		int events = 100_000;
+		Thread producer = new Thread(() -> {
+			for (int k = 0; k < events; k++) {
+				while (!channel.offer(k % 3 - 1, k)) {
+					Thread.yield();
+				}
+			}
+		});
+		producer.start();
+		for (int k = 0; k < events; k++) {
+			while (channel.getAppliedCount() <= k) {
+				channel.paddleDirAt(k + 1);
+				if (channel.getAppliedCount() <= k) {
+					Thread.yield();
+				}
+			}
+			assertEquals(k + 1, channel.getAppliedCount());
+			assertEquals(k % 3 - 1, channel.paddleDirAt(k + 1));
+		}
+		producer.join();
+	}
+
+	@Test
+	void testDrivesFixedStepLoop() throws InterruptedException {
+		BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		FixedStepLoop[] loop = new FixedStepLoop[1];
+		loop[0] = new FixedStepLoop(state, game -> channel.paddleDirAt(loop[0].getStepTime()), (game, alpha) -> {}, 5, 16_000_000);
+		Thread producer = new Thread(() -> {
+			for (int k = 0; k < 10; k++) {
+				channel.offer(k % 2 == 0 ? 1 : -1, System.nanoTime());
+				try {
+					Thread.sleep(10);
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+			}
+		});
+		producer.start();
+		loop[0].run(150_000_000L);
+		producer.join();
+		assertTrue(channel.getAppliedCount() > 0);
+	}
+}
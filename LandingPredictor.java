@@ -0,0 +1,103 @@
+package breakout;
+
+/**
+ * This class predicts in closed form where and when a ball crosses a given row of the game field, assuming it
+ * does not hit a block or the paddle on its way. The ball bounces off the left and right walls and, when it moves
+ * up, off the top of the game field, as in BreakoutState.tick.
+ *
+ * The horizontal motion between the side walls is unfolded: a ball bouncing between the walls follows the same
+ * path as a ball moving straight on through mirrored copies of the game field, so its position after any time is
+ * found by folding the straight-line position back into the field.
+ */
+final class LandingPredictor {
+
+	private LandingPredictor() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Returns the vertical distance the center of the given ball travels until it reaches the given row while moving
+	 * down, or -1 if it does not move vertically. A ball moving up travels up to the top of the field first. The
+	 * result is 0 for a ball moving down that is already at or below the row.
+	 * @pre | ball != null
+	 */
+	static long distanceToRow(Ball ball, int centerY) {
+		int radius = ball.diameter / 2;
+		int y = ball.center.getY();
+		int vy = ball.velocity.getY();
+		if (vy > 0) {
+			return Math.max(0, centerY - y);
+		}
+		if (vy < 0) {
+			return Math.max(0, y - radius) + Math.max(0, centerY - radius);
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the time in ms after which the center of the given ball reaches the given row while moving down,
+	 * or -1 if it never does.
+	 * @pre | ball != null
+	 */
+	static double timeToRow(Ball ball, int centerY) {
+		long distance = distanceToRow(ball, centerY);
+		if (distance < 0) {
+			return -1;
+		}
+		return (double) distance / Math.abs(ball.velocity.getY());
+	}
+
+	/**
+	 * Returns the horizontal position of the center of the given ball after the given time, bouncing off the
+	 * side walls of a field of the given width.
+	 * @pre | ball != null
+	 * @pre | time >= 0
+	 */
+	static int xAfter(Ball ball, int fieldWidth, double time) {
+		int radius = ball.diameter / 2;
+		double span = fieldWidth - 2 * radius;
+		if (span <= 0) {
+			return ball.center.getX();
+		}
+		double unfolded = ball.center.getX() - radius + ball.velocity.getX() * time;
+		double folded = unfolded % (2 * span);
+		if (folded < 0) {
+			folded += 2 * span;
+		}
+		if (folded > span) {
+			folded = 2 * span - folded;
+		}
+		return (int) Math.round(folded + radius);
+	}
+
+	/**
+	 * Returns the number of times the given ball bounces off a side wall of a field of the given width during the
+	 * given time.
+	 * @pre | ball != null
+	 * @pre | time >= 0
+	 */
+	static long wallBouncesDuring(Ball ball, int fieldWidth, double time) {
+		int radius = ball.diameter / 2;
+		double span = fieldWidth - 2 * radius;
+		if (span <= 0) {
+			return 0;
+		}
+		double unfolded = ball.center.getX() - radius + ball.velocity.getX() * time;
+		return (long) Math.abs(Math.floor(unfolded / span));
+	}
+
+	/**
+	 * Returns the horizontal position of the center of the given ball when it reaches the given row while moving
+	 * down, in a field with the given bottom right corner. The result is the current position for a ball that does not
+	 * move vertically.
+	 * @pre | ball != null
+	 * @pre | bottomRight != null
+	 */
+	static int landingX(Ball ball, Point bottomRight, int centerY) {
+		double time = timeToRow(ball, centerY);
+		if (time < 0) {
+			return ball.center.getX();
+		}
+		return xAfter(ball, bottomRight.getX(), time);
+	}
+}
@@ -0,0 +1,290 @@
+package breakout;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * Each instance of this class opens many connections to a GameServer and reads the frames streamed over them, with
+ * one thread and non-blocking sockets, so that a single process can load a server with thousands of clients.
+ *
+ * Like the server, the client does not run a thread of its own: its owner calls poll repeatedly. Each connection reads
+ * into a direct buffer of its own, as large as the largest frame, and counts the frames, keyframes and DELTA messages,
+ * and bytes it receives. The client can decode the frames into game states, with a DeltaDecoder per connection, which
+ * costs far more than counting them, and it can stop reading to play a slow consumer. Input messages are sent to all
+ * connections at once.
+ *
+ * Usage: LoadClient host port [connections] [seconds] [inputsPerSecond]
+ *
+ * @invar | getConnectionCount() >= 0
+ * @invar | getFrameCount() >= 0
+ * @invar | getByteCount() >= 0
+ */
+public class LoadClient implements AutoCloseable {
+
+	/**
+	 * @invar | selector != null && channels != null && buffers != null && channels.length == buffers.length
+	 */
+	private final Selector selector;
+	/** @representationObject */
+	private final SocketChannel[] channels;
+	/** @representationObject */
+	private final ByteBuffer[] buffers;
+	/** @representationObject */
+	private final DeltaDecoder[] decoders;
+	private final ByteBuffer input = ByteBuffer.allocateDirect(GameProtocol.INPUT_BYTES);
+	private int connectionCount;
+	private boolean decoding;
+	private boolean reading = true;
+	private long frames;
+	private long bytes;
+	private long latestFrame = -1;
+	private BreakoutState latestState;
+	private long unsentInputs;
+
+	/**
+	 * Returns a client holding the given number of connections to the server at the given address, which read frames of
+	 * at most the given number of bytes.
+	 * @throws IllegalArgumentException if no address is supplied.
+	 * 	| address == null
+	 * @throws IllegalArgumentException if the number of connections is negative or the frame size is not positive.
+	 * 	| connections < 0 || maxFrameBytes <= 0
+	 * @throws IOException if a connection cannot be opened.
+	 * 	| true
+	 * @post | getConnectionCount() == connections
+	 */
+	public LoadClient(InetSocketAddress address, int connections, int maxFrameBytes) throws IOException {
+		if (address == null) {
+			throw new IllegalArgumentException("You have not supplied a valid address!");
+		}
+		if (connections < 0 || maxFrameBytes <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid number of connections or frame size!");
+		}
+		this.selector = Selector.open();
+		this.channels = new SocketChannel[connections];
+		this.buffers = new ByteBuffer[connections];
+		this.decoders = new DeltaDecoder[connections];
+		try {
+			for (int c = 0; c < connections; c++) {
+				SocketChannel channel = SocketChannel.open(address);
+				channels[c] = channel;
+				connectionCount++;
+				channel.configureBlocking(false);
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+				buffers[c] = ByteBuffer.allocateDirect(maxFrameBytes);
+				decoders[c] = new DeltaDecoder();
+				channel.register(selector, SelectionKey.OP_READ, c);
+			}
+		}
+		catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of open connections of this client.
+	 */
+	public int getConnectionCount() {
+		return connectionCount;
+	}
+
+	/**
+	 * Returns the number of frames, keyframes or DELTA messages, received over all connections.
+	 */
+	public long getFrameCount() {
+		return frames;
+	}
+
+	/**
+	 * Returns the number of bytes received over all connections.
+	 */
+	public long getByteCount() {
+		return bytes;
+	}
+
+	/**
+	 * Returns the highest frame number received, or -1 if no frame was received.
+	 */
+	public long getLatestFrame() {
+		return latestFrame;
+	}
+
+	/**
+	 * Returns the game state of the latest frame decoded, or null if none was. A connection cannot decode DELTA
+	 * messages until it has received a keyframe.
+	 */
+	public BreakoutState getLatestState() {
+		return latestState;
+	}
+
+	/**
+	 * Returns the number of input messages that could not be sent because the socket of a connection was full.
+	 */
+	public long getUnsentInputCount() {
+		return unsentInputs;
+	}
+
+	/**
+	 * Sets whether this client decodes the frames it receives into game states.
+	 * @mutates | this
+	 */
+	public void setDecoding(boolean decoding) {
+		this.decoding = decoding;
+	}
+
+	/**
+	 * Sets whether this client reads from its connections. A client that does not read lets the frames pile up in the
+	 * sockets, as a client that cannot keep up would.
+	 * @mutates | this
+	 */
+	public void setReading(boolean reading) {
+		this.reading = reading;
+		for (SelectionKey key : selector.keys()) {
+			if (key.isValid()) {
+				key.interestOps(reading ? SelectionKey.OP_READ : 0);
+			}
+		}
+	}
+
+	/**
+	 * Sends an input message with the given paddle direction for the given frame over every connection.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the paddle direction is not 0, 1 or -1.
+	 * 	| paddleDir < -1 || paddleDir > 1
+	 * @throws IOException if a connection fails.
+	 * 	| true
+	 */
+	public void sendInput(int paddleDir, long frame) throws IOException {
+		input.clear();
+		GameProtocol.putInput(input, paddleDir, frame);
+		input.flip();
+		for (SocketChannel channel : channels) {
+			if (channel == null || !channel.isOpen()) {
+				continue;
+			}
+			// An input message is small enough to be written at once, unless the socket is full
+			if (channel.write(input.duplicate()) < GameProtocol.INPUT_BYTES) {
+				unsentInputs++;
+			}
+		}
+	}
+
+	/**
+	 * Waits at most the given number of ms, or not at all if it is 0, for frames, and reads them. Returns the number of
+	 * connections that received data.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the timeout is negative.
+	 * 	| timeoutMillis < 0
+	 * @throws IOException if a connection fails or a frame is invalid.
+	 * 	| true
+	 */
+	public int poll(long timeoutMillis) throws IOException {
+		if (timeoutMillis < 0) {
+			throw new IllegalArgumentException("You have supplied an invalid timeout!");
+		}
+		int ready = timeoutMillis == 0 ? selector.selectNow() : selector.select(timeoutMillis);
+		if (!reading) {
+			selector.selectedKeys().clear();
+			return 0;
+		}
+		Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+		while (keys.hasNext()) {
+			SelectionKey key = keys.next();
+			keys.remove();
+			if (key.isValid() && key.isReadable()) {
+				read((Integer) key.attachment(), key);
+			}
+		}
+		return ready;
+	}
+
+	private void read(int c, SelectionKey key) throws IOException {
+		ByteBuffer buffer = buffers[c];
+		int read = channels[c].read(buffer);
+		if (read < 0) {
+			key.cancel();
+			channels[c].close();
+			connectionCount--;
+			return;
+		}
+		bytes += read;
+		buffer.flip();
+		int length;
+		while ((length = GameProtocol.messageBytes(buffer)) >= 0) {
+			byte type = GameProtocol.typeOf(buffer);
+			if (type == GameProtocol.STATE || type == GameProtocol.DELTA) {
+				frames++;
+				latestFrame = Math.max(latestFrame, GameProtocol.frameOf(buffer));
+				if (decoding && decoders[c].canDecode(buffer)) {
+					latestState = decoders[c].decode(buffer);
+					continue;
+				}
+			}
+			buffer.position(buffer.position() + length);
+		}
+		if (buffer.remaining() == buffer.capacity()) {
+			throw new IOException("A message does not fit in the buffer of a connection");
+		}
+		buffer.compact();
+	}
+
+	/**
+	 * Closes all connections of this client.
+	 * @mutates | this
+	 * @throws IOException if the selector cannot be closed.
+	 * 	| true
+	 * @post | getConnectionCount() == 0
+	 */
+	public void close() throws IOException {
+		for (SocketChannel channel : channels) {
+			if (channel != null) {
+				channel.close();
+			}
+		}
+		connectionCount = 0;
+		selector.close();
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: LoadClient host port [connections] [seconds] [inputsPerSecond]");
+			return;
+		}
+		InetSocketAddress address = new InetSocketAddress(args[0], Integer.parseInt(args[1]));
+		int connections = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+		int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		int inputsPerSecond = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+		try (LoadClient client = new LoadClient(address, connections, 1 << 16)) {
+			long start = System.nanoTime();
+			long nextInput = start;
+			long nextReport = start + 1_000_000_000L;
+			long reportedFrames = 0;
+			long reportedBytes = 0;
+			int paddleDir = 1;
+			while (System.nanoTime() - start < seconds * 1_000_000_000L) {
+				client.poll(1);
+				long now = System.nanoTime();
+				if (inputsPerSecond > 0 && now - nextInput >= 0) {
+					client.sendInput(paddleDir, client.getLatestFrame() + 1);
+					paddleDir = -paddleDir;
+					nextInput += 1_000_000_000L / inputsPerSecond;
+				}
+				if (now - nextReport >= 0) {
+					System.out.printf("%d connections: %d frames/s, %.1f MB/s, latest frame %d%n", client.getConnectionCount(),
+							client.getFrameCount() - reportedFrames, (client.getByteCount() - reportedBytes) / 1e6,
+							client.getLatestFrame());
+					reportedFrames = client.getFrameCount();
+					reportedBytes = client.getByteCount();
+					nextReport += 1_000_000_000L;
+				}
+			}
+		}
+	}
+}
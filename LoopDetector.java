@@ -0,0 +1,126 @@
+package breakout;
+
+/**
+ * Each instance of this class detects that a headless game got stuck in a periodic loop, in which the balls keep
+ * bouncing without ever hitting a block or leaving the game field.
+ *
+ * The detector samples the fingerprint of the game state (see BreakoutState.hash) each time a ball bounced off the
+ * paddle, and runs Brent's cycle detection algorithm over these samples: it keeps one sample as a reference and
+ * compares each later sample against it, moving the reference forward whenever the number of samples since the
+ * reference reaches the next power of two. A loop of c paddle contacts is detected within a few times c contacts
+ * after it started, using constant memory.
+ *
+ * The detection is only sound if the paddle directions and elapsed times that drive the game are a function of the
+ * game state, as is the case for a fixed elapsed time and a paddle that follows the balls. A state with a supercharged
+ * ball never recurs, because the lifetime of the ball keeps running out, so samples are not taken while there is one.
+ *
+ * @invar | getCycleLength() >= 0
+ * @invar | getCycleTicks() >= 0
+ * @invar | isLooping() == (getCycleLength() > 0)
+ */
+public class LoopDetector {
+
+	private long lastContactCount = -1;
+	private long ticks;
+	private boolean started;
+	private long reference;
+	private long referenceTicks;
+	private int power = 1;
+	private int distance;
+	private int cycleLength;
+	private long cycleTicks;
+
+	/**
+	 * Returns a new loop detector that did not observe any game state yet.
+	 * @post | !isLooping()
+	 */
+	public LoopDetector() {
+	}
+
+	/**
+	 * Returns whether the observed game was found to be periodic.
+	 */
+	public boolean isLooping() {
+		return cycleLength > 0;
+	}
+
+	/**
+	 * Returns the number of paddle contacts in one period of the detected loop, or 0 if no loop was detected.
+	 */
+	public int getCycleLength() {
+		return cycleLength;
+	}
+
+	/**
+	 * Returns the number of observed ticks in one period of the detected loop, or 0 if no loop was detected.
+	 */
+	public long getCycleTicks() {
+		return cycleTicks;
+	}
+
+	/**
+	 * Forgets all samples, for instance because the observed game was changed from outside.
+	 * @mutates | this
+	 * @post | !isLooping()
+	 */
+	public void reset() {
+		lastContactCount = -1;
+		started = false;
+		power = 1;
+		distance = 0;
+		cycleLength = 0;
+		cycleTicks = 0;
+	}
+
+	/**
+	 * Takes note of the given game state after a tick and returns whether the game is found to be periodic.
+	 * This method is to be called after every tick of the same game.
+	 * @mutates | this
+	 * @inspects | state
+	 * @throws IllegalArgumentException if no game state is supplied.
+	 * 	| state == null
+	 * @post | result == isLooping()
+	 */
+	public boolean observe(BreakoutState state) {
+		if (state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid game state!");
+		}
+		ticks++;
+		if (cycleLength > 0) {
+			return true;
+		}
+		long contactCount = state.getPaddleContactCount();
+		if (contactCount == lastContactCount) {
+			return false;
+		}
+		lastContactCount = contactCount;
+		for (Ball ball : state.getBalls()) {
+			if (ball instanceof SuperBall) {
+				started = false;
+				return false;
+			}
+		}
+		long sample = state.hash();
+		if (!started) {
+			started = true;
+			reference = sample;
+			referenceTicks = ticks;
+			power = 1;
+			distance = 0;
+			return false;
+		}
+		distance++;
+		if (sample == reference) {
+			cycleLength = distance;
+			cycleTicks = ticks - referenceTicks;
+			return true;
+		}
+		if (distance == power) {
+			reference = sample;
+			referenceTicks = ticks;
+			power *= 2;
+			distance = 0;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,55 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LoopDetectorTest {
+
+	LoopDetector detector;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		detector = new LoopDetector();
+	}
+
+	@Test
+	void testDetectsVerticalBounceLoop() {
+		// A ball bouncing straight up and down between the top of the field and a resting paddle, far away from the only block
+		Ball[] balls = {new NormalBall(new Point(25000, 20000), 700, new Vector(0, 7))};
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 5000), new Point(4000, 7000))};
+		PaddleState paddle = new NormalPaddleState(new Point(25000, 28000), new Vector(1500, 250));
+		BreakoutState state = new BreakoutState(balls, blocks, new Point(50000, 30000), paddle);
+		int ticks = 0;
+		while (!detector.observe(state)) {
+			state.tick(0, 10);
+			ticks++;
+			assertTrue(ticks < 100000);
+		}
+		assertEquals(1, detector.getCycleLength());
+		assertTrue(detector.getCycleTicks() > 0);
+		assertEquals(1, state.getBlocks().length);
+		assertFalse(state.isDead());
+
+		// The period in ticks is confirmed by the game state recurring after that many ticks
+		long hash = state.hash();
+		for (long tick = 0; tick < detector.getCycleTicks(); tick++) {
+			state.tick(0, 10);
+		}
+		assertEquals(hash, state.hash());
+		detector.reset();
+		assertFalse(detector.isLooping());
+	}
+
+	@Test
+	void testNoLoopInProgressingGame() {
+		BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		for (int tick = 0; tick < 2000 && !state.isDead() && !state.isWon(); tick++) {
+			state.tick(0, 10);
+			assertFalse(detector.observe(state));
+		}
+		assertEquals(0, detector.getCycleLength());
+		assertThrows(IllegalArgumentException.class, () -> detector.observe(null));
+	}
+}
@@ -0,0 +1,85 @@
+package breakout;
+
+/**
+ * This class tells whether a game is certainly lost, so that batch evaluations can stop ticking a game long before
+ * its last ball leaves the game field.
+ *
+ * A game is certainly lost when every ball moves down below all blocks, so that it cannot hit a block anymore, and
+ * the paddle, moving at 10 units/ms, cannot reach the place where the ball passes the paddle before the ball leaves
+ * the game field. The places are predicted by a LandingPredictor. The prediction follows the continuous path of the
+ * ball, so the oracle allows for the positions of the discrete ticks of at most MAX_ELAPSED_TIME ms each; it never
+ * declares a game lost that the paddle could still save, but it may declare it lost somewhat later than possible.
+ *
+ * The prediction assumes that each ball flies freely, which does not hold while the balls collide with each other: a
+ * ball can then be knocked back up by another one. The oracle never declares such a game lost before its last ball
+ * has left the game field.
+ */
+public class LossOracle {
+
+	// The paddle speed in units/ms, as in BreakoutState.movePaddleRight and movePaddleLeft
+	private static final int PADDLE_SPEED = 10;
+
+	private LossOracle() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Returns whether the given game is certainly lost, whatever the paddle does from now on.
+	 * @inspects | state
+	 * @throws IllegalArgumentException if no game state is supplied.
+	 * 	| state == null
+	 * @post | !state.isDead() || result
+	 * @post | !state.isWon() || !result
+	 * @post | !state.isCollidingBalls() || result == state.isDead()
+	 */
+	public static boolean isCertainLoss(BreakoutState state) {
+		if (state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid game state!");
+		}
+		Ball[] balls = state.getBalls();
+		BlockState[] blocks = state.getBlocks();
+		if (balls.length == 0) {
+			return true;
+		}
+		if (blocks.length == 0 || state.isCollidingBalls()) {
+			return false;
+		}
+		int lowestBlockY = Integer.MIN_VALUE;
+		for (BlockState block : blocks) {
+			lowestBlockY = Math.max(lowestBlockY, block.BR.getY());
+		}
+		for (Ball ball : balls) {
+			if (!isCertainlyLost(ball, state.getPaddle(), state.getBottomRight(), lowestBlockY)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the given ball certainly leaves the game field without hitting a block or the paddle.
+	 */
+	private static boolean isCertainlyLost(Ball ball, PaddleState paddle, Point bottomRight, int lowestBlockY) {
+		int radius = ball.diameter / 2;
+		int vx = Math.abs(ball.velocity.getX());
+		int vy = ball.velocity.getY();
+		if (vy <= 0 || ball.center.getY() - radius <= lowestBlockY) {
+			return false;
+		}
+		Rect paddleRect = paddle.rectangleOf();
+		if (ball.center.getY() - radius > paddleRect.getBottomRight().getY()) {
+			return true;
+		}
+
+		// The ball can touch the paddle from when its bottom reaches the top of the paddle until it leaves the field
+		double firstContact = LandingPredictor.timeToRow(ball, paddleRect.getTopLeft().getY() - radius);
+		double lastContact = LandingPredictor.timeToRow(ball, bottomRight.getY() - radius) + BreakoutState.MAX_ELAPSED_TIME;
+		int firstX = LandingPredictor.xAfter(ball, bottomRight.getX(), firstContact);
+
+		// Allow for the drift of the ball during the contact window and for the deviations of the discrete ticks
+		long bounces = LandingPredictor.wallBouncesDuring(ball, bottomRight.getX(), lastContact);
+		double slack = paddle.size.getX() + radius + vx * (lastContact - firstContact)
+				+ 2L * vx * BreakoutState.MAX_ELAPSED_TIME * (bounces + 1) + PADDLE_SPEED * BreakoutState.MAX_ELAPSED_TIME;
+		return Math.abs(firstX - paddle.center.getX()) > PADDLE_SPEED * lastContact + slack;
+	}
+}
@@ -0,0 +1,94 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LossOracleTest {
+
+	@Test
+	void testLandingX() {
+		Point bottomRight = new Point(50000, 30000);
+		Ball straight = new NormalBall(new Point(10000, 20000), 700, new Vector(2, 5));
+		assertEquals(12000, LandingPredictor.landingX(straight, bottomRight, 25000));
+		Ball leftWall = new NormalBall(new Point(1350, 20000), 700, new Vector(-2, 5));
+		assertEquals(1350, LandingPredictor.landingX(leftWall, bottomRight, 25000));
+		Ball upward = new NormalBall(new Point(10000, 10350), 700, new Vector(1, -1));
+		assertEquals(10000 + 10000 + 20000, LandingPredictor.landingX(upward, bottomRight, 20350));
+		assertEquals(0, LandingPredictor.wallBouncesDuring(straight, 50000, 1000));
+		assertEquals(1, LandingPredictor.wallBouncesDuring(leftWall, 50000, 1000));
+	}
+
+	@Test
+	void testEndStates() {
+		assertTrue(LossOracle.isCertainLoss(GameMap.createStateFromDescription(SubmissionTestSuite.initMapDead)));
+		assertFalse(LossOracle.isCertainLoss(GameMap.createStateFromDescription(SubmissionTestSuite.initMapWon)));
+		assertFalse(LossOracle.isCertainLoss(GameMap.createStateFromDescription(SubmissionTestSuite.initMap1)));
+		assertThrows(IllegalArgumentException.class, () -> LossOracle.isCertainLoss(null));
+	}
+
+	@Test
+	void testUnreachableBall() {
+		Ball[] balls = {new NormalBall(new Point(45000, 20000), 700, new Vector(0, 10))};
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(4000, 2000))};
+		PaddleState paddle = new NormalPaddleState(new Point(3000, 28000), new Vector(2500, 250));
+		BreakoutState state = new BreakoutState(balls, blocks, new Point(50000, 30000), paddle);
+		assertTrue(LossOracle.isCertainLoss(state));
+	}
+
+	@Test
+	void testCollidingBalls() {
+		// A light, fast ball catches up with a heavy, slow one, and bounces back up off it
+		Ball[] balls = {
+			new NormalBall(new Point(45000, 20000), 2800, new Vector(0, 5)),
+			new NormalBall(new Point(45000, 17000), 700, new Vector(0, 20)),
+		};
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(4000, 2000))};
+		PaddleState paddle = new NormalPaddleState(new Point(3000, 28000), new Vector(2500, 250));
+		BreakoutState state = new BreakoutState(balls, blocks, new Point(50000, 30000), paddle);
+		assertTrue(LossOracle.isCertainLoss(state));
+		state.setCollidingBalls(true);
+		assertFalse(LossOracle.isCertainLoss(state));
+		for (int step = 0; step < 20; step++) {
+			state.tick(0, 10);
+		}
+		assertEquals(1, state.getBallCollisionCount());
+		assertTrue(state.getBalls()[1].getVelocity().getY() < 0);
+	}
+
+	@Test
+	void testNeverWrongAgainstSimulation() {
+		Random random = new Random(33);
+		int earlyLosses = 0;
+		for (int game = 0; game < 200; game++) {
+			BreakoutState state = GameMap.createStateFromDescription(TestFixtures.randomLevel(random));
+			boolean declared = false;
+			long contacts = 0;
+			for (int step = 0; step < 20000 && !state.isDead() && !state.isWon(); step++) {
+				if (!declared && LossOracle.isCertainLoss(state)) {
+					declared = true;
+					contacts = state.getPaddleContactCount();
+					earlyLosses++;
+				}
+				// After the loss is declared, the paddle chases the lowest ball to try and prove the oracle wrong
+				int paddleDir = declared ? TestFixtures.followingPaddleDir(state, new Random(0))
+						: TestFixtures.followingPaddleDir(state, random);
+				int elapsedTime = 1 + random.nextInt(BreakoutState.MAX_ELAPSED_TIME);
+				if (paddleDir == 1) {
+					state.movePaddleRight(elapsedTime);
+				}
+				else if (paddleDir == -1) {
+					state.movePaddleLeft(elapsedTime);
+				}
+				state.tick(paddleDir, elapsedTime);
+			}
+			if (declared) {
+				assertTrue(state.isDead());
+				assertEquals(contacts, state.getPaddleContactCount());
+			}
+		}
+		assertTrue(earlyLosses > 0);
+	}
+}
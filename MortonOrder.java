@@ -0,0 +1,82 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * Each instance of this class sorts the balls of a game state by the Morton code, or Z-order code, of their centers,
+ * so that balls that are close to each other in the game field are also close to each other in the ball array.
+ *
+ * The Morton code of a point interleaves the bits of its coordinates, so that sorting by it visits the game field
+ * quadrant by quadrant, recursively. The coordinates are first scaled down to 15 bits, relative to the size of the game
+ * field, so that the 30-bit code of a ball and its index fit together in one positive long, and the balls are sorted
+ * with a single primitive sort of those longs. Balls with equal codes keep their relative order.
+ *
+ * The arrays of the sort are kept between calls and only grow, so sorting does not allocate once they are large enough.
+ */
+final class MortonOrder {
+
+	/**
+	 * @invar | keys != null && sorted != null
+	 * @invar | keys.length == sorted.length
+	 */
+	/** @representationObject */
+	private long[] keys = new long[0];
+	/** @representationObject */
+	private Ball[] sorted = new Ball[0];
+
+	/**
+	 * Returns the Morton code of the given coordinates, which must lie between 0 and 65535: bit k of x becomes bit 2k of
+	 * the result, and bit k of y becomes bit 2k+1.
+	 * @pre | 0 <= x && x <= 0xFFFF && 0 <= y && y <= 0xFFFF
+	 * @post | result >= 0 && result <= 0xFFFFFFFFL
+	 */
+	static long code(int x, int y) {
+		return spread(x) | spread(y) << 1;
+	}
+
+	private static long spread(int value) {
+		long bits = value;
+		bits = (bits | bits << 8) & 0x00FF00FFL;
+		bits = (bits | bits << 4) & 0x0F0F0F0FL;
+		bits = (bits | bits << 2) & 0x33333333L;
+		bits = (bits | bits << 1) & 0x55555555L;
+		return bits;
+	}
+
+	/**
+	 * Sorts the given balls, in place, by the Morton code of their centers in a game field with the given lower right
+	 * corner. Centers outside the game field are treated as lying on its border.
+	 * @mutates | balls
+	 * @pre | balls != null && Arrays.stream(balls).allMatch(e -> e != null)
+	 * @pre | bottomRight != null
+	 * @post The balls are a permutation of the old balls.
+	 */
+	void sort(Ball[] balls, Point bottomRight) {
+		int n = balls.length;
+		if (n < 2) {
+			return;
+		}
+		if (keys.length < n) {
+			keys = new long[n];
+			sorted = new Ball[n];
+		}
+		long[] keys = this.keys;
+		Ball[] sorted = this.sorted;
+		// The number of low-order bits dropped so that the coordinates of the game field fit in 15 bits
+		int width = bottomRight.getX();
+		int height = bottomRight.getY();
+		int shift = Math.max(0, 32 - Integer.numberOfLeadingZeros(Math.max(width, height)) - 15);
+		for (int i = 0; i < n; i++) {
+			int x = Math.min(Math.max(balls[i].center.getX(), 0), width) >>> shift;
+			int y = Math.min(Math.max(balls[i].center.getY(), 0), height) >>> shift;
+			keys[i] = code(x, y) << 32 | i;
+		}
+		Arrays.sort(keys, 0, n);
+		for (int i = 0; i < n; i++) {
+			sorted[i] = balls[(int) keys[i]];
+		}
+		System.arraycopy(sorted, 0, balls, 0, n);
+		// The sorted array must not keep balls alive after they are removed from the game
+		Arrays.fill(sorted, 0, n, null);
+	}
+}
@@ -0,0 +1,49 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class MortonOrderTest {
+
+	@Test
+	void testCode() {
+		assertEquals(0, MortonOrder.code(0, 0));
+		assertEquals(1, MortonOrder.code(1, 0));
+		assertEquals(2, MortonOrder.code(0, 1));
+		assertEquals(0b111001, MortonOrder.code(0b101, 0b110));
+		assertEquals(0xFFFFFFFFL, MortonOrder.code(0xFFFF, 0xFFFF));
+		assertEquals(0x55555555L, MortonOrder.code(0xFFFF, 0));
+	}
+
+	@Test
+	void testSortsBallsByTheCodeOfTheirCenters() {
+		Random random = new Random(42);
+		Point bottomRight = new Point(500000, 300000);
+		Ball[] balls = new Ball[1000];
+		for (int i = 0; i < balls.length; i++) {
+			Point center = new Point(random.nextInt(bottomRight.getX()), random.nextInt(bottomRight.getY()));
+			balls[i] = new NormalBall(center, 700, new Vector(1, 1));
+		}
+		// a ball below the game field sorts as if it lay on its border
+		balls[0] = new NormalBall(new Point(0, 400000), 700, new Vector(1, 1));
+		Set<Ball> old = Collections.newSetFromMap(new IdentityHashMap<>());
+		Collections.addAll(old, balls);
+		new MortonOrder().sort(balls, bottomRight);
+		Set<Ball> sorted = Collections.newSetFromMap(new IdentityHashMap<>());
+		Collections.addAll(sorted, balls);
+		assertEquals(old, sorted);
+		// the coordinates are scaled down by 2^4 to fit in 15 bits
+		for (int i = 1; i < balls.length; i++) {
+			Point a = balls[i - 1].getCenter();
+			Point b = balls[i].getCenter();
+			assertTrue(MortonOrder.code(a.getX() >>> 4, Math.min(a.getY(), 300000) >>> 4)
+					<= MortonOrder.code(b.getX() >>> 4, Math.min(b.getY(), 300000) >>> 4));
+		}
+	}
+}
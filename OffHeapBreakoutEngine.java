@@ -0,0 +1,554 @@
+package breakout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+
+/**
+ * Each instance of this class runs many breakout game sessions whose ball, block and paddle state is stored
+ * off-heap, in native memory segments, so that it is not scanned by the garbage collector.
+ *
+ * Sessions are fixed-size slots in chunks of native memory. A session is opened with openSession, which returns
+ * its identifier, and must be released with closeSession, after which its slot is reused. Closing the engine
+ * releases the memory of all sessions at once, after which the engine cannot be used anymore.
+ *
+ * Ticking a session has the same effect as BreakoutState.tick on the state the session was opened with.
+ *
+ * @invar | getMaxBalls() > 0
+ * @invar | getMaxBlocks() >= 0
+ * @invar | getOpenSessionCount() >= 0
+ */
+public class OffHeapBreakoutEngine implements AutoCloseable {
+
+	// The layout of a session slot, in ints: a header followed by the ball and block records
+	private static final int OPEN = 0;
+	private static final int BALL_COUNT = 1;
+	private static final int BLOCK_COUNT = 2;
+	private static final int FIELD_WIDTH = 3;
+	private static final int FIELD_HEIGHT = 4;
+	private static final int PADDLE_X = 5;
+	private static final int PADDLE_Y = 6;
+	private static final int PADDLE_SIZE_X = 7;
+	private static final int PADDLE_SIZE_Y = 8;
+	private static final int PADDLE_LIFETIME = 9;
+	private static final int HEADER_INTS = 10;
+
+	// The layout of a ball record; a lifetime of zero represents a normal ball
+	private static final int BALL_X = 0;
+	private static final int BALL_Y = 1;
+	private static final int BALL_VX = 2;
+	private static final int BALL_VY = 3;
+	private static final int BALL_DIAMETER = 4;
+	private static final int BALL_LIFETIME = 5;
+	private static final int BALL_INTS = 6;
+
+	// The layout of a block record; the code is a BlockField block code
+	private static final int BLOCK_LEFT = 0;
+	private static final int BLOCK_TOP = 1;
+	private static final int BLOCK_RIGHT = 2;
+	private static final int BLOCK_BOTTOM = 3;
+	private static final int BLOCK_CODE = 4;
+	private static final int BLOCK_INTS = 5;
+
+	/**
+	 * @invar | maxBalls > 0 && maxBlocks >= 0 && sessionsPerChunk > 0
+	 * @invar | chunks != null && freeSlots != null
+	 */
+	private final int maxBalls;
+	private final int maxBlocks;
+	private final int sessionsPerChunk;
+	private final long slotBytes;
+	private final long blocksOffset;
+	private final ResourceScope scope;
+	/** @representationObject */
+	private final ArrayList<MemorySegment> chunks = new ArrayList<MemorySegment>();
+	/** @representationObject */
+	private int[] freeSlots = new int[16];
+	private int freeSlotCount;
+	private int openSessionCount;
+	private boolean closed;
+
+	/**
+	 * Returns a new engine whose sessions hold at most the given number of balls and blocks, and which
+	 * allocates native memory for the given number of sessions at a time.
+	 * @throws IllegalArgumentException if the maximum number of balls is not positive.
+	 * 	| maxBalls <= 0
+	 * @throws IllegalArgumentException if the maximum number of blocks is negative.
+	 * 	| maxBlocks < 0
+	 * @throws IllegalArgumentException if the number of sessions per chunk is not positive.
+	 * 	| sessionsPerChunk <= 0
+	 * @post | getMaxBalls() == maxBalls
+	 * @post | getMaxBlocks() == maxBlocks
+	 * @post | getOpenSessionCount() == 0
+	 */
+	public OffHeapBreakoutEngine(int maxBalls, int maxBlocks, int sessionsPerChunk) {
+		if (maxBalls <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid maximum number of balls!");
+		}
+		if (maxBlocks < 0) {
+			throw new IllegalArgumentException("You have supplied an invalid maximum number of blocks!");
+		}
+		if (sessionsPerChunk <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid number of sessions per chunk!");
+		}
+		this.maxBalls = maxBalls;
+		this.maxBlocks = maxBlocks;
+		this.sessionsPerChunk = sessionsPerChunk;
+		this.blocksOffset = 4L * (HEADER_INTS + BALL_INTS * maxBalls);
+		this.slotBytes = blocksOffset + 4L * BLOCK_INTS * maxBlocks;
+		this.scope = ResourceScope.newSharedScope();
+	}
+
+	/**
+	 * Returns the maximum number of balls of a session.
+	 */
+	public int getMaxBalls() {
+		return maxBalls;
+	}
+
+	/**
+	 * Returns the maximum number of blocks of a session.
+	 */
+	public int getMaxBlocks() {
+		return maxBlocks;
+	}
+
+	/**
+	 * Returns the number of sessions that were opened and not yet closed.
+	 */
+	public int getOpenSessionCount() {
+		return openSessionCount;
+	}
+
+	/**
+	 * Returns whether this engine is closed.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Returns the number of bytes of native memory allocated by this engine, or 0 if it is closed.
+	 * @post | result >= 0
+	 */
+	public long getAllocatedBytes() {
+		return closed ? 0 : (long) chunks.size() * sessionsPerChunk * slotBytes;
+	}
+
+	private MemorySegment chunkOf(int session) {
+		return chunks.get(session / sessionsPerChunk);
+	}
+
+	private long baseOf(int session) {
+		return (session % sessionsPerChunk) * slotBytes;
+	}
+
+	private static int get(MemorySegment chunk, long base, int field) {
+		return MemoryAccess.getIntAtOffset(chunk, base + 4L * field);
+	}
+
+	private static void set(MemorySegment chunk, long base, int field, int value) {
+		MemoryAccess.setIntAtOffset(chunk, base + 4L * field, value);
+	}
+
+	private long ballBase(long base, int index) {
+		return base + 4L * (HEADER_INTS + BALL_INTS * index);
+	}
+
+	private long blockBase(long base, int index) {
+		return base + blocksOffset + 4L * BLOCK_INTS * index;
+	}
+
+	private void checkNotClosed() {
+		if (closed) {
+			throw new IllegalStateException("The engine is closed!");
+		}
+	}
+
+	private void checkOpen(int session) {
+		checkNotClosed();
+		if (session < 0 || session >= (long) chunks.size() * sessionsPerChunk ||
+				get(chunkOf(session), baseOf(session), OPEN) == 0) {
+			throw new IllegalArgumentException("You have not supplied an open session!");
+		}
+	}
+
+	private int allocateSlot() {
+		if (freeSlotCount == 0) {
+			int first = chunks.size() * sessionsPerChunk;
+			MemorySegment chunk = MemorySegment.allocateNative(sessionsPerChunk * slotBytes, scope);
+			chunk.fill((byte) 0);
+			chunks.add(chunk);
+			if (freeSlots.length < sessionsPerChunk) {
+				freeSlots = new int[sessionsPerChunk];
+			}
+			for (int i = sessionsPerChunk - 1; i >= 0; i--) {
+				freeSlots[freeSlotCount++] = first + i;
+			}
+		}
+		return freeSlots[--freeSlotCount];
+	}
+
+	/**
+	 * Opens a new session holding a copy of the given game state, and returns its identifier.
+	 * @mutates | this
+	 * @inspects | state
+	 * @throws IllegalArgumentException if no state is supplied.
+	 * 	| state == null
+	 * @throws IllegalArgumentException if the state has too many balls or blocks for this engine.
+	 * 	| state.getBalls().length > getMaxBalls() || state.getBlocks().length > getMaxBlocks()
+	 * @throws IllegalStateException if this engine is closed.
+	 * 	| isClosed()
+	 * @post | getOpenSessionCount() == old(getOpenSessionCount()) + 1
+	 */
+	public int openSession(BreakoutState state) {
+		if (state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid game state!");
+		}
+		checkNotClosed();
+		Ball[] balls = state.getBalls();
+		BlockState[] blocks = state.getBlocks();
+		if (balls.length > maxBalls || blocks.length > maxBlocks) {
+			throw new IllegalArgumentException("The supplied game state does not fit in a session!");
+		}
+		int session = allocateSlot();
+		MemorySegment chunk = chunkOf(session);
+		long base = baseOf(session);
+		PaddleState paddle = state.getPaddle();
+		set(chunk, base, OPEN, 1);
+		set(chunk, base, BALL_COUNT, balls.length);
+		set(chunk, base, BLOCK_COUNT, blocks.length);
+		set(chunk, base, FIELD_WIDTH, state.getBottomRight().getX());
+		set(chunk, base, FIELD_HEIGHT, state.getBottomRight().getY());
+		set(chunk, base, PADDLE_X, paddle.getCenter().getX());
+		set(chunk, base, PADDLE_Y, paddle.getCenter().getY());
+		set(chunk, base, PADDLE_SIZE_X, paddle.getSize().getX());
+		set(chunk, base, PADDLE_SIZE_Y, paddle.getSize().getY());
+		set(chunk, base, PADDLE_LIFETIME, paddle instanceof ReplicatorPaddleState ? ((ReplicatorPaddleState) paddle).getLifetime() : 0);
+		for (int i = 0; i < balls.length; i++) {
+			long ball = ballBase(base, i);
+			set(chunk, ball, BALL_X, balls[i].getCenter().getX());
+			set(chunk, ball, BALL_Y, balls[i].getCenter().getY());
+			set(chunk, ball, BALL_VX, balls[i].getVelocity().getX());
+			set(chunk, ball, BALL_VY, balls[i].getVelocity().getY());
+			set(chunk, ball, BALL_DIAMETER, balls[i].getDiameter());
+			set(chunk, ball, BALL_LIFETIME, balls[i] instanceof SuperBall ? (int) ((SuperBall) balls[i]).getLifetime() : 0);
+		}
+		for (int j = 0; j < blocks.length; j++) {
+			long block = blockBase(base, j);
+			set(chunk, block, BLOCK_LEFT, blocks[j].TL.getX());
+			set(chunk, block, BLOCK_TOP, blocks[j].TL.getY());
+			set(chunk, block, BLOCK_RIGHT, blocks[j].BR.getX());
+			set(chunk, block, BLOCK_BOTTOM, blocks[j].BR.getY());
+			set(chunk, block, BLOCK_CODE, BlockField.encode(blocks[j]));
+		}
+		openSessionCount++;
+		return session;
+	}
+
+	/**
+	 * Closes the given session, so that its memory can be reused by a session opened later.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the given session is not open.
+	 * 	| true
+	 * @throws IllegalStateException if this engine is closed.
+	 * 	| isClosed()
+	 * @post | getOpenSessionCount() == old(getOpenSessionCount()) - 1
+	 */
+	public void closeSession(int session) {
+		checkOpen(session);
+		set(chunkOf(session), baseOf(session), OPEN, 0);
+		if (freeSlotCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, 2 * freeSlots.length);
+		}
+		freeSlots[freeSlotCount++] = session;
+		openSessionCount--;
+	}
+
+	/**
+	 * Releases the native memory of all sessions of this engine, unless it is closed already. The engine cannot be used
+	 * afterwards.
+	 * @mutates | this
+	 * @post | isClosed()
+	 */
+	public void close() {
+		if (!closed) {
+			closed = true;
+			scope.close();
+		}
+	}
+
+	/**
+	 * Returns the number of balls of the given session.
+	 * @throws IllegalArgumentException if the given session is not open.
+	 * 	| true
+	 * @throws IllegalStateException if this engine is closed.
+	 * 	| isClosed()
+	 */
+	public int getBallCount(int session) {
+		checkOpen(session);
+		return get(chunkOf(session), baseOf(session), BALL_COUNT);
+	}
+
+	/**
+	 * Returns the number of blocks of the given session.
+	 * @throws IllegalArgumentException if the given session is not open.
+	 * 	| true
+	 * @throws IllegalStateException if this engine is closed.
+	 * 	| isClosed()
+	 */
+	public int getBlockCount(int session) {
+		checkOpen(session);
+		return get(chunkOf(session), baseOf(session), BLOCK_COUNT);
+	}
+
+	/**
+	 * Checks whether the given session is in a winning terminal state.
+	 * @throws IllegalArgumentException if the given session is not open.
+	 * 	| true
+	 * @throws IllegalStateException if this engine is closed.
+	 * 	| isClosed()
+	 */
+	public boolean isWon(int session) {
+		return getBlockCount(session) == 0 && getBallCount(session) > 0;
+	}
+
+	/**
+	 * Checks whether the given session is in a losing terminal state.
+	 * @throws IllegalArgumentException if the given session is not open.
+	 * 	| true
+	 * @throws IllegalStateException if this engine is closed.
+	 * 	| isClosed()
+	 */
+	public boolean isDead(int session) {
+		return getBallCount(session) == 0;
+	}
+
+	/**
+	 * Returns a new BreakoutState object holding a copy of the state of the given session.
+	 * @creates | result
+	 * @throws IllegalArgumentException if the given session is not open.
+	 * 	| true
+	 * @throws IllegalStateException if this engine is closed.
+	 * 	| isClosed()
+	 */
+	public BreakoutState toState(int session) {
+		checkOpen(session);
+		MemorySegment chunk = chunkOf(session);
+		long base = baseOf(session);
+		Ball[] balls = new Ball[get(chunk, base, BALL_COUNT)];
+		for (int i = 0; i < balls.length; i++) {
+			long ball = ballBase(base, i);
+			Point center = new Point(get(chunk, ball, BALL_X), get(chunk, ball, BALL_Y));
+			Vector velocity = new Vector(get(chunk, ball, BALL_VX), get(chunk, ball, BALL_VY));
+			int diameter = get(chunk, ball, BALL_DIAMETER);
+			int lifetime = get(chunk, ball, BALL_LIFETIME);
+			balls[i] = lifetime > 0 ? new SuperBall(center, diameter, velocity, lifetime) : new NormalBall(center, diameter, velocity);
+		}
+		BlockState[] blocks = new BlockState[get(chunk, base, BLOCK_COUNT)];
+		for (int j = 0; j < blocks.length; j++) {
+			long block = blockBase(base, j);
+			Point TL = new Point(get(chunk, block, BLOCK_LEFT), get(chunk, block, BLOCK_TOP));
+			Point BR = new Point(get(chunk, block, BLOCK_RIGHT), get(chunk, block, BLOCK_BOTTOM));
+			blocks[j] = BlockField.blockOf(TL, BR, (byte) get(chunk, block, BLOCK_CODE));
+		}
+		Point paddleCenter = new Point(get(chunk, base, PADDLE_X), get(chunk, base, PADDLE_Y));
+		Vector paddleSize = new Vector(get(chunk, base, PADDLE_SIZE_X), get(chunk, base, PADDLE_SIZE_Y));
+		int paddleLifetime = get(chunk, base, PADDLE_LIFETIME);
+		PaddleState paddle = paddleLifetime > 0 ? new ReplicatorPaddleState(paddleCenter, paddleSize, paddleLifetime) :
+			new NormalPaddleState(paddleCenter, paddleSize);
+		Point bottomRight = new Point(get(chunk, base, FIELD_WIDTH), get(chunk, base, FIELD_HEIGHT));
+		return new BreakoutState(balls, blocks, bottomRight, paddle);
+	}
+
+	/**
+	 * Moves the paddle of the given session in the same way as BreakoutState.movePaddleRight.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the given session is not open.
+	 * 	| true
+	 * @throws IllegalStateException if this engine is closed.
+	 * 	| isClosed()
+	 */
+	public void movePaddleRight(int session, int elapsedTime) {
+		checkOpen(session);
+		MemorySegment chunk = chunkOf(session);
+		long base = baseOf(session);
+		int newX = get(chunk, base, PADDLE_X) + 10*elapsedTime;
+		if (newX + get(chunk, base, PADDLE_SIZE_X) <= get(chunk, base, FIELD_WIDTH)) {
+			set(chunk, base, PADDLE_X, newX);
+		}
+	}
+
+	/**
+	 * Moves the paddle of the given session in the same way as BreakoutState.movePaddleLeft.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the given session is not open.
+	 * 	| true
+	 * @throws IllegalStateException if this engine is closed.
+	 * 	| isClosed()
+	 */
+	public void movePaddleLeft(int session, int elapsedTime) {
+		checkOpen(session);
+		MemorySegment chunk = chunkOf(session);
+		long base = baseOf(session);
+		int newX = get(chunk, base, PADDLE_X) - 10*elapsedTime;
+		if (newX - get(chunk, base, PADDLE_SIZE_X) >= 0) {
+			set(chunk, base, PADDLE_X, newX);
+		}
+	}
+
+	private void removeRecord(MemorySegment chunk, long first, int index, int count, int recordInts) {
+		long recordBytes = 4L * recordInts;
+		long from = first + recordBytes * (index + 1);
+		chunk.asSlice(from - recordBytes, recordBytes * (count - index - 1))
+			.copyFrom(chunk.asSlice(from, recordBytes * (count - index - 1)));
+	}
+
+	/**
+	 * Performs one movement iteration of the given session, with the same effect as BreakoutState.tick.
+	 * @mutates | this
+	 * @pre paddleDir should be 0, 1 or -1.
+	 * 	| paddleDir == 0 || paddleDir == 1 || paddleDir == -1
+	 * @pre elapsedTime should be larger than 0 and smaller than or equal to MAX_ELAPSED_TIME.
+	 * 	| elapsedTime > 0 && elapsedTime <= BreakoutState.MAX_ELAPSED_TIME
+	 * @throws IllegalArgumentException if the given session is not open.
+	 * 	| true
+	 * @throws IllegalStateException if this engine is closed.
+	 * 	| isClosed()
+	 * @throws IllegalStateException if replication would exceed the maximum number of balls. The number of replicas is
+	 * 	only known while the balls are moved, so the session is closed then rather than left partly ticked.
+	 * 	| true
+	 */
+	public void tick(int session, int paddleDir, int elapsedTime) {
+		checkOpen(session);
+		MemorySegment chunk = chunkOf(session);
+		long base = baseOf(session);
+		int fieldWidth = get(chunk, base, FIELD_WIDTH);
+		int fieldHeight = get(chunk, base, FIELD_HEIGHT);
+		int paddleX = get(chunk, base, PADDLE_X);
+		int paddleY = get(chunk, base, PADDLE_Y);
+		int paddleSizeX = get(chunk, base, PADDLE_SIZE_X);
+		int paddleSizeY = get(chunk, base, PADDLE_SIZE_Y);
+		int paddleLifetime = get(chunk, base, PADDLE_LIFETIME);
+		int ballCount = get(chunk, base, BALL_COUNT);
+		int blockCount = get(chunk, base, BLOCK_COUNT);
+
+		for (int i = 0; i < ballCount; i++) {
+			long ball = ballBase(base, i);
+			int x = get(chunk, ball, BALL_X);
+			int y = get(chunk, ball, BALL_Y);
+			int vx = get(chunk, ball, BALL_VX);
+			int vy = get(chunk, ball, BALL_VY);
+			int diameter = get(chunk, ball, BALL_DIAMETER);
+			int radius = diameter/2;
+			int lifetime = get(chunk, ball, BALL_LIFETIME);
+
+			// Age and move ball
+			if (lifetime > 0) {
+				lifetime = Math.max(0, lifetime - elapsedTime);
+			}
+			x += vx*elapsedTime;
+			y += vy*elapsedTime;
+			int left = x - radius;
+			int right = x + radius;
+			int top = y - radius;
+			int bottom = y + radius;
+
+			// Bounce ball at the left, at the right and at the top of the game field, remove it at the bottom
+			if (left <= 0 || right >= fieldWidth) {
+				vx = -vx;
+			}
+			if (top <= 0) {
+				vy = -vy;
+			}
+			else if (bottom >= fieldHeight) {
+				removeRecord(chunk, ballBase(base, 0), i, ballCount, BALL_INTS);
+				ballCount--;
+				continue;
+			}
+
+			// Detecting and executing the possible effects of a ball-block hit
+			for (int j = 0; j < blockCount; j++) {
+				long block = blockBase(base, j);
+				Vector normVecBlock = Rect.overlap(left, top, right, bottom,
+						get(chunk, block, BLOCK_LEFT), get(chunk, block, BLOCK_TOP),
+						get(chunk, block, BLOCK_RIGHT), get(chunk, block, BLOCK_BOTTOM));
+				if (normVecBlock == null || normVecBlock.getX()*vx + normVecBlock.getY()*vy <= 0) {
+					continue;
+				}
+				byte code = (byte) get(chunk, block, BLOCK_CODE);
+				byte type = BlockField.typeOf(code);
+				boolean destroyed = true;
+				if (type == BlockField.STURDY && BlockField.lifetimeOf(code) > 1) {
+					destroyed = false;
+					set(chunk, block, BLOCK_CODE, BlockField.encode(BlockField.STURDY, BlockField.lifetimeOf(code) - 1));
+				}
+				// Supercharged balls only bounce on blocks that were not destroyed
+				if (lifetime == 0 || !destroyed) {
+					if (normVecBlock.getX() != 0) {
+						vx = -vx;
+					}
+					else {
+						vy = -vy;
+					}
+				}
+				if (type == BlockField.POWERUP_BALL) {
+					lifetime = Ball.MAX_LIFETIME;
+				}
+				else if (type == BlockField.REPLICATOR) {
+					paddleLifetime = PaddleState.MAX_REPLICATOR_LIFETIME;
+				}
+				if (destroyed) {
+					removeRecord(chunk, blockBase(base, 0), j, blockCount, BLOCK_INTS);
+					blockCount--;
+				}
+			}
+
+			// Detecting and executing the possible effects of a ball-paddle hit
+			int reps = 0;
+			Vector normVecPaddle = Rect.overlap(left, top, right, bottom,
+					paddleX - paddleSizeX, paddleY - paddleSizeY, paddleX + paddleSizeX, paddleY + paddleSizeY);
+			if (normVecPaddle != null && normVecPaddle.getX()*vx + normVecPaddle.getY()*vy > 0) {
+				if (normVecPaddle.getX() != 0) {
+					vx = -vx;
+				}
+				else {
+					vy = -vy;
+				}
+				vx += 2*paddleDir;
+				reps = paddleLifetime;
+				if (paddleLifetime > 0) {
+					paddleLifetime--;
+				}
+			}
+			if (ballCount + reps > maxBalls) {
+				closeSession(session);
+				throw new IllegalStateException("The session has run out of ball capacity!");
+			}
+			for (int k = 0; k < reps; k++) {
+				long replica = ballBase(base, ballCount + k);
+				set(chunk, replica, BALL_X, x);
+				set(chunk, replica, BALL_Y, y);
+				set(chunk, replica, BALL_VX, vx + Ball.replicateBallsSpeedDiff[k].getX());
+				set(chunk, replica, BALL_VY, vy + Ball.replicateBallsSpeedDiff[k].getY());
+				set(chunk, replica, BALL_DIAMETER, diameter);
+				set(chunk, replica, BALL_LIFETIME, lifetime);
+			}
+			ballCount += reps;
+
+			// Fix ball state
+			set(chunk, ball, BALL_X, x);
+			set(chunk, ball, BALL_Y, y);
+			set(chunk, ball, BALL_VX, vx);
+			set(chunk, ball, BALL_VY, vy);
+			set(chunk, ball, BALL_LIFETIME, lifetime);
+		}
+
+		set(chunk, base, BALL_COUNT, ballCount);
+		set(chunk, base, BLOCK_COUNT, blockCount);
+		set(chunk, base, PADDLE_LIFETIME, paddleLifetime);
+	}
+}
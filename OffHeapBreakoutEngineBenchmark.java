@@ -0,0 +1,99 @@
+package breakout;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares ticking many heap-based BreakoutState sessions with ticking the same sessions in an
+ * OffHeapBreakoutEngine, reporting the time per session tick, the garbage collection count and time,
+ * and the heap in use.
+ *
+ * Usage: OffHeapBreakoutEngineBenchmark [sessions] [ticks]
+ */
+public class OffHeapBreakoutEngineBenchmark {
+
+	private static final String LEVEL = """
+##########
+#SS!##R!S#
+##########
+#S######S#
+##########
+    o
+
+    =""";
+
+	private OffHeapBreakoutEngineBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	private static long gcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(0, gc.getCollectionTime());
+		}
+		return millis;
+	}
+
+	private static long usedHeap() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void report(String name, int sessions, int ticks, long nanos, long gcs, long gcTime, long heap) {
+		System.out.printf("%-9s %8.1f ns/session-tick, %4d collections, %6d ms in GC, %8.1f MB heap held by the sessions%n",
+				name, (double) nanos / sessions / ticks, gcs, gcTime, heap / 1e6);
+	}
+
+	public static void main(String[] args) {
+		int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+		long baseHeap = usedHeap();
+		BreakoutState[] states = new BreakoutState[sessions];
+		for (int s = 0; s < sessions; s++) {
+			states[s] = GameMap.createStateFromDescription(LEVEL);
+		}
+		long heap = usedHeap() - baseHeap;
+		long gcs = gcCount();
+		long gcTime = gcMillis();
+		long start = System.nanoTime();
+		for (int t = 0; t < ticks; t++) {
+			for (BreakoutState state : states) {
+				state.tick(0, 10);
+			}
+		}
+		long nanos = System.nanoTime() - start;
+		report("heap", sessions, ticks, nanos, gcCount() - gcs, gcMillis() - gcTime, heap);
+		states = null;
+
+		baseHeap = usedHeap();
+		try (OffHeapBreakoutEngine engine = new OffHeapBreakoutEngine(64, 50, 4096)) {
+			BreakoutState level = GameMap.createStateFromDescription(LEVEL);
+			int[] ids = new int[sessions];
+			for (int s = 0; s < sessions; s++) {
+				ids[s] = engine.openSession(level);
+			}
+			heap = usedHeap() - baseHeap;
+			gcs = gcCount();
+			gcTime = gcMillis();
+			start = System.nanoTime();
+			for (int t = 0; t < ticks; t++) {
+				for (int id : ids) {
+					engine.tick(id, 0, 10);
+				}
+			}
+			nanos = System.nanoTime() - start;
+			report("off-heap", sessions, ticks, nanos, gcCount() - gcs, gcMillis() - gcTime, heap);
+			System.out.printf("off-heap native memory: %.1f MB%n", engine.getAllocatedBytes() / 1e6);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OffHeapBreakoutEngineTest {
+
+	OffHeapBreakoutEngine engine;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		engine = new OffHeapBreakoutEngine(256, 80, 4);
+	}
+
+	@Test
+	void testSessions() {
+		BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		int first = engine.openSession(state);
+		int second = engine.openSession(state);
+		assertNotEquals(first, second);
+		assertEquals(2, engine.getOpenSessionCount());
+		TestFixtures.assertSameState(state, engine.toState(first));
+		engine.closeSession(first);
+		assertEquals(1, engine.getOpenSessionCount());
+		assertThrows(IllegalArgumentException.class, () -> engine.tick(first, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> engine.closeSession(first));
+		assertEquals(first, engine.openSession(state));
+		assertThrows(IllegalArgumentException.class, () -> engine.openSession(null));
+		engine.close();
+	}
+
+	@Test
+	void testClose() {
+		BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		int session = engine.openSession(state);
+		assertTrue(engine.getAllocatedBytes() > 0);
+		assertFalse(engine.isClosed());
+		engine.close();
+		assertTrue(engine.isClosed());
+		assertEquals(0, engine.getAllocatedBytes());
+		assertThrows(IllegalStateException.class, () -> engine.tick(session, 0, 1));
+		assertThrows(IllegalStateException.class, () -> engine.toState(session));
+		assertThrows(IllegalStateException.class, () -> engine.closeSession(session));
+		assertThrows(IllegalStateException.class, () -> engine.openSession(state));
+		engine.close();
+	}
+
+	/**
+	 * Returns a game whose second ball hits a replicator paddle, which replicates it three times.
+	 */
+	private static BreakoutState replicatingState() {
+		Ball[] balls = {new NormalBall(new Point(5000, 10000), 700, new Vector(5, 7)),
+				new NormalBall(new Point(25000, 27300), 700, new Vector(0, 20))};
+		BlockState[] blocks = {new NormalBlockState(new Point(0, 0), new Point(1000, 500))};
+		return new BreakoutState(balls, blocks, new Point(50000, 30000),
+				new ReplicatorPaddleState(new Point(25000, 28000), PaddleState.DEFAULT_SIZE, 3));
+	}
+
+	@Test
+	void testRunningOutOfBallCapacityClosesTheSession() {
+		try (OffHeapBreakoutEngine large = new OffHeapBreakoutEngine(5, 1, 4)) {
+			BreakoutState state = replicatingState();
+			int session = large.openSession(state);
+			large.tick(session, 0, 10);
+			state.tick(0, 10);
+			assertEquals(5, large.getBallCount(session));
+			TestFixtures.assertSameState(state, large.toState(session));
+		}
+
+		// The first ball has moved already when the replicas do not fit
+		try (OffHeapBreakoutEngine small = new OffHeapBreakoutEngine(4, 1, 4)) {
+			BreakoutState state = replicatingState();
+			int other = small.openSession(state);
+			int session = small.openSession(state);
+			assertThrows(IllegalStateException.class, () -> small.tick(session, 0, 10));
+			assertEquals(1, small.getOpenSessionCount());
+			assertThrows(IllegalArgumentException.class, () -> small.toState(session));
+			TestFixtures.assertSameState(state, small.toState(other));
+			assertEquals(session, small.openSession(state));
+		}
+	}
+
+	@Test
+	void testSameTickAsBreakoutState() {
+		Random random = new Random(28);
+		for (int game = 0; game < 30; game++) {
+			String level = TestFixtures.randomLevel(random);
+			BreakoutState state = GameMap.createStateFromDescription(level);
+			int session = engine.openSession(state);
+			for (int step = 0; step < 3000 && !state.isDead() && !state.isWon(); step++) {
+				int paddleDir = TestFixtures.followingPaddleDir(state, random);
+				int elapsedTime = 1 + random.nextInt(BreakoutState.MAX_ELAPSED_TIME);
+				if (paddleDir == 1) {
+					state.movePaddleRight(elapsedTime);
+					engine.movePaddleRight(session, elapsedTime);
+				}
+				else if (paddleDir == -1) {
+					state.movePaddleLeft(elapsedTime);
+					engine.movePaddleLeft(session, elapsedTime);
+				}
+				state.tick(paddleDir, elapsedTime);
+				engine.tick(session, paddleDir, elapsedTime);
+				TestFixtures.assertSameState(state, engine.toState(session));
+			}
+			engine.closeSession(session);
+		}
+		engine.close();
+	}
+}
@@ -1,6 +1,5 @@
 package breakout;
 
-import java.awt.Color;
 
 /**
  * Each instance of this class represents a paddle in the breakout game.
@@ -12,7 +11,7 @@ import java.awt.Color;
  * @invar | getCenter() != null
  * @invar | getSize() != null
  */
-public abstract class PaddleState {
+public abstract sealed class PaddleState permits NormalPaddleState, ReplicatorPaddleState {
 	
 	/**
 	 * @invar | center != null
@@ -29,6 +28,17 @@ public abstract class PaddleState {
 	public static final int WIDTH = 3000;
 	public static final Vector DEFAULT_SIZE = new Vector(WIDTH/2, HEIGHT/2);
 	
+	// The type tags of the paddle types, for dispatch on the type without virtual calls
+	static final byte NORMAL = 0;
+	static final byte REPLICATOR = 1;
+	
+	// The type tag of this paddle
+	final byte type;
+	
+	PaddleState(byte type) {
+		this.type = type;
+	}
+	
 	/**
 	 * Returns the center Point object contained within this PaddleState object.
 	 */
@@ -57,10 +67,10 @@ public abstract class PaddleState {
 	public abstract PaddleState changeCenter(Point center);
 	
 	/**
-	 * Returns the Color object used to display paddles in the breakout game
+	 * Returns the Palette index of the colour used to display paddles in the breakout game
 	 * -> Different behaviour depending on the paddle type
 	 */
-	public abstract Color getColor();
+	public abstract int getPaletteIndex();
 	
 	/**
 	 * Returns a ballPaddleHitResults object containing the ball and paddle states and the required number of replicates to be made,
@@ -100,6 +110,7 @@ final class NormalPaddleState extends PaddleState {
 	 * @post | getSize().equals(size)
 	 */
 	public NormalPaddleState(Point center, Vector size) {
+		super(NORMAL);
 		this.center=new Point(center.getX(), center.getY());
 		this.size=new Vector(size.getX(), size.getY());
 	}
@@ -121,10 +132,10 @@ final class NormalPaddleState extends PaddleState {
 	}
 	
 	/**
-	 * Returns the Color object used to display normal paddles in the breakout game, i.e. green.
+	 * Returns the Palette index of the colour used to display normal paddles in the breakout game, i.e. green.
 	 */
-	public Color getColor() {
-		return Color.green;
+	public int getPaletteIndex() {
+		return Palette.GREEN;
 	}
 	
 	/**
@@ -199,6 +210,7 @@ final class ReplicatorPaddleState extends PaddleState {
 	 * @post | getLifetime() == lifetime
 	 */
 	public ReplicatorPaddleState(Point center, Vector size, int lifetime) {
+		super(REPLICATOR);
 		this.center=new Point(center.getX(), center.getY());
 		this.size=new Vector(size.getX(), size.getY());
 		this.lifetime=lifetime;
@@ -251,10 +263,10 @@ final class ReplicatorPaddleState extends PaddleState {
 	}
 	
 	/**
-	 * Returns the default colour used to display replicator paddles in the breakout game, i.e. yellow.
+	 * Returns the Palette index of the default colour used to display replicator paddles in the breakout game, i.e. yellow.
 	 */
-	public Color getColor() {
-		return Color.yellow;
+	public int getPaletteIndex() {
+		return Palette.YELLOW;
 	}
 	
 	/**
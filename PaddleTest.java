@@ -48,8 +48,8 @@ class PaddleTest {
 	
 	@Test
 	void testColours() {
-		assertEquals(Color.green, p1.getColor());
-		assertEquals(Color.yellow, p2.getColor());
+		assertEquals(Color.green, AwtPalette.colorOf(p1.getPaletteIndex()));
+		assertEquals(Color.yellow, AwtPalette.colorOf(p2.getPaletteIndex()));
 	}
 	
 	@Test
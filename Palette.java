@@ -0,0 +1,46 @@
+package breakout;
+
+/**
+ * This class defines the palette of colours in which the breakout game is displayed. The game model refers to colours
+ * by their index in this palette only, so that it does not depend on a graphics toolkit; AwtPalette maps the indices
+ * to java.awt.Color objects for the user interface.
+ */
+public final class Palette {
+
+	public static final int RED = 0;
+	public static final int PINK = 1;
+	public static final int BLUE = 2;
+	public static final int GRAY = 3;
+	public static final int LIGHT_GRAY = 4;
+	public static final int WHITE = 5;
+	public static final int ORANGE = 6;
+	public static final int CYAN = 7;
+	public static final int GREEN = 8;
+	public static final int YELLOW = 9;
+
+	// The number of colours in the palette
+	public static final int SIZE = 10;
+
+	// The opaque sRGB values of the colours, in the format of java.awt.Color.getRGB
+	private static final int[] RGB = {
+		0xFFFF0000, 0xFFFFAFAF, 0xFF0000FF, 0xFF808080, 0xFFC0C0C0,
+		0xFFFFFFFF, 0xFFFFC800, 0xFF00FFFF, 0xFF00FF00, 0xFFFFFF00
+	};
+
+	private Palette() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Returns the opaque sRGB value of the colour with the given index, with the alpha in bits 24-31, the red in bits
+	 * 16-23, the green in bits 8-15 and the blue in bits 0-7.
+	 * @throws IllegalArgumentException if the index is not in the palette.
+	 * 	| index < 0 || index >= SIZE
+	 */
+	public static int rgbOf(int index) {
+		if (index < 0 || index >= SIZE) {
+			throw new IllegalArgumentException("You have supplied an invalid palette index!");
+		}
+		return RGB[index];
+	}
+}
@@ -0,0 +1,17 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class PaletteTest {
+
+	@Test
+	void testAwtColorsMatchPalette() {
+		for (int index = 0; index < Palette.SIZE; index++) {
+			assertEquals(Palette.rgbOf(index), AwtPalette.colorOf(index).getRGB());
+		}
+		assertThrows(IllegalArgumentException.class, () -> Palette.rgbOf(Palette.SIZE));
+		assertThrows(IllegalArgumentException.class, () -> AwtPalette.colorOf(-1));
+	}
+}
@@ -197,16 +197,21 @@ public class Rect {
 	 * @post | result == null || result.getSquareLength() == 1
 	 */
 	public Vector overlap(Rect other) {
-		int thisLeftX = this.topLeft.getX();
-		int thisRightX = this.bottomRight.getX();
-		int thisCenterX = this.topLeft.getX() + (this.bottomRight.getX() - this.topLeft.getX())/2;
-		int thisTopY = this.topLeft.getY();
-		int thisBottomY = this.bottomRight.getY();
-		int thisCenterY = this.topLeft.getY() + (this.bottomRight.getY() - this.topLeft.getY())/2;
-		int otherLeftX = other.getTopLeft().getX();
-		int otherRightX = other.getBottomRight().getX();
-		int otherTopY = other.getTopLeft().getY();
-		int otherBottomY = other.getBottomRight().getY();
+		return overlap(this.topLeft.getX(), this.topLeft.getY(), this.bottomRight.getX(), this.bottomRight.getY(),
+				other.getTopLeft().getX(), other.getTopLeft().getY(), other.getBottomRight().getX(), other.getBottomRight().getY());
+	}
+	
+	/**
+	 * Detects whether two rectangles given by their coordinates are colliding and returns the normal vector of the plane of collision,
+	 * in the same way as overlap(Rect). In case no collision is detected, null is returned.
+	 * @pre | thisLeftX <= thisRightX && thisTopY <= thisBottomY
+	 * @pre | otherLeftX <= otherRightX && otherTopY <= otherBottomY
+	 * @post | result == null || result.getSquareLength() == 1
+	 */
+	static Vector overlap(int thisLeftX, int thisTopY, int thisRightX, int thisBottomY,
+			int otherLeftX, int otherTopY, int otherRightX, int otherBottomY) {
+		int thisCenterX = thisLeftX + (thisRightX - thisLeftX)/2;
+		int thisCenterY = thisTopY + (thisBottomY - thisTopY)/2;
 		
 		// Collision at the right side of this
 		if (thisRightX >= otherLeftX && thisLeftX < otherLeftX && thisCenterY >= otherTopY && thisCenterY <= otherBottomY) {
@@ -227,4 +232,18 @@ public class Rect {
 		// No collision
 		return null;
 		}
+	
+	/**
+	 * Returns the distance between two rectangles given by their coordinates along the axis on which they lie furthest
+	 * apart, which is positive if and only if they do not overlap, borders included. Rectangles whose distance is
+	 * positive are not colliding according to overlap.
+	 * @pre | thisLeftX <= thisRightX && thisTopY <= thisBottomY
+	 * @pre | otherLeftX <= otherRightX && otherTopY <= otherBottomY
+	 */
+	static long gap(int thisLeftX, int thisTopY, int thisRightX, int thisBottomY,
+			int otherLeftX, int otherTopY, int otherRightX, int otherBottomY) {
+		long gapX = Math.max((long) otherLeftX - thisRightX, (long) thisLeftX - otherRightX);
+		long gapY = Math.max((long) otherTopY - thisBottomY, (long) thisTopY - otherBottomY);
+		return Math.max(gapX, gapY);
+	}
 }
@@ -0,0 +1,92 @@
+package breakout;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Measures the size of a replay file and the time ReplayReader takes to seek to random ticks, against the time of
+ * replaying the game from tick 0 to the same ticks, by recording a game of the given number of ticks steered by an
+ * Autopilot, with the given keyframe interval.
+ *
+ * Usage: ReplayBenchmark [ticks] [keyframeInterval] [seeks]
+ */
+public class ReplayBenchmark {
+
+	private static final String LEVEL = """
+##########
+#SS!##R!S#
+##########
+#S######S#
+##########
+    o
+
+    =""";
+
+	private ReplayBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	public static void main(String[] args) throws Exception {
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		int keyframeInterval = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+		int seeks = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+		Path file = Files.createTempFile("replay", ".bin");
+		try {
+			BreakoutState state = GameMap.createStateFromDescription(LEVEL);
+			Autopilot autopilot = new Autopilot(100);
+			long recordNanos = 0;
+			try (ReplayWriter writer = new ReplayWriter(file, state, keyframeInterval)) {
+				for (int t = 0; t < ticks; t++) {
+					int paddleDir = autopilot.paddleDir(state);
+					ReplayReader.step(state, paddleDir, 10);
+					long start = System.nanoTime();
+					writer.record(paddleDir, 10, state);
+					recordNanos += System.nanoTime() - start;
+				}
+			}
+			System.out.printf("%d ticks, keyframe every %d: %d bytes (%.2f per tick), recording %.2f us per tick, game %s%n",
+					ticks, keyframeInterval, Files.size(file), (double) Files.size(file) / ticks, recordNanos / 1000.0 / ticks,
+					state.isDead() ? "lost" : state.isWon() ? "won" : "running");
+
+			try (ReplayReader reader = new ReplayReader(file)) {
+				Random random = new Random(1);
+				long[] targets = new long[seeks];
+				for (int s = 0; s < seeks; s++) {
+					targets[s] = random.nextInt(ticks + 1);
+				}
+				long hash = 0;
+				long start = System.nanoTime();
+				for (long target : targets) {
+					hash += reader.seek(target).hash();
+				}
+				long seekNanos = System.nanoTime() - start;
+
+				// Replaying from tick 0 takes long, so only a few of the same ticks are replayed that way
+				int replays = Math.min(seeks, 5);
+				long replayHash = 0;
+				long seekHash = 0;
+				start = System.nanoTime();
+				for (int s = 0; s < replays; s++) {
+					BreakoutState replay = reader.seek(0);
+					Autopilot replayPilot = new Autopilot(100);
+					for (long t = 0; t < targets[s]; t++) {
+						ReplayReader.step(replay, replayPilot.paddleDir(replay), 10);
+					}
+					replayHash += replay.hash();
+					seekHash += reader.seek(targets[s]).hash();
+				}
+				long replayNanos = System.nanoTime() - start;
+
+				System.out.printf("seek %.1f us on average, replay from tick 0 %.1f us on average (%.0fx)%s%n",
+						seekNanos / 1000.0 / seeks, replayNanos / 1000.0 / replays,
+						(replayNanos / (double) replays) / (seekNanos / (double) seeks),
+						hash != 0 && replayHash == seekHash ? "" : ", DIFFERENT RESULTS");
+			}
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
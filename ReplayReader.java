@@ -0,0 +1,212 @@
+package breakout;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Each instance of this class reads a replay file written by a ReplayWriter, which it maps into memory, and restores
+ * the game state of any tick of the recorded game.
+ *
+ * Seeking to a tick finds the last keyframe at or before it by a binary search in the keyframe index, which costs
+ * O(log n) in the number of keyframes, decodes it, and replays the inputs from the keyframe to the tick, which costs
+ * at most the keyframe interval in steps. Only the pages of the file holding the index, the keyframe and its inputs
+ * are read. Files of at most 2 GB can be mapped.
+ *
+ * @invar | getTickCount() >= 0
+ * @invar | getKeyframeCount() >= 1
+ * @invar | getKeyframeInterval() > 0
+ */
+public class ReplayReader implements AutoCloseable {
+
+	/**
+	 * @invar | channel != null && buffer != null
+	 * @invar | keyframeCount >= 1
+	 */
+	private final FileChannel channel;
+	/** @representationObject */
+	private final MappedByteBuffer buffer;
+	private final int keyframeInterval;
+	private final boolean collidingBalls;
+	private final int keyframeCount;
+	private final long ticks;
+	private final int indexOffset;
+
+	/**
+	 * Opens and maps the given replay file.
+	 * @throws IllegalArgumentException if no file is supplied.
+	 * 	| file == null
+	 * @throws IOException if the file cannot be read or is not a complete replay file.
+	 * 	| true
+	 */
+	public ReplayReader(Path file) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("You have not supplied a valid file!");
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("The replay file is larger than 2 GB");
+			}
+			if (size < ReplayWriter.HEADER_BYTES + ReplayWriter.INDEX_ENTRY_BYTES + ReplayWriter.TRAILER_BYTES) {
+				throw new IOException("The file is not a complete replay file");
+			}
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			int trailer = (int) size - ReplayWriter.TRAILER_BYTES;
+			if (buffer.getInt(ReplayWriter.HEADER_MAGIC) != ReplayWriter.MAGIC
+					|| buffer.getInt(trailer + ReplayWriter.TRAILER_MAGIC) != ReplayWriter.MAGIC) {
+				throw new IOException("The file is not a complete replay file");
+			}
+			if (buffer.getInt(ReplayWriter.HEADER_VERSION) != ReplayWriter.VERSION) {
+				throw new IOException("The replay file has an unknown version");
+			}
+			this.keyframeInterval = buffer.getInt(ReplayWriter.HEADER_KEYFRAME_INTERVAL);
+			int flags = buffer.getInt(ReplayWriter.HEADER_FLAGS);
+			if ((flags & ~ReplayWriter.FLAG_COLLIDING_BALLS) != 0) {
+				throw new IOException("The replay file has unknown flags");
+			}
+			this.collidingBalls = flags != 0;
+			this.keyframeCount = buffer.getInt(trailer + ReplayWriter.TRAILER_KEYFRAME_COUNT);
+			this.ticks = buffer.getLong(trailer + ReplayWriter.TRAILER_TICK_COUNT);
+			long indexOffset = buffer.getLong(trailer + ReplayWriter.TRAILER_INDEX_OFFSET);
+			if (keyframeInterval <= 0 || keyframeCount <= 0 || ticks < 0 || indexOffset < ReplayWriter.HEADER_BYTES
+					|| indexOffset + (long) ReplayWriter.INDEX_ENTRY_BYTES * keyframeCount != trailer
+					|| indexOffset - ReplayWriter.HEADER_BYTES < ticks) {
+				throw new IOException("The trailer of the replay file is invalid");
+			}
+			this.indexOffset = (int) indexOffset;
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of ticks recorded.
+	 */
+	public long getTickCount() {
+		return ticks;
+	}
+
+	/**
+	 * Returns the number of keyframes recorded.
+	 */
+	public int getKeyframeCount() {
+		return keyframeCount;
+	}
+
+	/**
+	 * Returns the number of ticks from one keyframe to the next.
+	 */
+	public int getKeyframeInterval() {
+		return keyframeInterval;
+	}
+
+	private long keyframeTick(int k) {
+		return buffer.getLong(indexOffset + ReplayWriter.INDEX_ENTRY_BYTES * k);
+	}
+
+	private int keyframeOffset(int k) {
+		return (int) buffer.getLong(indexOffset + ReplayWriter.INDEX_ENTRY_BYTES * k + 8);
+	}
+
+	/**
+	 * Returns the index of the last keyframe at or before the given tick.
+	 */
+	private int keyframeBefore(long tick) {
+		int low = 0;
+		int high = keyframeCount - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (keyframeTick(middle) <= tick) {
+				low = middle;
+			}
+			else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Advances the given game by one tick with the given paddle direction over the given elapsed time, moving the
+	 * paddle first, as FixedStepLoop does, and as a game recorded by a ReplayWriter must be advanced.
+	 * @mutates | state
+	 * @pre | state != null
+	 * @pre | paddleDir == 0 || paddleDir == 1 || paddleDir == -1
+	 * @pre | elapsedTime > 0 && elapsedTime <= BreakoutState.MAX_ELAPSED_TIME
+	 */
+	public static void step(BreakoutState state, int paddleDir, int elapsedTime) {
+		if (paddleDir > 0) {
+			state.movePaddleRight(elapsedTime);
+		}
+		else if (paddleDir < 0) {
+			state.movePaddleLeft(elapsedTime);
+		}
+		state.tick(paddleDir, elapsedTime);
+	}
+
+	/**
+	 * Returns whether the balls of the recorded game collide with each other.
+	 */
+	public boolean isCollidingBalls() {
+		return collidingBalls;
+	}
+
+	/**
+	 * Returns a new game state equal to that of the recorded game after the given number of ticks, with the same ball
+	 * settings.
+	 * @inspects | this
+	 * @creates | result
+	 * @throws IllegalArgumentException if the tick was not recorded.
+	 * 	| tick < 0 || tick > getTickCount()
+	 * @throws IOException if the replay file is corrupt.
+	 * 	| true
+	 */
+	public BreakoutState seek(long tick) throws IOException {
+		if (tick < 0 || tick > ticks) {
+			throw new IllegalArgumentException("You have supplied an invalid tick!");
+		}
+		int k = keyframeBefore(tick);
+		long keyframeTick = keyframeTick(k);
+		// Each seek reads through a view with a position of its own, so that seeks do not disturb each other
+		ByteBuffer view = buffer.duplicate();
+		int offset = keyframeOffset(k);
+		if (offset < ReplayWriter.HEADER_BYTES || offset >= indexOffset || keyframeTick > tick) {
+			throw new IOException("The keyframe index of the replay file is invalid");
+		}
+		view.position(offset).limit(indexOffset);
+		int bytes = GameProtocol.messageBytes(view);
+		if (bytes < 0 || GameProtocol.typeOf(view) != GameProtocol.STATE || GameProtocol.frameOf(view) != keyframeTick
+				|| offset + bytes + (tick - keyframeTick) > indexOffset) {
+			throw new IOException("The keyframe of tick " + keyframeTick + " is invalid");
+		}
+		BreakoutState state = GameProtocol.getState(view);
+		state.setCollidingBalls(collidingBalls);
+		for (long t = keyframeTick; t < tick; t++) {
+			int input = view.get();
+			int paddleDir = (input & 3) - 1;
+			int elapsedTime = (input & 0xFF) >>> 2;
+			if (paddleDir > 1 || elapsedTime <= 0 || elapsedTime > BreakoutState.MAX_ELAPSED_TIME) {
+				throw new ProtocolException("The input of tick " + (t + 1) + " is invalid");
+			}
+			step(state, paddleDir, elapsedTime);
+		}
+		return state;
+	}
+
+	/**
+	 * Closes the replay file. The mapping remains valid until it is garbage collected.
+	 * @throws IOException if the file cannot be closed.
+	 * 	| true
+	 */
+	public void close() throws IOException {
+		channel.close();
+	}
+}
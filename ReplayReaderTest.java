@@ -0,0 +1,128 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ReplayReaderTest {
+
+	@Test
+	void testSeeksToEveryTick() throws Exception {
+		Path file = Files.createTempFile("replay", ".bin");
+		try {
+			Random random = new Random(3);
+			BreakoutState state = GameMap.createStateFromDescription(TestFixtures.randomLevel(random));
+			Autopilot autopilot = new Autopilot(100);
+			int ticks = 1000;
+			long[] hashes = new long[ticks + 1];
+			hashes[0] = state.hash();
+			try (ReplayWriter writer = new ReplayWriter(file, state, 64)) {
+				for (int t = 1; t <= ticks; t++) {
+					// Mostly following the ball, with a wrong move now and then
+					int paddleDir = random.nextInt(8) == 0 ? random.nextInt(3) - 1 : autopilot.paddleDir(state);
+					int elapsedTime = 1 + random.nextInt(BreakoutState.MAX_ELAPSED_TIME);
+					ReplayReader.step(state, paddleDir, elapsedTime);
+					writer.record(paddleDir, elapsedTime, state);
+					hashes[t] = state.hash();
+				}
+				assertEquals(ticks, writer.getTickCount());
+				assertEquals(1 + ticks / 64, writer.getKeyframeCount());
+			}
+
+			try (ReplayReader reader = new ReplayReader(file)) {
+				assertEquals(ticks, reader.getTickCount());
+				assertEquals(1 + ticks / 64, reader.getKeyframeCount());
+				assertEquals(64, reader.getKeyframeInterval());
+				for (int t = 0; t <= ticks; t++) {
+					assertEquals(hashes[t], reader.seek(t).hash());
+				}
+				// Seeking does not change the reader
+				assertEquals(hashes[500], reader.seek(500).hash());
+				assertThrows(IllegalArgumentException.class, () -> reader.seek(ticks + 1));
+				assertThrows(IllegalArgumentException.class, () -> reader.seek(-1));
+			}
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void testRecordsBallSettings() throws Exception {
+		Path file = Files.createTempFile("replay", ".bin");
+		try {
+			Random random = new Random(5);
+			BreakoutState state = GameMap.createStateFromDescription("RRRRRRRRRR\nooooooooo\n\n    =");
+			state.setCollidingBalls(true);
+			Autopilot autopilot = new Autopilot(100);
+			int ticks = 400;
+			long[] hashes = new long[ticks + 1];
+			hashes[0] = state.hash();
+			try (ReplayWriter writer = new ReplayWriter(file, state, 32)) {
+				for (int t = 1; t <= ticks; t++) {
+					int paddleDir = autopilot.paddleDir(state);
+					ReplayReader.step(state, paddleDir, 10);
+					writer.record(paddleDir, 10, state);
+					hashes[t] = state.hash();
+				}
+				assertTrue(state.getBallCollisionCount() > 0);
+				state.setCollidingBalls(false);
+				assertThrows(IllegalArgumentException.class, () -> writer.record(0, 10, state));
+				state.setCollidingBalls(true);
+				state.setMergingBalls(true);
+				assertThrows(IllegalArgumentException.class, () -> writer.record(0, 10, state));
+				state.setMergingBalls(false);
+			}
+			try (ReplayReader reader = new ReplayReader(file)) {
+				assertTrue(reader.isCollidingBalls());
+				for (int t = 0; t <= ticks; t++) {
+					BreakoutState replay = reader.seek(t);
+					assertTrue(replay.isCollidingBalls());
+					assertEquals(hashes[t], replay.hash());
+				}
+			}
+
+			state.setMergingBalls(true);
+			assertThrows(IllegalArgumentException.class, () -> new ReplayWriter(file, state, 10));
+			state.setMergingBalls(false);
+			state.setBallReorderingPeriod(8);
+			assertThrows(IllegalArgumentException.class, () -> new ReplayWriter(file, state, 10));
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void testRejectsIncompleteFiles() throws Exception {
+		Path file = Files.createTempFile("replay", ".bin");
+		try {
+			BreakoutState state = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+			assertThrows(IOException.class, () -> new ReplayReader(file));
+			ReplayWriter writer = new ReplayWriter(file, state, 10);
+			for (int t = 0; t < 100; t++) {
+				ReplayReader.step(state, 1, 10);
+				writer.record(1, 10, state);
+			}
+			assertThrows(IOException.class, () -> new ReplayReader(file));
+			assertThrows(IllegalArgumentException.class, () -> writer.record(2, 10, state));
+			assertThrows(IllegalArgumentException.class, () -> writer.record(0, 0, state));
+			assertThrows(IllegalArgumentException.class, () -> writer.record(0, BreakoutState.MAX_ELAPSED_TIME + 1, state));
+			writer.close();
+			try (ReplayReader reader = new ReplayReader(file)) {
+				assertEquals(state.hash(), reader.seek(100).hash());
+			}
+			assertThrows(IllegalArgumentException.class, () -> new ReplayWriter(file, state, 0));
+			assertThrows(IllegalArgumentException.class, () -> new ReplayWriter(null, state, 10));
+			assertThrows(IllegalArgumentException.class, () -> new ReplayReader(null));
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package breakout;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Each instance of this class records a breakout game into a replay file, which a ReplayReader can seek to any tick
+ * of the game.
+ *
+ * The game must be advanced in steps of one tick, as FixedStepLoop does, in which the paddle is moved in the given
+ * direction over the elapsed time before the state ticks; ReplayReader.step performs such a step. The file records the
+ * input of each step, and a keyframe, the whole game state, every given number of ticks, so that a reader can restore
+ * any tick from the keyframe before it and at most that number of steps. Whether the balls collide is recorded in the
+ * header, and must stay the same throughout the game. The keyframes do not record which balls were merged or when the
+ * balls are reordered next, so games that merge or reorder their balls cannot be recorded.
+ *
+ * A replay file consists of a header, holding the magic number, the version, the keyframe interval and the flags of the
+ * ball settings, followed by one segment per keyframe and by the keyframe index. A segment is the STATE message of
+ * GameProtocol of the keyframe, whose frame number is its tick, followed by the input of each tick up to the next
+ * keyframe, one byte per tick: the elapsed time times 4 plus the paddle direction plus 1. The index holds the tick and
+ * the file offset of each keyframe, in order, and is followed by a trailer with the number of keyframes, the number of
+ * ticks, the offset of the index and the magic number again, which closing the writer writes last. All numbers are
+ * big-endian.
+ *
+ * @invar | getTickCount() >= 0
+ * @invar | getKeyframeCount() >= 1
+ */
+public class ReplayWriter implements AutoCloseable {
+
+	// The layout of the file header and trailer, in bytes
+	static final int MAGIC = 0x42524B52;
+	static final int VERSION = 1;
+	static final int HEADER_MAGIC = 0;
+	static final int HEADER_VERSION = 4;
+	static final int HEADER_KEYFRAME_INTERVAL = 8;
+	static final int HEADER_FLAGS = 12;
+	static final int HEADER_BYTES = 16;
+	static final int INDEX_ENTRY_BYTES = 16;
+	static final int TRAILER_KEYFRAME_COUNT = 0;
+	static final int TRAILER_TICK_COUNT = 4;
+	static final int TRAILER_INDEX_OFFSET = 12;
+	static final int TRAILER_MAGIC = 20;
+	static final int TRAILER_BYTES = 24;
+	// The flags of the ball settings in the header
+	static final int FLAG_COLLIDING_BALLS = 1;
+
+	// The number of bytes gathered before they are written to the file
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	/**
+	 * @invar | channel != null && buffer != null && keyframeTicks != null && keyframeOffsets != null
+	 * @invar | keyframeInterval > 0
+	 * @invar | 1 <= keyframeCount && keyframeCount <= keyframeTicks.length
+	 * @invar | keyframeTicks.length == keyframeOffsets.length
+	 */
+	private final FileChannel channel;
+	/** @representationObject */
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+	private final int keyframeInterval;
+	private final boolean collidingBalls;
+	/** @representationObject */
+	private long[] keyframeTicks = new long[16];
+	/** @representationObject */
+	private long[] keyframeOffsets = new long[16];
+	private int keyframeCount;
+	private long ticks;
+	// The file offset of the start of the buffer
+	private long offset;
+
+	/**
+	 * Creates or truncates the given file and records the given game state as the keyframe of tick 0, with a keyframe
+	 * every given number of ticks after it.
+	 * @inspects | initial
+	 * @throws IllegalArgumentException if no file or state is supplied.
+	 * 	| file == null || initial == null
+	 * @throws IllegalArgumentException if the keyframe interval is not positive.
+	 * 	| keyframeInterval <= 0
+	 * @throws IllegalArgumentException if the game merges or reorders its balls.
+	 * 	| initial.isMergingBalls() || initial.getBallReorderingPeriod() != 0
+	 * @throws IOException if the file cannot be created or written.
+	 * 	| true
+	 * @post | getTickCount() == 0
+	 * @post | getKeyframeCount() == 1
+	 */
+	public ReplayWriter(Path file, BreakoutState initial, int keyframeInterval) throws IOException {
+		if (file == null || initial == null) {
+			throw new IllegalArgumentException("You have not supplied a valid file or game state!");
+		}
+		if (keyframeInterval <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid keyframe interval!");
+		}
+		if (initial.isMergingBalls() || initial.getBallReorderingPeriod() != 0) {
+			throw new IllegalArgumentException("You have supplied a game that merges or reorders its balls!");
+		}
+		this.keyframeInterval = keyframeInterval;
+		this.collidingBalls = initial.isCollidingBalls();
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(keyframeInterval);
+			buffer.putInt(collidingBalls ? FLAG_COLLIDING_BALLS : 0);
+			putKeyframe(initial);
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of ticks recorded.
+	 */
+	public long getTickCount() {
+		return ticks;
+	}
+
+	/**
+	 * Returns the number of keyframes recorded.
+	 */
+	public int getKeyframeCount() {
+		return keyframeCount;
+	}
+
+	/**
+	 * Records a step of the game with the given paddle direction over the given elapsed time, after which the game is
+	 * in the given state.
+	 * @mutates | this
+	 * @inspects | state
+	 * @throws IllegalArgumentException if no state is supplied.
+	 * 	| state == null
+	 * @throws IllegalArgumentException if the paddle direction is not 0, 1 or -1.
+	 * 	| paddleDir < -1 || paddleDir > 1
+	 * @throws IllegalArgumentException if the elapsed time is not positive or larger than MAX_ELAPSED_TIME.
+	 * 	| elapsedTime <= 0 || elapsedTime > BreakoutState.MAX_ELAPSED_TIME
+	 * @throws IllegalArgumentException if the game merges or reorders its balls, or its balls started or stopped
+	 * 	colliding since the recording started.
+	 * 	| true
+	 * @throws IOException if the file cannot be written.
+	 * 	| true
+	 * @post | getTickCount() == old(getTickCount()) + 1
+	 */
+	public void record(int paddleDir, int elapsedTime, BreakoutState state) throws IOException {
+		if (state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid game state!");
+		}
+		if (paddleDir < -1 || paddleDir > 1) {
+			throw new IllegalArgumentException("You have supplied an invalid paddle direction!");
+		}
+		if (elapsedTime <= 0 || elapsedTime > BreakoutState.MAX_ELAPSED_TIME) {
+			throw new IllegalArgumentException("You have supplied an invalid elapsed time!");
+		}
+		if (state.isMergingBalls() || state.getBallReorderingPeriod() != 0 || state.isCollidingBalls() != collidingBalls) {
+			throw new IllegalArgumentException("You have supplied a game with other ball settings than the recorded game!");
+		}
+		ensureRemaining(1);
+		buffer.put((byte) (elapsedTime << 2 | paddleDir + 1));
+		ticks++;
+		if (ticks % keyframeInterval == 0) {
+			putKeyframe(state);
+		}
+	}
+
+	private void putKeyframe(BreakoutState state) throws IOException {
+		int bytes = GameProtocol.stateBytes(state);
+		ensureRemaining(bytes);
+		if (keyframeCount == keyframeTicks.length) {
+			keyframeTicks = Arrays.copyOf(keyframeTicks, 2 * keyframeCount);
+			keyframeOffsets = Arrays.copyOf(keyframeOffsets, 2 * keyframeCount);
+		}
+		keyframeTicks[keyframeCount] = ticks;
+		keyframeOffsets[keyframeCount++] = offset + buffer.position();
+		GameProtocol.putState(buffer, state, ticks);
+	}
+
+	/**
+	 * Writes out the buffer if it does not have the given number of bytes left, and grows it if they do not fit in it.
+	 */
+	private void ensureRemaining(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return;
+		}
+		flush();
+		if (buffer.capacity() < bytes) {
+			buffer = ByteBuffer.allocateDirect(bytes);
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			offset += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes the keyframe index and the trailer and closes the file.
+	 * @mutates | this
+	 * @throws IOException if the file cannot be written.
+	 * 	| true
+	 */
+	public void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		try {
+			long indexOffset = offset + buffer.position();
+			for (int k = 0; k < keyframeCount; k++) {
+				ensureRemaining(INDEX_ENTRY_BYTES);
+				buffer.putLong(keyframeTicks[k]);
+				buffer.putLong(keyframeOffsets[k]);
+			}
+			ensureRemaining(TRAILER_BYTES);
+			buffer.putInt(keyframeCount);
+			buffer.putLong(ticks);
+			buffer.putLong(indexOffset);
+			buffer.putInt(MAGIC);
+			flush();
+		}
+		finally {
+			channel.close();
+		}
+	}
+}
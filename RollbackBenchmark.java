@@ -0,0 +1,116 @@
+package breakout;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures how deep a RollbackController can roll back within the budget of a frame at 60 Hz, by running a game of
+ * many balls whose remote input arrives a fixed number of frames late, for latencies doubling up to the given maximum.
+ * Every change of direction of the remote player then makes the controller roll back by the latency. The time of each
+ * advance that rolls back is measured, and a latency is sustained if 90% of those advances fit in the frame budget;
+ * the time of a plain step, without snapshots or rollbacks, gives the depth the budget allows in theory. At the end,
+ * all input is delivered, and the game must equal the game played with the true input.
+ *
+ * Usage: RollbackBenchmark [balls] [frames] [maxLatency]
+ */
+public class RollbackBenchmark {
+
+	// The budget of a frame at 60 Hz
+	private static final long BUDGET_NANOS = 1_000_000_000L / 60;
+	private static final int STEP_MILLIS = 1000 / 60;
+
+	private RollbackBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static BreakoutState randomGame(int ballCount) {
+		Random random = new Random(42);
+		Ball[] balls = new Ball[ballCount];
+		for (int i = 0; i < ballCount; i++) {
+			Point center = new Point(1000 + random.nextInt(48000), 12000 + random.nextInt(10000));
+			Vector velocity = new Vector(random.nextInt(11) - 5, random.nextBoolean() ? 3 + random.nextInt(5) : -3 - random.nextInt(5));
+			balls[i] = new NormalBall(center, 700, velocity);
+		}
+		BlockState[] blocks = new BlockState[500];
+		for (int j = 0; j < blocks.length; j++) {
+			Point topLeft = new Point(j % 100 * 500, j / 100 * 200);
+			blocks[j] = new SturdyBlockState(topLeft, topLeft.plus(new Vector(400, 100)), 3);
+		}
+		PaddleState paddle = new NormalPaddleState(new Point(25000, 28000), PaddleState.DEFAULT_SIZE);
+		return new BreakoutState(balls, blocks, new Point(50000, 30000), paddle);
+	}
+
+	/**
+	 * Returns the input of a player who changes direction now and then.
+	 */
+	private static int[] playerInputs(Random random, int frames) {
+		int[] inputs = new int[frames];
+		int paddleDir = 0;
+		for (int f = 0; f < frames; f++) {
+			if (random.nextInt(15) == 0) {
+				paddleDir = random.nextInt(3) - 1;
+			}
+			inputs[f] = paddleDir;
+		}
+		return inputs;
+	}
+
+	public static void main(String[] args) {
+		int ballCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+		int maxLatency = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+		int[] inputs = playerInputs(new Random(7), frames + 1);
+		// A first run, for the JIT compiler
+		run(ballCount, frames, maxLatency, inputs, new long[frames]);
+
+		BreakoutState expected = randomGame(ballCount);
+		long start = System.nanoTime();
+		for (int f = 0; f <= frames; f++) {
+			ReplayReader.step(expected, inputs[f], STEP_MILLIS);
+		}
+		double stepNanos = (double) (System.nanoTime() - start) / (frames + 1);
+		System.out.printf("%d balls: plain step %.0f us, so %d steps fit in the budget of %.1f ms%n", ballCount,
+				stepNanos / 1000, (long) (BUDGET_NANOS / stepNanos), BUDGET_NANOS / 1e6);
+
+		int sustained = 0;
+		for (int latency = 1; latency <= maxLatency; latency *= 2) {
+			long[] nanos = new long[frames];
+			RollbackController controller = run(ballCount, frames, latency, inputs, nanos);
+			int count = (int) controller.getRollbackCount();
+			Arrays.sort(nanos);
+			// The advances that roll back are the slowest ones
+			long[] rollbackNanos = Arrays.copyOfRange(nanos, frames - count, frames);
+			long p90 = rollbackNanos[count * 9 / 10];
+			if (p90 <= BUDGET_NANOS) {
+				sustained = latency;
+			}
+			System.out.printf("latency %3d frames: %3d rollbacks, advance median %6.2f ms, rolling back median %6.2f ms, "
+					+ "p90 %6.2f ms, max %6.2f ms%s%n", latency, count, nanos[frames / 2] / 1e6, rollbackNanos[count / 2] / 1e6,
+					p90 / 1e6, rollbackNanos[count - 1] / 1e6,
+					controller.getState().hash() == expected.hash() ? "" : ", DIFFERENT RESULTS");
+		}
+		System.out.printf("maximum rollback depth sustained at 60 Hz: %d frames of the latencies tried%n", sustained);
+	}
+
+	/**
+	 * Runs the given number of frames with the given inputs arriving the given number of frames late, storing the time of
+	 * each advance in the given array, and then delivers the remaining inputs and advances once more.
+	 */
+	private static RollbackController run(int ballCount, int frames, int latency, int[] inputs, long[] nanos) {
+		RollbackController controller = new RollbackController(randomGame(ballCount), latency + 1, STEP_MILLIS);
+		for (int f = 0; f < frames; f++) {
+			if (f >= latency) {
+				controller.receiveInput(f - latency, inputs[f - latency]);
+			}
+			long start = System.nanoTime();
+			controller.advance();
+			nanos[f] = System.nanoTime() - start;
+		}
+		for (int g = Math.max(0, frames - latency); g <= frames; g++) {
+			controller.receiveInput(g, inputs[g]);
+		}
+		controller.advance();
+		return controller;
+	}
+}
@@ -0,0 +1,213 @@
+package breakout;
+
+import java.net.ProtocolException;
+import java.util.Arrays;
+
+/**
+ * Each instance of this class runs a breakout game whose paddle is steered by a remote player, whose input arrives
+ * late, predicting the input it has not received yet and correcting its predictions when the input arrives.
+ *
+ * Each frame, the game advances by one step, as ReplayReader.step performs it, with the input received for the frame,
+ * or, if none was received yet, with the input of the frame before, which is the usual prediction: players change
+ * direction far less often than once per frame. Before each step, the controller takes a compact snapshot of the game,
+ * in flat arrays that are reused, keeping those of the last given number of frames in a ring. An input that arrives for
+ * a frame that was already simulated with a different input makes the next advance restore the snapshot of that
+ * frame and simulate the frames since then again, with the inputs received by then, before it simulates the new frame.
+ * All rollbacks caused by the inputs received between two advances are thus done at once, in the budget of one frame.
+ * Input for a frame that lies further back than the snapshots reach, or as far ahead, is rejected.
+ *
+ * A restored game is a new BreakoutState object, whose balls collide with each other if those of the given game do.
+ * The snapshots do not record which balls were merged or when the balls are reordered next, so games that merge or
+ * reorder their balls cannot be rolled back, and are rejected.
+ *
+ * @invar | getState() != null
+ * @invar | getFrame() >= 0
+ * @invar | getMaxRollback() > 0
+ * @invar | getRollbackCount() >= 0
+ * @invar | 0 <= getMaxRollbackDepth() && getMaxRollbackDepth() <= getMaxRollback()
+ */
+public class RollbackController {
+
+	/**
+	 * @invar | state != null
+	 * @invar | snapshots != null && snapshots.length > 0
+	 * @invar | usedInputs != null && usedInputs.length == snapshots.length
+	 * @invar | inputs != null && inputFrames != null && inputs.length == 2 * snapshots.length
+	 * @invar | inputFrames.length == inputs.length
+	 * @invar | 0 < stepMillis && stepMillis <= BreakoutState.MAX_ELAPSED_TIME
+	 */
+	private BreakoutState state;
+	// The snapshot taken before simulating frame f, for the last frames, at index f % snapshots.length
+	/** @representationObject */
+	private final StateImage[] snapshots;
+	// The input frame f was simulated with, at the same index
+	/** @representationObject */
+	private final byte[] usedInputs;
+	// The input received for frame f, at index f % inputs.length, if inputFrames holds f at that index
+	/** @representationObject */
+	private final byte[] inputs;
+	/** @representationObject */
+	private final long[] inputFrames;
+	private final int stepMillis;
+	private final boolean collidingBalls;
+	private long frame;
+	// The first frame simulated with an input other than the one received for it, or Long.MAX_VALUE
+	private long rollbackFrame = Long.MAX_VALUE;
+	private long rollbacks;
+	private int maxDepth;
+
+	/**
+	 * Returns a controller that runs the given game, with frames of the given number of ms, and can roll back the given
+	 * number of frames.
+	 * @throws IllegalArgumentException if no game is supplied.
+	 * 	| initial == null
+	 * @throws IllegalArgumentException if the number of frames is not positive.
+	 * 	| maxRollback <= 0
+	 * @throws IllegalArgumentException if the frame time is not positive or larger than MAX_ELAPSED_TIME.
+	 * 	| stepMillis <= 0 || stepMillis > BreakoutState.MAX_ELAPSED_TIME
+	 * @throws IllegalArgumentException if the game merges or reorders its balls.
+	 * 	| initial.isMergingBalls() || initial.getBallReorderingPeriod() != 0
+	 * @post | getState() == initial
+	 * @post | getFrame() == 0
+	 * @post | getMaxRollback() == maxRollback
+	 */
+	public RollbackController(BreakoutState initial, int maxRollback, int stepMillis) {
+		if (initial == null) {
+			throw new IllegalArgumentException("You have not supplied a valid game state!");
+		}
+		if (maxRollback <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid number of frames to roll back!");
+		}
+		if (stepMillis <= 0 || stepMillis > BreakoutState.MAX_ELAPSED_TIME) {
+			throw new IllegalArgumentException("You have supplied an invalid frame time!");
+		}
+		if (initial.isMergingBalls() || initial.getBallReorderingPeriod() != 0) {
+			throw new IllegalArgumentException("You have supplied a game that merges or reorders its balls!");
+		}
+		this.state = initial;
+		this.stepMillis = stepMillis;
+		this.collidingBalls = initial.isCollidingBalls();
+		this.snapshots = new StateImage[maxRollback];
+		for (int k = 0; k < maxRollback; k++) {
+			snapshots[k] = new StateImage();
+		}
+		this.usedInputs = new byte[maxRollback];
+		this.inputs = new byte[2 * maxRollback];
+		this.inputFrames = new long[2 * maxRollback];
+		Arrays.fill(inputFrames, -1);
+	}
+
+	/**
+	 * Returns the game, at the current frame, as predicted from the input received so far.
+	 */
+	public BreakoutState getState() {
+		return state;
+	}
+
+	/**
+	 * Returns the number of frames simulated, which is the number of the frame the next advance simulates.
+	 */
+	public long getFrame() {
+		return frame;
+	}
+
+	/**
+	 * Returns the number of frames this controller can roll back.
+	 */
+	public int getMaxRollback() {
+		return snapshots.length;
+	}
+
+	/**
+	 * Returns the number of rollbacks done.
+	 */
+	public long getRollbackCount() {
+		return rollbacks;
+	}
+
+	/**
+	 * Returns the largest number of frames simulated again by one rollback.
+	 */
+	public int getMaxRollbackDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Receives the given input of the remote player for the given frame, and returns whether it was accepted. Input for
+	 * a frame that was already simulated with another input is applied by the next advance.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the frame is negative or the paddle direction is not 0, 1 or -1.
+	 * 	| frame < 0 || paddleDir < -1 || paddleDir > 1
+	 * @post | result == (getFrame() - getMaxRollback() <= frame && frame < getFrame() + getMaxRollback())
+	 */
+	public boolean receiveInput(long frame, int paddleDir) {
+		if (frame < 0 || paddleDir < -1 || paddleDir > 1) {
+			throw new IllegalArgumentException("You have supplied an invalid frame or paddle direction!");
+		}
+		if (frame < this.frame - snapshots.length || frame >= this.frame + snapshots.length) {
+			return false;
+		}
+		int slot = (int) (frame % inputs.length);
+		inputs[slot] = (byte) paddleDir;
+		inputFrames[slot] = frame;
+		if (frame < this.frame && usedInputs[(int) (frame % snapshots.length)] != paddleDir) {
+			rollbackFrame = Math.min(rollbackFrame, frame);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the input received for the given frame, or the given prediction if none was.
+	 */
+	private int inputFor(long frame, int predicted) {
+		int slot = (int) (frame % inputs.length);
+		return inputFrames[slot] == frame ? inputs[slot] : predicted;
+	}
+
+	/**
+	 * Simulates the given frame with the given input, taking a snapshot of the game before it.
+	 */
+	private void simulate(long frame, int paddleDir) {
+		int slot = (int) (frame % snapshots.length);
+		snapshots[slot].capture(state, frame);
+		usedInputs[slot] = (byte) paddleDir;
+		ReplayReader.step(state, paddleDir, stepMillis);
+	}
+
+	/**
+	 * Rolls back to the earliest frame that was simulated with a wrong input, if any, and simulates the frames since then
+	 * again, and then simulates the next frame. Returns the number of frames simulated again.
+	 * @mutates | this
+	 * @post | getFrame() == old(getFrame()) + 1
+	 * @post | result >= 0 && result <= getMaxRollback()
+	 */
+	public int advance() {
+		int depth = 0;
+		if (rollbackFrame != Long.MAX_VALUE) {
+			long from = rollbackFrame;
+			rollbackFrame = Long.MAX_VALUE;
+			StateImage snapshot = snapshots[(int) (from % snapshots.length)];
+			assert snapshot.frame == from;
+			try {
+				state = snapshot.toState();
+			}
+			catch (ProtocolException e) {
+				throw new AssertionError("A snapshot does not describe a valid game state", e);
+			}
+			state.setCollidingBalls(collidingBalls);
+			// The input that caused the rollback was received for its first frame
+			int predicted = inputs[(int) (from % inputs.length)];
+			for (long f = from; f < frame; f++) {
+				predicted = inputFor(f, predicted);
+				simulate(f, predicted);
+			}
+			depth = (int) (frame - from);
+			rollbacks++;
+			maxDepth = Math.max(maxDepth, depth);
+		}
+		int predicted = frame == 0 ? 0 : usedInputs[(int) ((frame - 1) % snapshots.length)];
+		simulate(frame, inputFor(frame, predicted));
+		frame++;
+		return depth;
+	}
+}
@@ -0,0 +1,144 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RollbackControllerTest {
+
+	/**
+	 * Returns the input of a player who changes direction now and then.
+	 */
+	static int[] playerInputs(Random random, int frames) {
+		int[] inputs = new int[frames];
+		int paddleDir = 0;
+		for (int f = 0; f < frames; f++) {
+			if (random.nextInt(15) == 0) {
+				paddleDir = random.nextInt(3) - 1;
+			}
+			inputs[f] = paddleDir;
+		}
+		return inputs;
+	}
+
+	@Test
+	void testEndsUpWithTheGameOfTheTrueInputs() {
+		Random random = new Random(9);
+		for (int level = 0; level < 10; level++) {
+			String description = TestFixtures.randomLevel(random);
+			int frames = 600;
+			int[] inputs = playerInputs(random, frames + 1);
+			// Each input arrives between 0 and 7 frames late, so that inputs also arrive out of order
+			int[] arrivals = new int[frames + 1];
+			for (int f = 0; f <= frames; f++) {
+				arrivals[f] = f + random.nextInt(8);
+			}
+
+			BreakoutState expected = GameMap.createStateFromDescription(description);
+			for (int f = 0; f <= frames; f++) {
+				ReplayReader.step(expected, inputs[f], 10);
+			}
+
+			RollbackController controller = new RollbackController(GameMap.createStateFromDescription(description), 8, 10);
+			for (int f = 0; f < frames; f++) {
+				for (int g = Math.max(0, f - 8); g <= frames; g++) {
+					if (arrivals[g] == f) {
+						assertTrue(controller.receiveInput(g, inputs[g]));
+					}
+				}
+				controller.advance();
+			}
+			for (int g = 0; g <= frames; g++) {
+				if (arrivals[g] >= frames) {
+					assertTrue(controller.receiveInput(g, inputs[g]));
+				}
+			}
+			controller.advance();
+			assertEquals(frames + 1, controller.getFrame());
+			assertEquals(expected.hash(), controller.getState().hash());
+			assertTrue(controller.getRollbackCount() > 0);
+			assertTrue(controller.getMaxRollbackDepth() <= 8);
+		}
+	}
+
+	@Test
+	void testPredictsTheLastInput() {
+		BreakoutState expected = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		RollbackController controller = new RollbackController(GameMap.createStateFromDescription(SubmissionTestSuite.initMap1), 4, 10);
+		assertTrue(controller.receiveInput(0, 1));
+		for (int f = 0; f < 3; f++) {
+			assertEquals(0, controller.advance());
+			ReplayReader.step(expected, 1, 10);
+		}
+		assertEquals(expected.hash(), controller.getState().hash());
+		assertEquals(0, controller.getRollbackCount());
+
+		// The player turned back at frame 1, which frames 1 and 2 are simulated again for
+		assertTrue(controller.receiveInput(1, -1));
+		assertEquals(2, controller.advance());
+		expected = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		ReplayReader.step(expected, 1, 10);
+		for (int f = 1; f < 4; f++) {
+			ReplayReader.step(expected, -1, 10);
+		}
+		assertEquals(expected.hash(), controller.getState().hash());
+		assertEquals(1, controller.getRollbackCount());
+		assertEquals(2, controller.getMaxRollbackDepth());
+	}
+
+	@Test
+	void testKeepsBallCollisions() {
+		String description = "RRRRRRRRRR\nooooooooo\n\n    =";
+		int frames = 300;
+		int[] inputs = playerInputs(new Random(4), frames + 1);
+		BreakoutState expected = GameMap.createStateFromDescription(description);
+		expected.setCollidingBalls(true);
+		for (int f = 0; f <= frames; f++) {
+			ReplayReader.step(expected, inputs[f], 10);
+		}
+		assertTrue(expected.getBallCollisionCount() > 0);
+
+		BreakoutState initial = GameMap.createStateFromDescription(description);
+		initial.setCollidingBalls(true);
+		RollbackController controller = new RollbackController(initial, 4, 10);
+		for (int f = 0; f < frames; f++) {
+			if (f >= 3) {
+				controller.receiveInput(f - 3, inputs[f - 3]);
+			}
+			controller.advance();
+		}
+		for (int g = frames - 3; g <= frames; g++) {
+			controller.receiveInput(g, inputs[g]);
+		}
+		controller.advance();
+		assertTrue(controller.getRollbackCount() > 0);
+		assertTrue(controller.getState().isCollidingBalls());
+		assertEquals(expected.hash(), controller.getState().hash());
+	}
+
+	@Test
+	void testRejectsInputOutsideTheSnapshots() {
+		RollbackController controller = new RollbackController(GameMap.createStateFromDescription(SubmissionTestSuite.initMap1), 4, 10);
+		for (int f = 0; f < 10; f++) {
+			controller.advance();
+		}
+		assertFalse(controller.receiveInput(5, 1));
+		assertTrue(controller.receiveInput(6, 1));
+		assertTrue(controller.receiveInput(13, 1));
+		assertFalse(controller.receiveInput(14, 1));
+		assertEquals(4, controller.advance());
+		assertThrows(IllegalArgumentException.class, () -> controller.receiveInput(-1, 0));
+		assertThrows(IllegalArgumentException.class, () -> controller.receiveInput(11, 2));
+		assertThrows(IllegalArgumentException.class, () -> new RollbackController(null, 4, 10));
+		assertThrows(IllegalArgumentException.class, () -> new RollbackController(controller.getState(), 0, 10));
+		assertThrows(IllegalArgumentException.class, () -> new RollbackController(controller.getState(), 4, 0));
+		BreakoutState merging = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		merging.setMergingBalls(true);
+		assertThrows(IllegalArgumentException.class, () -> new RollbackController(merging, 4, 10));
+		BreakoutState reordering = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		reordering.setBallReorderingPeriod(8);
+		assertThrows(IllegalArgumentException.class, () -> new RollbackController(reordering, 4, 10));
+	}
+}
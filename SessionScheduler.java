@@ -0,0 +1,290 @@
+package breakout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * Each instance of this class schedules the ticks of many game sessions that each run at a fixed frame period.
+ *
+ * Every session has a tick deadline. When run, the scheduler serves the sessions whose deadline has passed, the
+ * latest one first, up to a budget of ticks. A session that falls behind does not replay each missed frame: the game
+ * time it is owed is coalesced into as few ticks as possible, each of at most MAX_ELAPSED_TIME ms, and its next
+ * deadline is set one period after the time it was served. A session catches up at most a given number of ticks at a
+ * time; game time owed beyond that is shed, so that the session's game runs slower instead of ever further behind.
+ * When the host is overloaded, sessions are therefore served less often with larger steps, and the sessions left over
+ * when the budget runs out are the first ones served next time, so that lateness spreads evenly over the sessions and
+ * stays bounded by the time needed to serve every session once.
+ *
+ * Times are in ms on a clock chosen by the caller. The lateness of each served session, the time between its
+ * deadline and the time it was served, is counted in a histogram with power-of-two buckets.
+ *
+ * @invar | getFramePeriod() > 0 && getFramePeriod() <= BreakoutState.MAX_ELAPSED_TIME
+ * @invar | getMaxCatchUpTicks() > 0
+ * @invar | getSessionCount() >= 0
+ * @invar | getShedTime() >= 0
+ */
+public class SessionScheduler {
+
+	// The number of lateness buckets: bucket 0 counts lateness 0, bucket k counts lateness in [2^(k-1), 2^k) ms
+	public static final int LATENESS_BUCKETS = 32;
+
+	/**
+	 * @invar | queue != null && sessions != null
+	 * @invar | latenessCounts != null && latenessCounts.length == LATENESS_BUCKETS
+	 */
+	private final int framePeriod;
+	private final int maxCatchUpTicks;
+	private long shedTime;
+	/** @representationObject */
+	private final PriorityQueue<ScheduledSession> queue = new PriorityQueue<>((a, b) -> Long.compare(a.deadline, b.deadline));
+	/** @representationObject */
+	private final ArrayList<ScheduledSession> sessions = new ArrayList<>();
+	/** @representationObject */
+	private final long[] latenessCounts = new long[LATENESS_BUCKETS];
+	/** @representationObject */
+	private final ArrayList<ScheduledSession> served = new ArrayList<>();
+
+	/**
+	 * Returns a scheduler without sessions that ticks each session every given number of ms, catching up at most the
+	 * given number of ticks each time a session is served.
+	 * @throws IllegalArgumentException if the frame period is not positive or larger than MAX_ELAPSED_TIME.
+	 * 	| framePeriod <= 0 || framePeriod > BreakoutState.MAX_ELAPSED_TIME
+	 * @throws IllegalArgumentException if the maximum number of catch-up ticks is not positive.
+	 * 	| maxCatchUpTicks <= 0
+	 * @post | getFramePeriod() == framePeriod
+	 * @post | getMaxCatchUpTicks() == maxCatchUpTicks
+	 * @post | getSessionCount() == 0
+	 * @post | getShedTime() == 0
+	 */
+	public SessionScheduler(int framePeriod, int maxCatchUpTicks) {
+		if (framePeriod <= 0 || framePeriod > BreakoutState.MAX_ELAPSED_TIME) {
+			throw new IllegalArgumentException("You have supplied an invalid frame period!");
+		}
+		if (maxCatchUpTicks <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid number of ticks!");
+		}
+		this.framePeriod = framePeriod;
+		this.maxCatchUpTicks = maxCatchUpTicks;
+	}
+
+	/**
+	 * Returns the time in ms between two ticks of a session that is on time.
+	 */
+	public int getFramePeriod() {
+		return framePeriod;
+	}
+
+	/**
+	 * Returns the maximum number of ticks a session catches up each time it is served.
+	 */
+	public int getMaxCatchUpTicks() {
+		return maxCatchUpTicks;
+	}
+
+	/**
+	 * Returns the total game time in ms, over all sessions, that was shed because sessions fell too far behind.
+	 */
+	public long getShedTime() {
+		return shedTime;
+	}
+
+	/**
+	 * Returns the number of sessions of this scheduler.
+	 */
+	public int getSessionCount() {
+		return queue.size();
+	}
+
+	/**
+	 * Adds the given game as a session whose paddle is steered by the given controller, with its first deadline one
+	 * frame period after the given time, and returns the number of the session.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if no game state or controller is supplied.
+	 * 	| state == null || controller == null
+	 * @post | getSessionCount() == old(getSessionCount()) + 1
+	 */
+	public int addSession(BreakoutState state, ToIntFunction<BreakoutState> controller, long now) {
+		if (state == null) {
+			throw new IllegalArgumentException("You have not supplied a valid game state!");
+		}
+		if (controller == null) {
+			throw new IllegalArgumentException("You have not supplied a valid controller!");
+		}
+		ScheduledSession session = new ScheduledSession(sessions.size(), state, controller, now);
+		session.deadline = now + framePeriod;
+		sessions.add(session);
+		queue.add(session);
+		return session.id;
+	}
+
+	private ScheduledSession session(int id) {
+		if (id < 0 || id >= sessions.size() || sessions.get(id) == null) {
+			throw new IllegalArgumentException("You have not supplied a valid session!");
+		}
+		return sessions.get(id);
+	}
+
+	/**
+	 * Removes the given session from this scheduler.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the session does not exist.
+	 * 	| true
+	 * @post | getSessionCount() == old(getSessionCount()) - 1
+	 */
+	public void removeSession(int id) {
+		queue.remove(session(id));
+		sessions.set(id, null);
+	}
+
+	/**
+	 * Returns the game of the given session.
+	 * @throws IllegalArgumentException if the session does not exist.
+	 * 	| true
+	 */
+	public BreakoutState getState(int id) {
+		return session(id).state;
+	}
+
+	/**
+	 * Returns the amount of game time in ms the given session was ticked so far.
+	 * @throws IllegalArgumentException if the session does not exist.
+	 * 	| true
+	 */
+	public long getGameTime(int id) {
+		return session(id).gameTime;
+	}
+
+	/**
+	 * Returns the time of the next deadline of the given session.
+	 * @throws IllegalArgumentException if the session does not exist.
+	 * 	| true
+	 */
+	public long getDeadline(int id) {
+		return session(id).deadline;
+	}
+
+	/**
+	 * Serves the sessions whose deadline is at or before the given time, the latest one first, until the given number
+	 * of ticks is spent, and returns the number of ticks performed. A served session catches up on the game time since
+	 * it was served last, in at most getMaxCatchUpTicks() ticks of at most MAX_ELAPSED_TIME ms, and sheds the rest.
+	 * A session is served even if it needs more ticks than are left, so that each call makes progress. Games that are
+	 * won or lost are no longer ticked.
+	 * @mutates | this
+	 * @throws IllegalArgumentException if the tick budget is not positive.
+	 * 	| maxTicks <= 0
+	 */
+	public int runDue(long now, int maxTicks) {
+		if (maxTicks <= 0) {
+			throw new IllegalArgumentException("You have supplied an invalid number of ticks!");
+		}
+		int ticks = 0;
+		while (ticks < maxTicks && !queue.isEmpty() && queue.peek().deadline <= now) {
+			ScheduledSession session = queue.poll();
+			countLateness(now - session.deadline);
+			long owed = now - session.lastServed;
+			long shed = Math.max(0, owed - (long) maxCatchUpTicks * BreakoutState.MAX_ELAPSED_TIME);
+			shedTime += shed;
+			ticks += session.catchUp(now, owed - shed);
+			session.deadline = now + framePeriod;
+			served.add(session);
+		}
+		// Reinserted only now, so that a session is served at most once per call
+		queue.addAll(served);
+		served.clear();
+		return ticks;
+	}
+
+	private void countLateness(long lateness) {
+		int bucket = lateness <= 0 ? 0 : Math.min(LATENESS_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(lateness));
+		latenessCounts[bucket]++;
+	}
+
+	/**
+	 * Returns the number of served sessions per lateness bucket: bucket 0 counts sessions served at their deadline,
+	 * bucket k counts sessions served between 2^(k-1) and 2^k ms late, and the last bucket also counts all later ones.
+	 * @creates | result
+	 * @post | result.length == LATENESS_BUCKETS
+	 */
+	public long[] getLatenessHistogram() {
+		return latenessCounts.clone();
+	}
+
+	/**
+	 * Returns an upper bound in ms of the given fraction of the lateness of the served sessions, based on the histogram,
+	 * or 0 if no session was served yet.
+	 * @pre | fraction >= 0 && fraction <= 1
+	 */
+	public long getLatenessPercentile(double fraction) {
+		long total = 0;
+		for (long count : latenessCounts) {
+			total += count;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long seen = 0;
+		for (int bucket = 0; bucket < LATENESS_BUCKETS; bucket++) {
+			seen += latenessCounts[bucket];
+			if (seen >= fraction * total) {
+				return bucket == 0 ? 0 : (1L << bucket) - 1;
+			}
+		}
+		return (1L << (LATENESS_BUCKETS - 1)) - 1;
+	}
+
+	/**
+	 * Clears the lateness histogram.
+	 * @mutates | this
+	 */
+	public void resetLatenessHistogram() {
+		Arrays.fill(latenessCounts, 0);
+	}
+}
+
+/**
+ * Each instance of this class represents a game session scheduled by a SessionScheduler.
+ */
+final class ScheduledSession {
+	/**
+	 * @invar | state != null && controller != null
+	 */
+	final int id;
+	final BreakoutState state;
+	final ToIntFunction<BreakoutState> controller;
+	long deadline;
+	long lastServed;
+	long gameTime;
+
+	ScheduledSession(int id, BreakoutState state, ToIntFunction<BreakoutState> controller, long now) {
+		this.id = id;
+		this.state = state;
+		this.controller = controller;
+		this.lastServed = now;
+	}
+
+	/**
+	 * Ticks the game over the given amount of game time, in ticks of at most MAX_ELAPSED_TIME ms, marks it as served
+	 * at the given time and returns the number of ticks.
+	 */
+	int catchUp(long now, long owed) {
+		lastServed = now;
+		int ticks = 0;
+		while (owed > 0 && !state.isDead() && !state.isWon()) {
+			int elapsedTime = (int) Math.min(owed, BreakoutState.MAX_ELAPSED_TIME);
+			int paddleDir = Integer.signum(controller.applyAsInt(state));
+			if (paddleDir > 0) {
+				state.movePaddleRight(elapsedTime);
+			}
+			else if (paddleDir < 0) {
+				state.movePaddleLeft(elapsedTime);
+			}
+			state.tick(paddleDir, elapsedTime);
+			gameTime += elapsedTime;
+			owed -= elapsedTime;
+			ticks++;
+		}
+		return ticks;
+	}
+}
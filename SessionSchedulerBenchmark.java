@@ -0,0 +1,72 @@
+package breakout;
+
+/**
+ * Runs growing numbers of autopiloted sessions at 60 frames per second on a SessionScheduler in real time and reports,
+ * for each number of sessions, the ticks per second, the share of the wall-clock time the games advanced, and the
+ * median and 99th percentile lateness. Beyond the capacity of the host, the games slow down and the lateness grows with
+ * the overload instead of without bound, because late sessions coalesce their missed frames and shed the rest.
+ *
+ * Usage: SessionSchedulerBenchmark [seconds per run] [session counts...]
+ */
+public class SessionSchedulerBenchmark {
+
+	private static final String LEVEL = """
+##########
+#SS!##R!S#
+##########
+#S######S#
+##########
+    o
+
+    =""";
+	private static final int FRAME_PERIOD = 16;
+	private static final int MAX_CATCH_UP_TICKS = 2;
+	private static final int TICKS_PER_CALL = 1024;
+
+	private SessionSchedulerBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static long millis() {
+		return System.nanoTime() / 1_000_000;
+	}
+
+	private static void run(int sessions, int seconds) {
+		SessionScheduler scheduler = new SessionScheduler(FRAME_PERIOD, MAX_CATCH_UP_TICKS);
+		Autopilot autopilot = new Autopilot(100);
+		BreakoutState[] states = new BreakoutState[sessions];
+		for (int s = 0; s < sessions; s++) {
+			states[s] = GameMap.createStateFromDescription(LEVEL);
+		}
+		long start = millis();
+		for (int s = 0; s < sessions; s++) {
+			scheduler.addSession(states[s], autopilot::paddleDir, start);
+		}
+		long ticks = 0;
+		long end = start + 1000L * seconds;
+		for (long now = start; now < end; now = millis()) {
+			ticks += scheduler.runDue(now, TICKS_PER_CALL);
+		}
+		long gameTime = 0;
+		for (int s = 0; s < sessions; s++) {
+			gameTime += scheduler.getGameTime(s);
+		}
+		System.out.printf("%7d sessions: %10.0f ticks/s, games advanced %5.1f%% of wall time, lateness p50 <= %d ms, p99 <= %d ms%n",
+				sessions, ticks / (double) seconds, 100.0 * gameTime / sessions / (1000.0 * seconds),
+				scheduler.getLatenessPercentile(0.5), scheduler.getLatenessPercentile(0.99));
+	}
+
+	public static void main(String[] args) {
+		int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		int[] counts = {1_000, 10_000, 50_000, 100_000, 200_000};
+		if (args.length > 1) {
+			counts = new int[args.length - 1];
+			for (int i = 1; i < args.length; i++) {
+				counts[i - 1] = Integer.parseInt(args[i]);
+			}
+		}
+		for (int sessions : counts) {
+			run(sessions, seconds);
+		}
+	}
+}
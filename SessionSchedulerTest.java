@@ -0,0 +1,91 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SessionSchedulerTest {
+
+	SessionScheduler scheduler;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		scheduler = new SessionScheduler(16, 3);
+	}
+
+	int addSession(long now) {
+		return scheduler.addSession(GameMap.createStateFromDescription(SubmissionTestSuite.initMap1), state -> 0, now);
+	}
+
+	@Test
+	void testCoalescesMissedFrames() {
+		int session = addSession(0);
+		assertEquals(16, scheduler.getDeadline(session));
+		assertEquals(0, scheduler.runDue(15, 10));
+		// 120 ms are owed, which are caught up in ticks of 50, 50 and 20 ms
+		assertEquals(3, scheduler.runDue(120, 10));
+		assertEquals(120, scheduler.getGameTime(session));
+		assertEquals(136, scheduler.getDeadline(session));
+		assertEquals(1, scheduler.runDue(136, 10));
+		assertEquals(136, scheduler.getGameTime(session));
+		assertEquals(0, scheduler.getShedTime());
+
+		BreakoutState expected = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		expected.tick(0, 50);
+		expected.tick(0, 50);
+		expected.tick(0, 20);
+		expected.tick(0, 16);
+		TestFixtures.assertSameState(expected, scheduler.getState(session));
+
+		long[] histogram = scheduler.getLatenessHistogram();
+		assertEquals(1, histogram[0]);
+		assertEquals(1, histogram[7]);
+		assertEquals(127, scheduler.getLatenessPercentile(1));
+		assertEquals(0, scheduler.getLatenessPercentile(0.5));
+	}
+
+	@Test
+	void testShedsTimeBeyondCatchUpLimit() {
+		int session = addSession(0);
+		// 400 ms are owed, of which 3 ticks of 50 ms are caught up and the rest is shed
+		assertEquals(3, scheduler.runDue(400, 100));
+		assertEquals(150, scheduler.getGameTime(session));
+		assertEquals(250, scheduler.getShedTime());
+		assertEquals(416, scheduler.getDeadline(session));
+	}
+
+	@Test
+	void testServesLatestSessionsFirstUnderOverload() {
+		int first = addSession(0);
+		int second = addSession(5);
+		int third = addSession(10);
+		// Only one tick per call: the sessions take turns in order of their deadline
+		assertEquals(1, scheduler.runDue(30, 1));
+		assertEquals(30, scheduler.getGameTime(first));
+		assertEquals(0, scheduler.getGameTime(second));
+		assertEquals(1, scheduler.runDue(31, 1));
+		assertEquals(26, scheduler.getGameTime(second));
+		assertEquals(1, scheduler.runDue(32, 1));
+		assertEquals(22, scheduler.getGameTime(third));
+		assertEquals(46, scheduler.getDeadline(first));
+		assertEquals(3, scheduler.getSessionCount());
+
+		scheduler.removeSession(second);
+		assertEquals(2, scheduler.getSessionCount());
+		assertThrows(IllegalArgumentException.class, () -> scheduler.getState(second));
+		assertEquals(4, scheduler.runDue(100, 100));
+		assertEquals(100, scheduler.getGameTime(first));
+		assertEquals(90, scheduler.getGameTime(third));
+	}
+
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new SessionScheduler(0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new SessionScheduler(BreakoutState.MAX_ELAPSED_TIME + 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new SessionScheduler(16, 0));
+		assertThrows(IllegalArgumentException.class, () -> scheduler.addSession(null, state -> 0, 0));
+		assertThrows(IllegalArgumentException.class, () -> scheduler.runDue(0, 0));
+		assertEquals(0, scheduler.getLatenessPercentile(0.99));
+	}
+}
@@ -0,0 +1,109 @@
+package breakout;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CPU time a GameServer spends per spectator, by streaming a game to the given number of loopback
+ * connections, at the given frame rate, once with every frame a keyframe and once with a keyframe every second and
+ * DELTA messages in between. The spectators are a LoadClient in a child process, since a process cannot hold both
+ * ends of ten thousand connections within the usual limit on open files. Only the CPU time of the thread running the
+ * server is counted, while the spectators are connected; on a machine with few cores the child process competes with
+ * it for the CPU, which shows in the fraction of frames that it skips.
+ *
+ * Usage: SpectatorBenchmark [spectators] [seconds] [framesPerSecond]
+ */
+public class SpectatorBenchmark {
+
+	private static final String LEVEL = """
+#
+
+
+
+
+       o
+
+       =""";
+
+	private SpectatorBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static void run(int spectators, int seconds, int framesPerSecond, int keyframeInterval) throws Exception {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		try (GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1 << 12, 8, keyframeInterval)) {
+			String java = ProcessHandle.current().info().command().orElse("java");
+			Process client = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), LoadClient.class.getName(),
+					InetAddress.getLoopbackAddress().getHostAddress(), Integer.toString(server.getPort()),
+					Integer.toString(spectators), Integer.toString(seconds + 60), "0")
+					.redirectOutput(ProcessBuilder.Redirect.DISCARD).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+			try {
+				BreakoutState state = GameMap.createStateFromDescription(LEVEL);
+				Autopilot autopilot = new Autopilot(100);
+				long period = 1_000_000_000L / framesPerSecond;
+				long frame = 0;
+				long nextFrame = System.nanoTime();
+				long measureStart = 0;
+				long measureEnd = Long.MAX_VALUE;
+				long startCpu = 0;
+				long startFrame = 0;
+				long startDropped = 0;
+				while (System.nanoTime() - measureEnd < 0) {
+					long now = System.nanoTime();
+					if (now - nextFrame >= 0) {
+						if (state.isDead() || state.isWon()) {
+							state = GameMap.createStateFromDescription(LEVEL);
+						}
+						int paddleDir = autopilot.paddleDir(state);
+						if (paddleDir == 1) {
+							state.movePaddleRight(10);
+						}
+						else if (paddleDir == -1) {
+							state.movePaddleLeft(10);
+						}
+						state.tick(paddleDir, 1000 / framesPerSecond);
+						server.broadcast(state, frame++);
+						nextFrame += period;
+						if (measureStart == 0 && server.getConnectionCount() == spectators) {
+							// All spectators are connected: warm up for a second, then measure
+							measureStart = now + 1_000_000_000L;
+						}
+						if (measureStart != 0 && startCpu == 0 && now - measureStart >= 0) {
+							startCpu = threads.getCurrentThreadCpuTime();
+							startFrame = frame;
+							startDropped = server.getDroppedFrameCount();
+							measureEnd = now + seconds * 1_000_000_000L;
+						}
+					}
+					server.poll(1);
+					if (!client.isAlive()) {
+						throw new IllegalStateException("The load client exited with status " + client.exitValue());
+					}
+				}
+				long cpu = threads.getCurrentThreadCpuTime() - startCpu;
+				long frames = frame - startFrame;
+				long sent = frames * spectators;
+				long dropped = server.getDroppedFrameCount() - startDropped;
+				System.out.printf("%5d spectators, keyframe every %2d frames: server %5.1f%% of a core, %6.3f us per spectator per "
+						+ "frame, %5.1f%% of frames skipped%n", spectators, keyframeInterval, 100.0 * cpu / (seconds * 1e9),
+						cpu / 1000.0 / sent, 100.0 * dropped / sent);
+			}
+			finally {
+				client.destroy();
+				client.waitFor(10, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		int spectators = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int framesPerSecond = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+		run(spectators, seconds, framesPerSecond, 1);
+		run(spectators, seconds, framesPerSecond, framesPerSecond);
+	}
+}
@@ -0,0 +1,64 @@
+package breakout;
+
+/**
+ * This class computes the 64-bit hash keys of the balls, blocks and paddles of a game state. The fingerprint of
+ * a game state is the sum of the keys of its parts, so that it can be updated incrementally when a part changes,
+ * in the style of Zobrist hashing.
+ */
+final class StateHash {
+
+	// Distinct seeds for each kind of part, so that equal coordinates of different parts yield different keys
+	private static final long BALL_SEED = 0x6a09e667f3bcc909L;
+	private static final long BLOCK_SEED = 0xbb67ae8584caa73bL;
+	private static final long PADDLE_SEED = 0x3c6ef372fe94f82bL;
+
+	private StateHash() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Returns a well-mixed 64-bit value for the given value (the SplitMix64 finalizer).
+	 */
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static long combine(long hash, int x, int y) {
+		return mix(hash ^ (((long) x << 32) | (y & 0xffffffffL)));
+	}
+
+	/**
+	 * Returns the key of the given ball. It depends on the center, velocity, diameter and type of the ball, but not
+	 * on the remaining lifetime of a supercharged ball. A ball standing for several identical balls has the sum of
+	 * their keys, so that merging balls does not change the fingerprint.
+	 * @pre | ball != null
+	 */
+	static long of(Ball ball) {
+		long hash = mix(BALL_SEED + (ball instanceof SuperBall ? 1 : 0) + 2L * ball.diameter);
+		hash = combine(hash, ball.center.getX(), ball.center.getY());
+		return ball.multiplicity * combine(hash, ball.velocity.getX(), ball.velocity.getY());
+	}
+
+	/**
+	 * Returns the key of the given block. It depends on the rectangle, type and lifetime of the block.
+	 * @pre | block != null
+	 */
+	static long of(BlockState block) {
+		long hash = mix(BLOCK_SEED + BlockField.encode(block));
+		hash = combine(hash, block.TL.getX(), block.TL.getY());
+		return combine(hash, block.BR.getX(), block.BR.getY());
+	}
+
+	/**
+	 * Returns the key of the given paddle. It depends on the center, size, type and lifetime of the paddle.
+	 * @pre | paddle != null
+	 */
+	static long of(PaddleState paddle) {
+		int lifetime = paddle instanceof ReplicatorPaddleState ? ((ReplicatorPaddleState) paddle).getLifetime() : 0;
+		long hash = mix(PADDLE_SEED + lifetime);
+		hash = combine(hash, paddle.center.getX(), paddle.center.getY());
+		return combine(hash, paddle.size.getX(), paddle.size.getY());
+	}
+}
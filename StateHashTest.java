@@ -0,0 +1,55 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StateHashTest {
+
+	BreakoutState state1;
+	BreakoutState state2;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		state1 = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+		state2 = GameMap.createStateFromDescription(SubmissionTestSuite.initMap1);
+	}
+
+	@Test
+	void testEqualStates() {
+		assertEquals(state1.hash(), state2.hash());
+		assertEquals(state1.recomputeHash(), state1.hash());
+		state1.movePaddleRight(10);
+		assertNotEquals(state2.hash(), state1.hash());
+		state1.movePaddleLeft(10);
+		assertEquals(state2.hash(), state1.hash());
+		state1.tick(0, 5);
+		assertNotEquals(state2.hash(), state1.hash());
+		state2.tick(0, 5);
+		assertEquals(state2.hash(), state1.hash());
+	}
+
+	@Test
+	void testMatchesRecomputationInRandomGames() {
+		Random random = new Random(31);
+		for (int game = 0; game < 60; game++) {
+			BreakoutState state = GameMap.createStateFromDescription(TestFixtures.randomLevel(random));
+			assertEquals(state.recomputeHash(), state.hash());
+			for (int step = 0; step < 10000 && !state.isDead() && !state.isWon(); step++) {
+				int paddleDir = TestFixtures.followingPaddleDir(state, random);
+				int elapsedTime = 1 + random.nextInt(BreakoutState.MAX_ELAPSED_TIME);
+				if (paddleDir == 1) {
+					state.movePaddleRight(elapsedTime);
+				}
+				else if (paddleDir == -1) {
+					state.movePaddleLeft(elapsedTime);
+				}
+				state.tick(paddleDir, elapsedTime);
+				assertEquals(state.recomputeHash(), state.hash());
+			}
+		}
+	}
+}
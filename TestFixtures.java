@@ -0,0 +1,84 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * The random levels, paddle policy and assertions shared by the tests that play many random games.
+ */
+class TestFixtures {
+
+	private TestFixtures() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Returns the description of a random GameMap level: five lines of random blocks and gaps, a line of random balls,
+	 * and a paddle at a random place.
+	 */
+	static String randomLevel(Random random) {
+		String blockChars = "#S!R  ";
+		StringBuilder description = new StringBuilder();
+		for (int line = 0; line < 5; line++) {
+			for (int column = 0; column < 10; column++) {
+				description.append(blockChars.charAt(random.nextInt(blockChars.length())));
+			}
+			description.append('\n');
+		}
+		for (int column = 0; column < 10; column++) {
+			description.append(random.nextInt(4) == 0 ? 'o' : ' ');
+		}
+		description.append("\n\n").append(" ".repeat(random.nextInt(10))).append("=");
+		return description.toString();
+	}
+
+	/**
+	 * Asserts that the given games have the same balls, blocks and paddle, in the same order.
+	 */
+	static void assertSameState(BreakoutState expected, BreakoutState actual) {
+		Ball[] expectedBalls = expected.getBalls();
+		Ball[] actualBalls = actual.getBalls();
+		assertEquals(expectedBalls.length, actualBalls.length);
+		for (int i = 0; i < expectedBalls.length; i++) {
+			assertEquals(expectedBalls[i].getClass(), actualBalls[i].getClass());
+			assertEquals(expectedBalls[i].getCenter(), actualBalls[i].getCenter());
+			assertEquals(expectedBalls[i].getVelocity(), actualBalls[i].getVelocity());
+			assertEquals(expectedBalls[i].getDiameter(), actualBalls[i].getDiameter());
+			if (expectedBalls[i] instanceof SuperBall) {
+				assertEquals(((SuperBall) expectedBalls[i]).getLifetime(), ((SuperBall) actualBalls[i]).getLifetime());
+			}
+		}
+		BlockState[] expectedBlocks = expected.getBlocks();
+		BlockState[] actualBlocks = actual.getBlocks();
+		assertEquals(expectedBlocks.length, actualBlocks.length);
+		for (int j = 0; j < expectedBlocks.length; j++) {
+			assertEquals(expectedBlocks[j].getClass(), actualBlocks[j].getClass());
+			assertEquals(expectedBlocks[j].rectangleOf(), actualBlocks[j].rectangleOf());
+			assertEquals(expectedBlocks[j].getPaletteIndex(), actualBlocks[j].getPaletteIndex());
+		}
+		assertEquals(expected.getPaddle().getClass(), actual.getPaddle().getClass());
+		assertEquals(expected.getPaddle().rectangleOf(), actual.getPaddle().rectangleOf());
+		assertEquals(expected.getPaddle().getPaletteIndex(), actual.getPaddle().getPaletteIndex());
+		assertEquals(expected.isWon(), actual.isWon());
+		assertEquals(expected.isDead(), actual.isDead());
+	}
+
+	/**
+	 * Returns the direction towards the lowest ball of the given game, or, one time in five, a random direction.
+	 */
+	static int followingPaddleDir(BreakoutState state, Random random) {
+		if (random.nextInt(5) == 0) {
+			return random.nextInt(3) - 1;
+		}
+		int lowest = state.getBalls()[0].getCenter().getX();
+		int lowestY = Integer.MIN_VALUE;
+		for (Ball ball : state.getBalls()) {
+			if (ball.getCenter().getY() > lowestY) {
+				lowestY = ball.getCenter().getY();
+				lowest = ball.getCenter().getX();
+			}
+		}
+		return Integer.signum(lowest - state.getPaddle().getCenter().getX());
+	}
+}
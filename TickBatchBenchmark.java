@@ -0,0 +1,84 @@
+package breakout;
+
+import java.util.Random;
+
+/**
+ * Compares the throughput of BreakoutState.tickBatch with that of the same steps performed through single calls of
+ * movePaddleRight, movePaddleLeft and tick, replaying recorded random inputs on fresh games.
+ *
+ * Usage: TickBatchBenchmark [games] [steps per game] [rounds]
+ */
+public class TickBatchBenchmark {
+
+	private static final String LEVEL = """
+##########
+#SS!##R!S#
+##########
+#S######S#
+##########
+    o
+
+    =""";
+
+	private TickBatchBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	private static long single(BreakoutState[] states, int[] paddleDirs, int[] elapsedTimes) {
+		long steps = 0;
+		for (BreakoutState state : states) {
+			for (int k = 0; k < paddleDirs.length && !state.isWon() && !state.isDead(); k++, steps++) {
+				if (paddleDirs[k] == 1) {
+					state.movePaddleRight(elapsedTimes[k]);
+				}
+				else if (paddleDirs[k] == -1) {
+					state.movePaddleLeft(elapsedTimes[k]);
+				}
+				state.tick(paddleDirs[k], elapsedTimes[k]);
+			}
+		}
+		return steps;
+	}
+
+	private static long batched(BreakoutState[] states, int[] paddleDirs, int[] elapsedTimes) {
+		long steps = 0;
+		for (BreakoutState state : states) {
+			steps += state.tickBatch(paddleDirs, elapsedTimes, 0, paddleDirs.length);
+		}
+		return steps;
+	}
+
+	private static BreakoutState[] freshGames(int games) {
+		BreakoutState[] states = new BreakoutState[games];
+		for (int g = 0; g < games; g++) {
+			states[g] = GameMap.createStateFromDescription(LEVEL);
+		}
+		return states;
+	}
+
+	public static void main(String[] args) {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+		int steps = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+		Random random = new Random(36);
+		int[] paddleDirs = new int[steps];
+		int[] elapsedTimes = new int[steps];
+		for (int k = 0; k < steps; k++) {
+			paddleDirs[k] = random.nextInt(3) - 1;
+			elapsedTimes[k] = 10;
+		}
+		for (int round = 0; round < rounds; round++) {
+			BreakoutState[] states = freshGames(games);
+			long start = System.nanoTime();
+			long singleSteps = single(states, paddleDirs, elapsedTimes);
+			long singleNanos = System.nanoTime() - start;
+			states = freshGames(games);
+			start = System.nanoTime();
+			long batchedSteps = batched(states, paddleDirs, elapsedTimes);
+			long batchedNanos = System.nanoTime() - start;
+			System.out.printf("round %d: single calls %6.1f ns/step, tickBatch %6.1f ns/step (%d steps each)%n", round,
+					(double) singleNanos / singleSteps, (double) batchedNanos / batchedSteps, batchedSteps);
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package breakout;
+
+/**
+ * Each instance of this class represents a hierarchical timing wheel, which runs actions when the game time
+ * reaches their deadline. Scheduling, cancelling and firing a timer take constant amortized time, independent
+ * of the number of pending timers.
+ *
+ * Game time is expressed in ms and only advances through advance. The wheel consists of LEVELS levels of SLOTS
+ * slots each; the slots of level k each cover SLOTS^k ms. A timer is kept in the lowest level that can tell its
+ * deadline apart from the current time, and moves down a level each time its slot comes around.
+ *
+ * @invar | getTime() >= 0
+ * @invar | getPendingCount() >= 0
+ */
+public class TimingWheel {
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+
+	/**
+	 * @invar | slots != null && slots.length == LEVELS * SLOTS
+	 * @invar | time >= 0
+	 */
+	/** @representationObject */
+	private final WheelTimer[] slots = new WheelTimer[LEVELS * SLOTS];
+	private long time;
+	private int pending;
+
+	/**
+	 * Returns a new timing wheel without pending timers, at time zero.
+	 * @post | getTime() == 0
+	 * @post | getPendingCount() == 0
+	 */
+	public TimingWheel() {
+	}
+
+	/**
+	 * Returns the current game time of this timing wheel in ms.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the number of timers that are scheduled and did not fire yet.
+	 */
+	public int getPendingCount() {
+		return pending;
+	}
+
+	/**
+	 * Returns a new timer that runs the given action when the game time reaches the given deadline.
+	 * If the deadline is not after the current time, the action is run immediately.
+	 * @mutates | this
+	 * @pre | action != null
+	 * @post | result != null
+	 * @post | result.getDeadline() == deadline
+	 */
+	public WheelTimer schedule(long deadline, Runnable action) {
+		WheelTimer timer = new WheelTimer(this, action);
+		timer.deadline = deadline;
+		if (deadline <= time) {
+			action.run();
+		}
+		else {
+			insert(timer);
+		}
+		return timer;
+	}
+
+	/**
+	 * Puts the given timer in the slot for its deadline.
+	 * @pre | timer.deadline >= time
+	 */
+	private void insert(WheelTimer timer) {
+		int level = 0;
+		while (level < LEVELS - 1 && (timer.deadline >>> (SLOT_BITS * (level + 1))) != (time >>> (SLOT_BITS * (level + 1)))) {
+			level++;
+		}
+		int slot = level * SLOTS + (int) ((timer.deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+		timer.slot = slot;
+		timer.previous = null;
+		timer.next = slots[slot];
+		if (timer.next != null) {
+			timer.next.previous = timer;
+		}
+		slots[slot] = timer;
+		pending++;
+	}
+
+	/**
+	 * Takes the given timer out of its slot.
+	 * @pre | timer.slot >= 0
+	 */
+	void remove(WheelTimer timer) {
+		if (timer.previous != null) {
+			timer.previous.next = timer.next;
+		}
+		else {
+			slots[timer.slot] = timer.next;
+		}
+		if (timer.next != null) {
+			timer.next.previous = timer.previous;
+		}
+		timer.previous = null;
+		timer.next = null;
+		timer.slot = -1;
+		pending--;
+	}
+
+	/**
+	 * Moves the given timer to the given deadline, running its action immediately if the deadline is not after
+	 * the current time.
+	 * @pre | timer != null
+	 */
+	void reschedule(WheelTimer timer, long deadline) {
+		if (timer.slot >= 0) {
+			remove(timer);
+		}
+		timer.deadline = deadline;
+		if (deadline <= time) {
+			timer.action.run();
+		}
+		else {
+			insert(timer);
+		}
+	}
+
+	/**
+	 * Takes all timers out of the given slot and returns them as a list linked through their next fields.
+	 */
+	private WheelTimer detach(int slot) {
+		WheelTimer first = slots[slot];
+		slots[slot] = null;
+		for (WheelTimer timer = first; timer != null; timer = timer.next) {
+			timer.slot = -1;
+			pending--;
+		}
+		return first;
+	}
+
+	/**
+	 * Advances the game time by the given amount of ms, running the actions of all timers whose deadline is reached,
+	 * in order of their deadline.
+	 * @mutates | this
+	 * @pre | elapsedTime >= 0
+	 * @post | getTime() == old(getTime()) + elapsedTime
+	 */
+	public void advance(long elapsedTime) {
+		for (long end = time + elapsedTime; time < end; ) {
+			time++;
+
+			// Move the timers of the higher level slots that come around now one or more levels down
+			for (int level = LEVELS - 1; level > 0; level--) {
+				if ((time & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+					WheelTimer timer = detach(level * SLOTS + (int) ((time >>> (SLOT_BITS * level)) & SLOT_MASK));
+					while (timer != null) {
+						WheelTimer next = timer.next;
+						insert(timer);
+						timer = next;
+					}
+				}
+			}
+
+			WheelTimer timer = detach((int) (time & SLOT_MASK));
+			while (timer != null) {
+				WheelTimer next = timer.next;
+				timer.next = null;
+				timer.previous = null;
+				if (timer.deadline <= time) {
+					timer.action.run();
+				}
+				else {
+					insert(timer);
+				}
+				timer = next;
+			}
+		}
+	}
+}
+
+/**
+ * Each instance of this class represents a timer scheduled on a timing wheel.
+ *
+ * @invar | getDeadline() >= 0 || !isScheduled()
+ */
+final class WheelTimer {
+	/**
+	 * @invar | wheel != null && action != null
+	 * @invar | slot >= -1
+	 */
+	private final TimingWheel wheel;
+	final Runnable action;
+	long deadline;
+	int slot = -1;
+	WheelTimer previous;
+	WheelTimer next;
+
+	WheelTimer(TimingWheel wheel, Runnable action) {
+		this.wheel = wheel;
+		this.action = action;
+	}
+
+	/**
+	 * Returns the timing wheel of this timer.
+	 */
+	public TimingWheel getWheel() {
+		return wheel;
+	}
+
+	/**
+	 * Returns the game time in ms at which this timer fires or fired.
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Returns whether this timer is waiting to fire.
+	 */
+	public boolean isScheduled() {
+		return slot >= 0;
+	}
+
+	/**
+	 * Cancels this timer, so that it does not fire.
+	 * @mutates | this, getWheel()
+	 * @post | !isScheduled()
+	 */
+	public void cancel() {
+		if (slot >= 0) {
+			wheel.remove(this);
+		}
+	}
+
+	/**
+	 * Moves the deadline of this timer to the given game time. If that time is not after the current time of the
+	 * wheel, the action of this timer is run immediately.
+	 * @mutates | this, getWheel()
+	 * @post | getDeadline() == deadline
+	 */
+	public void reschedule(long deadline) {
+		wheel.reschedule(this, deadline);
+	}
+}
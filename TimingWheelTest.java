@@ -0,0 +1,68 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+	TimingWheel wheel;
+	ArrayList<Long> fired;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		wheel = new TimingWheel();
+		fired = new ArrayList<Long>();
+	}
+
+	WheelTimer record(long deadline) {
+		return wheel.schedule(deadline, () -> fired.add(wheel.getTime()));
+	}
+
+	@Test
+	void testFiresAtDeadline() {
+		long[] deadlines = {1, 63, 64, 65, 4095, 4096, 10000, 262144, 300000, 20000000};
+		for (long deadline : deadlines) {
+			record(deadline);
+		}
+		assertEquals(deadlines.length, wheel.getPendingCount());
+		for (int step = 0; step < 20000000 / 50; step++) {
+			wheel.advance(50);
+		}
+		assertEquals(20000000, wheel.getTime());
+		assertEquals(0, wheel.getPendingCount());
+		assertEquals(deadlines.length, fired.size());
+		for (int i = 0; i < deadlines.length; i++) {
+			assertEquals(deadlines[i], fired.get(i).longValue());
+		}
+	}
+
+	@Test
+	void testPastDeadline() {
+		wheel.advance(100);
+		WheelTimer timer = record(100);
+		assertFalse(timer.isScheduled());
+		assertEquals(1, fired.size());
+		assertEquals(0, wheel.getPendingCount());
+	}
+
+	@Test
+	void testCancelAndReschedule() {
+		WheelTimer cancelled = record(500);
+		WheelTimer moved = record(600);
+		cancelled.cancel();
+		assertFalse(cancelled.isScheduled());
+		moved.reschedule(10050);
+		assertTrue(moved.isScheduled());
+		assertEquals(10050, moved.getDeadline());
+		wheel.advance(10049);
+		assertEquals(0, fired.size());
+		wheel.advance(1);
+		assertEquals(1, fired.size());
+		assertEquals(10050, fired.get(0).longValue());
+		moved.reschedule(wheel.getTime());
+		assertEquals(2, fired.size());
+	}
+}
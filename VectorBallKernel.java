@@ -0,0 +1,86 @@
+package breakout;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Each instance of this class represents a ball kernel that processes as many balls at once as fit in
+ * the preferred vector shape of the platform, using the incubating Vector API.
+ *
+ * This class is only loaded by BallKernel.create when the jdk.incubator.vector module is present.
+ */
+final class VectorBallKernel extends BallKernel {
+
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	public boolean isVectorized() {
+		return true;
+	}
+
+	public void roll(int[] x, int[] y, int[] vx, int[] vy, int n, int elapsedTime) {
+		int i = 0;
+		for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+			IntVector.fromArray(SPECIES, vx, i).mul(elapsedTime).add(IntVector.fromArray(SPECIES, x, i)).intoArray(x, i);
+			IntVector.fromArray(SPECIES, vy, i).mul(elapsedTime).add(IntVector.fromArray(SPECIES, y, i)).intoArray(y, i);
+		}
+		for (; i < n; i++) {
+			x[i] += vx[i]*elapsedTime;
+			y[i] += vy[i]*elapsedTime;
+		}
+	}
+
+	public void bounceWalls(int[] x, int[] y, int[] vx, int[] vy, int[] diameter, int n,
+			int fieldWidth, int fieldHeight, boolean[] lost) {
+		int i = 0;
+		for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+			IntVector radius = IntVector.fromArray(SPECIES, diameter, i).lanewise(VectorOperators.ASHR, 1);
+			IntVector cx = IntVector.fromArray(SPECIES, x, i);
+			IntVector cy = IntVector.fromArray(SPECIES, y, i);
+			IntVector velX = IntVector.fromArray(SPECIES, vx, i);
+			IntVector velY = IntVector.fromArray(SPECIES, vy, i);
+
+			VectorMask<Integer> sides = cx.sub(radius).compare(VectorOperators.LE, 0)
+					.or(cx.add(radius).compare(VectorOperators.GE, fieldWidth));
+			VectorMask<Integer> atTop = cy.sub(radius).compare(VectorOperators.LE, 0);
+			VectorMask<Integer> atBottom = cy.add(radius).compare(VectorOperators.GE, fieldHeight).andNot(atTop);
+
+			velX.blend(velX.neg(), sides).intoArray(vx, i);
+			velY.blend(velY.neg(), atTop).intoArray(vy, i);
+			atBottom.intoArray(lost, i);
+		}
+		for (; i < n; i++) {
+			int radius = diameter[i]/2;
+			if (x[i] - radius <= 0 || x[i] + radius >= fieldWidth) {
+				vx[i] = -vx[i];
+			}
+			boolean atTop = y[i] - radius <= 0;
+			if (atTop) {
+				vy[i] = -vy[i];
+			}
+			lost[i] = !atTop && y[i] + radius >= fieldHeight;
+		}
+	}
+
+	public void bounds(int[] x, int[] y, int[] diameter, int n,
+			int[] left, int[] top, int[] right, int[] bottom) {
+		int i = 0;
+		for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+			IntVector radius = IntVector.fromArray(SPECIES, diameter, i).lanewise(VectorOperators.ASHR, 1);
+			IntVector cx = IntVector.fromArray(SPECIES, x, i);
+			IntVector cy = IntVector.fromArray(SPECIES, y, i);
+			cx.sub(radius).intoArray(left, i);
+			cy.sub(radius).intoArray(top, i);
+			cx.add(radius).intoArray(right, i);
+			cy.add(radius).intoArray(bottom, i);
+		}
+		for (; i < n; i++) {
+			int radius = diameter[i]/2;
+			left[i] = x[i] - radius;
+			top[i] = y[i] - radius;
+			right[i] = x[i] + radius;
+			bottom[i] = y[i] + radius;
+		}
+	}
+}